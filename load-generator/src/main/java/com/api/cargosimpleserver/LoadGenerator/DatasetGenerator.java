@@ -0,0 +1,361 @@
+package com.api.cargosimpleserver.LoadGenerator;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Генератор синтетических данных для проверки на объёмах, близких к рабочим.
+ * <p>
+ * Основные функции:
+ * - Вставка товаров, складов и складских остатков пакетами JDBC в обход JPA
+ * - Распределение остатков по Ципфу: популярные товары лежат на многих складах,
+ *   большинство товаров — на одном-двух
+ * - Параллельная загрузка непересекающимися диапазонами в отдельных соединениях
+ * <p>
+ * Схема должна быть создана миграциями приложения. Идентификаторы товаров и складов
+ * задаются явно и продолжают существующие; на время загрузки в сессиях отключаются
+ * проверки внешних и уникальных ключей.
+ */
+public final class DatasetGenerator {
+
+    private static final String[] CATEGORIES = {"Кровати", "Диваны", "Шкафы", "Столы", "Стулья", "Кресла", "Комоды", "Полки"};
+
+    private static final String[] MANUFACTURERS = {"Мебельный завод", "Фабрика Уют", "Северный лес", "Дом и сад", "Эко-мебель"};
+
+    private static final int AISLES = 50;
+
+    private static final int SLOTS_PER_AISLE = 200;
+
+    private static final int MAX_QUANTITY = 20;
+
+    private static final int WAREHOUSE_CAPACITY = 100_000;
+
+    private static final long MAX_PRODUCT_ID = 9_999_999;
+
+    private final WorkloadConfig config;
+
+    private final AtomicLong inserted = new AtomicLong();
+
+    public DatasetGenerator(WorkloadConfig config) {
+        this.config = config;
+    }
+
+    public void run() throws Exception {
+        int products = config.datasetProducts();
+        int warehouses = config.datasetWarehouses();
+        long stocks = config.datasetStocks();
+        System.out.printf("Генерация: товаров %,d, складов %,d, остатков ~%,d (s=%.2f), потоков %d%n",
+                products, warehouses, stocks, config.datasetZipfExponent(), config.datasetThreads());
+
+        long productBase;
+        long warehouseBase;
+        try (Connection connection = connect()) {
+            maxId(connection, "warehouse_stocks");
+            if (config.datasetTruncate()) {
+                truncate(connection);
+            }
+            productBase = maxId(connection, "products");
+            warehouseBase = maxId(connection, "warehouses");
+        }
+        if (productBase + products > MAX_PRODUCT_ID) {
+            throw new IllegalStateException("Артикулы G0000001..G9999999 не вмещают " + products
+                    + " товаров после ID " + productBase + "; уменьшите dataset.products или задайте dataset.truncate=true");
+        }
+
+        int[] stockCounts = stockCountsByRank(new ZipfDistribution(products, config.datasetZipfExponent()), warehouses, stocks);
+        long plannedStocks = 0;
+        for (int count : stockCounts) {
+            plannedStocks += count;
+        }
+        // Количество на позиции ограничено так, чтобы сумма по складу с запасом
+        // укладывалась в вместимость, допустимую для API
+        long rowsPerWarehouse = Math.max(1, (plannedStocks + warehouses - 1) / warehouses);
+        int maxQuantity = (int) Math.max(1, Math.min(MAX_QUANTITY, WAREHOUSE_CAPACITY * 4 / 5 / rowsPerWarehouse));
+
+        long started = System.nanoTime();
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+        progress.scheduleAtFixedRate(() -> System.out.printf("  вставлено строк: %,d%n", inserted.get()), 5, 5, TimeUnit.SECONDS);
+        try {
+            phase("склады", () -> parallel(warehouses, (from, to) -> insertWarehouses(warehouseBase, from, to)));
+            phase("товары", () -> parallel(products, (from, to) -> insertProducts(productBase, from, to)));
+            long multiplier = coprimeMultiplier(products);
+            phase("остатки", () -> parallel(products, (from, to) ->
+                    insertStocks(productBase, warehouseBase, warehouses, stockCounts, multiplier, maxQuantity, from, to)));
+        } finally {
+            progress.shutdownNow();
+        }
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE products, warehouses, warehouse_stocks");
+        }
+        System.out.printf("Готово: %,d строк за %d с (остатков %,d)%n",
+                inserted.get(), TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started), plannedStocks);
+    }
+
+    /**
+     * Число складов для товара каждого ранга.
+     * <p>
+     * Доля ранга по Ципфу масштабируется так, чтобы сумма с учётом ограничения
+     * «не больше числа складов» была близка к заданному числу остатков.
+     */
+    static int[] stockCountsByRank(ZipfDistribution zipf, int warehouses, long stocks) {
+        int products = zipf.size();
+        int minimum = stocks >= products ? 1 : 0;
+        double low = 0;
+        double high = stocks * (double) products;
+        for (int iteration = 0; iteration < 60; iteration++) {
+            double scale = (low + high) / 2;
+            if (total(zipf, warehouses, minimum, scale) < stocks) {
+                low = scale;
+            } else {
+                high = scale;
+            }
+        }
+        int[] counts = new int[products];
+        for (int rank = 1; rank <= products; rank++) {
+            counts[rank - 1] = count(zipf, warehouses, minimum, high, rank);
+        }
+        return counts;
+    }
+
+    private static long total(ZipfDistribution zipf, int warehouses, int minimum, double scale) {
+        long sum = 0;
+        for (int rank = 1; rank <= zipf.size(); rank++) {
+            sum += count(zipf, warehouses, minimum, scale, rank);
+        }
+        return sum;
+    }
+
+    private static int count(ZipfDistribution zipf, int warehouses, int minimum, double scale, int rank) {
+        long expected = Math.round(scale * zipf.probability(rank));
+        return (int) Math.max(minimum, Math.min(warehouses, expected));
+    }
+
+    private void insertWarehouses(long base, int from, int to) throws SQLException {
+        String sql = "INSERT INTO warehouses (id, name, address, contact_person, phone, email, capacity, status) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, 'ACTIVE')";
+        batchInsert(sql, from, to, (statement, index, random) -> {
+            long id = base + index + 1;
+            statement.setLong(1, id);
+            statement.setString(2, "Склад " + id);
+            statement.setString(3, "Складская улица, " + id);
+            statement.setString(4, "Ответственный " + id);
+            statement.setString(5, String.format("+7900%07d", id % 10_000_000));
+            statement.setString(6, "warehouse" + id + "@example.com");
+            statement.setInt(7, WAREHOUSE_CAPACITY);
+        });
+    }
+
+    private void insertProducts(long base, int from, int to) throws SQLException {
+        String sql = "INSERT INTO products (id, article_number, name, description, category, manufacturer, "
+                + "purchase_price, selling_price, min_stock_level, max_stock_level) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        batchInsert(sql, from, to, (statement, index, random) -> {
+            long id = base + index + 1;
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            BigDecimal purchase = BigDecimal.valueOf(500 + random.nextInt(50_000), 0);
+            statement.setLong(1, id);
+            statement.setString(2, String.format("G%07d", id));
+            statement.setString(3, category + " модель " + id);
+            statement.setString(4, "Синтетический товар " + id + " категории «" + category + "»");
+            statement.setString(5, category);
+            statement.setString(6, MANUFACTURERS[random.nextInt(MANUFACTURERS.length)]);
+            statement.setBigDecimal(7, purchase);
+            statement.setBigDecimal(8, purchase.multiply(BigDecimal.valueOf(13, 1)));
+            statement.setInt(9, 1 + random.nextInt(5));
+            statement.setInt(10, 50 + random.nextInt(500));
+        });
+    }
+
+    /**
+     * Остатки товаров с рангами [from, to).
+     * <p>
+     * Ранг переводится в идентификатор товара перестановкой, чтобы популярные товары
+     * не были сосредоточены в начале таблицы. Склады товара выбираются шагом,
+     * взаимно простым с числом складов, поэтому пары товар–склад не повторяются.
+     */
+    private void insertStocks(long productBase, long warehouseBase, int warehouses, int[] counts,
+                              long multiplier, int maxQuantity, int from, int to) throws SQLException {
+        String sql = "INSERT INTO warehouse_stocks (product_id, warehouse_id, current_quantity, reserved_quantity, location) "
+                + "VALUES (?, ?, ?, ?, ?)";
+        int products = counts.length;
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            Random random = new Random(config.seed() * 31 + from);
+            int batch = 0;
+            for (int rank = from; rank < to; rank++) {
+                long productId = productBase + 1 + (rank * multiplier) % products;
+                int count = counts[rank];
+                int start = random.nextInt(warehouses);
+                int step = coprimeStep(warehouses, random);
+                for (int k = 0; k < count; k++) {
+                    long warehouseId = warehouseBase + 1 + (start + (long) k * step) % warehouses;
+                    int quantity = 1 + random.nextInt(maxQuantity);
+                    statement.setLong(1, productId);
+                    statement.setLong(2, warehouseId);
+                    statement.setInt(3, quantity);
+                    statement.setInt(4, random.nextInt(quantity / 4 + 1));
+                    statement.setString(5, "L" + (1 + random.nextInt(AISLES)) + "-" + (1 + random.nextInt(SLOTS_PER_AISLE)));
+                    statement.addBatch();
+                    if (++batch == config.datasetBatchSize()) {
+                        flush(connection, statement, batch);
+                        batch = 0;
+                    }
+                }
+            }
+            flush(connection, statement, batch);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(PreparedStatement statement, int index, Random random) throws SQLException;
+    }
+
+    private void batchInsert(String sql, int from, int to, RowWriter writer) throws SQLException {
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            Random random = new Random(config.seed() * 17 + from);
+            int batch = 0;
+            for (int index = from; index < to; index++) {
+                writer.write(statement, index, random);
+                statement.addBatch();
+                if (++batch == config.datasetBatchSize()) {
+                    flush(connection, statement, batch);
+                    batch = 0;
+                }
+            }
+            flush(connection, statement, batch);
+        }
+    }
+
+    private void flush(Connection connection, PreparedStatement statement, int rows) throws SQLException {
+        if (rows == 0) {
+            return;
+        }
+        statement.executeBatch();
+        connection.commit();
+        inserted.addAndGet(rows);
+    }
+
+    @FunctionalInterface
+    private interface RangeTask {
+        void run(int from, int to) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Phase {
+        void run() throws Exception;
+    }
+
+    private void phase(String name, Phase phase) throws Exception {
+        long started = System.nanoTime();
+        long before = inserted.get();
+        phase.run();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long rows = inserted.get() - before;
+        System.out.printf("%s: %,d строк за %.1f с (%,.0f строк/с)%n", name, rows, seconds, rows / Math.max(seconds, 1e-9));
+    }
+
+    private void parallel(int size, RangeTask task) throws Exception {
+        int threads = Math.max(1, Math.min(config.datasetThreads(), size));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            int chunk = (size + threads - 1) / threads;
+            for (int from = 0; from < size; from += chunk) {
+                int start = from;
+                int end = Math.min(size, from + chunk);
+                futures.add(executor.submit(() -> {
+                    task.run(start, end);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        String url = config.jdbcUrl();
+        if (!url.contains("rewriteBatchedStatements")) {
+            url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+        Connection connection = DriverManager.getConnection(url, config.jdbcUsername(), config.jdbcPassword());
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET SESSION foreign_key_checks = 0");
+            statement.execute("SET SESSION unique_checks = 0");
+        }
+        return connection;
+    }
+
+    private static void truncate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE warehouse_stocks");
+            statement.execute("TRUNCATE TABLE products");
+            statement.execute("TRUNCATE TABLE warehouses");
+        }
+        connection.commit();
+        System.out.println("Таблицы products, warehouses и warehouse_stocks очищены");
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLSyntaxErrorException e) {
+            throw new IllegalStateException("Таблица " + table + " не найдена: схему создают миграции приложения, "
+                    + "запустите сервер с этой базой хотя бы один раз", e);
+        }
+    }
+
+    private static long coprimeMultiplier(int size) {
+        long candidate = 2_654_435_761L % size;
+        while (candidate <= 1 || gcd(candidate, size) != 1) {
+            candidate = (candidate + 1) % size;
+            if (size <= 2) {
+                return 1;
+            }
+        }
+        return candidate;
+    }
+
+    private static int coprimeStep(int size, Random random) {
+        if (size == 1) {
+            return 1;
+        }
+        int step = 1 + random.nextInt(size - 1);
+        while (gcd(step, size) != 1) {
+            step = step % (size - 1) + 1;
+        }
+        return step;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,271 @@
+package com.api.cargosimpleserver.LoadGenerator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Данные, к которым обращается нагрузка: товары, склады, остатки и пользователь.
+ * <p>
+ * Существующие записи читаются через API, недостающие создаются; для больших
+ * наборов данных идентификаторы читаются напрямую из базы.
+ * При распределении zipf порядок записей перемешивается, и первые из них
+ * становятся «горячими».
+ * Подготовка выполняется до начала замеров и в отчёт не попадает.
+ */
+public class Fixtures {
+
+    /**
+     * Складской остаток, доступный для чтения и обновления.
+     */
+    public record Stock(long id, long productId, long warehouseId, String location) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<Long> productIds;
+
+    private final List<Long> warehouseIds;
+
+    private final List<Stock> stocks;
+
+    private final String username;
+
+    private final String password;
+
+    private final ZipfDistribution productPopularity;
+
+    private final ZipfDistribution stockPopularity;
+
+    private Fixtures(List<Long> productIds, List<Long> warehouseIds, List<Stock> stocks, WorkloadConfig config) {
+        this.productIds = new ArrayList<>(productIds);
+        this.warehouseIds = List.copyOf(warehouseIds);
+        this.stocks = new ArrayList<>(stocks);
+        this.username = config.fixtureUsername();
+        this.password = config.fixturePassword();
+        if (productIds.isEmpty() || warehouseIds.isEmpty() || stocks.isEmpty()) {
+            throw new IllegalStateException("Нет данных для нагрузки: " + describe());
+        }
+        if ("zipf".equals(config.popularity())) {
+            Collections.shuffle(this.productIds, new Random(config.seed()));
+            Collections.shuffle(this.stocks, new Random(config.seed() + 1));
+            this.productPopularity = new ZipfDistribution(this.productIds.size(), config.popularityExponent());
+            this.stockPopularity = new ZipfDistribution(this.stocks.size(), config.popularityExponent());
+        } else if ("uniform".equals(config.popularity())) {
+            this.productPopularity = null;
+            this.stockPopularity = null;
+        } else {
+            throw new IllegalArgumentException("Неизвестное распределение popularity: " + config.popularity());
+        }
+    }
+
+    /**
+     * Подготовка данных на сервере.
+     *
+     * @param client HTTP-клиент
+     * @param config параметры нагрузки
+     * @return подготовленные данные
+     */
+    public static Fixtures prepare(HttpClient client, WorkloadConfig config) throws IOException, InterruptedException {
+        Fixtures fixtures = switch (config.fixtureSource()) {
+            case "api" -> prepareViaApi(client, config);
+            case "jdbc" -> loadFromDatabase(config);
+            default -> throw new IllegalArgumentException("Неизвестный источник fixtures.source: " + config.fixtureSource());
+        };
+        prepareUser(client, config);
+        return fixtures;
+    }
+
+    private static Fixtures prepareViaApi(HttpClient client, WorkloadConfig config) throws IOException, InterruptedException {
+        String baseUrl = config.baseUrl();
+
+        List<Long> warehouseIds = new ArrayList<>();
+        Set<String> warehouseNames = new HashSet<>();
+        for (JsonNode warehouse : getArray(client, baseUrl + "/api/warehouses")) {
+            warehouseIds.add(warehouse.get("id").asLong());
+            warehouseNames.add(warehouse.get("name").asText());
+        }
+        for (int i = 1; warehouseIds.size() < config.fixtureWarehouses(); i++) {
+            String name = "Нагрузочный склад " + i;
+            if (warehouseNames.contains(name)) {
+                continue;
+            }
+            JsonNode created = post(client, baseUrl + "/api/warehouses", "{\"name\":\"" + name + "\","
+                    + "\"address\":\"Складская улица, " + i + "\",\"contactPerson\":\"Иван Петров\","
+                    + "\"phone\":\"+79001234567\",\"email\":\"loadtest@example.com\","
+                    + "\"capacity\":100000,\"status\":\"ACTIVE\"}");
+            warehouseIds.add(created.get("id").asLong());
+        }
+
+        List<Long> productIds = new ArrayList<>();
+        Set<String> articles = new HashSet<>();
+        for (JsonNode product : getArray(client, baseUrl + "/api/products")) {
+            productIds.add(product.get("id").asLong());
+            articles.add(product.get("articleNumber").asText());
+        }
+        for (int i = 1; productIds.size() < config.fixtureProducts(); i++) {
+            String article = String.format("LT%06d", i);
+            if (articles.contains(article)) {
+                continue;
+            }
+            JsonNode created = post(client, baseUrl + "/api/products", "{\"articleNumber\":\"" + article + "\","
+                    + "\"name\":\"Товар " + article + "\",\"description\":\"Товар для нагрузочного теста\","
+                    + "\"category\":\"Тест\",\"manufacturer\":\"Нагрузка\",\"purchasePrice\":100.00,"
+                    + "\"sellingPrice\":150.00,\"minStockLevel\":1,\"maxStockLevel\":1000}");
+            productIds.add(created.get("id").asLong());
+        }
+
+        List<Stock> stocks = new ArrayList<>();
+        Set<Long> stockedProducts = new HashSet<>();
+        for (JsonNode stock : getArray(client, baseUrl + "/api/warehouse-stocks")) {
+            stocks.add(toStock(stock));
+            stockedProducts.add(stock.get("productId").asLong());
+        }
+        for (int i = 0; i < productIds.size(); i++) {
+            long productId = productIds.get(i);
+            if (stockedProducts.contains(productId)) {
+                continue;
+            }
+            long warehouseId = warehouseIds.get(i % warehouseIds.size());
+            JsonNode created = post(client, baseUrl + "/api/warehouse-stocks", "{\"productId\":" + productId
+                    + ",\"warehouseId\":" + warehouseId + ",\"currentQuantity\":10,\"reservedQuantity\":0,"
+                    + "\"location\":\"LT-" + i + "\"}");
+            stocks.add(toStock(created));
+        }
+
+        return new Fixtures(productIds, warehouseIds, stocks, config);
+    }
+
+    /**
+     * Чтение идентификаторов из базы без создания записей.
+     * <p>
+     * Остатки берутся каждые N-е по идентификатору, чтобы выборка
+     * покрывала всю таблицу, а не первые загруженные товары.
+     */
+    private static Fixtures loadFromDatabase(WorkloadConfig config) {
+        try (Connection connection = DriverManager.getConnection(config.jdbcUrl(), config.jdbcUsername(), config.jdbcPassword())) {
+            List<Long> productIds = readIds(connection, "SELECT id FROM products");
+            List<Long> warehouseIds = readIds(connection, "SELECT id FROM warehouses");
+
+            long maxStockId;
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM warehouse_stocks")) {
+                rs.next();
+                maxStockId = rs.getLong(1);
+            }
+            long step = Math.max(1, maxStockId / config.fixtureStockSample());
+            List<Stock> stocks = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, product_id, warehouse_id, location FROM warehouse_stocks WHERE MOD(id, ?) = 0 LIMIT ?")) {
+                statement.setLong(1, step);
+                statement.setInt(2, config.fixtureStockSample());
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        stocks.add(new Stock(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4)));
+                    }
+                }
+            }
+            return new Fixtures(productIds, warehouseIds, stocks, config);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось прочитать данные из базы " + config.jdbcUrl() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static List<Long> readIds(Connection connection, String sql) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static void prepareUser(HttpClient client, WorkloadConfig config) throws IOException, InterruptedException {
+        String baseUrl = config.baseUrl();
+        String credentials = "{\"login\":\"" + config.fixtureUsername() + "\",\"password\":\"" + config.fixturePassword() + "\"}";
+        HttpResponse<String> registered = send(client, json(baseUrl + "/api/auth/register")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials)).build());
+        if (registered.statusCode() >= 500) {
+            throw new IllegalStateException("Не удалось зарегистрировать пользователя: " + registered.body());
+        }
+        post(client, baseUrl + "/api/auth/login", credentials);
+    }
+
+    public long randomProductId(Random random) {
+        return productIds.get(pick(productPopularity, productIds.size(), random));
+    }
+
+    public long randomWarehouseId(Random random) {
+        return warehouseIds.get(random.nextInt(warehouseIds.size()));
+    }
+
+    public Stock randomStock(Random random) {
+        return stocks.get(pick(stockPopularity, stocks.size(), random));
+    }
+
+    public String username() {
+        return username;
+    }
+
+    public String password() {
+        return password;
+    }
+
+    public String describe() {
+        return "товаров " + productIds.size() + ", складов " + warehouseIds.size() + ", остатков " + stocks.size();
+    }
+
+    private static int pick(ZipfDistribution popularity, int size, Random random) {
+        return popularity == null ? random.nextInt(size) : popularity.sampleIndex(random);
+    }
+
+    private static Stock toStock(JsonNode stock) {
+        return new Stock(stock.get("id").asLong(), stock.get("productId").asLong(),
+                stock.get("warehouseId").asLong(), stock.get("location").asText());
+    }
+
+    private static JsonNode getArray(HttpClient client, String url) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(client, HttpRequest.newBuilder(URI.create(url)).GET().build());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + url + " вернул " + response.statusCode() + ": " + response.body());
+        }
+        return MAPPER.readTree(response.body());
+    }
+
+    private static JsonNode post(HttpClient client, String url, String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(client, json(url).POST(HttpRequest.BodyPublishers.ofString(body)).build());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("POST " + url + " вернул " + response.statusCode() + ": " + response.body());
+        }
+        return MAPPER.readTree(response.body());
+    }
+
+    private static HttpRequest.Builder json(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private static HttpResponse<String> send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
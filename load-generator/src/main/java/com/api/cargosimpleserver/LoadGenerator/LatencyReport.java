@@ -0,0 +1,154 @@
+package com.api.cargosimpleserver.LoadGenerator;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Итоговый отчёт о задержках и пропускной способности.
+ * <p>
+ * Отчёт выводится таблицей и сохраняется в CSV. Строки CSV, начинающиеся с #,
+ * содержат параметры прогона; по двум CSV-файлам строится сравнение сборок.
+ */
+public final class LatencyReport {
+
+    static final String HEADER = "operation,count,errors,dropped,throughput_rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms";
+
+    static final String TOTAL = "total";
+
+    /**
+     * Строка отчёта по одной операции.
+     */
+    record Row(String operation, long count, long errors, long dropped, double throughput,
+               double p50, double p90, double p99, double p999, double max) {
+
+        static Row of(String operation, Histogram histogram, long errors, long dropped, double seconds) {
+            return new Row(operation, histogram.getTotalCount(), errors, dropped,
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+
+        static Row parse(String line) {
+            String[] f = line.split(",");
+            return new Row(f[0], Long.parseLong(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3]),
+                    Double.parseDouble(f[4]), Double.parseDouble(f[5]), Double.parseDouble(f[6]),
+                    Double.parseDouble(f[7]), Double.parseDouble(f[8]), Double.parseDouble(f[9]));
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f,%.3f",
+                    operation, count, errors, dropped, throughput, p50, p90, p99, p999, max);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    private final List<Row> rows;
+
+    private LatencyReport(List<Row> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * Построение отчёта по накопленной статистике.
+     *
+     * @param stats статистика операций
+     * @param measuredNanos длительность замера
+     * @return отчёт
+     */
+    public static LatencyReport from(LatencyStats stats, long measuredNanos) {
+        double seconds = measuredNanos / 1e9;
+        List<Row> rows = new ArrayList<>();
+        Histogram all = new Histogram(LatencyStats.HIGHEST_TRACKABLE_MICROS, 3);
+        long errors = 0;
+        long dropped = 0;
+        for (Map.Entry<Operation, LatencyStats.OperationStats> entry : stats.byOperation().entrySet()) {
+            LatencyStats.OperationStats operationStats = entry.getValue();
+            rows.add(Row.of(entry.getKey().getKey(), operationStats.total(),
+                    operationStats.errors(), operationStats.dropped(), seconds));
+            all.add(operationStats.total());
+            errors += operationStats.errors();
+            dropped += operationStats.dropped();
+        }
+        rows.add(Row.of(TOTAL, all, errors, dropped, seconds));
+        return new LatencyReport(rows);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-18s %9s %7s %7s %10s %9s %9s %9s %9s %9s%n",
+                "операция", "ответов", "ошибок", "отброш.", "запр./с", "p50 мс", "p90 мс", "p99 мс", "p99.9 мс", "max мс");
+        for (Row row : rows) {
+            out.printf(Locale.ROOT, "%-18s %9d %7d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    row.operation(), row.count(), row.errors(), row.dropped(), row.throughput(),
+                    row.p50(), row.p90(), row.p99(), row.p999(), row.max());
+        }
+    }
+
+    public void writeCsv(Path file, String description) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# " + description);
+        lines.add(HEADER);
+        for (Row row : rows) {
+            lines.add(row.toCsv());
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Сравнение двух отчётов: изменение процентилей и пропускной способности
+     * каждой операции относительно базового прогона.
+     *
+     * @param baseline CSV базового прогона
+     * @param candidate CSV сравниваемого прогона
+     * @param out поток вывода
+     */
+    public static void compare(Path baseline, Path candidate, PrintStream out) throws IOException {
+        Map<String, Row> base = readCsv(baseline);
+        Map<String, Row> next = readCsv(candidate);
+
+        out.printf("%-18s %22s %22s %22s %22s %9s%n",
+                "операция", "p50 мс", "p99 мс", "p99.9 мс", "запр./с", "ошибок");
+        for (Map.Entry<String, Row> entry : next.entrySet()) {
+            Row b = base.get(entry.getKey());
+            Row c = entry.getValue();
+            if (b == null) {
+                continue;
+            }
+            out.printf(Locale.ROOT, "%-18s %22s %22s %22s %22s %4d→%-4d%n", entry.getKey(),
+                    delta(b.p50(), c.p50()), delta(b.p99(), c.p99()), delta(b.p999(), c.p999()),
+                    delta(b.throughput(), c.throughput()), b.errors(), c.errors());
+        }
+    }
+
+    private static String delta(double before, double after) {
+        String change = before == 0 ? "—" : String.format(Locale.ROOT, "%+.1f%%", (after - before) * 100 / before);
+        return String.format(Locale.ROOT, "%.2f→%.2f (%s)", before, after, change);
+    }
+
+    private static Map<String, Row> readCsv(Path file) throws IOException {
+        Map<String, Row> rows = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#") || line.equals(HEADER)) {
+                continue;
+            }
+            Row row = Row.parse(line);
+            rows.put(row.operation(), row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,97 @@
+package com.api.cargosimpleserver.LoadGenerator;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Накопление задержек и ошибок по операциям.
+ * <p>
+ * Задержки записываются в микросекундах в {@link Recorder} без блокировок
+ * из потоков HTTP-клиента. Поток отчёта периодически забирает интервальные
+ * гистограммы, добавляет их к итоговым и пишет в журнал гистограмм.
+ */
+public class LatencyStats {
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    /**
+     * Счётчики и гистограммы одной операции.
+     */
+    static final class OperationStats {
+
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+
+        private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+        private Histogram interval;
+
+        private final LongAdder errors = new LongAdder();
+
+        private final LongAdder dropped = new LongAdder();
+
+        Histogram total() {
+            return total;
+        }
+
+        long errors() {
+            return errors.sum();
+        }
+
+        long dropped() {
+            return dropped.sum();
+        }
+    }
+
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    public LatencyStats(List<Operation> operations) {
+        for (Operation operation : operations) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    public void recordSuccess(Operation operation, long latencyNanos) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        stats.get(operation).recorder.recordValue(micros);
+    }
+
+    public void recordError(Operation operation) {
+        stats.get(operation).errors.increment();
+    }
+
+    public void recordDropped(Operation operation) {
+        stats.get(operation).dropped.increment();
+    }
+
+    /**
+     * Перенос накопленных с прошлого вызова задержек в итоговые гистограммы.
+     *
+     * @param log журнал гистограмм или null
+     * @return интервальная гистограмма по всем операциям
+     */
+    public synchronized Histogram drainInterval(HistogramLogWriter log) {
+        Histogram combined = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            operationStats.interval = operationStats.recorder.getIntervalHistogram(operationStats.interval);
+            operationStats.total.add(operationStats.interval);
+            combined.add(operationStats.interval);
+            if (log != null && operationStats.interval.getTotalCount() > 0) {
+                operationStats.interval.setTag(entry.getKey().getKey());
+                log.outputIntervalHistogram(operationStats.interval);
+            }
+        }
+        return combined;
+    }
+
+    Map<Operation, OperationStats> byOperation() {
+        return stats;
+    }
+}
@@ -0,0 +1,95 @@
+package com.api.cargosimpleserver.LoadGenerator;
+
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Точка входа генератора нагрузки.
+ * <p>
+ * Режимы:
+ * - run [ключ=значение ...] — подготовка данных, прогрев, замер и отчёт
+ * - compare базовый.csv новый.csv — сравнение двух отчётов
+ * - dataset [ключ=значение ...] — загрузка синтетического набора данных в базу
+ * <p>
+ * Результаты прогона сохраняются в каталог report-dir:
+ * &lt;label&gt;-&lt;время&gt;.csv (сводка) и &lt;label&gt;-&lt;время&gt;.hlog (журнал интервальных гистограмм).
+ */
+public final class LoadGeneratorApplication {
+
+    private LoadGeneratorApplication() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 1 && args[0].equals("compare")) {
+            if (args.length != 3) {
+                System.err.println("Использование: compare <базовый.csv> <новый.csv>");
+                System.exit(2);
+            }
+            LatencyReport.compare(Path.of(args[1]), Path.of(args[2]), System.out);
+            return;
+        }
+
+        if (args.length >= 1 && args[0].equals("dataset")) {
+            new DatasetGenerator(WorkloadConfig.load(Arrays.copyOfRange(args, 1, args.length))).run();
+            return;
+        }
+
+        String[] options = args.length >= 1 && args[0].equals("run") ? Arrays.copyOfRange(args, 1, args.length) : args;
+        WorkloadConfig config = WorkloadConfig.load(options);
+        run(config);
+    }
+
+    private static void run(WorkloadConfig config) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(config.workerThreads());
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(workers)
+                .build();
+        try {
+            System.out.println("Параметры: " + config.describe());
+            Fixtures fixtures = Fixtures.prepare(client, config);
+            System.out.println("Данные: " + fixtures.describe());
+
+            OperationMix mix = new OperationMix(config.mix());
+            LatencyStats stats = new LatencyStats(mix.operations());
+
+            Path reportDir = config.reportDir();
+            Files.createDirectories(reportDir);
+            String name = config.label() + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+            LatencyReport report;
+            try (PrintStream logStream = new PrintStream(Files.newOutputStream(reportDir.resolve(name + ".hlog")))) {
+                HistogramLogWriter log = new HistogramLogWriter(logStream);
+                log.outputComment(config.describe());
+                log.outputLogFormatVersion();
+                long startMillis = System.currentTimeMillis();
+                log.outputStartTime(startMillis);
+                log.setBaseTime(startMillis);
+                log.outputLegend();
+
+                long measuredNanos = new OpenLoopDriver(config, client, fixtures, mix, stats).run(log);
+                report = LatencyReport.from(stats, measuredNanos);
+            }
+
+            System.out.println();
+            report.print(System.out);
+            Path csv = reportDir.resolve(name + ".csv");
+            report.writeCsv(csv, config.describe());
+            System.out.println();
+            System.out.println("Отчёт: " + csv.toAbsolutePath());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.api.cargosimpleserver.LoadGenerator;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки с открытой моделью поступления запросов.
+ * <p>
+ * Основные функции:
+ * - Отправка запросов в заранее рассчитанные моменты времени независимо от ответов сервера
+ * - Отсчёт задержки от запланированного, а не фактического момента отправки,
+ *   чтобы замедление сервера не скрывалось отставанием генератора (coordinated omission)
+ * - Ограничение числа одновременно выполняющихся запросов: запросы сверх предела
+ *   учитываются как отброшенные
+ * - Периодический вывод интервальной статистики и запись журнала гистограмм
+ * <p>
+ * Запросы в период прогрева выполняются, но в статистику не попадают.
+ */
+public class OpenLoopDriver {
+
+    private final WorkloadConfig config;
+
+    private final HttpClient client;
+
+    private final Fixtures fixtures;
+
+    private final OperationMix mix;
+
+    private final LatencyStats stats;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public OpenLoopDriver(WorkloadConfig config, HttpClient client, Fixtures fixtures, OperationMix mix, LatencyStats stats) {
+        this.config = config;
+        this.client = client;
+        this.fixtures = fixtures;
+        this.mix = mix;
+        this.stats = stats;
+    }
+
+    /**
+     * Выполнение прогрева и замера.
+     *
+     * @param log журнал интервальных гистограмм
+     * @return фактическая длительность замера в наносекундах
+     */
+    public long run(HistogramLogWriter log) throws InterruptedException {
+        Random random = new Random(config.seed());
+        boolean poisson = "poisson".equalsIgnoreCase(config.arrival());
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        Duration timeout = config.timeout();
+        String baseUrl = config.baseUrl();
+        int maxInFlight = config.maxInFlight();
+
+        long begin = System.nanoTime();
+        long measureStart = begin + config.warmup().toNanos();
+        long end = measureStart + config.duration().toNanos();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long reportMillis = config.reportInterval().toMillis();
+        reporter.scheduleAtFixedRate(() -> {
+            if (System.nanoTime() >= measureStart) {
+                printInterval(stats.drainInterval(log), reportMillis);
+            }
+        }, config.warmup().toMillis() + reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+
+        System.out.printf("Прогрев %d с, замер %d с при %.1f запросах/с%n",
+                config.warmup().toSeconds(), config.duration().toSeconds(), config.rate());
+
+        double scheduled = begin;
+        while (true) {
+            long intended = (long) scheduled;
+            if (intended >= end) {
+                break;
+            }
+            long now = System.nanoTime();
+            while (now < intended) {
+                LockSupport.parkNanos(intended - now);
+                now = System.nanoTime();
+            }
+
+            boolean measured = intended >= measureStart;
+            Operation operation = mix.next(random);
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    stats.recordDropped(operation);
+                }
+            } else {
+                send(operation, operation.build(baseUrl, fixtures, random, timeout), intended, measured);
+            }
+
+            scheduled += poisson
+                    ? -Math.log(1 - random.nextDouble()) * meanIntervalNanos
+                    : meanIntervalNanos;
+        }
+
+        long measuredNanos = System.nanoTime() - measureStart;
+        long drainDeadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        reporter.shutdownNow();
+        reporter.awaitTermination(5, TimeUnit.SECONDS);
+        stats.drainInterval(log);
+        return measuredNanos;
+    }
+
+    private void send(Operation operation, HttpRequest request, long intended, boolean measured) {
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - intended;
+                    inFlight.decrementAndGet();
+                    if (!measured) {
+                        return;
+                    }
+                    if (error != null || response.statusCode() >= 400) {
+                        stats.recordError(operation);
+                    } else {
+                        stats.recordSuccess(operation, latency);
+                    }
+                });
+    }
+
+    private void printInterval(Histogram interval, long intervalMillis) {
+        System.out.printf("  %8.1f запросов/с  p50 %8.2f мс  p99 %8.2f мс  max %8.2f мс  в работе %d%n",
+                interval.getTotalCount() * 1000.0 / intervalMillis,
+                interval.getValueAtPercentile(50) / 1000.0,
+                interval.getValueAtPercentile(99) / 1000.0,
+                interval.getMaxValue() / 1000.0,
+                inFlight.get());
+    }
+}
@@ -0,0 +1,113 @@
+package com.api.cargosimpleserver.LoadGenerator;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Операции нагрузки и построение соответствующих HTTP-запросов.
+ * <p>
+ * Идентификаторы и артикулы выбираются случайно из подготовленных данных.
+ */
+public enum Operation {
+
+    LIST_PRODUCTS("list-products") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Fixtures fixtures, Random random) {
+            return get(baseUrl + "/api/products");
+        }
+    },
+    GET_PRODUCT("get-product") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Fixtures fixtures, Random random) {
+            return get(baseUrl + "/api/products/" + fixtures.randomProductId(random));
+        }
+    },
+    LIST_WAREHOUSES("list-warehouses") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Fixtures fixtures, Random random) {
+            return get(baseUrl + "/api/warehouses");
+        }
+    },
+    GET_WAREHOUSE("get-warehouse") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Fixtures fixtures, Random random) {
+            return get(baseUrl + "/api/warehouses/" + fixtures.randomWarehouseId(random));
+        }
+    },
+    LIST_STOCKS("list-stocks") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Fixtures fixtures, Random random) {
+            return get(baseUrl + "/api/warehouse-stocks");
+        }
+    },
+    GET_STOCK("get-stock") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Fixtures fixtures, Random random) {
+            return get(baseUrl + "/api/warehouse-stocks/" + fixtures.randomStock(random).id());
+        }
+    },
+    STOCKS_BY_PRODUCT("stocks-by-product") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Fixtures fixtures, Random random) {
+            return get(baseUrl + "/api/warehouse-stocks/product/" + fixtures.randomProductId(random));
+        }
+    },
+    UPDATE_STOCK("update-stock") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Fixtures fixtures, Random random) {
+            Fixtures.Stock stock = fixtures.randomStock(random);
+            String body = "{\"productId\":" + stock.productId()
+                    + ",\"warehouseId\":" + stock.warehouseId()
+                    + ",\"currentQuantity\":" + (10 + random.nextInt(20))
+                    + ",\"reservedQuantity\":" + random.nextInt(5)
+                    + ",\"location\":\"" + stock.location() + "\"}";
+            return json(baseUrl + "/api/warehouse-stocks/" + stock.id())
+                    .PUT(HttpRequest.BodyPublishers.ofString(body));
+        }
+    },
+    LOGIN("login") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Fixtures fixtures, Random random) {
+            String body = "{\"login\":\"" + fixtures.username() + "\",\"password\":\"" + fixtures.password() + "\"}";
+            return json(baseUrl + "/api/auth/login")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+    };
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Имя операции в параметрах (mix.&lt;имя&gt;) и отчётах.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Построение запроса операции.
+     *
+     * @param baseUrl адрес сервера
+     * @param fixtures подготовленные данные
+     * @param random генератор случайных чисел планировщика
+     * @return построитель запроса
+     */
+    abstract HttpRequest.Builder request(String baseUrl, Fixtures fixtures, Random random);
+
+    HttpRequest build(String baseUrl, Fixtures fixtures, Random random, Duration timeout) {
+        return request(baseUrl, fixtures, random).timeout(timeout).build();
+    }
+
+    private static HttpRequest.Builder get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET();
+    }
+
+    private static HttpRequest.Builder json(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Content-Type", "application/json");
+    }
+}
@@ -0,0 +1,254 @@
+package com.api.cargosimpleserver.LoadGenerator;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Параметры нагрузки.
+ * <p>
+ * Значения берутся по порядку:
+ * - workload-defaults.properties из ресурсов модуля
+ * - файл, указанный аргументом config=путь
+ * - аргументы командной строки вида ключ=значение
+ */
+public class WorkloadConfig {
+
+    private final Properties properties;
+
+    private WorkloadConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Чтение параметров из ресурсов, файла и аргументов.
+     *
+     * @param args аргументы вида ключ=значение
+     * @return параметры нагрузки
+     */
+    public static WorkloadConfig load(String[] args) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream defaults = WorkloadConfig.class.getResourceAsStream("/workload-defaults.properties")) {
+            if (defaults == null) {
+                throw new IllegalStateException("Не найден ресурс workload-defaults.properties");
+            }
+            properties.load(new InputStreamReader(defaults, StandardCharsets.UTF_8));
+        }
+
+        Properties overrides = parseArgs(args);
+        String configFile = overrides.getProperty("config");
+        if (configFile != null) {
+            try (Reader reader = Files.newBufferedReader(Path.of(configFile), StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        properties.putAll(overrides);
+        return new WorkloadConfig(properties);
+    }
+
+    private static Properties parseArgs(String[] args) {
+        Properties result = new Properties();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Аргумент должен иметь вид ключ=значение: " + arg);
+            }
+            result.setProperty(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return result;
+    }
+
+    public String baseUrl() {
+        String url = require("base-url");
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public double rate() {
+        double rate = Double.parseDouble(require("rate"));
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate должен быть больше 0");
+        }
+        return rate;
+    }
+
+    public String arrival() {
+        return require("arrival");
+    }
+
+    public Duration warmup() {
+        return duration("warmup");
+    }
+
+    public Duration duration() {
+        return duration("duration");
+    }
+
+    public Duration reportInterval() {
+        return duration("report-interval");
+    }
+
+    public Duration timeout() {
+        return duration("timeout");
+    }
+
+    public int maxInFlight() {
+        return integer("max-in-flight");
+    }
+
+    public int workerThreads() {
+        return integer("worker-threads");
+    }
+
+    public long seed() {
+        return Long.parseLong(require("seed"));
+    }
+
+    public String label() {
+        return require("label");
+    }
+
+    public Path reportDir() {
+        return Path.of(require("report-dir"));
+    }
+
+    public int fixtureProducts() {
+        return integer("fixtures.products");
+    }
+
+    public int fixtureWarehouses() {
+        return integer("fixtures.warehouses");
+    }
+
+    public String fixtureUsername() {
+        return require("fixtures.username");
+    }
+
+    public String fixturePassword() {
+        return require("fixtures.password");
+    }
+
+    /**
+     * Источник списков товаров, складов и остатков: api или jdbc.
+     *
+     * @return источник данных
+     */
+    public String fixtureSource() {
+        return require("fixtures.source");
+    }
+
+    public int fixtureStockSample() {
+        return integer("fixtures.stock-sample");
+    }
+
+    /**
+     * Распределение обращений к товарам и остаткам: uniform или zipf.
+     *
+     * @return распределение
+     */
+    public String popularity() {
+        return require("popularity");
+    }
+
+    public double popularityExponent() {
+        return Double.parseDouble(require("popularity.exponent"));
+    }
+
+    public String jdbcUrl() {
+        return require("jdbc.url");
+    }
+
+    public String jdbcUsername() {
+        return require("jdbc.username");
+    }
+
+    public String jdbcPassword() {
+        return properties.getProperty("jdbc.password", "");
+    }
+
+    public int datasetProducts() {
+        return integer("dataset.products");
+    }
+
+    public int datasetWarehouses() {
+        return integer("dataset.warehouses");
+    }
+
+    public long datasetStocks() {
+        return Long.parseLong(require("dataset.stocks"));
+    }
+
+    public double datasetZipfExponent() {
+        return Double.parseDouble(require("dataset.zipf-exponent"));
+    }
+
+    public int datasetBatchSize() {
+        return integer("dataset.batch-size");
+    }
+
+    public int datasetThreads() {
+        return integer("dataset.threads");
+    }
+
+    public boolean datasetTruncate() {
+        return Boolean.parseBoolean(require("dataset.truncate"));
+    }
+
+    /**
+     * Веса операций из параметров mix.*.
+     *
+     * @return веса операций, отсутствующие операции имеют вес 0
+     */
+    public Map<Operation, Integer> mix() {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            String value = properties.getProperty("mix." + operation.getKey());
+            weights.put(operation, value == null ? 0 : Integer.parseInt(value.trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Параметры в виде строки для заголовка отчёта.
+     *
+     * @return описание параметров
+     */
+    public String describe() {
+        return "rate=" + rate() + " arrival=" + arrival() + " warmup=" + warmup().toSeconds() + "s"
+                + " duration=" + duration().toSeconds() + "s" + " base-url=" + baseUrl()
+                + " popularity=" + popularity() + " mix=" + mix();
+    }
+
+    private String require(String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Не задан параметр " + key);
+        }
+        return value.trim();
+    }
+
+    private int integer(String key) {
+        return Integer.parseInt(require(key));
+    }
+
+    private Duration duration(String key) {
+        String value = require(key).toLowerCase();
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+}
@@ -0,0 +1,75 @@
+package com.api.cargosimpleserver.LoadGenerator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Распределение Ципфа на рангах 1..n: вероятность ранга r пропорциональна 1 / r^s.
+ * <p>
+ * При s около 1 небольшая доля самых популярных элементов получает
+ * основную часть обращений, как у товаров реального склада.
+ */
+public final class ZipfDistribution {
+
+    private final int size;
+
+    private final double exponent;
+
+    private final double normalization;
+
+    private final double[] cumulative;
+
+    public ZipfDistribution(int size, double exponent) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Размер распределения должен быть больше 0");
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Показатель распределения не может быть отрицательным");
+        }
+        this.size = size;
+        this.exponent = exponent;
+        double sum = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += weight(rank);
+        }
+        this.normalization = sum;
+        this.cumulative = new double[size];
+        double accumulated = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            accumulated += probability(rank);
+            cumulative[rank - 1] = accumulated;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Вероятность ранга.
+     *
+     * @param rank ранг от 1 до size
+     * @return вероятность
+     */
+    public double probability(int rank) {
+        return weight(rank) / normalization;
+    }
+
+    /**
+     * Случайный индекс от 0 до size - 1; индекс 0 самый популярный.
+     *
+     * @param random генератор случайных чисел
+     * @return индекс
+     */
+    public int sampleIndex(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return Math.min(index, size - 1);
+    }
+
+    private double weight(int rank) {
+        return 1.0 / Math.pow(rank, exponent);
+    }
+}
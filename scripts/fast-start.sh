@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Режим быстрого старта: AOT-определения бинов + CDS-архив классов + профиль fast.
+#
+#   scripts/fast-start.sh build   — сборка с AOT, распаковка jar и тренировочный запуск для CDS-архива
+#   scripts/fast-start.sh run     — запуск приложения с архивом (дополнительные аргументы передаются приложению)
+#
+# Тренировочный запуск поднимает контекст целиком, поэтому база данных должна быть доступна.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR_NAME=CargoSimpleServer-0.0.1-SNAPSHOT.jar
+APP_DIR=target/fast-start
+ARCHIVE="$APP_DIR/application.jsa"
+FAST_OPTS=(-Dspring.aot.enabled=true -Dspring.profiles.active=fast)
+
+case "${1:-run}" in
+    build)
+        sh ./mvnw -B -Pfast-start -DskipTests package
+        rm -rf "$APP_DIR"
+        java -Djarmode=tools -jar "target/$JAR_NAME" extract --destination "$APP_DIR"
+        java -XX:ArchiveClassesAtExit="$ARCHIVE" "${FAST_OPTS[@]}" -Dspring.context.exit=onRefresh \
+            -jar "$APP_DIR/$JAR_NAME"
+        echo "CDS-архив создан: $ARCHIVE"
+        ;;
+    run)
+        shift || true
+        exec java -XX:SharedArchiveFile="$ARCHIVE" "${FAST_OPTS[@]}" -jar "$APP_DIR/$JAR_NAME" "$@"
+        ;;
+    *)
+        echo "Использование: $0 build|run [аргументы приложения]" >&2
+        exit 1
+        ;;
+esac
@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# Замер времени от запуска JVM до первого успешного HTTP-запроса
+# в обычном режиме и в режиме быстрого старта.
+#
+# Перед запуском: scripts/fast-start.sh build
+# Параметры окружения: RUNS (по умолчанию 5), PORT (8081), PROBE_PATH (/api/warehouses)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8081}
+PROBE_URL="http://localhost:${PORT}${PROBE_PATH:-/api/warehouses}"
+JAR_NAME=CargoSimpleServer-0.0.1-SNAPSHOT.jar
+APP_DIR=target/fast-start
+LOG=target/startup-benchmark.log
+
+if [[ ! -f "$APP_DIR/$JAR_NAME" || ! -f "$APP_DIR/application.jsa" ]]; then
+    echo "Не найдены артефакты быстрого старта, выполните scripts/fast-start.sh build" >&2
+    exit 1
+fi
+
+# Время до первого ответа 2xx в миллисекундах для одного запуска
+time_to_first_request() {
+    local start end pid
+    start=$(date +%s%N)
+    "$@" --server.port="$PORT" > "$LOG" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$PROBE_URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Приложение завершилось до первого запроса, см. $LOG" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    end=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo $(( (end - start) / 1000000 ))
+}
+
+benchmark() {
+    local label=$1
+    shift
+    local results=()
+    for _ in $(seq "$RUNS"); do
+        results+=("$(time_to_first_request "$@")")
+    done
+    local sorted
+    sorted=$(printf '%s\n' "${results[@]}" | sort -n)
+    printf '%-10s min=%6s мс  медиана=%6s мс  max=%6s мс  (%s запусков)\n' "$label" \
+        "$(echo "$sorted" | head -1)" \
+        "$(echo "$sorted" | sed -n "$(( (RUNS + 1) / 2 ))p")" \
+        "$(echo "$sorted" | tail -1)" \
+        "$RUNS"
+}
+
+echo "Время до первого запроса к $PROBE_URL"
+benchmark "обычный" java -jar "$APP_DIR/$JAR_NAME"
+benchmark "быстрый" java -XX:SharedArchiveFile="$APP_DIR/application.jsa" \
+    -Dspring.aot.enabled=true -Dspring.profiles.active=fast -jar "$APP_DIR/$JAR_NAME"
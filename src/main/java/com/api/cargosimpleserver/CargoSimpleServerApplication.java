@@ -2,6 +2,8 @@ package com.api.cargosimpleserver;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Основной класс приложения для CargoSimpleServer.
@@ -13,6 +15,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  *
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class CargoSimpleServerApplication {
 
     /**
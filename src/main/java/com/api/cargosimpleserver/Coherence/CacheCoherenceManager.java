@@ -0,0 +1,234 @@
+package com.api.cargosimpleserver.Coherence;
+
+import com.api.cargosimpleserver.Events.InventoryChangeEvent;
+import com.api.cargosimpleserver.Models.EntityChangeLog;
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Repositories.EntityChangeLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Согласование второго уровня кэша Hibernate между экземплярами приложения.
+ * <p>
+ * Основные функции:
+ * - Запись изменения товара, склада или остатка в журнал entity_change_log в той же транзакции
+ * - Периодический опрос журнала по первичному ключу после последней прочитанной записи
+ * - Удаление изменённых другими экземплярами записей из регионов кэша
+ * - Публикация {@link RemoteEntityChangeEvent} для данных в памяти других компонентов
+ * - Удаление устаревших записей журнала
+ * <p>
+ * Остатки не кэшируются Hibernate; их изменения записываются со складом записи
+ * только для компонентов с индексами складов в памяти.
+ * <p>
+ * Журнал не требует брокера сообщений: запись об изменении фиксируется вместе с ним,
+ * а экземпляр, пропустивший опрос, прочитает её при следующем.
+ * Идентификаторы, пропущенные в журнале, проверяются повторно в течение
+ * {@code app.cache-coherence.gap-timeout}: их транзакции могли ещё не зафиксироваться.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache-coherence.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheCoherenceManager implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheCoherenceManager.class);
+
+    private static final String EXISTENCE_CHECKS_REGION = "existence-checks";
+
+    private final EntityChangeLogRepository repository;
+
+    private final Cache cache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CacheCoherenceProperties properties;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final MeterRegistry meterRegistry;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Идентификатор последней прочитанной записи журнала. Защищено монитором this.
+     */
+    private long lastId;
+
+    /**
+     * Пропущенные идентификаторы и момент (System.nanoTime), после которого они
+     * больше не ожидаются. Защищено монитором this.
+     */
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    public CacheCoherenceManager(EntityChangeLogRepository repository,
+                                 EntityManagerFactory entityManagerFactory,
+                                 PlatformTransactionManager transactionManager,
+                                 CacheCoherenceProperties properties,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        // Журнал читается из основной базы (транзакция не readOnly): реплика может
+        // ещё не содержать записей, которые уже видны по обновлённым строкам
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Начало чтения журнала с его текущего конца.
+     * <p>
+     * Выполняется до приёма запросов, пока кэш пуст: более ранние записи
+     * к нему не относятся.
+     */
+    @Override
+    public synchronized void afterSingletonsInstantiated() {
+        lastId = transactionTemplate.execute(status -> repository.findMaxId());
+        logger.info("Экземпляр {} читает журнал изменений после записи {}", nodeId, lastId);
+    }
+
+    /**
+     * Запись изменения товара, склада или остатка в журнал.
+     * <p>
+     * Выполняется перед фиксацией транзакции изменения, поэтому запись
+     * и изменение фиксируются или откатываются вместе.
+     *
+     * @param event событие изменения
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void recordChange(InventoryChangeEvent event) {
+        EntityChangeLog entry = new EntityChangeLog();
+        entry.setEntityType(event.getEntityType().name());
+        entry.setEntityId(event.getEntityId());
+        entry.setWarehouseId(event.getWarehouseId());
+        entry.setNodeId(nodeId);
+        entry.setChangedAt(Instant.now());
+        repository.save(entry);
+    }
+
+    /**
+     * Опрос журнала, удаление из кэша записей, изменённых другими экземплярами,
+     * и публикация их изменений.
+     */
+    @Scheduled(fixedDelayString = "${app.cache-coherence.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        List<EntityChangeLog> entries = transactionTemplate.execute(status -> {
+            List<EntityChangeLog> result = new ArrayList<>();
+            if (!gaps.isEmpty()) {
+                result.addAll(repository.findAllById(gaps.keySet()));
+            }
+            result.addAll(repository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(properties.getBatchSize())));
+            return result;
+        });
+
+        long now = System.nanoTime();
+        boolean evicted = false;
+        for (EntityChangeLog entry : entries) {
+            gaps.remove(entry.getId());
+            if (entry.getId() > lastId) {
+                rememberGaps(entry.getId(), now);
+                lastId = entry.getId();
+            }
+            if (!nodeId.equals(entry.getNodeId()) && evict(entry)) {
+                evicted = true;
+            }
+        }
+        if (evicted) {
+            // Результаты проверок существования не привязаны к идентификаторам
+            cache.evictQueryRegion(EXISTENCE_CHECKS_REGION);
+        }
+        gaps.values().removeIf(deadline -> deadline - now < 0);
+    }
+
+    /**
+     * Удаление записей журнала старше срока хранения.
+     */
+    @Scheduled(fixedDelayString = "${app.cache-coherence.purge-interval-ms:600000}")
+    public void purge() {
+        Instant threshold = Instant.now().minus(properties.getRetention());
+        Integer removed = transactionTemplate.execute(status -> repository.deleteOlderThan(threshold));
+        if (removed != null && removed > 0) {
+            logger.debug("Удалено записей журнала изменений: {}", removed);
+        }
+    }
+
+    /**
+     * Идентификатор этого экземпляра в журнале.
+     *
+     * @return идентификатор экземпляра
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void rememberGaps(long id, long now) {
+        long missing = id - lastId - 1;
+        if (missing <= 0) {
+            return;
+        }
+        if (gaps.size() + missing > properties.getMaxGaps()) {
+            logger.warn("Пропуск {} записей журнала изменений после {} не отслеживается", missing, lastId);
+            return;
+        }
+        long deadline = now + properties.getGapTimeout().toNanos();
+        for (long gap = lastId + 1; gap < id; gap++) {
+            gaps.put(gap, deadline);
+        }
+    }
+
+    /**
+     * Удаление изменённой записи из кэша и публикация изменения.
+     *
+     * @return true, если запись удалена из кэша
+     */
+    private boolean evict(EntityChangeLog entry) {
+        InventoryChangeEvent.EntityType entityType;
+        try {
+            entityType = InventoryChangeEvent.EntityType.valueOf(entry.getEntityType());
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Неизвестный тип сущности в журнале изменений: {}", entry.getEntityType());
+            return false;
+        }
+        boolean evicted = true;
+        switch (entityType) {
+            case PRODUCT -> {
+                cache.evictEntityData(Product.class, entry.getEntityId());
+                // Прежний артикул изменённого товара неизвестен
+                cache.evictNaturalIdData(Product.class);
+            }
+            case WAREHOUSE -> cache.evictEntityData(Warehouse.class, entry.getEntityId());
+            case STOCK -> evicted = false;
+        }
+        if (evicted) {
+            Counter.builder("cargo.cache.coherence.evictions")
+                    .description("Записи кэша, удалённые по изменениям других экземпляров")
+                    .tag("entity", entityType.name())
+                    .register(meterRegistry)
+                    .increment();
+        }
+        eventPublisher.publishEvent(new RemoteEntityChangeEvent(entityType, entry.getEntityId(), entry.getWarehouseId()));
+        return evicted;
+    }
+}
@@ -0,0 +1,49 @@
+package com.api.cargosimpleserver.Coherence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки согласования кэшей между экземплярами приложения.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.cache-coherence}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache-coherence")
+public class CacheCoherenceProperties {
+
+    /**
+     * Включение журнала изменений и его опроса.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Интервал опроса журнала в миллисекундах.
+     */
+    private long pollIntervalMs = 1000;
+
+    /**
+     * Наибольшее число записей журнала, читаемых за один опрос.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Сколько ждать записи с пропущенным идентификатором.
+     * <p>
+     * Идентификатор выдаётся при вставке, а видимой запись становится при фиксации,
+     * поэтому более поздняя транзакция может появиться в журнале раньше более ранней.
+     */
+    private Duration gapTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Наибольшее число одновременно ожидаемых пропусков.
+     */
+    private int maxGaps = 10000;
+
+    /**
+     * Срок хранения записей журнала.
+     */
+    private Duration retention = Duration.ofHours(1);
+}
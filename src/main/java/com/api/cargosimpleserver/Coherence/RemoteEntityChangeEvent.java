@@ -0,0 +1,16 @@
+package com.api.cargosimpleserver.Coherence;
+
+import com.api.cargosimpleserver.Events.InventoryChangeEvent;
+
+/**
+ * Изменение товара, склада или остатка, выполненное другим экземпляром приложения.
+ * <p>
+ * Публикуется после удаления изменённой записи из второго уровня кэша,
+ * чтобы компоненты со своими данными в памяти могли их сбросить.
+ *
+ * @param entityType тип изменённой сущности
+ * @param entityId идентификатор изменённой сущности
+ * @param warehouseId склад сущности или null, если он неизвестен
+ */
+public record RemoteEntityChangeEvent(InventoryChangeEvent.EntityType entityType, Long entityId, Long warehouseId) {
+}
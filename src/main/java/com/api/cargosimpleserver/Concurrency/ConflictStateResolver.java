@@ -0,0 +1,56 @@
+package com.api.cargosimpleserver.Concurrency;
+
+import com.api.cargosimpleserver.Exceptions.NotFoundException;
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Models.WarehouseInStock;
+import com.api.cargosimpleserver.Services.ProductService;
+import com.api.cargosimpleserver.Services.WarehouseInStockService;
+import com.api.cargosimpleserver.Services.WarehouseService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Получение текущего состояния объекта для ответа на конфликт версий.
+ * <p>
+ * Клиент получает актуальные данные в теле ответа 409 и может повторить
+ * изменение без отдельного GET-запроса.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConflictStateResolver {
+
+    private final ProductService productService;
+
+    private final WarehouseService warehouseService;
+
+    private final WarehouseInStockService warehouseInStockService;
+
+    /**
+     * Текущее состояние объекта в виде DTO.
+     *
+     * @param ex исключение конфликта версий
+     * @return DTO объекта или пустой результат, если тип неизвестен или объект удалён
+     */
+    public Optional<Object> currentState(OptimisticConflictException ex) {
+        if (ex.getEntityName() == null || !(ex.getEntityId() instanceof Long id)) {
+            return Optional.empty();
+        }
+        try {
+            if (ex.getEntityName().equals(WarehouseInStock.class.getName())) {
+                return Optional.of(warehouseInStockService.getWarehouseStockById(id));
+            }
+            if (ex.getEntityName().equals(Product.class.getName())) {
+                return Optional.of(productService.getProductById(id));
+            }
+            if (ex.getEntityName().equals(Warehouse.class.getName())) {
+                return Optional.of(warehouseService.getWarehouseById(id));
+            }
+        } catch (NotFoundException notFound) {
+            return Optional.empty();
+        }
+        return Optional.empty();
+    }
+}
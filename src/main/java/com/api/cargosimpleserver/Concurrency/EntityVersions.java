@@ -0,0 +1,79 @@
+package com.api.cargosimpleserver.Concurrency;
+
+import com.api.cargosimpleserver.Exceptions.InvalidVersionException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Версии объектов в HTTP: разбор If-Match и проверка версии клиента.
+ * <p>
+ * ETag ответа — номер версии в кавычках, например {@code "3"}.
+ * <p>
+ * Версия клиента сравнивается с версией, прочитанной транзакцией изменения;
+ * дальше её защищает {@code @Version} сущности при фиксации. Поэтому изменение
+ * по устаревшей версии не перезаписывает чужие изменения, а отклоняется с кодом 409.
+ */
+public final class EntityVersions {
+
+    private EntityVersions() {
+    }
+
+    /**
+     * Версия из заголовка If-Match.
+     *
+     * @param ifMatch значение заголовка или null
+     * @return версия или null, если заголовок не задан или равен {@code *}
+     * @throws InvalidVersionException если значение не ETag версии
+     */
+    public static Long fromIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidVersionException("Заголовок If-Match должен содержать ETag версии объекта: " + ifMatch);
+        }
+    }
+
+    /**
+     * Перенос версии из заголовка If-Match в поле version патча.
+     * <p>
+     * Версия заголовка заменяет version из тела патча.
+     *
+     * @param patch JSON Merge Patch
+     * @param ifMatch значение заголовка или null
+     * @return тот же патч
+     * @throws InvalidVersionException если значение заголовка не ETag версии
+     */
+    public static JsonNode withIfMatch(JsonNode patch, String ifMatch) {
+        Long version = fromIfMatch(ifMatch);
+        if (version != null && patch instanceof ObjectNode object) {
+            object.put("version", version);
+        }
+        return patch;
+    }
+
+    /**
+     * Проверка версии, на основе которой клиент изменяет объект.
+     *
+     * @param expected версия клиента или null для безусловного изменения
+     * @param actual текущая версия объекта
+     * @param entityType класс сущности
+     * @param id идентификатор объекта
+     * @throws OptimisticConflictException если объект уже изменён другим запросом
+     */
+    public static void require(Long expected, Long actual, Class<?> entityType, Long id) {
+        if (expected != null && !expected.equals(actual)) {
+            throw new OptimisticConflictException(entityType.getName(), id,
+                    "Объект изменён другим запросом: версия клиента " + expected + ", текущая " + actual);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.api.cargosimpleserver.Concurrency;
+
+import com.api.cargosimpleserver.Exceptions.ConflictException;
+
+/**
+ * Конфликт версий (HTTP 409).
+ * <p>
+ * Возникает, если клиент изменяет объект по устаревшей версии или если
+ * конфликт не устранён повторами. Содержит тип и идентификатор изменяемой сущности,
+ * если они известны; по ним в ответ добавляется текущее состояние объекта.
+ */
+public class OptimisticConflictException extends ConflictException {
+
+    /**
+     * Полное имя класса сущности или null, если оно неизвестно.
+     */
+    private final String entityName;
+
+    /**
+     * Идентификатор сущности или null, если он неизвестен.
+     */
+    private final Object entityId;
+
+    public OptimisticConflictException(String entityName, Object entityId, int attempts) {
+        this(entityName, entityId, "Объект одновременно изменяется другими запросами, изменение не применено после "
+                + attempts + " попыток");
+    }
+
+    public OptimisticConflictException(String entityName, Object entityId, String message) {
+        super(message);
+        this.entityName = entityName;
+        this.entityId = entityId;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public Object getEntityId() {
+        return entityId;
+    }
+}
@@ -0,0 +1,123 @@
+package com.api.cargosimpleserver.Concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Повтор методов {@link RetryOnConflict} при конфликте версий.
+ * <p>
+ * Основные функции:
+ * - Повтор всей транзакции после {@link OptimisticLockingFailureException}
+ * - Случайная пауза между попытками с экспоненциально растущей границей (full jitter),
+ *   чтобы конкурирующие запросы не сталкивались повторно в тот же момент
+ * - Метрика cargo.optimistic.conflicts с исходом retried или exhausted
+ * - {@link OptimisticConflictException} после исчерпания попыток
+ * <p>
+ * Аспект упорядочен раньше транзакционного перехватчика и оборачивает его:
+ * конфликт обнаруживается при фиксации, и каждая попытка получает новую транзакцию.
+ * Внутри уже открытой транзакции повтор невозможен, поэтому метод выполняется один раз;
+ * так же выполняются вызовы, для которых истинно условие {@link RetryOnConflict#unless()}.
+ */
+@Aspect
+@Component
+@Order(0)
+public class OptimisticRetryAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryAspect.class);
+
+    private final OptimisticRetryProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    public OptimisticRetryAspect(OptimisticRetryProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                || skipped(joinPoint, retryOnConflict.unless())) {
+            return joinPoint.proceed();
+        }
+
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        int maxAttempts = Math.max(1, properties.getMaxAttempts());
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    conflicts(operation, "exhausted").increment();
+                    logger.warn("Конфликт версий в {} не устранён за {} попыток", operation, attempt);
+                    throw exhausted(ex, attempt);
+                }
+                conflicts(operation, "retried").increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private boolean skipped(ProceedingJoinPoint joinPoint, String unless) {
+        if (unless.isEmpty()) {
+            return false;
+        }
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                null, signature.getMethod(), joinPoint.getArgs(), parameterNames);
+        return Boolean.TRUE.equals(expressions.computeIfAbsent(unless, parser::parseExpression).getValue(context));
+    }
+
+    private Counter conflicts(String operation, String outcome) {
+        return Counter.builder("cargo.optimistic.conflicts")
+                .description("Конфликты версий при изменении данных")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void backoff(int attempt) throws InterruptedException {
+        long initial = properties.getInitialBackoff().toNanos();
+        long bound = Math.min(properties.getMaxBackoff().toNanos(), initial << Math.min(attempt - 1, 20));
+        if (bound > 0) {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        }
+    }
+
+    private static OptimisticConflictException exhausted(OptimisticLockingFailureException ex, int attempts) {
+        if (ex instanceof ObjectOptimisticLockingFailureException objectEx) {
+            return new OptimisticConflictException(objectEx.getPersistentClassName(), objectEx.getIdentifier(), attempts);
+        }
+        return new OptimisticConflictException(null, null, attempts);
+    }
+}
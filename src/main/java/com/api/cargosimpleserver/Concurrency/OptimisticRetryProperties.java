@@ -0,0 +1,32 @@
+package com.api.cargosimpleserver.Concurrency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки повтора изменений при конфликте версий.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.optimistic-retry}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.optimistic-retry")
+public class OptimisticRetryProperties {
+
+    /**
+     * Максимальное число попыток, включая первую.
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Верхняя граница паузы перед первым повтором.
+     * Для каждого следующего повтора граница удваивается.
+     */
+    private Duration initialBackoff = Duration.ofMillis(5);
+
+    /**
+     * Предельная граница паузы между попытками.
+     */
+    private Duration maxBackoff = Duration.ofMillis(100);
+}
@@ -0,0 +1,35 @@
+package com.api.cargosimpleserver.Concurrency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Повтор метода сервиса при конфликте версий (оптимистическая блокировка).
+ * <p>
+ * Метод должен быть транзакционным и идемпотентным относительно повторного чтения:
+ * каждая попытка выполняется в новой транзакции и заново читает текущее состояние,
+ * поэтому проверки (например, вместимости склада) выполняются по свежим данным.
+ * <p>
+ * Изменение клиента, переданное с версией объекта, повторять нельзя: оно рассчитано
+ * по этой версии. Такие вызовы исключаются условием {@link #unless()}.
+ *
+ * @see OptimisticRetryAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+
+    /**
+     * Выражение SpEL по параметрам метода; если оно истинно, метод выполняется один раз.
+     * <p>
+     * Например, {@code "#productDTO?.version != null"} — клиент передал версию,
+     * и конфликт возвращается ему с текущим состоянием объекта.
+     *
+     * @return условие отказа от повторов или пустая строка, если повторы выполняются всегда
+     */
+    String unless() default "";
+}
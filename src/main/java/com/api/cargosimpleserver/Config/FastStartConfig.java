@@ -0,0 +1,60 @@
+package com.api.cargosimpleserver.Config;
+
+import com.api.cargosimpleserver.Coherence.CacheCoherenceManager;
+import com.api.cargosimpleserver.Events.InventoryEventBroadcaster;
+import com.api.cargosimpleserver.Idempotency.IdempotencyFilter;
+import com.api.cargosimpleserver.Idempotency.IdempotencyStore;
+import com.api.cargosimpleserver.Mailbox.StockCommandQueue;
+import com.api.cargosimpleserver.Replication.ReplicaCluster;
+import com.api.cargosimpleserver.Reports.ReportJobService;
+import com.api.cargosimpleserver.Security.RateLimiter;
+import com.api.cargosimpleserver.Sharding.ReferenceDataReplicator;
+import com.api.cargosimpleserver.Valuation.InventoryValuationEngine;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+
+/**
+ * Конфигурация режима быстрого старта (профиль {@code fast}).
+ *
+ * <p>
+ * В этом режиме бины создаются лениво, при первом обращении.
+ * Исключение составляют бины, без которых первый запрос был бы медленным
+ * или которые должны работать с момента старта:
+ * - Пул соединений и фабрика EntityManager
+ * - Бины с периодическими задачами (@Scheduled не регистрируется у ленивых бинов)
+ * </p>
+ */
+@Configuration
+@Profile("fast")
+public class FastStartConfig {
+
+    /**
+     * Исключение критичных бинов из ленивой инициализации.
+     *
+     * @return фильтр исключений ленивой инициализации
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerInfrastructureBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                DataSource.class,
+                EntityManagerFactory.class,
+                LocalContainerEntityManagerFactoryBean.class,
+                InventoryEventBroadcaster.class,
+                IdempotencyStore.class,
+                IdempotencyFilter.class,
+                RateLimiter.class,
+                CacheCoherenceManager.class,
+                ReferenceDataReplicator.class,
+                ReportJobService.class,
+                InventoryValuationEngine.class,
+                StockCommandQueue.class,
+                ReplicaCluster.class
+        );
+    }
+}
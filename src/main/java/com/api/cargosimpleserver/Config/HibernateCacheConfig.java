@@ -0,0 +1,62 @@
+package com.api.cargosimpleserver.Config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+
+/**
+ * Менеджер кэшей для второго уровня кэша Hibernate.
+ *
+ * <p>
+ * Регионы описаны в hibernate-cache.conf. Менеджер создаётся здесь, а не по
+ * hibernate.javax.cache.uri: Hibernate передаёт в Caffeine URI найденного ресурса,
+ * а внутри исполняемого jar это URI вида jar:, который Caffeine не читает
+ * и молча подменяет пустой конфигурацией.
+ * </p>
+ *
+ * <p>
+ * Провайдер Caffeine выдаёт один менеджер на пару (URI, загрузчик классов), поэтому
+ * каждому контексту приложения передаётся собственный загрузчик: несколько экземпляров
+ * в одной JVM (например, в тестах согласования кэшей) не делят регионы,
+ * а закрытие одного контекста не закрывает кэши другого.
+ * </p>
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    /**
+     * Загрузчик классов менеджера кэшей этого контекста.
+     * <p>
+     * Менеджер хранит загрузчик по слабой ссылке, поэтому ссылка держится здесь
+     * всё время жизни контекста.
+     */
+    private final ClassLoader cacheClassLoader = new ClassLoader(getClass().getClassLoader()) { };
+
+    /**
+     * Менеджер кэшей Caffeine с регионами из hibernate-cache.conf.
+     *
+     * @return менеджер кэшей
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("classpath:hibernate-cache.conf"), cacheClassLoader);
+    }
+
+    /**
+     * Передача менеджера кэшей в Hibernate.
+     *
+     * @param hibernateCacheManager менеджер кэшей
+     * @return настройка свойств Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
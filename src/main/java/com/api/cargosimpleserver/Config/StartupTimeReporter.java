@@ -0,0 +1,37 @@
+package com.api.cargosimpleserver.Config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Запись в журнал времени готовности приложения с момента запуска JVM.
+ * <p>
+ * В отличие от стандартного сообщения Spring Boot учитывает загрузку JVM
+ * и классов, что позволяет сравнивать обычный режим и режим быстрого старта.
+ */
+@Component
+public class StartupTimeReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeReporter.class);
+
+    private final Environment environment;
+
+    public StartupTimeReporter(Environment environment) {
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportReady() {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        logger.info("Приложение готово через {} мс после запуска JVM (профили: {}, AOT: {})",
+                uptime, Arrays.toString(environment.getActiveProfiles()),
+                Boolean.getBoolean("spring.aot.enabled"));
+    }
+}
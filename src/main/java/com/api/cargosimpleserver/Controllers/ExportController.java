@@ -0,0 +1,68 @@
+package com.api.cargosimpleserver.Controllers;
+
+import com.api.cargosimpleserver.Export.CsvExporter;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * REST-контроллер выгрузки данных в CSV для партнёров.
+ * <p>
+ * Возможности:
+ * - Выгрузка справочника товаров
+ * - Выгрузка остатков с артикулом и названием товара и названием склада
+ * <p>
+ * Файлы сжаты gzip и передаются по мере чтения строк из базы, без сборки
+ * целиком в памяти. Запись идёт прямо в поток ответа в потоке запроса,
+ * поэтому длинная выгрузка не ограничена временем асинхронного запроса.
+ * <p>
+ * Маршрутизация:
+ * - Базовый путь: /api/export
+ *
+ * @see CsvExporter
+ */
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private static final String GZIP = "application/gzip";
+
+    private final CsvExporter csvExporter;
+
+    /**
+     * Выгрузка справочника товаров.
+     *
+     * @param response ответ, в который пишется файл products.csv.gz
+     * @throws IOException если клиент прервал загрузку
+     */
+    @GetMapping("/products.csv.gz")
+    public void exportProducts(HttpServletResponse response) throws IOException {
+        prepare(response, "products.csv.gz");
+        csvExporter.exportProducts(response.getOutputStream());
+    }
+
+    /**
+     * Выгрузка остатков по складам.
+     *
+     * @param response ответ, в который пишется файл warehouse-stocks.csv.gz
+     * @throws IOException если клиент прервал загрузку
+     */
+    @GetMapping("/warehouse-stocks.csv.gz")
+    public void exportStocks(HttpServletResponse response) throws IOException {
+        prepare(response, "warehouse-stocks.csv.gz");
+        csvExporter.exportStocks(response.getOutputStream());
+    }
+
+    private static void prepare(HttpServletResponse response, String filename) {
+        response.setContentType(GZIP);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+    }
+}
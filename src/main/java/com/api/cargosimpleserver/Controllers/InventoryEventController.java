@@ -0,0 +1,66 @@
+package com.api.cargosimpleserver.Controllers;
+
+import com.api.cargosimpleserver.Events.InventoryEventBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST-контроллер подписки на изменения складских данных.
+ * <p>
+ * Функциональность:
+ * - Push-уведомления об изменениях складских запасов и складов (Server-Sent Events)
+ * - Фильтрация по складу и товару
+ * - Возобновление потока с последнего полученного события
+ * <p>
+ * Заменяет периодический опрос /api/warehouse-stocks и /api/warehouses.
+ * <p>
+ * Маршрутизация:
+ * - Базовый путь: /api/events
+ *
+ * @see InventoryEventBroadcaster
+ */
+@RestController
+@RequestMapping("/api/events")
+@Validated
+@RequiredArgsConstructor
+public class InventoryEventController {
+
+    private final InventoryEventBroadcaster broadcaster;
+
+    /**
+     * Подписка на поток изменений.
+     * <p>
+     * События: "stock" и "warehouse" с JSON-описанием изменения,
+     * "resync" — клиент должен заново загрузить состояние целиком.
+     * Идентификатор события имеет вид {@code <эпоха>-<номер>}; после перезапуска сервера
+     * прежние идентификаторы не принимаются и поток начинается с "resync".
+     *
+     * @param warehouseId Склад, изменения которого интересуют клиента (необязательно)
+     * @param productId Товар, изменения остатков которого интересуют клиента (необязательно)
+     * @param lastEventIdHeader Стандартный заголовок возобновления SSE
+     * @param lastEventId Идентификатор последнего полученного события (альтернатива заголовку)
+     * @return SSE-поток событий
+     * <p>
+     * Сценарии использования:
+     * - Обновление дашбордов без периодического опроса
+     * - Отслеживание остатков конкретного склада или товара
+     *
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @RequestParam(required = false) Long warehouseId,
+            @RequestParam(required = false) Long productId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId
+    ) {
+        String resumeFrom = lastEventIdHeader != null ? lastEventIdHeader : lastEventId;
+        return broadcaster.subscribe(warehouseId, productId, resumeFrom);
+    }
+}
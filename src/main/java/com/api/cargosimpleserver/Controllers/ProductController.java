@@ -1,10 +1,20 @@
 package com.api.cargosimpleserver.Controllers;
 
+import com.api.cargosimpleserver.Concurrency.EntityVersions;
+import com.api.cargosimpleserver.DTO.BatchItemDTO;
+import com.api.cargosimpleserver.DTO.BatchRequestDTO;
 import com.api.cargosimpleserver.DTO.ProductDTO;
 import com.api.cargosimpleserver.Services.ProductService;
 import com.api.cargosimpleserver.Services.WarehouseInStockService;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -78,6 +88,32 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    /**
+     * Получение товаров по списку идентификаторов.
+     * <p>
+     * Заменяет серию запросов GET /api/products/{id} одним запросом.
+     *
+     * @param ids Идентификаторы через запятую (не более {@value BatchRequestDTO#MAX_QUERY_IDS})
+     * @return Элементы в порядке ids; для отсутствующих found = false
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<BatchItemDTO<ProductDTO>>> getProductsByIds(
+            @RequestParam @NotEmpty @Size(max = BatchRequestDTO.MAX_QUERY_IDS) List<@NotNull Long> ids
+    ) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    /**
+     * Получение товаров по большому списку идентификаторов.
+     *
+     * @param request Идентификаторы (не более {@value BatchRequestDTO#MAX_IDS})
+     * @return Элементы в порядке идентификаторов запроса; для отсутствующих found = false
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemDTO<ProductDTO>>> getProductsBatch(@Valid @RequestBody BatchRequestDTO request) {
+        return ResponseEntity.ok(productService.getProductsByIds(request.getIds()));
+    }
+
     /**
      * Получение детальной информации о товаре по его идентификатору.
      *
@@ -91,7 +127,23 @@ public class ProductController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+        ProductDTO product = productService.getProductById(id);
+        return ResponseEntity.ok().eTag(String.valueOf(product.getVersion())).body(product);
+    }
+
+    /**
+     * Получение товара по артикулу.
+     *
+     * @param articleNumber Артикул товара
+     * @return Информация о товаре
+     * <p>
+     * Сценарии использования:
+     * - Поиск товара по коду при приёмке и отгрузке
+     *
+     */
+    @GetMapping("/article/{articleNumber}")
+    public ResponseEntity<ProductDTO> getProductByArticleNumber(@PathVariable String articleNumber) {
+        return ResponseEntity.ok(productService.getProductByArticleNumber(articleNumber));
     }
 
     /**
@@ -101,19 +153,54 @@ public class ProductController {
      *
      * @param id Идентификатор обновляемого товара
      * @param productDTO Новые данные о товаре
+     * @param ifMatch ETag версии, по которой клиент изменяет товар
      * @return Обновленный товар
      * <p>
      * Ограничения:
      * - Проверка существования товара
      * - Валидация входных данных
+     * - Версия из If-Match или поля version должна совпадать с текущей, иначе 409
      *
      */
     @PutMapping("/{id}")
     public ResponseEntity<ProductDTO> updateProduct(
             @PathVariable Long id,
-            @RequestBody ProductDTO productDTO
+            @RequestBody ProductDTO productDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        productDTO.setId(id);
+        Long version = EntityVersions.fromIfMatch(ifMatch);
+        if (version != null) {
+            productDTO.setVersion(version);
+        }
+        ProductDTO updatedProduct = productService.updateProduct(id, productDTO);
+        return ResponseEntity.ok().eTag(String.valueOf(updatedProduct.getVersion())).body(updatedProduct);
+    }
+
+    /**
+     * Частичное обновление товара.
+     * <p>
+     * Тело запроса — JSON Merge Patch (RFC 7396): передаются только изменяемые поля.
+     *
+     * @param id Идентификатор обновляемого товара
+     * @param patch Изменяемые поля товара
+     * @param ifMatch ETag версии, по которой клиент изменяет товар
+     * @return Обновленный товар
+     * <p>
+     * Ограничения:
+     * - Проверяются только изменённые поля и соотношение уровней запаса
+     * - Идентификатор и неизвестные поля изменить нельзя
+     * - Версия из If-Match или поля version должна совпадать с текущей, иначе 409
+     *
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ProductDTO> patchProduct(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return ResponseEntity.ok(productService.updateProduct(id, productDTO));
+        ProductDTO patchedProduct = productService.patchProduct(id, EntityVersions.withIfMatch(patch, ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(patchedProduct.getVersion())).body(patchedProduct);
     }
 
     /**
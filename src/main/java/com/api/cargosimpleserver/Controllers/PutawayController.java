@@ -0,0 +1,51 @@
+package com.api.cargosimpleserver.Controllers;
+
+import com.api.cargosimpleserver.DTO.PutawaySuggestionDTO;
+import com.api.cargosimpleserver.Putaway.PutawayEngine;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST-контроллер подбора ячеек для размещения товара.
+ * <p>
+ * Возможности:
+ * - Предложение ячеек для поступившего товара: сначала ячейка, где товар
+ *   уже хранится на складе, затем свободные ячейки в порядке обхода
+ * - Проверка свободной вместимости склада
+ * <p>
+ * Маршрутизация:
+ * - Базовый путь: /api/putaway
+ *
+ * @see PutawayEngine
+ */
+@RestController
+@RequestMapping("/api/putaway")
+@Validated
+@RequiredArgsConstructor
+public class PutawayController {
+
+    private final PutawayEngine putawayEngine;
+
+    /**
+     * Получение предложения ячеек.
+     *
+     * @param warehouseId идентификатор склада
+     * @param productId идентификатор товара
+     * @param quantity размещаемое количество
+     * @param limit наибольшее число предлагаемых ячеек
+     * @return ячейки в порядке предпочтения и свободная вместимость склада
+     */
+    @GetMapping("/suggestions")
+    public ResponseEntity<PutawaySuggestionDTO> getSuggestions(
+            @RequestParam Long warehouseId,
+            @RequestParam Long productId,
+            @RequestParam @Min(1) @Max(100000) int quantity,
+            @RequestParam(defaultValue = "5") @Min(1) @Max(100) int limit
+    ) {
+        return ResponseEntity.ok(putawayEngine.suggest(warehouseId, productId, quantity, limit));
+    }
+}
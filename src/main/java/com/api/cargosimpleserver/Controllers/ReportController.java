@@ -0,0 +1,101 @@
+package com.api.cargosimpleserver.Controllers;
+
+import com.api.cargosimpleserver.DTO.ReportJobDTO;
+import com.api.cargosimpleserver.DTO.ReportRequestDTO;
+import com.api.cargosimpleserver.Reports.ReportJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Set;
+
+/**
+ * REST-контроллер фонового построения отчётов.
+ * <p>
+ * Возможности:
+ * - Постановка отчёта в очередь (выгрузка остатков, оценка запасов, низкие остатки)
+ * - Получение состояния задания и результата построенного отчёта
+ * - Отмена задания
+ * <p>
+ * Отчёты строятся отдельными потоками, поэтому тяжёлые выборки
+ * не занимают потоки обработки HTTP-запросов.
+ * <p>
+ * Маршрутизация:
+ * - Базовый путь: /api/reports
+ *
+ * @see ReportJobService
+ */
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+public class ReportController {
+
+    private final ReportJobService reportJobService;
+
+    /**
+     * Получение доступных типов отчётов.
+     *
+     * @return имена типов
+     */
+    @GetMapping("/types")
+    public ResponseEntity<Set<String>> getTypes() {
+        return ResponseEntity.ok(reportJobService.types());
+    }
+
+    /**
+     * Постановка отчёта в очередь.
+     *
+     * @param request тип, приоритет и параметры отчёта
+     * @return состояние задания с HTTP-статусом 202 (Accepted) и адресом задания в Location
+     * <p>
+     * Примеры использования:
+     * - {"type": "stock-dump", "parameters": {"warehouseId": "1"}}
+     * - {"type": "valuation", "priority": "HIGH", "parameters": {"groupBy": "CATEGORY"}}
+     *
+     */
+    @PostMapping
+    public ResponseEntity<ReportJobDTO> submit(@Valid @RequestBody ReportRequestDTO request) {
+        ReportJobDTO job = reportJobService.submit(request);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    /**
+     * Получение состояния задания.
+     *
+     * @param id идентификатор задания
+     * @return состояние задания
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportJobDTO> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(reportJobService.getJob(id));
+    }
+
+    /**
+     * Получение результата построенного отчёта.
+     *
+     * @param id идентификатор задания
+     * @return результат отчёта; 409, если отчёт ещё строится или не построен
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Object> getResult(@PathVariable String id) {
+        return ResponseEntity.ok(reportJobService.getResult(id));
+    }
+
+    /**
+     * Отмена задания.
+     *
+     * @param id идентификатор задания
+     * @return состояние задания после отмены
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ReportJobDTO> cancel(@PathVariable String id) {
+        return ResponseEntity.ok(reportJobService.cancel(id));
+    }
+}
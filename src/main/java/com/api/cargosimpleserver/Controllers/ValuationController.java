@@ -0,0 +1,56 @@
+package com.api.cargosimpleserver.Controllers;
+
+import com.api.cargosimpleserver.DTO.InventoryValuationDTO;
+import com.api.cargosimpleserver.Valuation.InventoryValuationEngine;
+import com.api.cargosimpleserver.Valuation.ValuationGroup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST-контроллер оценки складских запасов.
+ * <p>
+ * Возможности:
+ * - Стоимость запасов по ценам закупки и продажи с группировкой по складам,
+ *   категориям или производителям
+ * - Принудительный полный пересчёт оценки по данным базы
+ * <p>
+ * Маршрутизация:
+ * - Базовый путь: /api/valuation
+ *
+ * @see InventoryValuationEngine
+ */
+@RestController
+@RequestMapping("/api/valuation")
+@RequiredArgsConstructor
+public class ValuationController {
+
+    private final InventoryValuationEngine valuationEngine;
+
+    /**
+     * Получение оценки запасов.
+     *
+     * @param groupBy признак группировки: WAREHOUSE, CATEGORY или MANUFACTURER
+     * @return итоги по группам и общий итог
+     */
+    @GetMapping
+    public ResponseEntity<InventoryValuationDTO> getValuation(
+            @RequestParam(defaultValue = "WAREHOUSE") ValuationGroup groupBy
+    ) {
+        return ResponseEntity.ok(valuationEngine.valuation(groupBy));
+    }
+
+    /**
+     * Полный пересчёт оценки по данным базы.
+     *
+     * @param groupBy признак группировки результата
+     * @return итоги после пересчёта
+     */
+    @PostMapping("/recompute")
+    public ResponseEntity<InventoryValuationDTO> recompute(
+            @RequestParam(defaultValue = "WAREHOUSE") ValuationGroup groupBy
+    ) {
+        valuationEngine.recompute();
+        return ResponseEntity.ok(valuationEngine.valuation(groupBy));
+    }
+}
@@ -1,8 +1,16 @@
 package com.api.cargosimpleserver.Controllers;
 
+import com.api.cargosimpleserver.Concurrency.EntityVersions;
+import com.api.cargosimpleserver.DTO.BatchItemDTO;
+import com.api.cargosimpleserver.DTO.BatchRequestDTO;
 import com.api.cargosimpleserver.DTO.WarehouseDTO;
 import com.api.cargosimpleserver.Services.WarehouseService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -74,6 +82,32 @@ public class WarehouseController {
         return ResponseEntity.ok(warehouseService.getAllWarehouses());
     }
 
+    /**
+     * Получение складов по списку идентификаторов.
+     * <p>
+     * Заменяет серию запросов GET /api/warehouses/{id} одним запросом.
+     *
+     * @param ids Идентификаторы через запятую (не более {@value BatchRequestDTO#MAX_QUERY_IDS})
+     * @return Элементы в порядке ids; для отсутствующих found = false
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<BatchItemDTO<WarehouseDTO>>> getWarehousesByIds(
+            @RequestParam @NotEmpty @Size(max = BatchRequestDTO.MAX_QUERY_IDS) List<@NotNull Long> ids
+    ) {
+        return ResponseEntity.ok(warehouseService.getWarehousesByIds(ids));
+    }
+
+    /**
+     * Получение складов по большому списку идентификаторов.
+     *
+     * @param request Идентификаторы (не более {@value BatchRequestDTO#MAX_IDS})
+     * @return Элементы в порядке идентификаторов запроса; для отсутствующих found = false
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemDTO<WarehouseDTO>>> getWarehousesBatch(@Valid @RequestBody BatchRequestDTO request) {
+        return ResponseEntity.ok(warehouseService.getWarehousesByIds(request.getIds()));
+    }
+
     /**
      * Получение детальной информации о складе по его идентификатору.
      *
@@ -87,7 +121,8 @@ public class WarehouseController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<WarehouseDTO> getWarehouseById(@PathVariable Long id) {
-        return ResponseEntity.ok(warehouseService.getWarehouseById(id));
+        WarehouseDTO warehouse = warehouseService.getWarehouseById(id);
+        return ResponseEntity.ok().eTag(String.valueOf(warehouse.getVersion())).body(warehouse);
     }
 
     /**
@@ -97,20 +132,27 @@ public class WarehouseController {
      *
      * @param id Идентификатор обновляемого склада
      * @param warehouseDTO Новые данные о складе
+     * @param ifMatch ETag версии, по которой клиент изменяет склад
      * @return Обновленный склад или сообщение об ошибке
      * <p>
      * Ограничения:
      * - Нельзя деактивировать склад с товарами
+     * - Версия из If-Match или поля version должна совпадать с текущей, иначе 409
      *
      */
     @PutMapping("/{id}")
     public ResponseEntity<?> updateWarehouse(
             @PathVariable Long id,
-            @RequestBody WarehouseDTO warehouseDTO
+            @RequestBody WarehouseDTO warehouseDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
         WarehouseDTO currentWarehouse = warehouseService.getWarehouseById(id);
 
         warehouseDTO.setId(id);
+        Long version = EntityVersions.fromIfMatch(ifMatch);
+        if (version != null) {
+            warehouseDTO.setVersion(version);
+        }
 
         if (warehouseService.hasProducts(id) && currentWarehouse.getStatus() != warehouseDTO.getStatus()) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -118,7 +160,7 @@ public class WarehouseController {
         }
 
         WarehouseDTO updatedWarehouse = warehouseService.updateWarehouse(warehouseDTO);
-        return ResponseEntity.ok(updatedWarehouse);
+        return ResponseEntity.ok().eTag(String.valueOf(updatedWarehouse.getVersion())).body(updatedWarehouse);
     }
 
     /**
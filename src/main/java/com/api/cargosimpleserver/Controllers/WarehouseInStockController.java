@@ -1,9 +1,25 @@
 package com.api.cargosimpleserver.Controllers;
 
+import com.api.cargosimpleserver.Concurrency.EntityVersions;
+import com.api.cargosimpleserver.DTO.BatchItemDTO;
+import com.api.cargosimpleserver.DTO.BatchRequestDTO;
+import com.api.cargosimpleserver.DTO.StockAdjustmentDTO;
 import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.DTO.WarehouseStockPageDTO;
+import com.api.cargosimpleserver.Mailbox.StockCommandQueue;
 import com.api.cargosimpleserver.Services.WarehouseInStockService;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -25,6 +41,9 @@ import java.util.List;
  * <p>
  * Маршрутизация:
  * - Базовый путь: /api/warehouse-stocks
+ * <p>
+ * При {@code app.stock-mailbox.enabled} изменения остатков выполняются очередью склада
+ * ({@link StockCommandQueue}), а поток запроса ожидает их фиксации.
  *
  * @see WarehouseInStockService
  * @see WarehouseInStockDTO
@@ -37,6 +56,8 @@ public class WarehouseInStockController {
 
     private final WarehouseInStockService warehouseStockService;
 
+    private final ObjectProvider<StockCommandQueue> commandQueue;
+
     /**
      * Создание новой записи о складском запасе.
      * <p>
@@ -54,7 +75,10 @@ public class WarehouseInStockController {
     public ResponseEntity<WarehouseInStockDTO> createWarehouseStock(
             @RequestBody WarehouseInStockDTO warehouseStockDTO
     ) {
-        WarehouseInStockDTO createdStock = warehouseStockService.createWarehouseStock(warehouseStockDTO);
+        StockCommandQueue queue = commandQueue.getIfAvailable();
+        WarehouseInStockDTO createdStock = queue != null
+                ? queue.await(queue.create(warehouseStockDTO))
+                : warehouseStockService.createWarehouseStock(warehouseStockDTO);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdStock);
     }
 
@@ -75,6 +99,32 @@ public class WarehouseInStockController {
         return ResponseEntity.ok(warehouseStockService.getAllWarehouseStocks());
     }
 
+    /**
+     * Получение записей о складских запасах по списку идентификаторов.
+     * <p>
+     * Заменяет серию запросов GET /api/warehouse-stocks/{id} одним запросом.
+     *
+     * @param ids Идентификаторы через запятую (не более {@value BatchRequestDTO#MAX_QUERY_IDS})
+     * @return Элементы в порядке ids; для отсутствующих found = false
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<BatchItemDTO<WarehouseInStockDTO>>> getWarehouseStocksByIds(
+            @RequestParam @NotEmpty @Size(max = BatchRequestDTO.MAX_QUERY_IDS) List<@NotNull Long> ids
+    ) {
+        return ResponseEntity.ok(warehouseStockService.getWarehouseStocksByIds(ids));
+    }
+
+    /**
+     * Получение записей о складских запасах по большому списку идентификаторов.
+     *
+     * @param request Идентификаторы (не более {@value BatchRequestDTO#MAX_IDS})
+     * @return Элементы в порядке идентификаторов запроса; для отсутствующих found = false
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemDTO<WarehouseInStockDTO>>> getWarehouseStocksBatch(@Valid @RequestBody BatchRequestDTO request) {
+        return ResponseEntity.ok(warehouseStockService.getWarehouseStocksByIds(request.getIds()));
+    }
+
     /**
      * Получение детальной информации о складском запасе по его идентификатору.
      *
@@ -88,7 +138,8 @@ public class WarehouseInStockController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<WarehouseInStockDTO> getWarehouseStockById(@PathVariable Long id) {
-        return ResponseEntity.ok(warehouseStockService.getWarehouseStockById(id));
+        WarehouseInStockDTO stock = warehouseStockService.getWarehouseStockById(id);
+        return ResponseEntity.ok().eTag(String.valueOf(stock.getVersion())).body(stock);
     }
 
     /**
@@ -96,21 +147,108 @@ public class WarehouseInStockController {
      *
      * @param id Идентификатор обновляемой записи
      * @param stockDTO Новые данные о складском запасе
+     * @param ifMatch ETag версии, по которой клиент изменяет запись
      * @return Обновленная запись о складском запасе
      * <p>
      * Варианты использования:
      * - Корректировка остатков
      * - Изменение параметров складской записи
+     * <p>
+     * Запись, изменённая после чтения клиентом (версия из If-Match или поля version
+     * не совпадает с текущей), не перезаписывается: ответ 409 с текущим состоянием.
      *
      */
     @PutMapping("/{id}")
     public ResponseEntity<WarehouseInStockDTO> updateWarehouseStock(
             @PathVariable Long id,
-            @RequestBody WarehouseInStockDTO stockDTO
+            @RequestBody WarehouseInStockDTO stockDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
         stockDTO.setId(id);
-        WarehouseInStockDTO updatedStock = warehouseStockService.updateWarehouseStock(stockDTO);
-        return ResponseEntity.ok(updatedStock);
+        Long version = EntityVersions.fromIfMatch(ifMatch);
+        if (version != null) {
+            stockDTO.setVersion(version);
+        }
+        StockCommandQueue queue = commandQueue.getIfAvailable();
+        WarehouseInStockDTO updatedStock = queue != null
+                ? queue.await(queue.update(stockDTO))
+                : warehouseStockService.updateWarehouseStock(stockDTO);
+        return ResponseEntity.ok().eTag(String.valueOf(updatedStock.getVersion())).body(updatedStock);
+    }
+
+    /**
+     * Частичное обновление записи о складском запасе.
+     * <p>
+     * Тело запроса — JSON Merge Patch (RFC 7396): передаются только изменяемые поля.
+     * Проверяются только изменённые поля, а UPDATE затрагивает только их столбцы.
+     *
+     * @param id Идентификатор обновляемой записи
+     * @param patch Изменяемые поля складской записи
+     * @param ifMatch ETag версии, по которой клиент изменяет запись
+     * @return Обновленная запись о складском запасе
+     * <p>
+     * Варианты использования:
+     * - Корректировка количества без передачи всей записи
+     * - Перемещение товара в другую ячейку склада
+     *
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<WarehouseInStockDTO> patchWarehouseStock(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        EntityVersions.withIfMatch(patch, ifMatch);
+        StockCommandQueue queue = commandQueue.getIfAvailable();
+        WarehouseInStockDTO patchedStock = queue != null
+                ? queue.await(queue.patch(id, patch))
+                : warehouseStockService.patchWarehouseStock(id, patch);
+        return ResponseEntity.ok().eTag(String.valueOf(patchedStock.getVersion())).body(patchedStock);
+    }
+
+    /**
+     * Увеличение количества товара в складской записи.
+     * <p>
+     * Выполняется одним SQL-запросом без предварительного чтения записи;
+     * вместимость склада проверяется в том же запросе.
+     *
+     * @param id Идентификатор записи
+     * @param adjustment Величина поступления
+     * @return Запись о складском запасе после изменения
+     * <p>
+     * Варианты использования:
+     * - Приёмка товара сканером
+     *
+     */
+    @PostMapping("/{id}/increment")
+    public ResponseEntity<WarehouseInStockDTO> incrementQuantity(
+            @PathVariable Long id,
+            @Valid @RequestBody StockAdjustmentDTO adjustment
+    ) {
+        return ResponseEntity.ok(adjust(id, adjustment.getAmount()));
+    }
+
+    /**
+     * Уменьшение количества товара в складской записи.
+     * <p>
+     * Выполняется одним SQL-запросом без предварительного чтения записи;
+     * количество не может стать меньше зарезервированного.
+     *
+     * @param id Идентификатор записи
+     * @param adjustment Величина отбора
+     * @return Запись о складском запасе после изменения
+     * <p>
+     * Варианты использования:
+     * - Отбор товара сканером
+     * - Списание части остатка
+     *
+     */
+    @PostMapping("/{id}/decrement")
+    public ResponseEntity<WarehouseInStockDTO> decrementQuantity(
+            @PathVariable Long id,
+            @Valid @RequestBody StockAdjustmentDTO adjustment
+    ) {
+        return ResponseEntity.ok(adjust(id, -adjustment.getAmount()));
     }
 
     /**
@@ -126,10 +264,29 @@ public class WarehouseInStockController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteWarehouseStock(@PathVariable Long id) {
-        warehouseStockService.deleteWarehouseStock(id);
+        StockCommandQueue queue = commandQueue.getIfAvailable();
+        if (queue != null) {
+            queue.await(queue.delete(id));
+        } else {
+            warehouseStockService.deleteWarehouseStock(id);
+        }
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Изменение количества сервисом или очередью склада.
+     *
+     * @param id Идентификатор записи
+     * @param delta Изменение количества
+     * @return Запись о складском запасе после изменения
+     */
+    private WarehouseInStockDTO adjust(Long id, int delta) {
+        StockCommandQueue queue = commandQueue.getIfAvailable();
+        return queue != null
+                ? queue.await(queue.adjust(id, delta))
+                : warehouseStockService.adjustWarehouseStockQuantity(id, delta);
+    }
+
     /**
      * Получение списка складских запасов для конкретного товара.
      *
@@ -147,4 +304,31 @@ public class WarehouseInStockController {
     ) {
         return ResponseEntity.ok(warehouseStockService.getStocksByProduct(productId));
     }
+
+    /**
+     * Получение страницы остатков склада в порядке ячеек.
+     *
+     * @param warehouseId Идентификатор склада
+     * @param locationPrefix Префикс локации (ряд, стеллаж), например "L1-"
+     * @param afterLocation Значение nextAfterLocation предыдущей страницы
+     * @param afterId Значение nextAfterId предыдущей страницы
+     * @param limit Размер страницы (от 1 до 1000)
+     * @return Страница остатков и позиция следующей страницы
+     * <p>
+     * Применение:
+     * - Экраны отбора с обходом склада по рядам
+     * - Инвентаризация отдельного склада без загрузки всех остатков
+     *
+     */
+    @GetMapping("/warehouse/{warehouseId}")
+    public ResponseEntity<WarehouseStockPageDTO> getStocksByWarehouse(
+            @PathVariable Long warehouseId,
+            @RequestParam(required = false) String locationPrefix,
+            @RequestParam(required = false) String afterLocation,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit
+    ) {
+        return ResponseEntity.ok(warehouseStockService.getStocksByWarehouse(
+                warehouseId, locationPrefix, afterLocation, afterId, limit));
+    }
 }
@@ -0,0 +1,33 @@
+package com.api.cargosimpleserver.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Элемент ответа пакетного запроса по идентификаторам.
+ * <p>
+ * Элементы возвращаются в порядке идентификаторов запроса;
+ * для отсутствующего объекта found = false и data = null.
+ *
+ * @param <T> тип DTO объекта
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemDTO<T> {
+
+    private Long id;
+
+    private boolean found;
+
+    private T data;
+
+    public static <T> BatchItemDTO<T> found(Long id, T data) {
+        return new BatchItemDTO<>(id, true, data);
+    }
+
+    public static <T> BatchItemDTO<T> notFound(Long id) {
+        return new BatchItemDTO<>(id, false, null);
+    }
+}
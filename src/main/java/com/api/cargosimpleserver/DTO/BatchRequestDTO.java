@@ -0,0 +1,32 @@
+package com.api.cargosimpleserver.DTO;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) пакетного запроса по идентификаторам.
+ * <p>
+ * Используется POST-вариантами пакетного получения, когда список
+ * идентификаторов слишком велик для строки запроса.
+ */
+@Data
+public class BatchRequestDTO {
+
+    /**
+     * Наибольшее число идентификаторов в одном запросе.
+     */
+    public static final int MAX_IDS = 5000;
+
+    /**
+     * Наибольшее число идентификаторов в параметре ids GET-запроса.
+     */
+    public static final int MAX_QUERY_IDS = 200;
+
+    @NotEmpty(message = "Список идентификаторов не может быть пустым")
+    @Size(max = MAX_IDS, message = "Не более " + MAX_IDS + " идентификаторов в одном запросе")
+    private List<@NotNull(message = "Идентификатор не может быть пустым") Long> ids;
+}
@@ -0,0 +1,45 @@
+package com.api.cargosimpleserver.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) для оценки складских запасов.
+ * <p>
+ * Содержит:
+ * - Признак группировки (склад, категория или производитель)
+ * - Количество и стоимость запасов по ценам закупки и продажи для каждой группы
+ * - Общий итог по всем группам
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryValuationDTO {
+
+    private String groupBy;
+
+    private List<Line> lines;
+
+    private Line total;
+
+    /**
+     * Итог одной группы.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Line {
+
+        private String key;
+
+        private long quantity;
+
+        private BigDecimal purchaseValue;
+
+        private BigDecimal sellingValue;
+    }
+}
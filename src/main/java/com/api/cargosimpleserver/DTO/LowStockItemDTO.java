@@ -0,0 +1,33 @@
+package com.api.cargosimpleserver.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) записи отчёта о низких остатках.
+ * <p>
+ * Содержит:
+ * - Запись о складском запасе, её товар и склад
+ * - Доступное количество (текущее за вычетом зарезервированного)
+ * - Минимальный уровень запаса товара, ниже которого опустилось доступное количество
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LowStockItemDTO {
+
+    private Long stockId;
+
+    private Long productId;
+
+    private String articleNumber;
+
+    private String productName;
+
+    private Long warehouseId;
+
+    private int availableQuantity;
+
+    private int minStockLevel;
+}
@@ -63,6 +63,12 @@ public class ProductDTO {
     @Min(value = 1, message = "Максимальный уровень запаса должен быть больше 0")
     private Integer maxStockLevel;
 
+    /**
+     * Версия товара на момент чтения клиентом.
+     * Изменение с устаревшей версией отклоняется (409); без версии товар изменяется безусловно.
+     */
+    private Long version;
+
     @JsonIgnore
     @AssertTrue(message = "Максимальный уровень запаса должен быть больше минимального")
     public boolean isValidStockLevels() {
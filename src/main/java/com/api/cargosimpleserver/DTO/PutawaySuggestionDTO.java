@@ -0,0 +1,49 @@
+package com.api.cargosimpleserver.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) предложения ячеек для размещения товара.
+ * <p>
+ * Содержит:
+ * - Склад, товар и размещаемое количество
+ * - Свободную вместимость склада до размещения
+ * - Ячейки в порядке предпочтения: сначала ячейка, где товар уже хранится,
+ *   затем свободные ячейки в порядке обхода склада
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PutawaySuggestionDTO {
+
+    private Long warehouseId;
+
+    private Long productId;
+
+    private int quantity;
+
+    private long freeCapacity;
+
+    private List<Slot> slots;
+
+    /**
+     * Предлагаемая ячейка.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Slot {
+
+        private String location;
+
+        /**
+         * Идентификатор записи, если товар уже хранится в этой ячейке
+         * (количество увеличивается через increment), иначе null.
+         */
+        private Long stockId;
+    }
+}
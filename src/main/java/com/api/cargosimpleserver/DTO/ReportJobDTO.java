@@ -0,0 +1,42 @@
+package com.api.cargosimpleserver.DTO;
+
+import com.api.cargosimpleserver.Reports.ReportPriority;
+import com.api.cargosimpleserver.Reports.ReportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) состояния задания отчёта.
+ * <p>
+ * Содержит:
+ * - Идентификатор, тип, параметры и приоритет задания
+ * - Состояние и моменты постановки, начала и завершения
+ * - Причину неудачи для FAILED и TIMED_OUT
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJobDTO {
+
+    private String id;
+
+    private String type;
+
+    private Map<String, String> parameters;
+
+    private ReportPriority priority;
+
+    private ReportStatus status;
+
+    private Instant submittedAt;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private String error;
+}
@@ -0,0 +1,29 @@
+package com.api.cargosimpleserver.DTO;
+
+import com.api.cargosimpleserver.Reports.ReportPriority;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) запроса на построение отчёта.
+ * <p>
+ * Содержит:
+ * - Тип отчёта (stock-dump, valuation, low-stock)
+ * - Приоритет (по умолчанию — приоритет типа отчёта)
+ * - Параметры отчёта, например warehouseId или groupBy
+ */
+@Data
+public class ReportRequestDTO {
+
+    @NotBlank(message = "Тип отчёта не может быть пустым")
+    private String type;
+
+    private ReportPriority priority;
+
+    @Size(max = 20, message = "Слишком много параметров отчёта")
+    private Map<String, String> parameters = new HashMap<>();
+}
@@ -0,0 +1,22 @@
+package com.api.cargosimpleserver.DTO;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) изменения количества товара на складе.
+ * <p>
+ * Используется сканерами, которые знают величину изменения
+ * («поступило 12», «отобрано 3»), а не итоговое количество.
+ * Направление задаётся эндпоинтом: increment или decrement.
+ */
+@Data
+public class StockAdjustmentDTO {
+
+    @NotNull(message = "Величина изменения не может быть пустой")
+    @Positive(message = "Величина изменения должна быть положительным числом")
+    @Max(value = 100000, message = "Величина изменения слишком большая")
+    private Integer amount;
+}
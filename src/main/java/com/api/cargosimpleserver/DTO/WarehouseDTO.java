@@ -53,6 +53,11 @@ public class WarehouseDTO {
     @NotNull(message = "Статус склада не может быть пустым")
     private WarehouseStatus status;
 
+    /**
+     * Версия склада, которую изменяет клиент; устаревшая версия приводит к ответу 409.
+     */
+    private Long version;
+
     @JsonIgnore
     @AssertTrue(message = "Некорректный статус склада")
     public boolean isValidStatus() {
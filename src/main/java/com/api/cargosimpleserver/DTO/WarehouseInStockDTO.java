@@ -45,9 +45,16 @@ public class WarehouseInStockDTO {
     @NotBlank(message = "Локация не может быть пустой")
     private String location;
 
+    /**
+     * Версия записи, на основе которой клиент вносит изменение.
+     * Если запись уже изменена другим запросом, изменение не применяется (409).
+     */
+    private Long version;
+
     @JsonIgnore
     @AssertTrue(message = "Зарезервированное количество не может превышать текущее количество")
     public boolean isValidQuantities() {
-        return reservedQuantity <= currentQuantity;
+        // Отсутствующие количества отклоняет @NotNull
+        return reservedQuantity == null || currentQuantity == null || reservedQuantity <= currentQuantity;
     }
 }
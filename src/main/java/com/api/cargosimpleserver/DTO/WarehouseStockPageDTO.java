@@ -0,0 +1,28 @@
+package com.api.cargosimpleserver.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) страницы остатков склада в порядке ячеек.
+ * <p>
+ * Следующая страница запрашивается с параметрами afterLocation и afterId
+ * из полей nextAfterLocation и nextAfterId. На последней странице hasMore равно false,
+ * а поля следующей позиции пусты.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseStockPageDTO {
+
+    private List<WarehouseInStockDTO> items;
+
+    private boolean hasMore;
+
+    private String nextAfterLocation;
+
+    private Long nextAfterId;
+}
@@ -0,0 +1,165 @@
+package com.api.cargosimpleserver.Events;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Подписка одного клиента на поток складских событий.
+ * <p>
+ * Особенности:
+ * - Фильтрация событий по складу и/или товару
+ * - Схлопывание повторных изменений одной записи до момента отправки
+ * - Ограниченный буфер: переполнение означает медленного клиента
+ * - Отправка выполняется не более чем одним потоком одновременно
+ */
+class EventSubscription {
+
+    private final SseEmitter emitter;
+
+    /**
+     * Метка запуска рассылки, добавляемая к номерам событий.
+     */
+    private final String epoch;
+
+    private final Long warehouseId;
+
+    private final Long productId;
+
+    private final int maxPending;
+
+    /**
+     * Неотправленные события, по одному на каждую изменённую запись.
+     */
+    private final LinkedHashMap<String, SequencedEvent> pending = new LinkedHashMap<>();
+
+    private final AtomicBoolean sending = new AtomicBoolean();
+
+    private boolean resyncRequired;
+
+    private volatile boolean closed;
+
+    EventSubscription(SseEmitter emitter, String epoch, Long warehouseId, Long productId, int maxPending) {
+        this.emitter = emitter;
+        this.epoch = epoch;
+        this.warehouseId = warehouseId;
+        this.productId = productId;
+        this.maxPending = maxPending;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void markClosed() {
+        closed = true;
+    }
+
+    /**
+     * Проверка соответствия события фильтру подписки.
+     *
+     * @param event событие изменения
+     * @return true, если событие интересно подписчику
+     */
+    boolean matches(InventoryChangeEvent event) {
+        if (warehouseId != null && !warehouseId.equals(event.getWarehouseId())) {
+            return false;
+        }
+        return productId == null || productId.equals(event.getProductId());
+    }
+
+    /**
+     * Постановка события в очередь на отправку.
+     *
+     * @param event событие с порядковым номером
+     * @return false, если буфер подписчика переполнен
+     */
+    synchronized boolean offer(SequencedEvent event) {
+        if (closed || !matches(event.event())) {
+            return true;
+        }
+        String key = event.event().coalescingKey();
+        SequencedEvent previous = pending.remove(key);
+        pending.put(key, previous == null ? event : previous.mergeWith(event));
+        return pending.size() <= maxPending;
+    }
+
+    /**
+     * Требование к клиенту перечитать состояние целиком, так как
+     * запрошенная точка возобновления уже недоступна.
+     */
+    synchronized void requireResync() {
+        resyncRequired = true;
+    }
+
+    synchronized boolean hasPending() {
+        return resyncRequired || !pending.isEmpty();
+    }
+
+    boolean tryStartSending() {
+        return sending.compareAndSet(false, true);
+    }
+
+    /**
+     * Отправка всех накопленных событий клиенту в порядке их номеров.
+     *
+     * @throws IOException если соединение с клиентом разорвано
+     */
+    void sendPending() throws IOException {
+        try {
+            boolean resync;
+            List<SequencedEvent> batch;
+            synchronized (this) {
+                resync = resyncRequired;
+                resyncRequired = false;
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+            }
+            if (resync) {
+                emitter.send(SseEmitter.event().name("resync").data(""));
+            }
+            batch.sort(Comparator.comparingLong(SequencedEvent::id));
+            for (SequencedEvent sequenced : batch) {
+                emitter.send(SseEmitter.event()
+                        .id(epoch + "-" + sequenced.id())
+                        .name(sequenced.event().getEntityType().name().toLowerCase())
+                        .data(sequenced.event(), MediaType.APPLICATION_JSON));
+            }
+        } finally {
+            sending.set(false);
+        }
+    }
+
+    /**
+     * Событие с присвоенным порядковым номером.
+     *
+     * @param id порядковый номер события
+     * @param event событие изменения
+     */
+    record SequencedEvent(long id, InventoryChangeEvent event) {
+
+        /**
+         * Схлопывание с более поздним изменением той же записи.
+         * Создание, за которым последовало обновление, остаётся созданием.
+         */
+        SequencedEvent mergeWith(SequencedEvent later) {
+            InventoryChangeEvent next = later.event();
+            if (event.getChangeType() == InventoryChangeEvent.ChangeType.CREATED
+                    && next.getChangeType() == InventoryChangeEvent.ChangeType.UPDATED) {
+                next = new InventoryChangeEvent(next.getEntityType(), InventoryChangeEvent.ChangeType.CREATED,
+                        next.getEntityId(), next.getProductId(), next.getWarehouseId(), next.getPayload());
+            }
+            return new SequencedEvent(later.id(), next);
+        }
+    }
+}
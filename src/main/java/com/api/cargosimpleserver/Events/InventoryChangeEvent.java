@@ -0,0 +1,133 @@
+package com.api.cargosimpleserver.Events;
+
+import com.api.cargosimpleserver.DTO.ProductDTO;
+import com.api.cargosimpleserver.DTO.WarehouseDTO;
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Событие изменения складских данных.
+ * <p>
+ * Публикуется сервисами внутри транзакции и доставляется подписчикам
+ * только после её успешной фиксации.
+ * <p>
+ * Содержит:
+ * - Тип изменённой сущности и характер изменения
+ * - Идентификаторы сущности, товара и склада для фильтрации
+ * - Актуальное состояние сущности (отсутствует при удалении)
+ *
+ * @see InventoryEventBroadcaster
+ */
+@Getter
+@AllArgsConstructor
+public class InventoryChangeEvent {
+
+    /**
+     * Тип сущности, к которой относится изменение.
+     */
+    public enum EntityType {
+        STOCK,
+        WAREHOUSE,
+        PRODUCT
+    }
+
+    /**
+     * Характер изменения сущности.
+     */
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final EntityType entityType;
+
+    private final ChangeType changeType;
+
+    private final Long entityId;
+
+    private final Long productId;
+
+    private final Long warehouseId;
+
+    private final Object payload;
+
+    /**
+     * Создание события изменения складского запаса.
+     *
+     * @param changeType характер изменения
+     * @param stock актуальное состояние записи о складском запасе
+     * @return событие изменения
+     */
+    public static InventoryChangeEvent stockChanged(ChangeType changeType, WarehouseInStockDTO stock) {
+        return new InventoryChangeEvent(EntityType.STOCK, changeType, stock.getId(),
+                stock.getProductId(), stock.getWarehouseId(), stock);
+    }
+
+    /**
+     * Создание события удаления складского запаса.
+     *
+     * @param id идентификатор удалённой записи
+     * @param productId идентификатор товара
+     * @param warehouseId идентификатор склада
+     * @return событие удаления
+     */
+    public static InventoryChangeEvent stockDeleted(Long id, Long productId, Long warehouseId) {
+        return new InventoryChangeEvent(EntityType.STOCK, ChangeType.DELETED, id, productId, warehouseId, null);
+    }
+
+    /**
+     * Создание события изменения склада.
+     *
+     * @param changeType характер изменения
+     * @param warehouse актуальное состояние склада
+     * @return событие изменения
+     */
+    public static InventoryChangeEvent warehouseChanged(ChangeType changeType, WarehouseDTO warehouse) {
+        return new InventoryChangeEvent(EntityType.WAREHOUSE, changeType, warehouse.getId(),
+                null, warehouse.getId(), warehouse);
+    }
+
+    /**
+     * Создание события удаления склада.
+     *
+     * @param id идентификатор удалённого склада
+     * @return событие удаления
+     */
+    public static InventoryChangeEvent warehouseDeleted(Long id) {
+        return new InventoryChangeEvent(EntityType.WAREHOUSE, ChangeType.DELETED, id, null, id, null);
+    }
+
+    /**
+     * Создание события изменения товара.
+     *
+     * @param changeType характер изменения
+     * @param product актуальное состояние товара
+     * @return событие изменения
+     */
+    public static InventoryChangeEvent productChanged(ChangeType changeType, ProductDTO product) {
+        return new InventoryChangeEvent(EntityType.PRODUCT, changeType, product.getId(),
+                product.getId(), null, product);
+    }
+
+    /**
+     * Создание события удаления товара.
+     *
+     * @param id идентификатор удалённого товара
+     * @return событие удаления
+     */
+    public static InventoryChangeEvent productDeleted(Long id) {
+        return new InventoryChangeEvent(EntityType.PRODUCT, ChangeType.DELETED, id, id, null, null);
+    }
+
+    /**
+     * Ключ сущности, используемый для схлопывания серии изменений
+     * одной и той же записи в одно событие.
+     *
+     * @return ключ вида "STOCK:42"
+     */
+    public String coalescingKey() {
+        return entityType + ":" + entityId;
+    }
+}
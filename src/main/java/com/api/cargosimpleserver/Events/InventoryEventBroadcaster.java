@@ -0,0 +1,229 @@
+package com.api.cargosimpleserver.Events;
+
+import com.api.cargosimpleserver.Events.EventSubscription.SequencedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Рассылка складских событий подписчикам через Server-Sent Events.
+ * <p>
+ * Основные функции:
+ * - Приём событий после фиксации транзакции
+ * - Хранение истории последних событий для возобновления по Last-Event-ID
+ * <p>
+ * Номера событий ведутся в памяти и после перезапуска начинаются заново, поэтому
+ * идентификатор события имеет вид {@code <эпоха>-<номер>}, где эпоха — метка этого запуска.
+ * Идентификатор чужой эпохи (прежний запуск или другой экземпляр) означает,
+ * что клиент должен перечитать состояние целиком.
+ * - Периодическая отправка накопленных событий со схлопыванием
+ * - Отключение подписчиков, не успевающих принимать события
+ *
+ * @see InventoryChangeEvent
+ * @see EventSubscription
+ */
+@Component
+public class InventoryEventBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryEventBroadcaster.class);
+
+    private final InventoryEventProperties properties;
+
+    private final Set<EventSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Последние события в порядке номеров. Доступ только под блокировкой самой очереди.
+     */
+    private final Deque<SequencedEvent> history = new ArrayDeque<>();
+
+    private final ExecutorService sender;
+
+    /**
+     * Метка запуска, с которой начинаются идентификаторы событий.
+     */
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+
+    private long sequence;
+
+    public InventoryEventBroadcaster(InventoryEventProperties properties) {
+        this.properties = properties;
+        this.sender = Executors.newFixedThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "inventory-events-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Приём зафиксированного изменения и постановка его в очереди подписчиков.
+     *
+     * @param event событие изменения
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInventoryChange(InventoryChangeEvent event) {
+        SequencedEvent sequenced;
+        synchronized (history) {
+            sequenced = new SequencedEvent(++sequence, event);
+            history.addLast(sequenced);
+            if (history.size() > properties.getHistorySize()) {
+                history.removeFirst();
+            }
+        }
+
+        for (EventSubscription subscription : subscriptions) {
+            if (!subscription.offer(sequenced)) {
+                logger.warn("Подписчик не успевает принимать события и будет отключен");
+                close(subscription);
+            }
+        }
+    }
+
+    /**
+     * Регистрация нового подписчика.
+     *
+     * @param warehouseId склад для фильтрации, либо null
+     * @param productId товар для фильтрации, либо null
+     * @param lastEventId идентификатор последнего полученного клиентом события, либо null
+     * @return SSE-соединение подписчика
+     */
+    public SseEmitter subscribe(Long warehouseId, Long productId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.getEmitterTimeoutMs());
+        EventSubscription subscription = new EventSubscription(
+                emitter, epoch, warehouseId, productId, properties.getMaxPendingPerSubscriber());
+
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> remove(subscription));
+        emitter.onError(error -> remove(subscription));
+
+        synchronized (history) {
+            if (lastEventId != null) {
+                replay(subscription, lastEventId);
+            }
+            subscriptions.add(subscription);
+        }
+        return emitter;
+    }
+
+    /**
+     * Заполнение очереди подписчика событиями, пропущенными после lastEventId.
+     * Идентификатор другой эпохи или неразборчивый идентификатор ведёт к полной пересинхронизации.
+     */
+    private void replay(EventSubscription subscription, String lastEventIdValue) {
+        long lastEventId = sequenceOf(lastEventIdValue);
+        if (lastEventId < 0) {
+            subscription.requireResync();
+            return;
+        }
+        long oldestAvailable = history.isEmpty() ? sequence + 1 : history.peekFirst().id();
+        if (lastEventId > sequence || lastEventId + 1 < oldestAvailable) {
+            subscription.requireResync();
+            return;
+        }
+        for (SequencedEvent sequenced : history) {
+            if (sequenced.id() > lastEventId && !subscription.offer(sequenced)) {
+                subscription.requireResync();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Номер события из идентификатора текущей эпохи.
+     *
+     * @return номер события, либо -1, если идентификатор выдан другим запуском или не разобран
+     */
+    private long sequenceOf(String eventId) {
+        String prefix = epoch + "-";
+        if (!eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Периодическая отправка накопленных событий.
+     */
+    @Scheduled(fixedDelayString = "${app.events.flush-interval-ms:200}")
+    public void flush() {
+        for (EventSubscription subscription : subscriptions) {
+            if (subscription.hasPending() && subscription.tryStartSending()) {
+                try {
+                    sender.execute(() -> send(subscription));
+                } catch (RejectedExecutionException ex) {
+                    close(subscription);
+                }
+            }
+        }
+    }
+
+    /**
+     * Отправка heartbeat-комментариев для обнаружения разорванных соединений.
+     */
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (EventSubscription subscription : subscriptions) {
+            try {
+                subscription.getEmitter().send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException ex) {
+                remove(subscription);
+            }
+        }
+    }
+
+    /**
+     * Количество активных подписчиков.
+     *
+     * @return число подписок
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    String getEpoch() {
+        return epoch;
+    }
+
+    private void send(EventSubscription subscription) {
+        try {
+            subscription.sendPending();
+        } catch (IOException | IllegalStateException ex) {
+            logger.debug("Соединение подписчика закрыто: {}", ex.getMessage());
+            remove(subscription);
+        }
+    }
+
+    private void close(EventSubscription subscription) {
+        remove(subscription);
+        subscription.getEmitter().complete();
+    }
+
+    private void remove(EventSubscription subscription) {
+        subscription.markClosed();
+        subscriptions.remove(subscription);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(this::close);
+        sender.shutdownNow();
+    }
+}
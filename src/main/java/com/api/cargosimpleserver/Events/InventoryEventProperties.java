@@ -0,0 +1,46 @@
+package com.api.cargosimpleserver.Events;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки канала push-уведомлений об изменениях складских данных.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.events}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.events")
+public class InventoryEventProperties {
+
+    /**
+     * Интервал отправки накопленных событий, мс.
+     * Все изменения одной записи внутри интервала схлопываются в одно событие.
+     */
+    private long flushIntervalMs = 200;
+
+    /**
+     * Максимальное число неотправленных событий на одного подписчика.
+     * Подписчик, превысивший лимит, отключается.
+     */
+    private int maxPendingPerSubscriber = 1000;
+
+    /**
+     * Количество последних событий, хранимых для возобновления по Last-Event-ID.
+     */
+    private int historySize = 10000;
+
+    /**
+     * Интервал отправки heartbeat-комментариев, мс.
+     */
+    private long heartbeatIntervalMs = 15000;
+
+    /**
+     * Время жизни одного SSE-соединения, мс.
+     */
+    private long emitterTimeoutMs = 1800000;
+
+    /**
+     * Количество потоков, отправляющих события подписчикам.
+     */
+    private int senderThreads = 4;
+}
@@ -0,0 +1,17 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Отказ из-за конфликта с текущим состоянием данных (HTTP 409).
+ * <p>
+ * Используется в сценариях:
+ * - Создание объекта с уже занятым уникальным значением
+ * - Удаление или изменение объекта, на который ссылаются другие данные
+ */
+public class ConflictException extends DomainException {
+
+    public ConflictException(String message) {
+        super(HttpStatus.CONFLICT, "Конфликт данных", message);
+    }
+}
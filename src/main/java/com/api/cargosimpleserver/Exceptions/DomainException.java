@@ -0,0 +1,49 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Базовое исключение для ожидаемых отказов бизнес-логики.
+ * <p>
+ * Используется в случаях, когда:
+ * - Запрошенный объект не существует
+ * - Операция нарушает правила предметной области (дубликат, нет места на складе)
+ * - Переданы неверные учётные данные
+ * <p>
+ * Стек вызовов не заполняется: отказ описывается сообщением и HTTP-статусом,
+ * а захват стека и его запись в журнал под нагрузкой обходятся дороже самой проверки.
+ * {@link GlobalExceptionHandler} возвращает такие исключения клиенту без записи стека.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    /**
+     * HTTP-статус ответа.
+     */
+    private final HttpStatus status;
+
+    /**
+     * Краткое описание ошибки для поля message ответа.
+     */
+    private final String title;
+
+    /**
+     * Создает исключение без стека вызовов.
+     *
+     * @param status HTTP-статус ответа
+     * @param title краткое описание ошибки
+     * @param message детальное описание причины отказа
+     */
+    protected DomainException(HttpStatus status, String title, String message) {
+        super(message, null, false, false);
+        this.status = status;
+        this.title = title;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+}
@@ -0,0 +1,126 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Выборочная запись ошибок в журнал.
+ * <p>
+ * Основные функции:
+ * - Подсчёт всех ошибок по типу исключения и статусу (метрика cargo.errors)
+ * - Запись стека вызовов не более заданного числа раз за окно для каждого типа исключения
+ * - Сообщение о числе пропущенных записей при открытии следующего окна
+ * <p>
+ * При лавине одинаковых ошибок журнал получает несколько полных записей
+ * и счётчик вместо тысяч одинаковых стеков.
+ */
+@Component
+public class ErrorLogSampler {
+
+    private final ErrorLoggingProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final LongSupplier nanoTime;
+
+    private final Map<Class<?>, Window> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ErrorLogSampler(ErrorLoggingProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    ErrorLogSampler(ErrorLoggingProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Учёт ожидаемого отказа бизнес-логики без записи в журнал.
+     *
+     * @param ex исключение предметной области
+     */
+    public void recordRejection(DomainException ex) {
+        count(ex, ex.getStatus().value());
+    }
+
+    /**
+     * Учёт непредвиденной ошибки и запись её стека, если лимит окна не исчерпан.
+     *
+     * @param logger журнал
+     * @param message сообщение записи
+     * @param ex исключение
+     * @param status HTTP-статус ответа
+     * @return true, если ошибка записана в журнал
+     */
+    public boolean logUnexpected(Logger logger, String message, Throwable ex, int status) {
+        count(ex, status);
+        Window window = windows.computeIfAbsent(ex.getClass(), type -> new Window(nanoTime.getAsLong()));
+        long suppressed = window.tryAcquire(nanoTime.getAsLong(), properties.getWindow().toNanos(),
+                properties.getMaxStackTracesPerWindow());
+        if (suppressed < 0) {
+            return false;
+        }
+        if (suppressed > 0) {
+            logger.error("{} (за предыдущее окно пропущено записей {}: {})", message, suppressed, ex.getClass().getName(), ex);
+        } else {
+            logger.error(message, ex);
+        }
+        return true;
+    }
+
+    private void count(Throwable ex, int status) {
+        Counter.builder("cargo.errors")
+                .description("Ошибки при обработке запросов по типу исключения")
+                .tag("exception", ex.getClass().getSimpleName())
+                .tag("status", String.valueOf(status))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Окно выборки для одного типа исключения.
+     */
+    private static final class Window {
+
+        private final AtomicLong start;
+
+        private final AtomicInteger logged = new AtomicInteger();
+
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Window(long start) {
+            this.start = new AtomicLong(start);
+        }
+
+        /**
+         * Захват права на запись.
+         *
+         * @return -1, если запись нужно пропустить, иначе число пропущенных записей
+         * в предыдущем окне (если это первая запись нового окна)
+         */
+        private long tryAcquire(long now, long windowNanos, int limit) {
+            long carried = 0;
+            long windowStart = start.get();
+            if (now - windowStart >= windowNanos && start.compareAndSet(windowStart, now)) {
+                carried = suppressed.getAndSet(0);
+                logged.set(0);
+            }
+            if (logged.incrementAndGet() <= limit) {
+                return carried;
+            }
+            suppressed.addAndGet(carried + 1);
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки записи непредвиденных ошибок в журнал.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.error-logging}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.error-logging")
+public class ErrorLoggingProperties {
+
+    /**
+     * Количество записей со стеком вызовов для одного типа исключения за окно.
+     * Остальные ошибки этого типа только подсчитываются.
+     */
+    private int maxStackTracesPerWindow = 5;
+
+    /**
+     * Длительность окна.
+     */
+    private Duration window = Duration.ofMinutes(1);
+}
@@ -1,11 +1,15 @@
 package com.api.cargosimpleserver.Exceptions;
 
+import com.api.cargosimpleserver.Concurrency.ConflictStateResolver;
+import com.api.cargosimpleserver.Concurrency.OptimisticConflictException;
 import com.api.cargosimpleserver.Responses.ErrorResponse;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -24,6 +28,9 @@ import java.util.Map;
  * - Логирование ошибок
  * - Формирование стандартизированных ответов об ошибках
  * - Маппинг исключений на соответствующие HTTP-статусы
+ * <p>
+ * Ожидаемые отказы ({@link DomainException}) только подсчитываются,
+ * непредвиденные ошибки записываются в журнал выборочно через {@link ErrorLogSampler}.
  *
  * @see ControllerAdvice
  * @see ExceptionHandler
@@ -38,6 +45,78 @@ public class GlobalExceptionHandler {
      */
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final ErrorLogSampler errorLogSampler;
+
+    private final ConflictStateResolver conflictStateResolver;
+
+    public GlobalExceptionHandler(ErrorLogSampler errorLogSampler, ConflictStateResolver conflictStateResolver) {
+        this.errorLogSampler = errorLogSampler;
+        this.conflictStateResolver = conflictStateResolver;
+    }
+
+    /**
+     * Обработчик конфликта версий: изменение по устаревшей версии или конфликт, не устранённый повторами.
+     *
+     * @param ex Исключение конфликта версий
+     * @return ResponseEntity со статусом CONFLICT и текущим состоянием объекта в поле errors
+     * <p>
+     * Если объект удалён или его тип неизвестен, поле errors содержит только описание причины.
+     */
+    @ExceptionHandler(OptimisticConflictException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticConflict(OptimisticConflictException ex) {
+        errorLogSampler.recordRejection(ex);
+
+        Object details = conflictStateResolver.currentState(ex)
+                .<Object>map(state -> Map.of("reason", ex.getMessage(), "currentState", state))
+                .orElse(ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(ex.getStatus().value(), ex.getTitle(), details);
+        return new ResponseEntity<>(errorResponse, ex.getStatus());
+    }
+
+    /**
+     * Обработчик конфликта версий при фиксации изменения.
+     *
+     * @param ex Исключение блокировки, выброшенное при фиксации изменения объекта
+     * @return ResponseEntity со статусом CONFLICT и текущим состоянием объекта, если он известен
+     * <p>
+     * Изменения клиента не повторяются: объект изменился между проверкой версии
+     * клиента и фиксацией, и клиент должен заново прочитать его.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        String message = "Объект изменён другим запросом, изменение не применено";
+        if (ex instanceof ObjectOptimisticLockingFailureException objectEx) {
+            return handleOptimisticConflict(new OptimisticConflictException(
+                    objectEx.getPersistentClassName(), objectEx.getIdentifier(), message));
+        }
+        return handleOptimisticConflict(new OptimisticConflictException(null, null, message));
+    }
+
+    /**
+     * Обработчик ожидаемых отказов бизнес-логики.
+     *
+     * @param ex Исключение предметной области
+     * @return ResponseEntity со статусом и описанием из исключения
+     * <p>
+     * Стек вызовов у таких исключений не заполняется и в журнал не пишется.
+     */
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<ErrorResponse> handleDomainException(DomainException ex) {
+        errorLogSampler.recordRejection(ex);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Отказ при обработке запроса: {} {}", ex.getStatus().value(), ex.getMessage());
+        }
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                ex.getStatus().value(),
+                ex.getTitle(),
+                ex.getMessage()
+        );
+
+        return new ResponseEntity<>(errorResponse, ex.getStatus());
+    }
+
     /**
      * Обработчик общих runtime-исключений.
      *
@@ -50,7 +129,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleNotFoundException(RuntimeException ex) {
-        logger.error("Ошибка при обработке запроса: ", ex);
+        errorLogSampler.logUnexpected(logger, "Ошибка при обработке запроса: ", ex, HttpStatus.BAD_REQUEST.value());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
@@ -121,6 +200,8 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneralException(Exception ex) {
+        errorLogSampler.logUnexpected(logger, "Непредвиденная ошибка при обработке запроса: ", ex, HttpStatus.BAD_REQUEST.value());
+
         ErrorResponse errorResponse = new ErrorResponse(
                 HttpStatus.BAD_REQUEST.value(),
                 "Произошла ошибка",
@@ -129,38 +210,4 @@ public class GlobalExceptionHandler {
 
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
-
-    /**
-     * Обработчик исключений, связанных с отсутствием товара.
-     *
-     * @param ex Исключение при попытке работы с несуществующим товаром
-     * @return ResponseEntity со статусом NOT_FOUND
-     */
-    @ExceptionHandler(ProductNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleProductNotFoundException(ProductNotFoundException ex) {
-        ErrorResponse errorResponse = new ErrorResponse(
-                HttpStatus.NOT_FOUND.value(),
-                "Товар не найден",
-                ex.getMessage()
-        );
-
-        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
-    }
-
-    /**
-     * Обработчик исключений при попытке создания дублирующегося товара.
-     *
-     * @param ex Исключение при конфликте данных о товаре
-     * @return ResponseEntity со статусом CONFLICT
-     */
-    @ExceptionHandler(ProductAlreadyExistsException.class)
-    public ResponseEntity<ErrorResponse> handleProductAlreadyExistsException(ProductAlreadyExistsException ex) {
-        ErrorResponse errorResponse = new ErrorResponse(
-                HttpStatus.CONFLICT.value(),
-                "Конфликт данных",
-                ex.getMessage()
-        );
-
-        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
-    }
-}
\ No newline at end of file
+}
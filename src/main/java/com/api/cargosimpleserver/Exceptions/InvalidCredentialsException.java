@@ -0,0 +1,13 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Исключение при входе с неизвестным логином или неверным паролем (HTTP 401).
+ */
+public class InvalidCredentialsException extends DomainException {
+
+    public InvalidCredentialsException(String message) {
+        super(HttpStatus.UNAUTHORIZED, "Ошибка аутентификации", message);
+    }
+}
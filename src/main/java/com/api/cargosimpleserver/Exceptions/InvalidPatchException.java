@@ -0,0 +1,18 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Исключение при некорректном теле PATCH-запроса (HTTP 400).
+ * <p>
+ * Используется в случаях, когда:
+ * - Тело запроса не является JSON-объектом
+ * - Патч содержит поля, отсутствующие у изменяемого объекта
+ * - Патч пытается изменить идентификатор
+ */
+public class InvalidPatchException extends DomainException {
+
+    public InvalidPatchException(String message) {
+        super(HttpStatus.BAD_REQUEST, "Некорректный патч", message);
+    }
+}
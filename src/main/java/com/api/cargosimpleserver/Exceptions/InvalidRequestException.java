@@ -0,0 +1,16 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Исключение при запросе без обязательных данных (HTTP 400).
+ * <p>
+ * Используется там, где запрос не проходит через проверку DTO,
+ * например при постановке команды в очередь склада без склада или записи.
+ */
+public class InvalidRequestException extends DomainException {
+
+    public InvalidRequestException(String message) {
+        super(HttpStatus.BAD_REQUEST, "Некорректный запрос", message);
+    }
+}
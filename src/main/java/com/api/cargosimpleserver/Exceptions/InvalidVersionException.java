@@ -0,0 +1,15 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Исключение при некорректной версии объекта в запросе (HTTP 400).
+ * <p>
+ * Используется, когда заголовок If-Match или поле version не содержат номер версии.
+ */
+public class InvalidVersionException extends DomainException {
+
+    public InvalidVersionException(String message) {
+        super(HttpStatus.BAD_REQUEST, "Некорректная версия", message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Отказ из-за отсутствия запрошенного объекта (HTTP 404).
+ */
+public class NotFoundException extends DomainException {
+
+    public NotFoundException(String message) {
+        this("Объект не найден", message);
+    }
+
+    protected NotFoundException(String title, String message) {
+        super(HttpStatus.NOT_FOUND, title, message);
+    }
+}
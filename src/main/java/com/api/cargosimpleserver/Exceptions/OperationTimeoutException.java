@@ -0,0 +1,16 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Отказ из-за превышения времени ожидания внутренней операции (HTTP 504).
+ * <p>
+ * Запрос корректен, но сегмент базы или очередь изменений не ответили вовремя;
+ * его можно повторить позже.
+ */
+public class OperationTimeoutException extends DomainException {
+
+    public OperationTimeoutException(String message) {
+        super(HttpStatus.GATEWAY_TIMEOUT, "Превышено время ожидания", message);
+    }
+}
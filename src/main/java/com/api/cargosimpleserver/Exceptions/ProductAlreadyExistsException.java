@@ -9,10 +9,10 @@ package com.api.cargosimpleserver.Exceptions;
  * - Дублирование товара в базе данных
  * - Нарушение уникальности ключевых полей товара
  * <p>
- * Наследуется от {@link RuntimeException}, что позволяет
- * гибко обрабатывать конфликты при создании новых товаров.
+ * Наследуется от {@link ConflictException}: стек вызовов не заполняется,
+ * клиент получает ответ со статусом CONFLICT.
  */
-public class ProductAlreadyExistsException extends RuntimeException {
+public class ProductAlreadyExistsException extends ConflictException {
 
     /**
      * Создает исключение с пользовательским информативным сообщением.
@@ -8,10 +8,10 @@ package com.api.cargosimpleserver.Exceptions;
  * - Запрошенный идентификатор товара не найден
  * - Поиск товара по заданным критериям не дал результатов
  * <p>
- * Наследуется от {@link RuntimeException}, что позволяет
- * не объявлять его явно в сигнатурах методов.
+ * Наследуется от {@link NotFoundException}: стек вызовов не заполняется,
+ * клиент получает ответ со статусом NOT_FOUND.
  */
-public class ProductNotFoundException extends RuntimeException {
+public class ProductNotFoundException extends NotFoundException {
 
     /**
      * Создает исключение с пользовательским информативным сообщением.
@@ -24,6 +24,6 @@ public class ProductNotFoundException extends RuntimeException {
      * - "Товар с артикулом {articleNumber} отсутствует в базе"
      */
     public ProductNotFoundException(String message) {
-        super(message);
+        super("Товар не найден", message);
     }
 }
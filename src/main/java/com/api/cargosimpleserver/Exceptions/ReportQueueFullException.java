@@ -0,0 +1,16 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Отказ из-за заполненной очереди отчётов (HTTP 503).
+ * <p>
+ * Запрос корректен, но ожидающих заданий слишком много;
+ * его можно повторить позже.
+ */
+public class ReportQueueFullException extends DomainException {
+
+    public ReportQueueFullException(String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Очередь отчётов заполнена", message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Отказ в построении отчёта, результат которого больше допустимого (HTTP 422).
+ * <p>
+ * Результаты хранятся в памяти экземпляра, поэтому слишком большой отчёт
+ * не строится до конца; его следует сузить параметрами.
+ */
+public class ReportTooLargeException extends DomainException {
+
+    public ReportTooLargeException(String message) {
+        super(HttpStatus.UNPROCESSABLE_ENTITY, "Отчёт слишком велик", message);
+    }
+}
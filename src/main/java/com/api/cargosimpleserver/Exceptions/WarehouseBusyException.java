@@ -0,0 +1,16 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Отказ из-за переполненной очереди изменений склада (HTTP 503).
+ * <p>
+ * Запрос корректен, но склад не успевает обрабатывать изменения;
+ * его можно повторить позже.
+ */
+public class WarehouseBusyException extends DomainException {
+
+    public WarehouseBusyException(String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Склад перегружен", message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Исключение, выбрасываемое, когда количество товара не помещается на складе (HTTP 422).
+ * <p>
+ * Запрос корректен по формату, но не может быть выполнен
+ * при текущей заполненности склада.
+ */
+public class WarehouseCapacityExceededException extends DomainException {
+
+    public WarehouseCapacityExceededException(String message) {
+        super(HttpStatus.UNPROCESSABLE_ENTITY, "Недостаточно места на складе", message);
+    }
+}
@@ -0,0 +1,204 @@
+package com.api.cargosimpleserver.Export;
+
+import com.api.cargosimpleserver.Sharding.ShardContext;
+import com.api.cargosimpleserver.Sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Выгрузка справочника товаров и остатков в CSV, сжатый gzip.
+ * <p>
+ * Основные функции:
+ * - Чтение строк однонаправленным курсором (TYPE_FORWARD_ONLY, CONCUR_READ_ONLY)
+ *   без создания сущностей и без накопления строк в памяти
+ * - Запись каждой строки сразу в поток gzip через буферы постоянного размера
+ * - Выгрузка остатков со всех сегментов по очереди; товары и склады
+ *   для соединения берутся с того же сегмента
+ * <p>
+ * Для MySQL курсор потоковый ({@code fetchSize = Integer.MIN_VALUE}): драйвер не загружает
+ * результат целиком, поэтому память не зависит от числа строк. Чтение идёт в транзакции
+ * только для чтения и при включённых репликах выполняется на реплике.
+ */
+@Component
+public class CsvExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvExporter.class);
+
+    private static final String PRODUCTS_SQL = """
+            SELECT id, article_number, name, description, category, manufacturer,
+                   purchase_price, selling_price, min_stock_level, max_stock_level
+            FROM products
+            ORDER BY id
+            """;
+
+    private static final String STOCKS_SQL = """
+            SELECT s.id, p.id AS product_id, p.article_number, p.name AS product_name,
+                   w.id AS warehouse_id, w.name AS warehouse_name,
+                   s.location, s.current_quantity, s.reserved_quantity
+            FROM warehouse_stocks s
+            JOIN products p ON p.id = s.product_id
+            JOIN warehouses w ON w.id = s.warehouse_id
+            ORDER BY s.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readTemplate;
+
+    private final ShardRouter shardRouter;
+
+    private final ExportProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    public CsvExporter(DataSource dataSource, PlatformTransactionManager transactionManager,
+                       ShardRouter shardRouter, ExportProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Выгрузка справочника товаров.
+     *
+     * @param out поток ответа; закрывается вызывающим
+     * @return число выгруженных строк
+     * @throws IOException если запись в поток не удалась (например, клиент отключился)
+     */
+    public long exportProducts(OutputStream out) throws IOException {
+        return export(out, "products", List.of(0), PRODUCTS_SQL, csv -> csv
+                        .field("id").field("article_number").field("name").field("description")
+                        .field("category").field("manufacturer").field("purchase_price")
+                        .field("selling_price").field("min_stock_level").field("max_stock_level"),
+                (rs, csv) -> csv
+                        .field(rs.getLong(1)).field(rs.getString(2)).field(rs.getString(3)).field(rs.getString(4))
+                        .field(rs.getString(5)).field(rs.getString(6)).field(rs.getBigDecimal(7))
+                        .field(rs.getBigDecimal(8)).field(rs.getLong(9)).field(rs.getLong(10)));
+    }
+
+    /**
+     * Выгрузка остатков с артикулом и названием товара и названием склада.
+     *
+     * @param out поток ответа; закрывается вызывающим
+     * @return число выгруженных строк
+     * @throws IOException если запись в поток не удалась (например, клиент отключился)
+     */
+    public long exportStocks(OutputStream out) throws IOException {
+        List<Integer> shards = IntStream.range(0, shardRouter.shardCount()).boxed().toList();
+        return export(out, "warehouse_stocks", shards, STOCKS_SQL, csv -> csv
+                        .field("id").field("product_id").field("article_number").field("product_name")
+                        .field("warehouse_id").field("warehouse_name").field("location")
+                        .field("current_quantity").field("reserved_quantity"),
+                (rs, csv) -> csv
+                        .field(rs.getLong(1)).field(rs.getLong(2)).field(rs.getString(3)).field(rs.getString(4))
+                        .field(rs.getLong(5)).field(rs.getString(6)).field(rs.getString(7))
+                        .field(rs.getLong(8)).field(rs.getLong(9)));
+    }
+
+    private long export(OutputStream out, String dataset, List<Integer> shards, String sql,
+                        Header header, RowWriter rowWriter) throws IOException {
+        long started = System.nanoTime();
+        ExportGzipStream gzip = new ExportGzipStream(out, properties.getBufferSize(), properties.getCompressionLevel());
+        long[] rows = new long[1];
+        try {
+            CsvWriter csv = new CsvWriter(new BufferedWriter(
+                    new OutputStreamWriter(gzip, StandardCharsets.UTF_8), properties.getBufferSize()));
+            header.write(csv);
+            csv.endRow();
+            for (int shard : shards) {
+                ShardContext.callOn(shard, () -> readTemplate.execute(status -> {
+                    jdbcTemplate.query(forwardOnly(sql), rs -> {
+                        try {
+                            rowWriter.write(rs, csv);
+                            csv.endRow();
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                        rows[0]++;
+                    });
+                    return null;
+                }));
+            }
+            csv.flush();
+            gzip.finish();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            gzip.release();
+        }
+
+        Counter.builder("cargo.export.rows")
+                .description("Строки, выгруженные в CSV")
+                .tag("dataset", dataset)
+                .register(meterRegistry)
+                .increment(rows[0]);
+        logger.info("Выгрузка {}: {} строк за {} мс", dataset, rows[0], (System.nanoTime() - started) / 1_000_000);
+        return rows[0];
+    }
+
+    /**
+     * Запрос с однонаправленным курсором только для чтения.
+     */
+    private PreparedStatementCreator forwardOnly(String sql) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : properties.getFetchSize());
+            return statement;
+        };
+    }
+
+    /**
+     * Поток gzip с заданным уровнем сжатия над потоком ответа.
+     * <p>
+     * Поток ответа закрывает вызывающий, поэтому этот поток не закрывается,
+     * а его Deflater освобождается явно: иначе память zlib вне кучи остаётся занятой
+     * до сборки мусора, в том числе после обрыва выгрузки.
+     */
+    private static final class ExportGzipStream extends GZIPOutputStream {
+
+        ExportGzipStream(OutputStream out, int bufferSize, int level) throws IOException {
+            super(out, bufferSize);
+            def.setLevel(level);
+        }
+
+        void release() {
+            def.end();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Header {
+        CsvWriter write(CsvWriter csv) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        CsvWriter write(ResultSet rs, CsvWriter csv) throws SQLException, IOException;
+    }
+}
@@ -0,0 +1,104 @@
+package com.api.cargosimpleserver.Export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+/**
+ * Запись строк CSV (RFC 4180) в буферизованный поток.
+ * <p>
+ * Поля разделяются запятой, строки — CRLF. Значение берётся в кавычки, только если
+ * содержит запятую, кавычку или перевод строки; кавычки внутри удваиваются.
+ * Символы пишутся в поток по одному, без промежуточных строк на каждое поле.
+ * <p>
+ * Класс не потокобезопасен.
+ */
+class CsvWriter {
+
+    private final Writer writer;
+
+    private boolean firstField = true;
+
+    CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Текстовое поле; null записывается пустым полем.
+     *
+     * @param value значение
+     */
+    CsvWriter field(String value) throws IOException {
+        separate();
+        if (value == null) {
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            writer.write(value);
+            return this;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+        return this;
+    }
+
+    /**
+     * Числовое поле.
+     *
+     * @param value значение
+     */
+    CsvWriter field(long value) throws IOException {
+        separate();
+        writer.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Денежное поле без экспоненциальной записи; null записывается пустым полем.
+     *
+     * @param value значение
+     */
+    CsvWriter field(BigDecimal value) throws IOException {
+        separate();
+        if (value != null) {
+            writer.write(value.toPlainString());
+        }
+        return this;
+    }
+
+    /**
+     * Завершение строки.
+     */
+    void endRow() throws IOException {
+        writer.write("\r\n");
+        firstField = true;
+    }
+
+    void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void separate() throws IOException {
+        if (!firstField) {
+            writer.write(',');
+        }
+        firstField = false;
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
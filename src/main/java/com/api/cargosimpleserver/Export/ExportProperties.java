@@ -0,0 +1,30 @@
+package com.api.cargosimpleserver.Export;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки выгрузки CSV.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.export}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.export")
+public class ExportProperties {
+
+    /**
+     * Число строк, запрашиваемых у базы за раз. Для MySQL не используется:
+     * драйвер передаёт строки потоком по одной ({@code fetchSize = Integer.MIN_VALUE}).
+     */
+    private int fetchSize = 1000;
+
+    /**
+     * Размер буферов записи текста и сжатия в байтах.
+     */
+    private int bufferSize = 65536;
+
+    /**
+     * Уровень сжатия gzip от 1 (быстрее) до 9 (меньше).
+     */
+    private int compressionLevel = 1;
+}
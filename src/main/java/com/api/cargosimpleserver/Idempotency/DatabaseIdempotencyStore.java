@@ -0,0 +1,68 @@
+package com.api.cargosimpleserver.Idempotency;
+
+import com.api.cargosimpleserver.Repositories.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Хранилище результатов в базе данных.
+ * <p>
+ * Позволяет нескольким экземплярам приложения за балансировщиком
+ * возвращать одинаковый результат на повтор запроса, пришедший на другой узел.
+ * <p>
+ * Включается настройкой {@code app.idempotency.store=database}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "database")
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseIdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+
+    private final long ttlMillis;
+
+    public DatabaseIdempotencyStore(IdempotencyRecordRepository repository, IdempotencyProperties properties) {
+        this.repository = repository;
+        this.ttlMillis = properties.getTtl().toMillis();
+    }
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        Instant now = Instant.now();
+        return repository.findById(key)
+                .map(record -> new StoredResponse(record.getFingerprint(), record.getStatus(),
+                        record.getContentType(), record.getBody(), record.getCreatedAt()))
+                .filter(response -> !response.isExpired(now, ttlMillis));
+    }
+
+    @Override
+    public void save(String key, StoredResponse response) {
+        try {
+            // Первый сохранённый результат не перезаписывается
+            repository.insert(key, response.getFingerprint(), response.getStatus(), response.getContentType(),
+                    response.getBody(), response.getCreatedAt());
+        } catch (DataIntegrityViolationException ex) {
+            // Строка с истёкшим сроком, которую ещё не удалила очистка, заменяется новым результатом
+            int replaced = repository.replaceExpired(key, response.getFingerprint(), response.getStatus(),
+                    response.getContentType(), response.getBody(), response.getCreatedAt(),
+                    response.getCreatedAt().minusMillis(ttlMillis));
+            if (replaced == 0) {
+                logger.debug("Результат для ключа {} уже сохранён другим узлом", key);
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public void evictExpired() {
+        repository.deleteOlderThan(Instant.now().minusMillis(ttlMillis));
+    }
+}
@@ -0,0 +1,299 @@
+package com.api.cargosimpleserver.Idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Фильтр обработки повторных изменяющих запросов с заголовком Idempotency-Key.
+ * <p>
+ * Основные функции:
+ * - Повтор запроса с уже использованным ключом возвращает сохранённый ответ,
+ *   не обращаясь к контроллерам и сервисам
+ * - Одновременные запросы с одинаковым ключом выполняются один раз,
+ *   остальные дожидаются результата первого
+ * - Повторное использование ключа с другими данными отклоняется (422)
+ * <p>
+ * Ключ действует в пределах клиента: аутентифицированного пользователя, а для анонимных
+ * запросов — значения заголовка {@code app.idempotency.client-id-header} или адреса клиента.
+ * Одинаковый ключ разных клиентов не приводит к выдаче чужого ответа.
+ * <p>
+ * Ответы со статусом 5xx не сохраняются, чтобы клиент мог повторить запрос.
+ *
+ * @see IdempotencyStore
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    /**
+     * Заголовок с ключом идемпотентности.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Заголовок, которым помечается ответ, взятый из хранилища.
+     */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("POST", "PUT", "PATCH");
+
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private final IdempotencyStore store;
+
+    private final IdempotencyProperties properties;
+
+    /**
+     * Запросы, выполняющиеся в данный момент, по ключу.
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store, IdempotencyProperties properties) {
+        this.store = store;
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !IDEMPOTENT_METHODS.contains(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Некорректный заголовок " + IDEMPOTENCY_KEY_HEADER);
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String key = storeKey(request, idempotencyKey);
+        String fingerprint = fingerprint(cachedRequest);
+
+        Optional<StoredResponse> stored = store.find(key);
+        if (stored.isPresent()) {
+            replay(stored.get(), fingerprint, response);
+            return;
+        }
+
+        CompletableFuture<StoredResponse> ownFuture = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> runningFuture = inFlight.putIfAbsent(key, ownFuture);
+        if (runningFuture != null) {
+            awaitAndReplay(runningFuture, fingerprint, response);
+            return;
+        }
+
+        StoredResponse result = null;
+        try {
+            // Результат мог быть сохранён между проверкой хранилища и регистрацией запроса
+            stored = store.find(key);
+            if (stored.isPresent()) {
+                result = stored.get();
+                replay(result, fingerprint, response);
+                return;
+            }
+            result = execute(cachedRequest, response, chain, key, fingerprint);
+        } finally {
+            inFlight.remove(key, ownFuture);
+            ownFuture.complete(result);
+        }
+    }
+
+    /**
+     * Выполнение запроса и сохранение его результата.
+     */
+    private StoredResponse execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                                   String key, String fingerprint) throws ServletException, IOException {
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, responseWrapper);
+
+        StoredResponse result = new StoredResponse(fingerprint, responseWrapper.getStatus(),
+                responseWrapper.getContentType(), responseWrapper.getContentAsByteArray(), Instant.now());
+        responseWrapper.copyBodyToResponse();
+
+        if (result.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            return null;
+        }
+        store.save(key, result);
+        return result;
+    }
+
+    /**
+     * Ожидание завершения одновременного запроса с тем же ключом.
+     */
+    private void awaitAndReplay(CompletableFuture<StoredResponse> runningFuture, String fingerprint,
+                                HttpServletResponse response) throws IOException {
+        try {
+            StoredResponse result = runningFuture.get(properties.getInFlightTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            if (result != null) {
+                replay(result, fingerprint, response);
+                return;
+            }
+        } catch (TimeoutException | ExecutionException ex) {
+            logger.debug("Не дождались завершения запроса с тем же ключом: {}", ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        response.sendError(HttpStatus.CONFLICT.value(), "Запрос с таким ключом идемпотентности ещё выполняется");
+    }
+
+    private void replay(StoredResponse stored, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    "Ключ идемпотентности уже использован для другого запроса");
+            return;
+        }
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private String fingerprint(CachedBodyRequest request) {
+        MessageDigest digest = sha256();
+        digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+        digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+        digest.update(request.getBody());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Ключ хранилища: SHA-256 от клиента, метода, пути и ключа идемпотентности.
+     * Хэш имеет постоянную длину независимо от длины пути и ключа.
+     */
+    private String storeKey(HttpServletRequest request, String idempotencyKey) {
+        String scope = clientId(request) + "\n" + request.getMethod() + "\n" + request.getRequestURI()
+                + "\n" + idempotencyKey;
+        return HexFormat.of().formatHex(sha256().digest(scope.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Клиент, в пределах которого действует ключ.
+     */
+    private String clientId(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        String clientId = request.getHeader(properties.getClientIdHeader());
+        if (clientId != null && !clientId.isBlank()) {
+            return "client:" + clientId.trim();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Периодическое удаление устаревших результатов.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        store.evictExpired();
+    }
+
+    /**
+     * Запрос с телом, прочитанным заранее для вычисления отпечатка
+     * и доступным для повторного чтения контроллером.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        byte[] getBody() {
+            return body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
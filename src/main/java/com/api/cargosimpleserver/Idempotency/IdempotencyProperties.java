@@ -0,0 +1,47 @@
+package com.api.cargosimpleserver.Idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки обработки повторных запросов с заголовком Idempotency-Key.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.idempotency}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Включение обработки заголовка Idempotency-Key.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Хранилище результатов: memory (по умолчанию) или database.
+     */
+    private String store = "memory";
+
+    /**
+     * Время хранения результата запроса.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Максимальное число результатов в памяти.
+     */
+    private int maxEntries = 10000;
+
+    /**
+     * Максимальное время ожидания завершения одновременного запроса с тем же ключом.
+     */
+    private Duration inFlightTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Заголовок с идентификатором клиента для анонимных запросов.
+     * Без него ключи анонимных запросов разделяются по адресу клиента.
+     */
+    private String clientIdHeader = "X-Client-Id";
+}
@@ -0,0 +1,33 @@
+package com.api.cargosimpleserver.Idempotency;
+
+import java.util.Optional;
+
+/**
+ * Хранилище результатов запросов, выполненных с ключом идемпотентности.
+ *
+ * @see InMemoryIdempotencyStore
+ * @see DatabaseIdempotencyStore
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Поиск действующего результата по ключу.
+     *
+     * @param key ключ идемпотентности
+     * @return сохранённый результат или пустой Optional
+     */
+    Optional<StoredResponse> find(String key);
+
+    /**
+     * Сохранение результата выполненного запроса.
+     *
+     * @param key ключ идемпотентности
+     * @param response результат запроса
+     */
+    void save(String key, StoredResponse response);
+
+    /**
+     * Удаление устаревших результатов.
+     */
+    void evictExpired();
+}
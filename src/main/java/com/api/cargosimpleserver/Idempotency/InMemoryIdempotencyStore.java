@@ -0,0 +1,62 @@
+package com.api.cargosimpleserver.Idempotency;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Хранилище результатов в памяти процесса.
+ * <p>
+ * Особенности:
+ * - Ограниченный размер: при переполнении вытесняются самые старые записи
+ * - Записи старше заданного срока не возвращаются и периодически удаляются
+ * <p>
+ * Используется по умолчанию ({@code app.idempotency.store=memory}).
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final long ttlMillis;
+
+    private final Map<String, StoredResponse> entries;
+
+    public InMemoryIdempotencyStore(IdempotencyProperties properties) {
+        this.ttlMillis = properties.getTtl().toMillis();
+        int maxEntries = properties.getMaxEntries();
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Optional<StoredResponse> find(String key) {
+        StoredResponse response = entries.get(key);
+        if (response == null) {
+            return Optional.empty();
+        }
+        if (response.isExpired(Instant.now(), ttlMillis)) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(response);
+    }
+
+    @Override
+    public synchronized void save(String key, StoredResponse response) {
+        entries.put(key, response);
+    }
+
+    @Override
+    public synchronized void evictExpired() {
+        Instant now = Instant.now();
+        entries.values().removeIf(response -> response.isExpired(now, ttlMillis));
+    }
+}
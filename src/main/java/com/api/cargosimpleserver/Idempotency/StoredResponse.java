@@ -0,0 +1,41 @@
+package com.api.cargosimpleserver.Idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Сохранённый результат выполнения запроса с ключом идемпотентности.
+ * <p>
+ * Содержит:
+ * - Отпечаток исходного запроса (метод, путь и тело) для обнаружения
+ *   повторного использования ключа с другими данными
+ * - HTTP-статус, тип содержимого и тело ответа
+ * - Момент сохранения для вычисления срока жизни
+ */
+@Getter
+@AllArgsConstructor
+public class StoredResponse {
+
+    private final String fingerprint;
+
+    private final int status;
+
+    private final String contentType;
+
+    private final byte[] body;
+
+    private final Instant createdAt;
+
+    /**
+     * Проверка истечения срока хранения.
+     *
+     * @param now текущий момент
+     * @param ttlMillis срок хранения в миллисекундах
+     * @return true, если результат устарел
+     */
+    public boolean isExpired(Instant now, long ttlMillis) {
+        return createdAt.toEpochMilli() + ttlMillis < now.toEpochMilli();
+    }
+}
@@ -0,0 +1,54 @@
+package com.api.cargosimpleserver.Mailbox;
+
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Команда изменения остатка, ожидающая в очереди склада.
+ * <p>
+ * Результат команды — запись после изменения (null для удаления);
+ * он становится известен после фиксации транзакции, в которой выполнена команда.
+ */
+sealed interface StockCommand {
+
+    /**
+     * Идентификатор изменяемой записи или null для создания.
+     *
+     * @return идентификатор записи
+     */
+    Long stockId();
+
+    /**
+     * Результат команды.
+     *
+     * @return запись после изменения
+     */
+    CompletableFuture<WarehouseInStockDTO> result();
+
+    record Create(WarehouseInStockDTO stock, CompletableFuture<WarehouseInStockDTO> result) implements StockCommand {
+
+        @Override
+        public Long stockId() {
+            return null;
+        }
+    }
+
+    record Update(WarehouseInStockDTO stock, CompletableFuture<WarehouseInStockDTO> result) implements StockCommand {
+
+        @Override
+        public Long stockId() {
+            return stock.getId();
+        }
+    }
+
+    record Patch(Long stockId, JsonNode patch, CompletableFuture<WarehouseInStockDTO> result) implements StockCommand {
+    }
+
+    record Adjust(Long stockId, int delta, CompletableFuture<WarehouseInStockDTO> result) implements StockCommand {
+    }
+
+    record Delete(Long stockId, CompletableFuture<WarehouseInStockDTO> result) implements StockCommand {
+    }
+}
@@ -0,0 +1,679 @@
+package com.api.cargosimpleserver.Mailbox;
+
+import com.api.cargosimpleserver.Concurrency.EntityVersions;
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.Events.InventoryChangeEvent;
+import com.api.cargosimpleserver.Exceptions.ConflictException;
+import com.api.cargosimpleserver.Exceptions.DomainException;
+import com.api.cargosimpleserver.Exceptions.InvalidRequestException;
+import com.api.cargosimpleserver.Exceptions.NotFoundException;
+import com.api.cargosimpleserver.Exceptions.OperationTimeoutException;
+import com.api.cargosimpleserver.Exceptions.ProductNotFoundException;
+import com.api.cargosimpleserver.Exceptions.WarehouseBusyException;
+import com.api.cargosimpleserver.Exceptions.WarehouseCapacityExceededException;
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Models.WarehouseInStock;
+import com.api.cargosimpleserver.Putaway.StockSlot;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import com.api.cargosimpleserver.Services.JsonMergePatcher;
+import com.api.cargosimpleserver.Sharding.ShardContext;
+import com.api.cargosimpleserver.Sharding.ShardRouter;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Изменение остатков через очереди складов с групповой фиксацией.
+ * <p>
+ * Основные функции:
+ * - Отдельная очередь команд у каждого склада; очередь обрабатывает один поток за раз
+ * - Выполнение группы команд склада (до {@code app.stock-mailbox.batch-size}) одной транзакцией
+ * - Проверка вместимости и уникальности товара на складе по состоянию склада в памяти
+ *   вместо агрегирующих запросов
+ * - Результат команды в виде {@link CompletableFuture}, завершаемого после фиксации
+ * <p>
+ * Команды склада выполняются строго по очереди, поэтому изменения одного склада
+ * не конкурируют за его строки и сумму количества. Отказ команды (нет места, нет записи)
+ * не влияет на остальные команды группы. Если группа не зафиксирована (например, запись
+ * изменена в обход очереди), состояние склада загружается заново, а команды выполняются по одной.
+ * <p>
+ * Создание и обновление проверяются по ограничениям DTO до постановки в очередь:
+ * некорректная команда не попадает в группу и не откатывает её.
+ * При остановке приложения ожидающие команды завершаются отказом {@link WarehouseBusyException}.
+ * <p>
+ * Перенос записи на другой склад затрагивает две очереди и в этом режиме не выполняется:
+ * запись удаляется и создаётся на целевом складе.
+ * Режим рассчитан на то, что остатки склада меняет только этот экземпляр приложения.
+ */
+@Component
+@ConditionalOnProperty(name = "app.stock-mailbox.enabled", havingValue = "true")
+public class StockCommandQueue implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockCommandQueue.class);
+
+    private static final Map<String, Set<String>> QUANTITY_RULE =
+            Map.of("validQuantities", Set.of("currentQuantity", "reservedQuantity"));
+
+    private final WarehouseInStockRepository warehouseInStockRepository;
+
+    private final WarehouseRepository warehouseRepository;
+
+    private final ProductRepository productRepository;
+
+    private final ModelMapper modelMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final JsonMergePatcher mergePatcher;
+
+    private final Validator validator;
+
+    private final ShardRouter shardRouter;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final StockMailboxProperties properties;
+
+    private final DistributionSummary batchSizes;
+
+    private final Counter fallbacks;
+
+    private final ExecutorService executor;
+
+    private final Map<Long, WarehouseMailbox> mailboxes = new ConcurrentHashMap<>();
+
+    private volatile boolean stopped;
+
+    /**
+     * Склады записей, известных очередям: по ним команда по идентификатору записи
+     * попадает в очередь склада без запроса к базе.
+     */
+    private final Map<Long, Long> warehouseOfStock = new ConcurrentHashMap<>();
+
+    public StockCommandQueue(WarehouseInStockRepository warehouseInStockRepository,
+                             WarehouseRepository warehouseRepository,
+                             ProductRepository productRepository,
+                             ModelMapper modelMapper,
+                             ApplicationEventPublisher eventPublisher,
+                             JsonMergePatcher mergePatcher,
+                             Validator validator,
+                             ShardRouter shardRouter,
+                             PlatformTransactionManager transactionManager,
+                             StockMailboxProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.warehouseInStockRepository = warehouseInStockRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.productRepository = productRepository;
+        this.modelMapper = modelMapper;
+        this.eventPublisher = eventPublisher;
+        this.mergePatcher = mergePatcher;
+        this.validator = validator;
+        this.shardRouter = shardRouter;
+        // Состояние склада читается из основной базы (транзакция не readOnly):
+        // на реплике может не оказаться только что зафиксированных групп
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.batchSizes = DistributionSummary.builder("cargo.stock.mailbox.batch.size")
+                .description("Число команд склада, зафиксированных одной транзакцией")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("cargo.stock.mailbox.fallbacks")
+                .description("Группы команд, не зафиксированные целиком и выполненные по одной")
+                .register(meterRegistry);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(properties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "stock-mailbox-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Создание записи о складском запасе в очереди её склада.
+     *
+     * @param stock DTO с информацией о складском запасе
+     * @return созданная запись
+     * @throws InvalidRequestException если запись не проходит проверку, например не указан склад
+     */
+    public CompletableFuture<WarehouseInStockDTO> create(WarehouseInStockDTO stock) {
+        validate(stock);
+        return submit(stock.getWarehouseId(), new StockCommand.Create(stock, new CompletableFuture<>()));
+    }
+
+    /**
+     * Обновление записи о складском запасе в очереди её склада.
+     *
+     * @param stock DTO с обновленной информацией о складском запасе
+     * @return обновленная запись
+     * @throws InvalidRequestException если запись не проходит проверку
+     */
+    public CompletableFuture<WarehouseInStockDTO> update(WarehouseInStockDTO stock) {
+        validate(stock);
+        return submit(warehouseOf(stock.getId()), new StockCommand.Update(stock, new CompletableFuture<>()));
+    }
+
+    /**
+     * Частичное обновление записи по JSON Merge Patch в очереди её склада.
+     *
+     * @param id идентификатор записи
+     * @param patch изменяемые поля записи
+     * @return обновленная запись
+     */
+    public CompletableFuture<WarehouseInStockDTO> patch(Long id, JsonNode patch) {
+        return submit(warehouseOf(id), new StockCommand.Patch(id, patch, new CompletableFuture<>()));
+    }
+
+    /**
+     * Изменение текущего количества на заданную величину в очереди склада записи.
+     *
+     * @param id идентификатор записи
+     * @param delta изменение количества
+     * @return запись после изменения
+     */
+    public CompletableFuture<WarehouseInStockDTO> adjust(Long id, int delta) {
+        return submit(warehouseOf(id), new StockCommand.Adjust(id, delta, new CompletableFuture<>()));
+    }
+
+    /**
+     * Удаление записи в очереди её склада.
+     *
+     * @param id идентификатор записи
+     * @return завершение удаления
+     */
+    public CompletableFuture<Void> delete(Long id) {
+        CompletableFuture<WarehouseInStockDTO> result =
+                submit(warehouseOf(id), new StockCommand.Delete(id, new CompletableFuture<>()));
+        CompletableFuture<Void> deleted = result.thenApply(stock -> null);
+        // Отмена ожидания удаления снимает и команду в очереди
+        deleted.exceptionally(ex -> {
+            if (ex instanceof CancellationException) {
+                result.cancel(false);
+            }
+            return null;
+        });
+        return deleted;
+    }
+
+    /**
+     * Ожидание результата команды вызывающим потоком.
+     * <p>
+     * Команда, не дождавшаяся результата за {@code app.stock-mailbox.await-timeout},
+     * отменяется: очередь пропускает её, если ещё не начала выполнять. Команда,
+     * уже попавшая в выполняемую группу, может быть зафиксирована.
+     *
+     * @param future результат команды
+     * @return результат
+     * @throws OperationTimeoutException если результат не получен за отведённое время
+     */
+    public <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(properties.getAwaitTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание изменения склада прервано", ex);
+        } catch (TimeoutException ex) {
+            future.cancel(false);
+            throw new OperationTimeoutException("Изменение склада не выполнено за "
+                    + properties.getAwaitTimeout().toMillis() + " мс");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Ошибка изменения склада", ex.getCause());
+        }
+    }
+
+    /**
+     * Удаление из памяти очередей складов, не получавших команд дольше {@code app.stock-mailbox.idle-timeout}.
+     */
+    @Scheduled(fixedDelayString = "${app.stock-mailbox.idle-check-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        for (Long warehouseId : List.copyOf(mailboxes.keySet())) {
+            mailboxes.computeIfPresent(warehouseId, (id, mailbox) -> {
+                if (!mailbox.isIdle(now, idleNanos)) {
+                    return mailbox;
+                }
+                WarehouseStockState state = mailbox.state();
+                if (state != null) {
+                    state.stockIds().forEach(warehouseOfStock::remove);
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Остановка обработки очередей.
+     * <p>
+     * Команды, которые уже не будут выполнены, завершаются отказом, чтобы ожидающие
+     * их запросы не ждали до истечения {@code app.stock-mailbox.await-timeout}.
+     */
+    @Override
+    public void destroy() {
+        stopped = true;
+        executor.shutdownNow();
+        mailboxes.values().forEach(this::rejectPending);
+    }
+
+    /**
+     * Проверка записи по ограничениям DTO до постановки команды в очередь.
+     */
+    private void validate(WarehouseInStockDTO stock) {
+        if (stock == null) {
+            throw new InvalidRequestException("Не переданы данные складского запаса");
+        }
+        Set<ConstraintViolation<WarehouseInStockDTO>> violations = validator.validate(stock);
+        if (!violations.isEmpty()) {
+            throw new InvalidRequestException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    /**
+     * Отказ всем командам очереди, которые не будут выполнены после остановки обработки.
+     */
+    private void rejectPending(WarehouseMailbox mailbox) {
+        List<StockCommand> pending = mailbox.poll(Integer.MAX_VALUE);
+        if (pending.isEmpty()) {
+            return;
+        }
+        logger.warn("Очередь склада {} остановлена, команд отклонено: {}", mailbox.warehouseId(), pending.size());
+        WarehouseBusyException stopped = new WarehouseBusyException(
+                "Обработка изменений склада " + mailbox.warehouseId() + " остановлена, повторите запрос позже");
+        pending.forEach(command -> command.result().completeExceptionally(stopped));
+    }
+
+    private CompletableFuture<WarehouseInStockDTO> submit(Long warehouseId, StockCommand command) {
+        boolean[] schedule = new boolean[1];
+        WarehouseMailbox mailbox;
+        try {
+            // Постановка внутри compute: очередь не удаляется как бездействующая между поиском и постановкой
+            mailbox = mailboxes.compute(warehouseId, (id, existing) -> {
+                WarehouseMailbox target = existing != null ? existing : new WarehouseMailbox(id);
+                schedule[0] = target.offer(command, properties.getQueueCapacity());
+                return target;
+            });
+        } catch (WarehouseBusyException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        if (stopped) {
+            // Очередь могла получить команду после отказа ожидающим при остановке
+            rejectPending(mailbox);
+        } else if (schedule[0]) {
+            schedule(mailbox);
+        }
+        return command.result();
+    }
+
+    /**
+     * Склад записи: из известных очередям записей или одним запросом к базе.
+     */
+    private Long warehouseOf(Long stockId) {
+        if (stockId == null) {
+            throw new InvalidRequestException("Не указан идентификатор складского запаса");
+        }
+        Long warehouseId = warehouseOfStock.get(stockId);
+        if (warehouseId != null) {
+            return warehouseId;
+        }
+        return ShardContext.callOn(shardRouter.shardOfStock(stockId),
+                        () -> transactionTemplate.execute(status -> warehouseInStockRepository.findWarehouseIdById(stockId)))
+                .orElseThrow(() -> new NotFoundException("Складской запас с ID " + stockId + " не найден"));
+    }
+
+    /**
+     * Обработка очередной группы команд склада.
+     * <p>
+     * Оставшиеся команды обрабатываются новой задачей, а не в цикле:
+     * потоки поочерёдно обслуживают все склады с ожидающими командами.
+     * Команды, ожидание которых отменено, пропускаются.
+     */
+    private void drain(WarehouseMailbox mailbox) {
+        try {
+            List<StockCommand> batch = mailbox.poll(properties.getBatchSize());
+            batch.removeIf(command -> command.result().isDone());
+            if (!batch.isEmpty()) {
+                execute(mailbox, batch);
+            }
+        } catch (RuntimeException ex) {
+            logger.error("Ошибка обработки очереди склада {}", mailbox.warehouseId(), ex);
+        } finally {
+            if (mailbox.continueDraining()) {
+                schedule(mailbox);
+            }
+        }
+    }
+
+    /**
+     * Назначение очереди обрабатывающего потока; после остановки обработки её команды отклоняются.
+     */
+    private void schedule(WarehouseMailbox mailbox) {
+        try {
+            executor.execute(() -> drain(mailbox));
+        } catch (RejectedExecutionException ex) {
+            rejectPending(mailbox);
+        }
+    }
+
+    /**
+     * Выполнение группы команд одной транзакцией и завершение их результатов после фиксации.
+     */
+    private void execute(WarehouseMailbox mailbox, List<StockCommand> batch) {
+        List<Object> outcomes;
+        try {
+            outcomes = ShardContext.callOn(shardRouter.shardOfWarehouse(mailbox.warehouseId()),
+                    () -> transactionTemplate.execute(status -> apply(mailbox, batch)));
+        } catch (RuntimeException ex) {
+            // Состояние склада включает изменения откатившейся транзакции
+            mailbox.setState(null);
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(ex);
+                return;
+            }
+            fallbacks.increment();
+            logger.warn("Группа из {} команд склада {} не зафиксирована, команды выполняются по одной: {}",
+                    batch.size(), mailbox.warehouseId(), ex.getMessage());
+            for (StockCommand command : batch) {
+                if (!command.result().isDone()) {
+                    execute(mailbox, List.of(command));
+                }
+            }
+            return;
+        }
+
+        batchSizes.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Object outcome = outcomes.get(i);
+            if (outcome instanceof RuntimeException ex) {
+                batch.get(i).result().completeExceptionally(ex);
+            } else {
+                batch.get(i).result().complete((WarehouseInStockDTO) outcome);
+            }
+        }
+    }
+
+    /**
+     * Выполнение команд группы в текущей транзакции.
+     *
+     * @return для каждой команды запись после изменения, null для удаления или отказ
+     */
+    private List<Object> apply(WarehouseMailbox mailbox, List<StockCommand> batch) {
+        Long warehouseId = mailbox.warehouseId();
+        Warehouse warehouse = warehouseRepository.findById(warehouseId).orElse(null);
+        if (warehouse == null) {
+            mailbox.setState(null);
+            NotFoundException notFound = new NotFoundException("Склад с ID " + warehouseId + " не найден");
+            return batch.stream().map(command -> (Object) notFound).collect(Collectors.toList());
+        }
+
+        WarehouseStockState state = mailbox.state();
+        if (state == null) {
+            state = load(warehouse);
+            mailbox.setState(state);
+        } else {
+            state.setCapacity(warehouse.getCapacity());
+        }
+
+        Set<Long> ids = batch.stream()
+                .map(StockCommand::stockId)
+                .filter(Objects::nonNull)
+                .filter(state::contains)
+                .collect(Collectors.toSet());
+        Map<Long, WarehouseInStock> stocks = ids.isEmpty() ? new HashMap<>()
+                : warehouseInStockRepository.findAllWithRelationsByIdIn(ids).stream()
+                        .collect(Collectors.toMap(WarehouseInStock::getId, Function.identity()));
+
+        List<Object> outcomes = new ArrayList<>(batch.size());
+        for (StockCommand command : batch) {
+            try {
+                outcomes.add(apply(command, warehouse, state, stocks));
+            } catch (DomainException | ConstraintViolationException ex) {
+                // Отказ одной команды (в том числе проверки полей частичного обновления) не откатывает группу
+                outcomes.add(ex);
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Выполнение одной команды.
+     * <p>
+     * Все проверки выполняются до изменения сущности и состояния склада:
+     * отказ команды не оставляет изменений.
+     */
+    private WarehouseInStockDTO apply(StockCommand command, Warehouse warehouse, WarehouseStockState state,
+                                      Map<Long, WarehouseInStock> stocks) {
+        if (command instanceof StockCommand.Create create) {
+            return create(create.stock(), warehouse, state, stocks);
+        }
+        WarehouseInStock stock = stocks.get(command.stockId());
+        if (stock == null) {
+            throw new NotFoundException("Складской запас с ID " + command.stockId() + " не найден");
+        }
+        if (command instanceof StockCommand.Update update) {
+            return update(stock, update.stock(), warehouse, state);
+        }
+        if (command instanceof StockCommand.Patch patch) {
+            return patch(stock, patch.patch(), warehouse, state);
+        }
+        if (command instanceof StockCommand.Adjust adjust) {
+            return adjust(stock, adjust.delta(), state);
+        }
+        delete(stock, state, stocks);
+        return null;
+    }
+
+    private WarehouseInStockDTO create(WarehouseInStockDTO dto, Warehouse warehouse, WarehouseStockState state,
+                                       Map<Long, WarehouseInStock> stocks) {
+        Product product = productRepository.findById(dto.getProductId())
+                .orElseThrow(() -> new ProductNotFoundException("Товар не найден"));
+
+        if (dto.getCurrentQuantity() > state.freeCapacity()) {
+            throw new WarehouseCapacityExceededException("Невозможно добавить товар: нет места на складе");
+        }
+        if (state.hasProduct(product.getId())) {
+            throw new ConflictException("Запись для данного товара на складе уже существует!");
+        }
+
+        WarehouseInStock stock = modelMapper.map(dto, WarehouseInStock.class);
+        stock.setProduct(product);
+        stock.setWarehouse(warehouse);
+        WarehouseInStock saved = warehouseInStockRepository.save(stock);
+        if (shardRouter.shardOfStock(saved.getId()) != shardRouter.shardOfWarehouse(warehouse.getId())) {
+            throw new IllegalStateException("Идентификатор записи " + saved.getId()
+                    + " не соответствует сегменту склада");
+        }
+
+        state.added(saved.getId(), product.getId(), saved.getCurrentQuantity());
+        stocks.put(saved.getId(), saved);
+        warehouseOfStock.put(saved.getId(), warehouse.getId());
+        return published(InventoryChangeEvent.ChangeType.CREATED, saved);
+    }
+
+    private WarehouseInStockDTO update(WarehouseInStock stock, WarehouseInStockDTO dto, Warehouse warehouse,
+                                       WarehouseStockState state) {
+        EntityVersions.require(dto.getVersion(), stock.getVersion(), WarehouseInStock.class, stock.getId());
+        requireSameWarehouse(dto.getWarehouseId(), warehouse);
+
+        int quantityDifference = 0;
+        if (dto.getCurrentQuantity() != null) {
+            quantityDifference = dto.getCurrentQuantity() - stock.getCurrentQuantity();
+            if (quantityDifference > state.freeCapacity()) {
+                throw new WarehouseCapacityExceededException("Невозможно обновить количество: нет места на складе");
+            }
+        }
+
+        Product product = null;
+        if (dto.getProductId() != null) {
+            product = findProduct(dto.getProductId());
+            requireProductAbsent(stock, product, state);
+        }
+
+        if (product != null) {
+            stock.setProduct(product);
+            state.productChanged(stock.getId(), product.getId());
+        }
+        modelMapper.map(dto, stock);
+        state.quantityChanged(quantityDifference);
+        return published(InventoryChangeEvent.ChangeType.UPDATED, stock);
+    }
+
+    private WarehouseInStockDTO patch(WarehouseInStock stock, JsonNode patch, Warehouse warehouse,
+                                      WarehouseStockState state) {
+        JsonMergePatcher.Patched<WarehouseInStockDTO> patched = mergePatcher.apply(
+                convertToDTO(stock), patch, QUANTITY_RULE);
+        EntityVersions.require(patched.expectedVersion(), stock.getVersion(), WarehouseInStock.class, stock.getId());
+        if (patched.changedFields().isEmpty()) {
+            return patched.value();
+        }
+
+        WarehouseInStockDTO changes = patched.value();
+        if (patched.changed("warehouseId")) {
+            requireSameWarehouse(changes.getWarehouseId(), warehouse);
+        }
+
+        Product product = null;
+        if (patched.changed("productId")) {
+            product = findProduct(changes.getProductId());
+            requireProductAbsent(stock, product, state);
+        }
+
+        int quantityDifference = 0;
+        if (patched.changed("currentQuantity")) {
+            quantityDifference = changes.getCurrentQuantity() - stock.getCurrentQuantity();
+            if (quantityDifference > state.freeCapacity()) {
+                throw new WarehouseCapacityExceededException("Невозможно обновить количество: нет места на складе");
+            }
+        }
+
+        if (product != null) {
+            stock.setProduct(product);
+            state.productChanged(stock.getId(), product.getId());
+        }
+        if (patched.changed("currentQuantity")) {
+            stock.setCurrentQuantity(changes.getCurrentQuantity());
+            state.quantityChanged(quantityDifference);
+        }
+        if (patched.changed("reservedQuantity")) {
+            stock.setReservedQuantity(changes.getReservedQuantity());
+        }
+        if (patched.changed("location")) {
+            stock.setLocation(changes.getLocation());
+        }
+        return published(InventoryChangeEvent.ChangeType.UPDATED, stock);
+    }
+
+    private WarehouseInStockDTO adjust(WarehouseInStock stock, int delta, WarehouseStockState state) {
+        int newQuantity = stock.getCurrentQuantity() + delta;
+        if (newQuantity < 0 || newQuantity < stock.getReservedQuantity()) {
+            throw new ConflictException("Недостаточно товара: текущее количество " + stock.getCurrentQuantity()
+                    + ", зарезервировано " + stock.getReservedQuantity());
+        }
+        if (delta > 0 && delta > state.freeCapacity()) {
+            throw new WarehouseCapacityExceededException("Невозможно обновить количество: нет места на складе");
+        }
+
+        stock.setCurrentQuantity(newQuantity);
+        state.quantityChanged(delta);
+        return published(InventoryChangeEvent.ChangeType.UPDATED, stock);
+    }
+
+    private void delete(WarehouseInStock stock, WarehouseStockState state, Map<Long, WarehouseInStock> stocks) {
+        warehouseInStockRepository.delete(stock);
+        state.removed(stock.getId(), stock.getCurrentQuantity());
+        stocks.remove(stock.getId());
+        warehouseOfStock.remove(stock.getId());
+        eventPublisher.publishEvent(InventoryChangeEvent.stockDeleted(
+                stock.getId(), stock.getProduct().getId(), stock.getWarehouse().getId()));
+    }
+
+    /**
+     * Загрузка состояния склада одним запросом по его записям.
+     */
+    private WarehouseStockState load(Warehouse warehouse) {
+        long started = System.nanoTime();
+        WarehouseStockState state = new WarehouseStockState(warehouse.getCapacity());
+        List<StockSlot> slots = warehouseInStockRepository.findSlotsByWarehouseId(warehouse.getId());
+        for (StockSlot slot : slots) {
+            state.added(slot.id(), slot.productId(), slot.quantity());
+            warehouseOfStock.put(slot.id(), warehouse.getId());
+        }
+        logger.debug("Загружено состояние склада {} за {} мс: записей {}",
+                warehouse.getId(), (System.nanoTime() - started) / 1_000_000, slots.size());
+        return state;
+    }
+
+    private Product findProduct(Long productId) {
+        return productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Товар с ID " + productId + " не найден"));
+    }
+
+    private static void requireSameWarehouse(Long warehouseId, Warehouse warehouse) {
+        if (warehouseId != null && !warehouseId.equals(warehouse.getId())) {
+            throw new ConflictException("Перенос записи на склад " + warehouseId
+                    + " в режиме очередей складов не выполняется: удалите запись и создайте её на целевом складе");
+        }
+    }
+
+    private static void requireProductAbsent(WarehouseInStock stock, Product product, WarehouseStockState state) {
+        if (!product.getId().equals(stock.getProduct().getId()) && state.hasProduct(product.getId())) {
+            throw new ConflictException("Запись для данного товара на складе уже существует!");
+        }
+    }
+
+    /**
+     * Публикация изменения записи; слушатели получат его после фиксации группы.
+     * <p>
+     * Изменение записывается сразу: следующая команда группы и ответ видят уже новую версию записи.
+     */
+    private WarehouseInStockDTO published(InventoryChangeEvent.ChangeType changeType, WarehouseInStock stock) {
+        warehouseInStockRepository.flush();
+        WarehouseInStockDTO dto = convertToDTO(stock);
+        eventPublisher.publishEvent(InventoryChangeEvent.stockChanged(changeType, dto));
+        return dto;
+    }
+
+    private WarehouseInStockDTO convertToDTO(WarehouseInStock stock) {
+        return modelMapper.map(stock, WarehouseInStockDTO.class);
+    }
+}
@@ -0,0 +1,46 @@
+package com.api.cargosimpleserver.Mailbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки очередей изменений остатков по складам.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.stock-mailbox}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.stock-mailbox")
+public class StockMailboxProperties {
+
+    /**
+     * Включение режима, в котором изменения остатков склада выполняет его очередь.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Наибольшее число команд, фиксируемых одной транзакцией.
+     */
+    private int batchSize = 200;
+
+    /**
+     * Наибольшее число ожидающих команд одного склада; сверх него команды отклоняются.
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * Число потоков, обрабатывающих очереди складов.
+     */
+    private int workers = 4;
+
+    /**
+     * Наибольшее время ожидания результата команды вызывающим потоком.
+     */
+    private Duration awaitTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Время бездействия, после которого очередь склада и её состояние удаляются из памяти.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+}
@@ -0,0 +1,117 @@
+package com.api.cargosimpleserver.Mailbox;
+
+import com.api.cargosimpleserver.Exceptions.WarehouseBusyException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Очередь команд одного склада.
+ * <p>
+ * Очередь обрабатывает не больше одного потока одновременно: поток назначается
+ * при первой команде в пустой очереди и освобождается, когда очередь опустела.
+ * Передача очереди между потоками проходит через монитор очереди, поэтому
+ * состояние склада, которое меняет только обрабатывающий поток, не требует синхронизации.
+ */
+class WarehouseMailbox {
+
+    private final Long warehouseId;
+
+    /**
+     * Ожидающие команды. Защищено монитором this.
+     */
+    private final ArrayDeque<StockCommand> commands = new ArrayDeque<>();
+
+    /**
+     * Назначен ли очереди обрабатывающий поток. Защищено монитором this.
+     */
+    private boolean draining;
+
+    /**
+     * Момент последней команды (System.nanoTime). Защищено монитором this.
+     */
+    private long lastActivity = System.nanoTime();
+
+    /**
+     * Состояние склада или null, если его нужно загрузить из базы.
+     * Меняется только обрабатывающим потоком.
+     */
+    private WarehouseStockState state;
+
+    WarehouseMailbox(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+
+    Long warehouseId() {
+        return warehouseId;
+    }
+
+    /**
+     * Постановка команды в очередь.
+     *
+     * @param command команда
+     * @param capacity наибольшее число ожидающих команд
+     * @return true, если очереди нужно назначить обрабатывающий поток
+     * @throws WarehouseBusyException если очередь заполнена
+     */
+    synchronized boolean offer(StockCommand command, int capacity) {
+        if (commands.size() >= capacity) {
+            throw new WarehouseBusyException("Очередь изменений склада " + warehouseId
+                    + " заполнена, повторите запрос позже");
+        }
+        commands.add(command);
+        lastActivity = System.nanoTime();
+        if (draining) {
+            return false;
+        }
+        draining = true;
+        return true;
+    }
+
+    /**
+     * Извлечение очередной группы команд.
+     *
+     * @param limit наибольшее число команд
+     * @return команды в порядке поступления
+     */
+    synchronized List<StockCommand> poll(int limit) {
+        List<StockCommand> batch = new ArrayList<>(Math.min(limit, commands.size()));
+        while (batch.size() < limit && !commands.isEmpty()) {
+            batch.add(commands.poll());
+        }
+        return batch;
+    }
+
+    /**
+     * Завершение обработки группы команд.
+     *
+     * @return true, если в очереди остались команды и обработку нужно продолжить
+     */
+    synchronized boolean continueDraining() {
+        if (commands.isEmpty()) {
+            draining = false;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Проверка, что очередь пуста, не обрабатывается и не получала команд дольше заданного времени.
+     *
+     * @param now текущий момент (System.nanoTime)
+     * @param idleNanos время бездействия
+     * @return true, если очередь можно удалить
+     */
+    synchronized boolean isIdle(long now, long idleNanos) {
+        return !draining && commands.isEmpty() && now - lastActivity > idleNanos;
+    }
+
+    WarehouseStockState state() {
+        return state;
+    }
+
+    void setState(WarehouseStockState state) {
+        this.state = state;
+    }
+}
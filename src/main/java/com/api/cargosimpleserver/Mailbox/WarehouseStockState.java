@@ -0,0 +1,100 @@
+package com.api.cargosimpleserver.Mailbox;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Состояние склада, по которому очередь проверяет команды без обращения к базе.
+ * <p>
+ * Содержит:
+ * - Товар каждой записи склада (одна запись на пару товар–склад)
+ * - Суммарное количество товара на складе и вместимость склада
+ *   (вместимость обновляется перед каждой группой команд)
+ * <p>
+ * Класс не потокобезопасен: состояние меняет только поток, обрабатывающий очередь склада.
+ */
+class WarehouseStockState {
+
+    private int capacity;
+
+    private final Map<Long, Long> productByStock = new HashMap<>();
+
+    private final Map<Long, Long> stockByProduct = new HashMap<>();
+
+    private long totalQuantity;
+
+    WarehouseStockState(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    long freeCapacity() {
+        return capacity - totalQuantity;
+    }
+
+    boolean contains(Long stockId) {
+        return productByStock.containsKey(stockId);
+    }
+
+    boolean hasProduct(Long productId) {
+        return stockByProduct.containsKey(productId);
+    }
+
+    Set<Long> stockIds() {
+        return productByStock.keySet();
+    }
+
+    /**
+     * Учёт новой записи склада.
+     *
+     * @param stockId идентификатор записи
+     * @param productId идентификатор товара
+     * @param quantity количество товара в записи
+     */
+    void added(Long stockId, Long productId, int quantity) {
+        productByStock.put(stockId, productId);
+        stockByProduct.put(productId, stockId);
+        totalQuantity += quantity;
+    }
+
+    /**
+     * Учёт удалённой записи склада.
+     *
+     * @param stockId идентификатор записи
+     * @param quantity количество товара в записи
+     */
+    void removed(Long stockId, int quantity) {
+        Long productId = productByStock.remove(stockId);
+        if (productId != null) {
+            stockByProduct.remove(productId);
+        }
+        totalQuantity -= quantity;
+    }
+
+    /**
+     * Учёт изменения количества в записи.
+     *
+     * @param delta изменение количества
+     */
+    void quantityChanged(int delta) {
+        totalQuantity += delta;
+    }
+
+    /**
+     * Учёт замены товара в записи.
+     *
+     * @param stockId идентификатор записи
+     * @param productId идентификатор нового товара
+     */
+    void productChanged(Long stockId, Long productId) {
+        Long previous = productByStock.put(stockId, productId);
+        if (previous != null) {
+            stockByProduct.remove(previous);
+        }
+        stockByProduct.put(productId, stockId);
+    }
+}
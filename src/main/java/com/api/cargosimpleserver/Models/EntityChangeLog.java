@@ -0,0 +1,53 @@
+package com.api.cargosimpleserver.Models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Запись журнала изменений кэшируемых сущностей.
+ * <p>
+ * Добавляется в той же транзакции, что и изменение товара, склада или остатка.
+ * Остальные экземпляры приложения читают журнал по возрастанию идентификатора
+ * и удаляют изменённые записи из своих кэшей.
+ */
+@Entity
+@Table(name = "entity_change_log",
+        indexes = @Index(name = "idx_entity_change_log_changed_at", columnList = "changed_at"))
+@Data
+public class EntityChangeLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Тип изменённой сущности (PRODUCT, WAREHOUSE, STOCK).
+     */
+    @Column(nullable = false, length = 32)
+    private String entityType;
+
+    /**
+     * Идентификатор изменённой сущности.
+     */
+    @Column(nullable = false)
+    private Long entityId;
+
+    /**
+     * Склад изменённой сущности; для товара не заполняется.
+     */
+    private Long warehouseId;
+
+    /**
+     * Экземпляр приложения, выполнивший изменение.
+     */
+    @Column(nullable = false, length = 64)
+    private String nodeId;
+
+    /**
+     * Момент изменения.
+     */
+    @Column(nullable = false)
+    private Instant changedAt;
+}
@@ -0,0 +1,56 @@
+package com.api.cargosimpleserver.Models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Сохранённый результат запроса с ключом идемпотентности.
+ * <p>
+ * Используется при хранении результатов в базе данных
+ * ({@code app.idempotency.store=database}), что позволяет нескольким
+ * экземплярам приложения отвечать на повторы одинаково.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+public class IdempotencyRecord {
+
+    /**
+     * Хэш ключа идемпотентности вместе с клиентом, методом и путём запроса.
+     */
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    /**
+     * Отпечаток исходного запроса.
+     */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    /**
+     * HTTP-статус сохранённого ответа.
+     */
+    @Column(nullable = false)
+    private Integer status;
+
+    /**
+     * Тип содержимого сохранённого ответа.
+     */
+    private String contentType;
+
+    /**
+     * Тело сохранённого ответа.
+     */
+    @Lob
+    @Column(columnDefinition = "LONGBLOB")
+    private byte[] body;
+
+    /**
+     * Момент сохранения ответа.
+     */
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -2,6 +2,11 @@ package com.api.cargosimpleserver.Models;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -11,9 +16,18 @@ import java.util.List;
  * <p>
  * Содержит полную информацию о товаре, включая идентификационные,
  * ценовые и складские характеристики.
+ * <p>
+ * Товары читаются часто и меняются редко, поэтому хранятся во втором уровне кэша
+ * Hibernate (регион products), а поиск по артикулу — в регионе product-natural-ids.
+ * <p>
+ * UPDATE формируется только по изменённым столбцам ({@code @DynamicUpdate}),
+ * что важно для частичных обновлений через PATCH.
  */
 @Entity
 @Table(name = "products")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
+@NaturalIdCache(region = "product-natural-ids")
+@DynamicUpdate
 @Data
 public class Product {
 
@@ -31,7 +45,9 @@ public class Product {
      * Уникальный код продукта в системе:
      * - Обязателен для заполнения
      * - Должен быть уникальным
+     * - Может быть изменён при обновлении товара
      */
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false)
     private String articleNumber;
 
@@ -114,4 +130,13 @@ public class Product {
      */
     @OneToMany(mappedBy = "product")
     private List<WarehouseInStock> stocks;
+
+    /**
+     * Версия товара для оптимистической блокировки.
+     * Увеличивается при каждом изменении; UPDATE по устаревшей версии
+     * завершается конфликтом, а не перезаписью чужих изменений.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
\ No newline at end of file
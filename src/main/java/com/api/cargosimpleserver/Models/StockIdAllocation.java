@@ -0,0 +1,30 @@
+package com.api.cargosimpleserver.Models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Выданное значение счётчика идентификаторов записей об остатках.
+ * <p>
+ * У каждого сегмента свой счётчик: очередная строка этой таблицы даёт номер,
+ * из которого {@link com.api.cargosimpleserver.Sharding.StockIdGenerator} строит
+ * идентификатор записи с остатком от деления, равным номеру сегмента.
+ * Строки не удаляются: по наибольшему значению MySQL восстанавливает счётчик после перезапуска.
+ */
+@Entity
+@Table(name = "stock_id_allocations")
+@Data
+public class StockIdAllocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Момент выдачи значения.
+     */
+    @Column(nullable = false)
+    private Instant allocatedAt;
+}
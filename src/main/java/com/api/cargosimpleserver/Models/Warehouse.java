@@ -2,6 +2,8 @@ package com.api.cargosimpleserver.Models;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
@@ -10,9 +12,12 @@ import java.util.List;
  * <p>
  * Содержит детальную информацию о складском помещении, включая
  * контактные данные, емкость и текущий статус.
+ * <p>
+ * Склады хранятся во втором уровне кэша Hibernate (регион warehouses).
  */
 @Entity
 @Table(name = "warehouses")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "warehouses")
 @Data
 public class Warehouse {
 
@@ -82,4 +87,13 @@ public class Warehouse {
      */
     @OneToMany(mappedBy = "warehouse")
     private List<WarehouseInStock> stocks;
+
+    /**
+     * Версия склада для оптимистической блокировки.
+     * Увеличивается при каждом изменении; UPDATE по устаревшей версии
+     * завершается конфликтом, а не перезаписью чужих изменений.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
\ No newline at end of file
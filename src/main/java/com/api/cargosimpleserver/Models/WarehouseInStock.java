@@ -1,25 +1,43 @@
 package com.api.cargosimpleserver.Models;
 
+import com.api.cargosimpleserver.Sharding.StockId;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 
 /**
  * Представляет информацию о наличии товара на складе.
  * <p>
  * Отражает текущее количество и статус товара в определенном складском помещении,
  * включая данные о доступном и зарезервированном количестве.
+ * <p>
+ * Индексы объявлены так же, как в миграциях V2__stock_query_indexes.sql и V4__stock_location_index.sql,
+ * чтобы схема, создаваемая Hibernate в тестах, совпадала с рабочей.
+ * <p>
+ * UPDATE формируется только по изменённым столбцам ({@code @DynamicUpdate}):
+ * изменение количества не перезаписывает связи и локацию.
  */
 @Entity
-@Table(name = "warehouse_stocks")
+@Table(
+        name = "warehouse_stocks",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_warehouse_stocks_product_warehouse",
+                columnNames = {"product_id", "warehouse_id"}),
+        indexes = {
+                @Index(name = "idx_warehouse_stocks_warehouse_quantity", columnList = "warehouse_id, current_quantity"),
+                @Index(name = "idx_warehouse_stocks_product_quantity", columnList = "product_id, current_quantity"),
+                @Index(name = "idx_warehouse_stocks_warehouse_location", columnList = "warehouse_id, location")
+        })
+@DynamicUpdate
 @Data
 public class WarehouseInStock {
 
     /**
      * Уникальный идентификатор записи о складском запасе.
-     * Автоматически генерируется базой данных.
+     * Выдаётся счётчиком сегмента записи ({@link StockId}).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @StockId
     private Long id;
 
     /**
@@ -56,4 +74,13 @@ public class WarehouseInStock {
      */
     @Column(nullable = false)
     private String location;
+
+    /**
+     * Версия записи для оптимистической блокировки.
+     * Увеличивается при каждом изменении; UPDATE по устаревшей версии
+     * завершается конфликтом, а не перезаписью чужих изменений.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
\ No newline at end of file
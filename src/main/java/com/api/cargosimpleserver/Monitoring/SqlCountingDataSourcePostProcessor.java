@@ -0,0 +1,33 @@
+package com.api.cargosimpleserver.Monitoring;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивание источников данных прокси, подсчитывающим SQL-запросы.
+ * <p>
+ * Прокси добавляется к каждому бину DataSource один раз и передаёт
+ * выполненные запросы в {@link SqlStatementListener}.
+ * <p>
+ * Отключается настройкой {@code app.sql-monitoring.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sql-monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(new SqlStatementListener())
+                    .build();
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,30 @@
+package com.api.cargosimpleserver.Monitoring;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки подсчёта SQL-запросов на HTTP-запрос.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.sql-monitoring}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sql-monitoring")
+public class SqlMonitoringProperties {
+
+    /**
+     * Включение подсчёта SQL-запросов.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Количество SQL-запросов, при превышении которого HTTP-запрос
+     * записывается в журнал вместе с текстами запросов.
+     */
+    private int threshold = 10;
+
+    /**
+     * Количество текстов SQL-запросов, сохраняемых для журнала.
+     */
+    private int maxRecordedStatements = SqlStatementCounter.DEFAULT_MAX_RECORDED_STATEMENTS;
+}
@@ -0,0 +1,149 @@
+package com.api.cargosimpleserver.Monitoring;
+
+/**
+ * Подсчёт SQL-запросов, выполненных текущим потоком.
+ * <p>
+ * Счётчик активируется фильтром на время HTTP-запроса, а в тестах —
+ * вручную, что позволяет закрепить бюджет запросов для эндпоинта:
+ * <pre>
+ * SqlStatementCounter.start();
+ * mockMvc.perform(get("/api/products/1"));
+ * SqlStatementCounter.assertTotalAtMost(1);
+ * SqlStatementCounter.stop();
+ * </pre>
+ *
+ * @see SqlStatementListener
+ * @see SqlStatementCountingFilter
+ */
+public final class SqlStatementCounter {
+
+    /**
+     * Количество текстов запросов, сохраняемых для диагностики.
+     */
+    public static final int DEFAULT_MAX_RECORDED_STATEMENTS = 50;
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    /**
+     * Начало подсчёта в текущем потоке.
+     *
+     * @return false, если подсчёт уже был начат ранее (например, тестом)
+     */
+    public static boolean start() {
+        return start(DEFAULT_MAX_RECORDED_STATEMENTS);
+    }
+
+    /**
+     * Начало подсчёта в текущем потоке.
+     *
+     * @param maxRecordedStatements количество сохраняемых текстов запросов
+     * @return false, если подсчёт уже был начат ранее (например, тестом)
+     */
+    public static boolean start(int maxRecordedStatements) {
+        if (CURRENT.get() != null) {
+            return false;
+        }
+        CURRENT.set(new SqlStatementStats(maxRecordedStatements));
+        return true;
+    }
+
+    /**
+     * Текущая статистика потока.
+     *
+     * @return статистика или null, если подсчёт не начат
+     */
+    public static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Завершение подсчёта в текущем потоке.
+     *
+     * @return накопленная статистика или null, если подсчёт не был начат
+     */
+    public static SqlStatementStats stop() {
+        SqlStatementStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    static void record(String sql) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.record(sql);
+        }
+    }
+
+    /**
+     * Проверка, что общее число запросов не превышает бюджет.
+     *
+     * @param budget допустимое количество запросов
+     * @throws AssertionError если бюджет превышен или подсчёт не начат
+     */
+    public static void assertTotalAtMost(int budget) {
+        SqlStatementStats stats = requireStats();
+        if (stats.getTotalCount() > budget) {
+            throw new AssertionError("Превышен бюджет SQL-запросов: ожидалось не более " + budget
+                    + ", выполнено " + stats + "\n" + String.join("\n", stats.getStatements()));
+        }
+    }
+
+    /**
+     * Проверка точного числа SELECT-запросов.
+     *
+     * @param expected ожидаемое количество
+     * @throws AssertionError если количество отличается или подсчёт не начат
+     */
+    public static void assertSelectCount(int expected) {
+        assertCount("SELECT", expected, requireStats().getSelectCount());
+    }
+
+    /**
+     * Проверка точного числа INSERT-запросов.
+     *
+     * @param expected ожидаемое количество
+     * @throws AssertionError если количество отличается или подсчёт не начат
+     */
+    public static void assertInsertCount(int expected) {
+        assertCount("INSERT", expected, requireStats().getInsertCount());
+    }
+
+    /**
+     * Проверка точного числа UPDATE-запросов.
+     *
+     * @param expected ожидаемое количество
+     * @throws AssertionError если количество отличается или подсчёт не начат
+     */
+    public static void assertUpdateCount(int expected) {
+        assertCount("UPDATE", expected, requireStats().getUpdateCount());
+    }
+
+    /**
+     * Проверка точного числа DELETE-запросов.
+     *
+     * @param expected ожидаемое количество
+     * @throws AssertionError если количество отличается или подсчёт не начат
+     */
+    public static void assertDeleteCount(int expected) {
+        assertCount("DELETE", expected, requireStats().getDeleteCount());
+    }
+
+    private static void assertCount(String type, int expected, int actual) {
+        if (expected != actual) {
+            SqlStatementStats stats = requireStats();
+            throw new AssertionError("Ожидалось " + expected + " запросов " + type + ", выполнено " + actual
+                    + "\n" + String.join("\n", stats.getStatements()));
+        }
+    }
+
+    private static SqlStatementStats requireStats() {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats == null) {
+            throw new AssertionError("Подсчёт SQL-запросов не начат");
+        }
+        return stats;
+    }
+}
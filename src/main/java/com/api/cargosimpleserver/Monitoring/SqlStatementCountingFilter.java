@@ -0,0 +1,80 @@
+package com.api.cargosimpleserver.Monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Фильтр подсчёта SQL-запросов, выполненных при обработке HTTP-запроса.
+ * <p>
+ * Основные функции:
+ * - Публикация распределения числа SQL-запросов на эндпоинт (метрика cargo.sql.statements)
+ * - Запись в журнал HTTP-запросов, превысивших порог, вместе с текстами SQL
+ * <p>
+ * Если подсчёт уже начат вызывающим кодом (например, тестом), фильтр
+ * не сбрасывает и не завершает его.
+ *
+ * @see SqlStatementCounter
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "app.sql-monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementCountingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementCountingFilter.class);
+
+    private final SqlMonitoringProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementCountingFilter(SqlMonitoringProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        boolean started = SqlStatementCounter.start(properties.getMaxRecordedStatements());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStatementStats stats = started ? SqlStatementCounter.stop() : SqlStatementCounter.current();
+            if (stats != null) {
+                report(request, stats);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatementStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("cargo.sql.statements")
+                .description("Количество SQL-запросов на HTTP-запрос")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getTotalCount());
+
+        if (stats.getTotalCount() > properties.getThreshold()) {
+            logger.warn("{} {} выполнил SQL-запросов сверх порога {}: {}\n{}",
+                    request.getMethod(), request.getRequestURI(), properties.getThreshold(), stats,
+                    String.join("\n", stats.getStatements()));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.api.cargosimpleserver.Monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Слушатель выполнения SQL-запросов, передающий их в счётчик текущего потока.
+ * <p>
+ * Пакетное выполнение (JDBC batch) учитывается как один запрос
+ * на каждый текст SQL, так как выполняется за одно обращение к базе данных.
+ *
+ * @see SqlStatementCounter
+ */
+public class SqlStatementListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for (QueryInfo queryInfo : queryInfoList) {
+            SqlStatementCounter.record(queryInfo.getQuery());
+        }
+    }
+}
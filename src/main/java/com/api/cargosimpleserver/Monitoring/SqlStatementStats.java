@@ -0,0 +1,103 @@
+package com.api.cargosimpleserver.Monitoring;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Статистика SQL-запросов, выполненных в рамках одной единицы работы
+ * (как правило, одного HTTP-запроса).
+ * <p>
+ * Содержит:
+ * - Количество запросов по типам (SELECT, INSERT, UPDATE, DELETE, прочие)
+ * - Тексты первых выполненных запросов для диагностики
+ *
+ * @see SqlStatementCounter
+ */
+public class SqlStatementStats {
+
+    private final int maxRecordedStatements;
+
+    private final List<String> statements = new ArrayList<>();
+
+    private int selectCount;
+
+    private int insertCount;
+
+    private int updateCount;
+
+    private int deleteCount;
+
+    private int otherCount;
+
+    SqlStatementStats(int maxRecordedStatements) {
+        this.maxRecordedStatements = maxRecordedStatements;
+    }
+
+    void record(String sql) {
+        switch (firstKeyword(sql)) {
+            case "select", "with" -> selectCount++;
+            case "insert" -> insertCount++;
+            case "update" -> updateCount++;
+            case "delete" -> deleteCount++;
+            default -> otherCount++;
+        }
+        if (statements.size() < maxRecordedStatements) {
+            statements.add(sql);
+        }
+    }
+
+    private static String firstKeyword(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    public int getSelectCount() {
+        return selectCount;
+    }
+
+    public int getInsertCount() {
+        return insertCount;
+    }
+
+    public int getUpdateCount() {
+        return updateCount;
+    }
+
+    public int getDeleteCount() {
+        return deleteCount;
+    }
+
+    public int getOtherCount() {
+        return otherCount;
+    }
+
+    /**
+     * Общее количество выполненных запросов.
+     *
+     * @return сумма по всем типам
+     */
+    public int getTotalCount() {
+        return selectCount + insertCount + updateCount + deleteCount + otherCount;
+    }
+
+    /**
+     * Тексты первых выполненных запросов.
+     *
+     * @return неизменяемый список запросов
+     */
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    @Override
+    public String toString() {
+        return "всего=" + getTotalCount() + ", select=" + selectCount + ", insert=" + insertCount
+                + ", update=" + updateCount + ", delete=" + deleteCount + ", прочие=" + otherCount;
+    }
+}
@@ -0,0 +1,293 @@
+package com.api.cargosimpleserver.Putaway;
+
+import com.api.cargosimpleserver.Coherence.RemoteEntityChangeEvent;
+import com.api.cargosimpleserver.DTO.PutawaySuggestionDTO;
+import com.api.cargosimpleserver.DTO.WarehouseDTO;
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.Events.InventoryChangeEvent;
+import com.api.cargosimpleserver.Exceptions.NotFoundException;
+import com.api.cargosimpleserver.Exceptions.WarehouseCapacityExceededException;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import com.api.cargosimpleserver.Sharding.ShardContext;
+import com.api.cargosimpleserver.Sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Подбор ячеек для размещения поступившего товара.
+ * <p>
+ * Основные функции:
+ * - Индекс занятых и свободных ячеек по каждому складу, построенный по кодам location
+ * - Предложение ячеек: сначала ячейка, где товар уже хранится на складе,
+ *   затем свободные ячейки в порядке обхода склада
+ * - Проверка свободной вместимости склада без обращения к базе
+ * <p>
+ * Индекс склада строится одним запросом при первом обращении к складу и затем
+ * поддерживается по зафиксированным изменениям остатков и складов.
+ * События, зафиксированные во время построения, повторно применяются к его результату:
+ * они несут итоговое состояние записи, поэтому повторное применение безопасно.
+ * <p>
+ * Изменение записи затрагивает только индексы её прежнего и нового склада:
+ * склад каждой записи построенных индексов хранится отдельно. Индексы складов,
+ * остатки которых изменил другой экземпляр приложения, сбрасываются и строятся заново.
+ */
+@Component
+public class PutawayEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(PutawayEngine.class);
+
+    private final WarehouseInStockRepository warehouseInStockRepository;
+
+    private final WarehouseRepository warehouseRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final PutawayProperties properties;
+
+    private final ShardRouter shardRouter;
+
+    private final Object loadLock = new Object();
+
+    /**
+     * Индексы построенных складов. Защищено монитором this.
+     */
+    private final Map<Long, WarehouseSlotIndex> indexes = new HashMap<>();
+
+    /**
+     * События складов, индекс которых строится. Защищено монитором this.
+     */
+    private final Map<Long, List<InventoryChangeEvent>> pendingEvents = new HashMap<>();
+
+    /**
+     * Склад каждой записи построенных индексов. Защищено монитором this.
+     */
+    private final Map<Long, Long> warehouseOfStock = new HashMap<>();
+
+    /**
+     * Склады, индекс которых строится, но уже устарел из-за изменений
+     * другого экземпляра; такой индекс не сохраняется. Защищено монитором this.
+     */
+    private final Set<Long> staleLoads = new HashSet<>();
+
+    public PutawayEngine(WarehouseInStockRepository warehouseInStockRepository,
+                         WarehouseRepository warehouseRepository,
+                         PlatformTransactionManager transactionManager,
+                         PutawayProperties properties,
+                         ShardRouter shardRouter) {
+        this.warehouseInStockRepository = warehouseInStockRepository;
+        this.warehouseRepository = warehouseRepository;
+        // Индекс читается из основной базы (транзакция не readOnly), чтобы снимок
+        // не отставал от событий, которые будут к нему применены
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Учёт зафиксированного изменения остатка или склада.
+     *
+     * @param event событие изменения
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onInventoryChange(InventoryChangeEvent event) {
+        switch (event.getEntityType()) {
+            case STOCK -> {
+                if (event.getChangeType() != InventoryChangeEvent.ChangeType.DELETED) {
+                    // Запись могла переехать с другого склада
+                    Set<Long> previous = new HashSet<>(pendingEvents.keySet());
+                    Long indexed = warehouseOfStock.get(event.getEntityId());
+                    if (indexed != null) {
+                        previous.add(indexed);
+                    }
+                    previous.remove(event.getWarehouseId());
+                    previous.forEach(warehouseId -> dispatch(InventoryChangeEvent.stockDeleted(
+                            event.getEntityId(), event.getProductId(), warehouseId)));
+                }
+                dispatch(event);
+            }
+            case WAREHOUSE -> {
+                if (event.getChangeType() == InventoryChangeEvent.ChangeType.DELETED) {
+                    invalidate(event.getWarehouseId());
+                } else {
+                    dispatch(event);
+                }
+            }
+            case PRODUCT -> {
+                // Записи товара удаляются отдельными событиями остатков
+            }
+        }
+    }
+
+    /**
+     * Сброс индексов складов, изменённых другим экземпляром приложения.
+     * <p>
+     * Для остатка сбрасываются индексы прежнего склада записи и склада из события.
+     * Индекс будет построен заново при следующем обращении к складу.
+     *
+     * @param event событие изменения на другом экземпляре
+     */
+    @EventListener
+    public synchronized void onRemoteChange(RemoteEntityChangeEvent event) {
+        switch (event.entityType()) {
+            case WAREHOUSE -> invalidate(event.entityId());
+            case STOCK -> {
+                invalidate(warehouseOfStock.get(event.entityId()));
+                invalidate(event.warehouseId());
+            }
+            case PRODUCT -> {
+                // Товар не входит в индекс ячеек
+            }
+        }
+    }
+
+    /**
+     * Предложение ячеек для размещения товара на складе.
+     *
+     * @param warehouseId идентификатор склада
+     * @param productId идентификатор товара
+     * @param quantity размещаемое количество
+     * @param limit наибольшее число предлагаемых ячеек
+     * @return ячейки в порядке предпочтения
+     * @throws NotFoundException если склад не найден
+     * @throws WarehouseCapacityExceededException если на складе нет места для всего количества
+     */
+    public PutawaySuggestionDTO suggest(Long warehouseId, Long productId, int quantity, int limit) {
+        ensureLoaded(warehouseId);
+        int maxSlots = Math.min(limit, properties.getMaxSuggestions());
+        synchronized (this) {
+            WarehouseSlotIndex index = indexes.get(warehouseId);
+            if (index == null) {
+                throw new NotFoundException("Склад с ID " + warehouseId + " не найден");
+            }
+            long freeCapacity = index.freeCapacity();
+            if (quantity > freeCapacity) {
+                throw new WarehouseCapacityExceededException("Невозможно разместить " + quantity
+                        + " ед.: на складе свободно " + Math.max(freeCapacity, 0));
+            }
+
+            List<PutawaySuggestionDTO.Slot> slots = new ArrayList<>(maxSlots);
+            StockSlot existing = index.stockOf(productId);
+            if (existing != null) {
+                // Товар хранится на складе одной записью: поступление добавляется к ней
+                slots.add(new PutawaySuggestionDTO.Slot(existing.location(), existing.id()));
+            } else {
+                index.freeSlots(maxSlots, properties.getSlotsPerAisle())
+                        .forEach(location -> slots.add(new PutawaySuggestionDTO.Slot(location, null)));
+            }
+            return new PutawaySuggestionDTO(warehouseId, productId, quantity, freeCapacity, slots);
+        }
+    }
+
+    /**
+     * Построение индекса склада, если он ещё не построен.
+     */
+    private void ensureLoaded(Long warehouseId) {
+        synchronized (this) {
+            if (indexes.containsKey(warehouseId)) {
+                return;
+            }
+        }
+        synchronized (loadLock) {
+            synchronized (this) {
+                if (indexes.containsKey(warehouseId)) {
+                    return;
+                }
+                pendingEvents.put(warehouseId, new ArrayList<>());
+            }
+            try {
+                long started = System.nanoTime();
+                WarehouseSlotIndex fresh = ShardContext.callOn(shardRouter.shardOfWarehouse(warehouseId),
+                        () -> transactionTemplate.execute(status -> load(warehouseId)));
+                if (fresh == null) {
+                    return;
+                }
+                synchronized (this) {
+                    if (staleLoads.contains(warehouseId)) {
+                        return;
+                    }
+                    List<InventoryChangeEvent> events = pendingEvents.get(warehouseId);
+                    events.forEach(event -> apply(fresh, event));
+                    indexes.put(warehouseId, fresh);
+                    fresh.stockIds().forEach(stockId -> warehouseOfStock.put(stockId, warehouseId));
+                }
+                logger.info("Построен индекс ячеек склада {} за {} мс: записей {}",
+                        warehouseId, (System.nanoTime() - started) / 1_000_000, fresh.stockCount());
+            } finally {
+                synchronized (this) {
+                    pendingEvents.remove(warehouseId);
+                    staleLoads.remove(warehouseId);
+                }
+            }
+        }
+    }
+
+    private WarehouseSlotIndex load(Long warehouseId) {
+        Warehouse warehouse = warehouseRepository.findById(warehouseId).orElse(null);
+        if (warehouse == null) {
+            return null;
+        }
+        WarehouseSlotIndex index = new WarehouseSlotIndex(warehouse.getCapacity());
+        warehouseInStockRepository.findSlotsByWarehouseId(warehouseId).forEach(index::put);
+        return index;
+    }
+
+    /**
+     * Удаление индекса склада; строящийся индекс склада не будет сохранён.
+     */
+    private void invalidate(Long warehouseId) {
+        if (warehouseId == null) {
+            return;
+        }
+        if (indexes.remove(warehouseId) != null) {
+            warehouseOfStock.values().removeIf(warehouseId::equals);
+        }
+        if (pendingEvents.containsKey(warehouseId)) {
+            staleLoads.add(warehouseId);
+        }
+    }
+
+    private void dispatch(InventoryChangeEvent event) {
+        List<InventoryChangeEvent> pending = pendingEvents.get(event.getWarehouseId());
+        if (pending != null) {
+            pending.add(event);
+        }
+        WarehouseSlotIndex index = indexes.get(event.getWarehouseId());
+        if (index != null) {
+            apply(index, event);
+            if (event.getEntityType() != InventoryChangeEvent.EntityType.STOCK) {
+                return;
+            }
+            if (index.contains(event.getEntityId())) {
+                warehouseOfStock.put(event.getEntityId(), event.getWarehouseId());
+            } else {
+                warehouseOfStock.remove(event.getEntityId(), event.getWarehouseId());
+            }
+        }
+    }
+
+    private static void apply(WarehouseSlotIndex index, InventoryChangeEvent event) {
+        if (event.getEntityType() == InventoryChangeEvent.EntityType.WAREHOUSE) {
+            index.setCapacity(((WarehouseDTO) event.getPayload()).getCapacity());
+        } else if (event.getChangeType() == InventoryChangeEvent.ChangeType.DELETED) {
+            index.remove(event.getEntityId());
+        } else {
+            WarehouseInStockDTO stock = (WarehouseInStockDTO) event.getPayload();
+            index.put(new StockSlot(stock.getId(), stock.getProductId(), stock.getLocation(), stock.getCurrentQuantity()));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.api.cargosimpleserver.Putaway;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки подбора ячеек для размещения товара.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.putaway}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.putaway")
+public class PutawayProperties {
+
+    /**
+     * Число ячеек в ряду. Ряд, в котором занята ячейка с большим номером,
+     * считается длиной до этой ячейки.
+     */
+    private int slotsPerAisle = 100;
+
+    /**
+     * Наибольшее число предлагаемых ячеек.
+     */
+    private int maxSuggestions = 20;
+}
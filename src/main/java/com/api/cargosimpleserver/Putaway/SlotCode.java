@@ -0,0 +1,57 @@
+package com.api.cargosimpleserver.Putaway;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Код ячейки склада, разобранный на ряд и номер ячейки.
+ * <p>
+ * Номер ячейки — завершающие цифры кода, ряд — всё, что перед ними:
+ * - "L1-38" — ряд "L1-", ячейка 38
+ * - "A1-01" — ряд "A1-", ячейка 1 с дополнением нулями до двух знаков
+ * <p>
+ * Коды без завершающих цифр в индекс свободных ячеек не попадают.
+ *
+ * @param aisle префикс ряда
+ * @param slot номер ячейки
+ * @param width ширина номера с ведущими нулями (0 — без дополнения)
+ */
+record SlotCode(String aisle, int slot, int width) {
+
+    private static final Pattern CODE = Pattern.compile("^(.*?)(\\d{1,9})$");
+
+    /**
+     * Разбор кода ячейки.
+     *
+     * @param location код ячейки
+     * @return код или null, если формат не распознан
+     */
+    static SlotCode parse(String location) {
+        if (location == null) {
+            return null;
+        }
+        Matcher matcher = CODE.matcher(location);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String digits = matcher.group(2);
+        int width = digits.length() > 1 && digits.charAt(0) == '0' ? digits.length() : 0;
+        return new SlotCode(matcher.group(1), Integer.parseInt(digits), width);
+    }
+
+    /**
+     * Код ячейки ряда в том же формате, что и существующие коды.
+     *
+     * @param aisle префикс ряда
+     * @param slot номер ячейки
+     * @param width ширина номера с ведущими нулями (0 — без дополнения)
+     * @return код ячейки
+     */
+    static String format(String aisle, int slot, int width) {
+        String digits = Integer.toString(slot);
+        if (digits.length() >= width) {
+            return aisle + digits;
+        }
+        return aisle + "0".repeat(width - digits.length()) + digits;
+    }
+}
@@ -0,0 +1,7 @@
+package com.api.cargosimpleserver.Putaway;
+
+/**
+ * Складской остаток для построения индекса ячеек склада.
+ */
+public record StockSlot(Long id, Long productId, String location, Integer quantity) {
+}
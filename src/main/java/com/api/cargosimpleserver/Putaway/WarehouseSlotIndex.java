@@ -0,0 +1,173 @@
+package com.api.cargosimpleserver.Putaway;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Индекс занятых и свободных ячеек одного склада.
+ * <p>
+ * Содержит:
+ * - Занятость ячеек по рядам (BitSet по номерам ячеек и число записей в ячейке)
+ * - Запись каждого товара на складе (одна на пару товар–склад)
+ * - Суммарное количество товара на складе и вместимость склада
+ * <p>
+ * Класс не потокобезопасен; доступ синхронизирует {@link PutawayEngine}.
+ */
+class WarehouseSlotIndex {
+
+    /**
+     * Ряды в порядке обхода склада.
+     */
+    private final Map<String, Aisle> aisles = new TreeMap<>();
+
+    private final Map<Long, StockSlot> stocks = new HashMap<>();
+
+    private final Map<Long, Long> stockByProduct = new HashMap<>();
+
+    private int capacity;
+
+    private long totalQuantity;
+
+    WarehouseSlotIndex(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    long freeCapacity() {
+        return capacity - totalQuantity;
+    }
+
+    boolean contains(Long stockId) {
+        return stocks.containsKey(stockId);
+    }
+
+    int stockCount() {
+        return stocks.size();
+    }
+
+    Set<Long> stockIds() {
+        return stocks.keySet();
+    }
+
+    /**
+     * Добавление или замена записи об остатке.
+     *
+     * @param stock текущее состояние записи
+     */
+    void put(StockSlot stock) {
+        remove(stock.id());
+        stocks.put(stock.id(), stock);
+        stockByProduct.put(stock.productId(), stock.id());
+        totalQuantity += stock.quantity();
+        SlotCode code = SlotCode.parse(stock.location());
+        if (code != null) {
+            aisles.computeIfAbsent(code.aisle(), Aisle::new).occupy(code);
+        }
+    }
+
+    /**
+     * Удаление записи об остатке.
+     *
+     * @param stockId идентификатор записи
+     */
+    void remove(Long stockId) {
+        StockSlot previous = stocks.remove(stockId);
+        if (previous == null) {
+            return;
+        }
+        stockByProduct.remove(previous.productId(), stockId);
+        totalQuantity -= previous.quantity();
+        SlotCode code = SlotCode.parse(previous.location());
+        if (code != null) {
+            Aisle aisle = aisles.get(code.aisle());
+            if (aisle != null) {
+                aisle.release(code.slot());
+            }
+        }
+    }
+
+    /**
+     * Ячейка, в которой товар уже хранится на этом складе.
+     *
+     * @param productId идентификатор товара
+     * @return запись товара или null
+     */
+    StockSlot stockOf(Long productId) {
+        Long stockId = stockByProduct.get(productId);
+        return stockId != null ? stocks.get(stockId) : null;
+    }
+
+    /**
+     * Свободные ячейки в порядке обхода: ряды по коду, ячейки по номеру.
+     * <p>
+     * Ряд считается длиной не меньше slotsPerAisle ячеек или до наибольшей
+     * занятой ячейки, если она дальше.
+     *
+     * @param limit наибольшее число ячеек
+     * @param slotsPerAisle число ячеек в ряду
+     * @return коды свободных ячеек
+     */
+    List<String> freeSlots(int limit, int slotsPerAisle) {
+        List<String> result = new ArrayList<>(limit);
+        for (Aisle aisle : aisles.values()) {
+            int last = Math.max(slotsPerAisle, aisle.occupied.length() - 1);
+            for (int slot = aisle.occupied.nextClearBit(1); slot <= last && result.size() < limit;
+                 slot = aisle.occupied.nextClearBit(slot + 1)) {
+                result.add(SlotCode.format(aisle.prefix, slot, aisle.width));
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Занятость ячеек одного ряда.
+     */
+    private static final class Aisle {
+
+        private final String prefix;
+
+        private final BitSet occupied = new BitSet();
+
+        /**
+         * Число записей в ячейке, если их больше одной.
+         */
+        private final Map<Integer, Integer> shared = new HashMap<>();
+
+        private int width;
+
+        private Aisle(String prefix) {
+            this.prefix = prefix;
+        }
+
+        private void occupy(SlotCode code) {
+            width = Math.max(width, code.width());
+            if (occupied.get(code.slot())) {
+                shared.merge(code.slot(), 2, (count, ignored) -> count + 1);
+            } else {
+                occupied.set(code.slot());
+            }
+        }
+
+        private void release(int slot) {
+            Integer count = shared.get(slot);
+            if (count == null) {
+                occupied.clear(slot);
+            } else if (count == 2) {
+                shared.remove(slot);
+            } else {
+                shared.put(slot, count - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.api.cargosimpleserver.Replication;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Источник данных, направляющий транзакции только для чтения на реплики.
+ * <p>
+ * Основные функции:
+ * - Соединения для {@code @Transactional(readOnly = true)} берутся из пула исправной реплики
+ * - Все остальные соединения, включая работу вне транзакции, берутся из пула основной базы
+ * - При ошибке подключения к реплике соединение берётся из пула основной базы
+ * <p>
+ * Признак транзакции только для чтения устанавливается после получения соединения
+ * менеджером транзакций, поэтому источник используется только через
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * откладывающий получение соединения до первого запроса.
+ *
+ * @see ReplicaCluster
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private final ReplicaCluster cluster;
+
+    public ReadWriteRoutingDataSource(ReplicaCluster cluster) {
+        this.cluster = cluster;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReplicaNode replica = cluster.nextAvailableReplica();
+            if (replica != null) {
+                try {
+                    return replica.getDataSource().getConnection();
+                } catch (SQLException ex) {
+                    cluster.reportFailure(replica, ex);
+                }
+            }
+        }
+        return cluster.getPrimary().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return cluster.getPrimary().getConnection(username, password);
+    }
+}
@@ -0,0 +1,177 @@
+package com.api.cargosimpleserver.Replication;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Основная база и реплики для чтения.
+ * <p>
+ * Основные функции:
+ * - Хранение пулов соединений основной базы и реплик
+ * - Выбор исправной реплики по кругу
+ * - Периодическая проверка отставания реплик (SHOW REPLICA STATUS)
+ * - Закрытие пулов при остановке приложения
+ * <p>
+ * Реплика исключается из маршрутизации, если она недоступна, репликация остановлена
+ * или отставание превышает {@code app.datasource.routing.max-lag}.
+ * Когда исправных реплик нет, чтение выполняется на основной базе.
+ *
+ * @see ReadWriteRoutingDataSource
+ */
+public class ReplicaCluster implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaCluster.class);
+
+    private final HikariDataSource primary;
+
+    private final List<ReplicaNode> replicas;
+
+    private final long maxLagSeconds;
+
+    private final boolean allowMissingReplicationStatus;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaCluster(HikariDataSource primary, List<ReplicaNode> replicas, ReplicationProperties properties) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLagSeconds = properties.getMaxLag().toSeconds();
+        this.allowMissingReplicationStatus = properties.isAllowMissingReplicationStatus();
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public List<ReplicaNode> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Выбор следующей исправной реплики по кругу.
+     *
+     * @return реплика или null, если исправных реплик нет
+     */
+    public ReplicaNode nextAvailableReplica() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReplicaNode replica = replicas.get((start + i) % size);
+            if (replica.isAvailable()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Исключение реплики из маршрутизации после ошибки подключения.
+     * Реплика вернётся после следующей успешной проверки.
+     *
+     * @param replica реплика
+     * @param ex ошибка подключения
+     */
+    public void reportFailure(ReplicaNode replica, SQLException ex) {
+        if (replica.isAvailable()) {
+            logger.warn("Реплика {} недоступна, чтение переключено на основную базу: {}",
+                    replica.getName(), ex.getMessage());
+        }
+        replica.markUnavailable(-1);
+    }
+
+    /**
+     * Проверка отставания всех реплик.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.routing.lag-check-interval-ms:2000}")
+    public void checkReplicas() {
+        for (ReplicaNode replica : replicas) {
+            checkReplica(replica);
+        }
+    }
+
+    private void checkReplica(ReplicaNode replica) {
+        boolean wasAvailable = replica.isAvailable();
+        Long lag;
+        try (Connection connection = replica.getDataSource().getConnection()) {
+            lag = readLagSeconds(connection);
+        } catch (SQLException ex) {
+            if (wasAvailable) {
+                logger.warn("Реплика {} недоступна: {}", replica.getName(), ex.getMessage());
+            }
+            replica.markUnavailable(-1);
+            return;
+        }
+
+        if (lag == null) {
+            if (wasAvailable) {
+                logger.warn("На реплике {} остановлена репликация", replica.getName());
+            }
+            replica.markUnavailable(-1);
+        } else if (lag > maxLagSeconds) {
+            if (wasAvailable) {
+                logger.warn("Реплика {} отстаёт на {} с (допустимо {} с)", replica.getName(), lag, maxLagSeconds);
+            }
+            replica.markUnavailable(lag);
+        } else {
+            if (!wasAvailable) {
+                logger.info("Реплика {} доступна для чтения, отставание {} с", replica.getName(), lag);
+            }
+            replica.markAvailable(lag);
+        }
+    }
+
+    /**
+     * Чтение отставания реплики в секундах.
+     * <p>
+     * Для MySQL до 8.0.22 используется SHOW SLAVE STATUS.
+     *
+     * @return отставание, 0 если репликация не настроена и это разрешено,
+     *         null если репликация остановлена
+     */
+    private Long readLagSeconds(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            ResultSet status;
+            try {
+                status = statement.executeQuery("SHOW REPLICA STATUS");
+            } catch (SQLException ex) {
+                status = statement.executeQuery("SHOW SLAVE STATUS");
+            }
+            try (ResultSet rs = status) {
+                if (!rs.next()) {
+                    return allowMissingReplicationStatus ? 0L : null;
+                }
+                long lag = readLagColumn(rs);
+                return rs.wasNull() ? null : lag;
+            }
+        }
+    }
+
+    private static long readLagColumn(ResultSet rs) throws SQLException {
+        try {
+            return rs.getLong("Seconds_Behind_Source");
+        } catch (SQLException ex) {
+            return rs.getLong("Seconds_Behind_Master");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (ReplicaNode replica : replicas) {
+            replica.getDataSource().close();
+        }
+        primary.close();
+    }
+}
@@ -0,0 +1,41 @@
+package com.api.cargosimpleserver.Replication;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+
+/**
+ * Реплика для чтения с собственным пулом соединений и состоянием по результатам проверки.
+ */
+@Getter
+public class ReplicaNode {
+
+    private final String name;
+
+    private final HikariDataSource dataSource;
+
+    /**
+     * Доступность реплики для маршрутизации.
+     * До первой проверки реплика считается недоступной.
+     */
+    private volatile boolean available;
+
+    /**
+     * Последнее измеренное отставание в секундах, -1 если неизвестно.
+     */
+    private volatile long lagSeconds = -1;
+
+    public ReplicaNode(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    void markAvailable(long lagSeconds) {
+        this.lagSeconds = lagSeconds;
+        this.available = true;
+    }
+
+    void markUnavailable(long lagSeconds) {
+        this.lagSeconds = lagSeconds;
+        this.available = false;
+    }
+}
@@ -0,0 +1,89 @@
+package com.api.cargosimpleserver.Replication;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Конфигурация источника данных с репликами для чтения.
+ * <p>
+ * Включается настройкой {@code app.datasource.routing.enabled=true} и заменяет
+ * источник данных Spring Boot. Основная база и каждая реплика получают
+ * отдельный пул HikariCP; пул основной базы настраивается через
+ * {@code spring.datasource.hikari.*}.
+ * <p>
+ * Пулы не регистрируются как отдельные бины, чтобы прокси подсчёта SQL-запросов
+ * оборачивал только итоговый источник данных.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+public class ReplicationDataSourceConfig {
+
+    @Bean
+    public ReplicaCluster replicaCluster(DataSourceProperties dataSourceProperties,
+                                         ReplicationProperties replicationProperties,
+                                         Environment environment,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        meterRegistry.ifAvailable(registry -> primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+        List<ReplicaNode> replicas = new ArrayList<>();
+        List<ReplicationProperties.Replica> replicaSettings = replicationProperties.getReplicas();
+        for (int i = 0; i < replicaSettings.size(); i++) {
+            ReplicationProperties.Replica settings = replicaSettings.get(i);
+            String name = "replica-" + (i + 1);
+
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(settings.getUrl());
+            replica.setUsername(settings.getUsername() != null
+                    ? settings.getUsername() : dataSourceProperties.determineUsername());
+            replica.setPassword(settings.getPassword() != null
+                    ? settings.getPassword() : dataSourceProperties.determinePassword());
+            replica.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replica.setMaximumPoolSize(settings.getMaximumPoolSize());
+            replica.setMinimumIdle(settings.getMinimumIdle());
+            replica.setReadOnly(true);
+            // Недоступная при старте реплика не должна мешать запуску приложения
+            replica.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+            replicas.add(new ReplicaNode(name, replica));
+        }
+        return new ReplicaCluster(primary, replicas, replicationProperties);
+    }
+
+    /**
+     * Источник данных приложения.
+     * <p>
+     * Соединение получается при первом запросе, когда признак
+     * транзакции только для чтения уже установлен.
+     *
+     * @param replicaCluster основная база и реплики
+     * @return источник данных с маршрутизацией чтения
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaCluster replicaCluster) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(replicaCluster));
+    }
+}
@@ -0,0 +1,85 @@
+package com.api.cargosimpleserver.Replication;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки разделения чтения и записи между основной базой и репликами.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.datasource.routing}.
+ * Основная база берётся из {@code spring.datasource.*}, реплики перечисляются списком, например:
+ * <pre>
+ * app.datasource.routing.enabled=true
+ * app.datasource.routing.replicas[0].url=jdbc:mysql://localhost:3307/kursovay
+ * app.datasource.routing.replicas[0].maximum-pool-size=20
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class ReplicationProperties {
+
+    /**
+     * Включение маршрутизации транзакций только для чтения на реплики.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Допустимое отставание реплики. Реплика с большим отставанием
+     * исключается из маршрутизации до следующей проверки.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * Интервал проверки отставания реплик в миллисекундах.
+     */
+    private long lagCheckIntervalMs = 2000;
+
+    /**
+     * Считать реплику исправной, если на ней не настроена репликация
+     * (SHOW REPLICA STATUS возвращает пустой результат).
+     * Используется, когда роль реплики играет отдельный локальный экземпляр MySQL.
+     */
+    private boolean allowMissingReplicationStatus = false;
+
+    /**
+     * Реплики для чтения.
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Параметры подключения к реплике.
+     * Не заданные имя пользователя и пароль берутся из настроек основной базы.
+     */
+    @Data
+    public static class Replica {
+
+        /**
+         * JDBC URL реплики.
+         */
+        private String url;
+
+        /**
+         * Имя пользователя.
+         */
+        private String username;
+
+        /**
+         * Пароль.
+         */
+        private String password;
+
+        /**
+         * Максимальный размер пула соединений реплики.
+         */
+        private int maximumPoolSize = 10;
+
+        /**
+         * Минимальное число простаивающих соединений.
+         */
+        private int minimumIdle = 2;
+    }
+}
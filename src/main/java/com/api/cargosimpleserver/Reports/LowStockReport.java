@@ -0,0 +1,51 @@
+package com.api.cargosimpleserver.Reports;
+
+import com.api.cargosimpleserver.DTO.LowStockItemDTO;
+import com.api.cargosimpleserver.Services.WarehouseInStockService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Отчёт low-stock: записи, доступное количество которых ниже минимального уровня товара.
+ * <p>
+ * Параметры:
+ * - warehouseId — только записи склада
+ * <p>
+ * Записи отбираются одним запросом в базе, но без склада он просматривает все остатки,
+ * поэтому тип выполняется с низким приоритетом. Читается на одну запись больше
+ * {@code app.reports.max-result-items}, чтобы отличить допустимый отчёт от слишком большого.
+ */
+@Component
+@RequiredArgsConstructor
+public class LowStockReport implements ReportGenerator {
+
+    private final WarehouseInStockService warehouseInStockService;
+
+    private final ReportTransactions transactions;
+
+    private final ReportProperties properties;
+
+    @Override
+    public String type() {
+        return "low-stock";
+    }
+
+    @Override
+    public ReportPriority defaultPriority() {
+        return ReportPriority.LOW;
+    }
+
+    @Override
+    public Object generate(Map<String, String> parameters) {
+        Long warehouseId = ReportParameters.getLong(parameters, "warehouseId");
+        int maxItems = properties.getMaxResultItems();
+
+        List<LowStockItemDTO> items = transactions.read(
+                () -> warehouseInStockService.getLowStockItems(warehouseId, maxItems + 1));
+        ReportGenerator.checkSize(items.size(), maxItems);
+        return items;
+    }
+}
@@ -0,0 +1,42 @@
+package com.api.cargosimpleserver.Reports;
+
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Срок построения отчёта, строящегося в текущем потоке.
+ * <p>
+ * Задаётся очередью отчётов на время вызова {@link ReportGenerator#generate};
+ * по нему {@link ReportTransactions} ограничивает время запросов к базе.
+ */
+final class ReportDeadline {
+
+    private static final ThreadLocal<Instant> DEADLINE = new ThreadLocal<>();
+
+    private ReportDeadline() {
+    }
+
+    static void start(Duration timeout) {
+        DEADLINE.set(Instant.now().plus(timeout));
+    }
+
+    static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * Время до срока, округлённое вверх до секунд.
+     *
+     * @return не меньше 1 секунды; {@link TransactionDefinition#TIMEOUT_DEFAULT}, если срок не задан
+     */
+    static int remainingSeconds() {
+        Instant deadline = DEADLINE.get();
+        if (deadline == null) {
+            return TransactionDefinition.TIMEOUT_DEFAULT;
+        }
+        long millis = Duration.between(Instant.now(), deadline).toMillis();
+        return (int) Math.max(1, (millis + 999) / 1000);
+    }
+}
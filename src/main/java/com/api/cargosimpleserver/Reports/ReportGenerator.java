@@ -0,0 +1,68 @@
+package com.api.cargosimpleserver.Reports;
+
+import com.api.cargosimpleserver.Exceptions.ReportTooLargeException;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Тип отчёта, выполняемого в фоне.
+ * <p>
+ * Реализации — компоненты Spring; {@link ReportJobService} находит их по {@link #type()}.
+ * Отчёт строится в потоке очереди отчётов; при отмене или превышении времени поток
+ * прерывается, поэтому длинные циклы проверяют {@link #checkCancelled()}.
+ * Запросы к базе выполняются через {@link ReportTransactions}, чтобы срок построения
+ * ограничивал и ожидание ответа базы.
+ */
+public interface ReportGenerator {
+
+    /**
+     * Имя типа отчёта в API.
+     *
+     * @return имя типа, например {@code stock-dump}
+     */
+    String type();
+
+    /**
+     * Приоритет, если он не задан в запросе.
+     *
+     * @return приоритет по умолчанию
+     */
+    default ReportPriority defaultPriority() {
+        return ReportPriority.NORMAL;
+    }
+
+    /**
+     * Построение отчёта.
+     *
+     * @param parameters параметры запроса
+     * @return результат, сериализуемый в JSON
+     * @throws IllegalArgumentException если параметры неверны
+     */
+    Object generate(Map<String, String> parameters);
+
+    /**
+     * Прерывание построения отменённого отчёта.
+     *
+     * @throws CancellationException если поток отчёта прерван
+     */
+    static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Построение отчёта прервано");
+        }
+    }
+
+    /**
+     * Прекращение построения отчёта, число записей которого уже больше допустимого.
+     *
+     * @param size число записей результата
+     * @param maxItems наибольшее допустимое число записей
+     * @throws ReportTooLargeException если size больше maxItems
+     */
+    static void checkSize(int size, int maxItems) {
+        if (size > maxItems) {
+            throw new ReportTooLargeException("Отчёт содержит больше " + maxItems
+                    + " записей, сузьте его параметрами");
+        }
+    }
+}
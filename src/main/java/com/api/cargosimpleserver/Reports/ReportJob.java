@@ -0,0 +1,180 @@
+package com.api.cargosimpleserver.Reports;
+
+import com.api.cargosimpleserver.DTO.ReportJobDTO;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Задание отчёта: параметры, состояние и результат.
+ * <p>
+ * Состояние меняется под монитором задания. Поток отчёта прерывается только
+ * под тем же монитором и только пока задание выполняется, поэтому прерывание
+ * не может достаться следующему заданию того же потока.
+ */
+class ReportJob implements Comparable<ReportJob> {
+
+    private final String id;
+
+    private final ReportGenerator generator;
+
+    private final Map<String, String> parameters;
+
+    private final ReportPriority priority;
+
+    /**
+     * Порядковый номер постановки: задания одного приоритета выполняются по порядку.
+     */
+    private final long sequence;
+
+    private final Instant submittedAt = Instant.now();
+
+    private ReportStatus status = ReportStatus.QUEUED;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private String error;
+
+    private Object result;
+
+    /**
+     * Число записей результата; по сумме этих чисел ограничивается память хранимых результатов.
+     */
+    private int resultSize;
+
+    /**
+     * Поток, строящий отчёт, пока задание выполняется.
+     */
+    private Thread worker;
+
+    ReportJob(String id, ReportGenerator generator, Map<String, String> parameters,
+              ReportPriority priority, long sequence) {
+        this.id = id;
+        this.generator = generator;
+        this.parameters = Map.copyOf(parameters);
+        this.priority = priority;
+        this.sequence = sequence;
+    }
+
+    String id() {
+        return id;
+    }
+
+    ReportGenerator generator() {
+        return generator;
+    }
+
+    Map<String, String> parameters() {
+        return parameters;
+    }
+
+    /**
+     * Начало выполнения задания потоком.
+     *
+     * @param worker поток отчёта
+     * @return false, если задание отменено, пока ожидало в очереди
+     */
+    synchronized boolean start(Thread worker) {
+        if (status != ReportStatus.QUEUED) {
+            return false;
+        }
+        this.status = ReportStatus.RUNNING;
+        this.startedAt = Instant.now();
+        this.worker = worker;
+        return true;
+    }
+
+    /**
+     * Завершение задания.
+     * <p>
+     * Выполняющееся задание прерывается; уже завершённое не меняется.
+     *
+     * @param status конечное состояние
+     * @param result результат для SUCCEEDED
+     * @param error причина для остальных состояний
+     * @return true, если состояние изменено
+     */
+    synchronized boolean finish(ReportStatus status, Object result, String error) {
+        if (this.status.isFinished()) {
+            return false;
+        }
+        if (worker != null && worker != Thread.currentThread()) {
+            worker.interrupt();
+        }
+        this.status = status;
+        this.result = result;
+        this.resultSize = sizeOf(result);
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.worker = null;
+        return true;
+    }
+
+    synchronized ReportStatus status() {
+        return status;
+    }
+
+    synchronized Object result() {
+        return result;
+    }
+
+    synchronized int resultSize() {
+        return resultSize;
+    }
+
+    synchronized String error() {
+        return error;
+    }
+
+    /**
+     * Длительность выполнения: до завершения или до текущего момента.
+     *
+     * @return длительность или null, если задание не начато
+     */
+    synchronized Duration elapsed() {
+        if (startedAt == null) {
+            return null;
+        }
+        return Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now());
+    }
+
+    /**
+     * Момент завершения задания.
+     *
+     * @return момент или null, если задание не завершено
+     */
+    synchronized Instant finishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Число записей результата отчёта.
+     *
+     * @param result результат
+     * @return размер коллекции или словаря, 1 для другого результата, 0 без результата
+     */
+    static int sizeOf(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        return result != null ? 1 : 0;
+    }
+
+    synchronized ReportJobDTO toDTO() {
+        return new ReportJobDTO(id, generator.type(), parameters, priority, status,
+                submittedAt, startedAt, finishedAt, error);
+    }
+
+    @Override
+    public int compareTo(ReportJob other) {
+        int byPriority = priority.compareTo(other.priority);
+        return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+    }
+}
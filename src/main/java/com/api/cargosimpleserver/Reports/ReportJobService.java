@@ -0,0 +1,294 @@
+package com.api.cargosimpleserver.Reports;
+
+import com.api.cargosimpleserver.DTO.ReportJobDTO;
+import com.api.cargosimpleserver.DTO.ReportRequestDTO;
+import com.api.cargosimpleserver.Exceptions.ConflictException;
+import com.api.cargosimpleserver.Exceptions.NotFoundException;
+import com.api.cargosimpleserver.Exceptions.ReportQueueFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновое построение отчётов.
+ * <p>
+ * Основные функции:
+ * - Постановка задания в очередь с приоритетом и выдача его идентификатора
+ * - Построение отчётов ограниченным числом потоков ({@code app.reports.workers}),
+ *   отдельно от потоков обработки HTTP-запросов
+ * - Отмена задания и прерывание отчёта, не уложившегося в {@code app.reports.timeout}
+ * - Хранение результатов завершённых заданий ограниченное время, в ограниченном числе
+ *   и с ограниченным суммарным числом записей ({@code app.reports.max-retained-items})
+ * - Отказ в результате больше {@code app.reports.max-result-items} записей
+ * - Метрики: число заданий по типам и состояниям, длительность построения, длина очереди
+ * <p>
+ * Типы отчётов — компоненты {@link ReportGenerator}; новый тип не требует изменений здесь.
+ * Задания и результаты хранятся в памяти экземпляра и не переживают его перезапуск.
+ */
+@Component
+public class ReportJobService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private final Map<String, ReportGenerator> generators;
+
+    private final ReportProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    private final PriorityBlockingQueue<ReportJob> queue = new PriorityBlockingQueue<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final ExecutorService executor;
+
+    public ReportJobService(List<ReportGenerator> generators, ReportProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.generators = generators.stream()
+                .collect(Collectors.toMap(ReportGenerator::type, Function.identity()));
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("cargo.reports.queued", queue, PriorityBlockingQueue::size)
+                .description("Задания отчётов, ожидающие в очереди")
+                .register(meterRegistry);
+        Gauge.builder("cargo.reports.running", running, AtomicInteger::get)
+                .description("Строящиеся отчёты")
+                .register(meterRegistry);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(properties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "report-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            executor.execute(this::work);
+        }
+    }
+
+    /**
+     * Доступные типы отчётов.
+     *
+     * @return имена типов в алфавитном порядке
+     */
+    public Set<String> types() {
+        return new TreeSet<>(generators.keySet());
+    }
+
+    /**
+     * Постановка задания в очередь.
+     *
+     * @param request тип, приоритет и параметры отчёта
+     * @return состояние поставленного задания
+     * @throws NotFoundException если тип отчёта неизвестен
+     * @throws ReportQueueFullException если в очереди уже {@code app.reports.max-queued} заданий
+     */
+    public ReportJobDTO submit(ReportRequestDTO request) {
+        ReportGenerator generator = generators.get(request.getType());
+        if (generator == null) {
+            throw new NotFoundException("Неизвестный тип отчёта: " + request.getType());
+        }
+        ReportPriority priority = request.getPriority() != null ? request.getPriority() : generator.defaultPriority();
+        Map<String, String> parameters = request.getParameters() != null ? request.getParameters() : Map.of();
+
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), generator, parameters,
+                priority, sequence.incrementAndGet());
+        synchronized (queue) {
+            if (queue.size() >= properties.getMaxQueued()) {
+                throw new ReportQueueFullException("В очереди уже " + queue.size()
+                        + " заданий отчётов, повторите запрос позже");
+            }
+            jobs.put(job.id(), job);
+            queue.add(job);
+        }
+        return job.toDTO();
+    }
+
+    /**
+     * Состояние задания.
+     *
+     * @param id идентификатор задания
+     * @return состояние задания
+     * @throws NotFoundException если задания нет или его срок хранения истёк
+     */
+    public ReportJobDTO getJob(String id) {
+        return find(id).toDTO();
+    }
+
+    /**
+     * Результат построенного отчёта.
+     *
+     * @param id идентификатор задания
+     * @return результат отчёта
+     * @throws NotFoundException если задания нет или его срок хранения истёк
+     * @throws ConflictException если отчёт ещё строится или не построен
+     */
+    public Object getResult(String id) {
+        ReportJob job = find(id);
+        ReportStatus status = job.status();
+        if (status == ReportStatus.SUCCEEDED) {
+            return job.result();
+        }
+        if (!status.isFinished()) {
+            throw new ConflictException("Отчёт " + id + " ещё не построен: " + status);
+        }
+        throw new ConflictException("Отчёт " + id + " не построен: " + status
+                + (job.error() != null ? " (" + job.error() + ")" : ""));
+    }
+
+    /**
+     * Отмена задания: ожидающее удаляется из очереди, выполняющееся прерывается.
+     *
+     * @param id идентификатор задания
+     * @return состояние задания после отмены
+     * @throws NotFoundException если задания нет или его срок хранения истёк
+     */
+    public ReportJobDTO cancel(String id) {
+        ReportJob job = find(id);
+        if (job.finish(ReportStatus.CANCELLED, null, "Отменено")) {
+            queue.remove(job);
+            recordFinished(job);
+        }
+        return job.toDTO();
+    }
+
+    /**
+     * Прерывание отчётов, превысивших время построения, и удаление завершённых заданий
+     * старше срока хранения, а также самых старых, пока число заданий или суммарное
+     * число записей их результатов превышает допустимое.
+     */
+    @Scheduled(fixedDelayString = "${app.reports.maintenance-interval-ms:1000}")
+    public void maintain() {
+        Duration timeout = properties.getTimeout();
+        for (ReportJob job : jobs.values()) {
+            Duration elapsed = job.elapsed();
+            if (elapsed != null && elapsed.compareTo(timeout) > 0
+                    && job.finish(ReportStatus.TIMED_OUT, null, "Превышено время построения " + timeout)) {
+                logger.warn("Отчёт {} ({}) прерван: строился дольше {}", job.id(), job.generator().type(), timeout);
+                recordFinished(job);
+            }
+        }
+
+        Instant expiry = Instant.now().minus(properties.getRetention());
+        jobs.values().removeIf(job -> job.finishedAt() != null && job.finishedAt().isBefore(expiry));
+
+        List<ReportJob> finished = jobs.values().stream()
+                .filter(job -> job.finishedAt() != null)
+                .sorted(Comparator.comparing(ReportJob::finishedAt))
+                .toList();
+        int excess = finished.size() - properties.getMaxRetained();
+        long retainedItems = finished.stream().mapToLong(ReportJob::resultSize).sum();
+        for (ReportJob job : finished) {
+            if (excess <= 0 && retainedItems <= properties.getMaxRetainedItems()) {
+                break;
+            }
+            jobs.remove(job.id());
+            excess--;
+            retainedItems -= job.resultSize();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private ReportJob find(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            throw new NotFoundException("Задание отчёта " + id + " не найдено");
+        }
+        return job;
+    }
+
+    /**
+     * Цикл потока отчётов: задания берутся из очереди в порядке приоритета.
+     */
+    private void work() {
+        while (!executor.isShutdown()) {
+            ReportJob job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            if (!job.start(Thread.currentThread())) {
+                continue;
+            }
+            running.incrementAndGet();
+            ReportDeadline.start(properties.getTimeout());
+            try {
+                Object result = job.generator().generate(job.parameters());
+                ReportGenerator.checkSize(ReportJob.sizeOf(result), properties.getMaxResultItems());
+                finish(job, ReportStatus.SUCCEEDED, result, null);
+            } catch (CancellationException ex) {
+                // Задание уже отменено или прервано по времени
+                finish(job, ReportStatus.CANCELLED, null, ex.getMessage());
+            } catch (RuntimeException ex) {
+                logger.warn("Отчёт {} ({}) не построен: {}", job.id(), job.generator().type(), ex.getMessage());
+                finish(job, ReportStatus.FAILED, null, ex.getMessage());
+            } catch (Error ex) {
+                // Например, нехватка памяти на большом отчёте: поток продолжает брать задания
+                logger.error("Отчёт {} ({}) не построен", job.id(), job.generator().type(), ex);
+                finish(job, ReportStatus.FAILED, null, ex.toString());
+            } finally {
+                ReportDeadline.clear();
+                running.decrementAndGet();
+                // Прерывание отменённого задания не должно достаться следующему
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private void finish(ReportJob job, ReportStatus status, Object result, String error) {
+        if (job.finish(status, result, error)) {
+            recordFinished(job);
+        }
+    }
+
+    private void recordFinished(ReportJob job) {
+        String type = job.generator().type();
+        Counter.builder("cargo.reports.jobs")
+                .description("Завершённые задания отчётов")
+                .tag("type", type)
+                .tag("status", job.status().name())
+                .register(meterRegistry)
+                .increment();
+        Duration elapsed = job.elapsed();
+        if (elapsed != null) {
+            Timer.builder("cargo.reports.duration")
+                    .description("Длительность построения отчётов")
+                    .tag("type", type)
+                    .register(meterRegistry)
+                    .record(elapsed);
+        }
+    }
+}
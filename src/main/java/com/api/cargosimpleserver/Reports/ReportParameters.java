@@ -0,0 +1,59 @@
+package com.api.cargosimpleserver.Reports;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Разбор параметров отчёта.
+ * <p>
+ * Неверное значение завершает задание состоянием FAILED с описанием параметра.
+ */
+final class ReportParameters {
+
+    private ReportParameters() {
+    }
+
+    /**
+     * Целочисленный параметр.
+     *
+     * @param parameters параметры отчёта
+     * @param name имя параметра
+     * @return значение или null, если параметр не задан
+     * @throws IllegalArgumentException если значение не число
+     */
+    static Long getLong(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть числом: " + value);
+        }
+    }
+
+    /**
+     * Параметр-перечисление без учёта регистра.
+     *
+     * @param parameters параметры отчёта
+     * @param name имя параметра
+     * @param type тип перечисления
+     * @param defaultValue значение, если параметр не задан
+     * @return значение параметра
+     * @throws IllegalArgumentException если значение не из перечисления
+     */
+    static <E extends Enum<E>> E getEnum(Map<String, String> parameters, String name, Class<E> type, E defaultValue) {
+        String value = parameters.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть одним из "
+                    + Arrays.toString(type.getEnumConstants()) + ": " + value);
+        }
+    }
+}
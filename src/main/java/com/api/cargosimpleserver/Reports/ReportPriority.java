@@ -0,0 +1,13 @@
+package com.api.cargosimpleserver.Reports;
+
+/**
+ * Приоритет задания отчёта в очереди.
+ * <p>
+ * Задания с более высоким приоритетом выполняются раньше; задания
+ * одного приоритета — в порядке постановки.
+ */
+public enum ReportPriority {
+    HIGH,
+    NORMAL,
+    LOW
+}
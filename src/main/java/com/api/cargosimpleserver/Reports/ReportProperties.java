@@ -0,0 +1,51 @@
+package com.api.cargosimpleserver.Reports;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки фонового построения отчётов.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.reports}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.reports")
+public class ReportProperties {
+
+    /**
+     * Число потоков, строящих отчёты одновременно.
+     */
+    private int workers = 2;
+
+    /**
+     * Наибольшее число заданий, ожидающих в очереди.
+     */
+    private int maxQueued = 100;
+
+    /**
+     * Наибольшее время построения отчёта; по его истечении поток отчёта прерывается.
+     */
+    private Duration timeout = Duration.ofMinutes(5);
+
+    /**
+     * Срок хранения завершённого задания и его результата.
+     */
+    private Duration retention = Duration.ofMinutes(30);
+
+    /**
+     * Наибольшее число хранимых завершённых заданий; сверх него удаляются самые старые.
+     */
+    private int maxRetained = 100;
+
+    /**
+     * Наибольшее число записей в результате одного отчёта; больший отчёт завершается ошибкой.
+     */
+    private int maxResultItems = 100_000;
+
+    /**
+     * Наибольшее суммарное число записей в хранимых результатах; сверх него удаляются самые старые.
+     */
+    private long maxRetainedItems = 1_000_000;
+}
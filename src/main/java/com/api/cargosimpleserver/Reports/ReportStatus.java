@@ -0,0 +1,22 @@
+package com.api.cargosimpleserver.Reports;
+
+/**
+ * Состояние задания отчёта.
+ */
+public enum ReportStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    CANCELLED,
+    TIMED_OUT;
+
+    /**
+     * Завершено ли задание.
+     *
+     * @return true для конечных состояний
+     */
+    public boolean isFinished() {
+        return this != QUEUED && this != RUNNING;
+    }
+}
@@ -0,0 +1,39 @@
+package com.api.cargosimpleserver.Reports;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Чтение данных отчёта в транзакции, ограниченной сроком построения.
+ * <p>
+ * Прерывание потока не останавливает ожидание ответа базы, поэтому срок передаётся
+ * таймаутом транзакции: Hibernate выставляет оставшееся время таймаутом каждого запроса,
+ * и зависший запрос завершается ошибкой вместо того, чтобы держать поток отчётов.
+ * Методы сервисов присоединяются к этой транзакции.
+ * <p>
+ * Запросы к другим сегментам выполняются в своих транзакциях и ограничены
+ * {@code app.sharding.scatter-timeout}; поток отчёта ждёт их с возможностью прерывания.
+ */
+@Component
+@RequiredArgsConstructor
+class ReportTransactions {
+
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Выполнение чтения в транзакции только для чтения с таймаутом до срока отчёта.
+     *
+     * @param query чтение
+     * @return результат чтения
+     */
+    <T> T read(Supplier<T> query) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setTimeout(ReportDeadline.remainingSeconds());
+        return template.execute(status -> query.get());
+    }
+}
@@ -0,0 +1,64 @@
+package com.api.cargosimpleserver.Reports;
+
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.DTO.WarehouseStockPageDTO;
+import com.api.cargosimpleserver.Services.WarehouseInStockService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Отчёт stock-dump: все записи о складских запасах.
+ * <p>
+ * Параметры:
+ * - warehouseId — только записи склада в порядке ячеек; без него все записи в порядке идентификаторов
+ * <p>
+ * Записи читаются страницами по {@value #PAGE_SIZE}, каждая в своей транзакции со сроком отчёта.
+ * Между страницами проверяется отмена; отчёт больше {@code app.reports.max-result-items}
+ * записей прекращается, не дочитывая таблицу.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockDumpReport implements ReportGenerator {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final WarehouseInStockService warehouseInStockService;
+
+    private final ReportTransactions transactions;
+
+    private final ReportProperties properties;
+
+    @Override
+    public String type() {
+        return "stock-dump";
+    }
+
+    @Override
+    public Object generate(Map<String, String> parameters) {
+        Long warehouseId = ReportParameters.getLong(parameters, "warehouseId");
+
+        List<WarehouseInStockDTO> stocks = new ArrayList<>();
+        WarehouseStockPageDTO page = readPage(warehouseId, null, null);
+        stocks.addAll(page.getItems());
+        ReportGenerator.checkSize(stocks.size(), properties.getMaxResultItems());
+        while (page.isHasMore()) {
+            ReportGenerator.checkCancelled();
+            page = readPage(warehouseId, page.getNextAfterLocation(), page.getNextAfterId());
+            stocks.addAll(page.getItems());
+            ReportGenerator.checkSize(stocks.size(), properties.getMaxResultItems());
+        }
+        return stocks;
+    }
+
+    private WarehouseStockPageDTO readPage(Long warehouseId, String afterLocation, Long afterId) {
+        if (warehouseId == null) {
+            return transactions.read(() -> warehouseInStockService.getStocksPage(afterId, PAGE_SIZE));
+        }
+        return transactions.read(() -> warehouseInStockService.getStocksByWarehouse(
+                warehouseId, null, afterLocation, afterId, PAGE_SIZE));
+    }
+}
@@ -0,0 +1,35 @@
+package com.api.cargosimpleserver.Reports;
+
+import com.api.cargosimpleserver.Valuation.InventoryValuationEngine;
+import com.api.cargosimpleserver.Valuation.ValuationGroup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Отчёт valuation: стоимость запасов по группам.
+ * <p>
+ * Параметры:
+ * - groupBy — WAREHOUSE (по умолчанию), CATEGORY или MANUFACTURER
+ * <p>
+ * Первый отчёт после запуска ждёт полного пересчёта оценки, поэтому он выполняется в фоне,
+ * а не в потоке HTTP-запроса.
+ */
+@Component
+@RequiredArgsConstructor
+public class ValuationReport implements ReportGenerator {
+
+    private final InventoryValuationEngine valuationEngine;
+
+    @Override
+    public String type() {
+        return "valuation";
+    }
+
+    @Override
+    public Object generate(Map<String, String> parameters) {
+        ValuationGroup group = ReportParameters.getEnum(parameters, "groupBy", ValuationGroup.class, ValuationGroup.WAREHOUSE);
+        return valuationEngine.valuation(group);
+    }
+}
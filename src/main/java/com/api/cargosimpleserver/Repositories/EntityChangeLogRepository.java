@@ -0,0 +1,49 @@
+package com.api.cargosimpleserver.Repositories;
+
+import com.api.cargosimpleserver.Models.EntityChangeLog;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Репозиторий журнала изменений кэшируемых сущностей.
+ */
+@Repository
+public interface EntityChangeLogRepository extends JpaRepository<EntityChangeLog, Long> {
+
+    /**
+     * Записи журнала после указанной, по возрастанию идентификатора.
+     * <p>
+     * Выполняется по первичному ключу, поэтому опрос без новых записей
+     * не читает таблицу.
+     *
+     * @param afterId идентификатор последней прочитанной записи
+     * @param limit наибольшее число записей
+     * @return записи журнала
+     */
+    List<EntityChangeLog> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Наибольший идентификатор записи журнала.
+     *
+     * @return идентификатор или 0, если журнал пуст
+     */
+    @Query("SELECT COALESCE(MAX(l.id), 0) FROM EntityChangeLog l")
+    long findMaxId();
+
+    /**
+     * Удаляет записи, сделанные раньше указанного момента.
+     *
+     * @param threshold граница срока хранения
+     * @return количество удалённых записей
+     */
+    @Modifying
+    @Query("DELETE FROM EntityChangeLog l WHERE l.changedAt < :threshold")
+    int deleteOlderThan(@Param("threshold") Instant threshold);
+}
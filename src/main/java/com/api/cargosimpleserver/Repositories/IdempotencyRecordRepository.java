@@ -0,0 +1,74 @@
+package com.api.cargosimpleserver.Repositories;
+
+import com.api.cargosimpleserver.Models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Репозиторий сохранённых результатов запросов с ключом идемпотентности.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Добавляет результат простым INSERT, без слияния с существующей строкой.
+     * <p>
+     * В отличие от {@code save} для сущности с заданным идентификатором (merge),
+     * повторная вставка того же ключа завершается нарушением первичного ключа.
+     *
+     * @param key ключ хранилища
+     * @param fingerprint отпечаток запроса
+     * @param status HTTP-статус ответа
+     * @param contentType тип содержимого ответа или null
+     * @param body тело ответа
+     * @param createdAt момент сохранения
+     * @throws org.springframework.dao.DataIntegrityViolationException если ключ уже сохранён
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, fingerprint, status, content_type, body, created_at) "
+            + "VALUES (:key, :fingerprint, :status, :contentType, :body, :createdAt)", nativeQuery = true)
+    void insert(@Param("key") String key, @Param("fingerprint") String fingerprint, @Param("status") int status,
+                @Param("contentType") String contentType, @Param("body") byte[] body,
+                @Param("createdAt") Instant createdAt);
+
+    /**
+     * Заменяет результат, срок хранения которого истёк, но строка ещё не удалена очисткой.
+     * <p>
+     * Срок проверяется в условии WHERE, поэтому действующий результат,
+     * в том числе только что записанный другим узлом, не перезаписывается.
+     *
+     * @param key ключ хранилища
+     * @param fingerprint отпечаток запроса
+     * @param status HTTP-статус ответа
+     * @param contentType тип содержимого ответа или null
+     * @param body тело ответа
+     * @param createdAt момент сохранения
+     * @param threshold граница срока хранения
+     * @return 1, если устаревшая строка заменена, иначе 0
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE idempotency_keys SET fingerprint = :fingerprint, status = :status, "
+            + "content_type = :contentType, body = :body, created_at = :createdAt "
+            + "WHERE idempotency_key = :key AND created_at < :threshold", nativeQuery = true)
+    int replaceExpired(@Param("key") String key, @Param("fingerprint") String fingerprint, @Param("status") int status,
+                       @Param("contentType") String contentType, @Param("body") byte[] body,
+                       @Param("createdAt") Instant createdAt, @Param("threshold") Instant threshold);
+
+    /**
+     * Удаляет результаты, сохранённые раньше указанного момента.
+     *
+     * @param threshold граница срока хранения
+     * @return количество удалённых записей
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :threshold")
+    int deleteOlderThan(@Param("threshold") Instant threshold);
+}
@@ -0,0 +1,23 @@
+package com.api.cargosimpleserver.Repositories;
+
+import com.api.cargosimpleserver.Models.Product;
+
+import java.util.Optional;
+
+/**
+ * Поиск товаров по естественному идентификатору (артикулу).
+ * <p>
+ * В отличие от производного запроса findByArticleNumber, поиск идёт через
+ * кэш естественных идентификаторов и кэш сущностей Hibernate
+ * и обращается к базе только при промахе.
+ */
+public interface ProductNaturalIdRepository {
+
+    /**
+     * Находит товар по артикулу.
+     *
+     * @param articleNumber артикул товара
+     * @return Optional с найденным товаром или пустой Optional
+     */
+    Optional<Product> findByNaturalId(String articleNumber);
+}
@@ -0,0 +1,24 @@
+package com.api.cargosimpleserver.Repositories;
+
+import com.api.cargosimpleserver.Models.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+/**
+ * Реализация поиска товаров по артикулу через Session.bySimpleNaturalId.
+ */
+class ProductNaturalIdRepositoryImpl implements ProductNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Product> findByNaturalId(String articleNumber) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Product.class)
+                .loadOptional(articleNumber);
+    }
+}
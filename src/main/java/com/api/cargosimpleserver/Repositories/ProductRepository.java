@@ -1,9 +1,17 @@
 package com.api.cargosimpleserver.Repositories;
 
 import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Valuation.ProductPrice;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Репозиторий для управления сущностями товаров в базе данных.
  * <p>
@@ -11,14 +19,40 @@ import org.springframework.stereotype.Repository;
  * и дополнительные методы специфического поиска.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductNaturalIdRepository {
 
     /**
      * Проверяет существование товара с указанным артикулом.
+     * <p>
+     * Результат хранится в кэше запросов (регион existence-checks) и сбрасывается
+     * при любом изменении таблицы через Hibernate.
      *
      * @param articleNumber артикул товара для проверки
      * @return true, если товар с таким артикулом уже существует,
      *         иначе false
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "existence-checks")
+    })
     boolean existsByArticleNumber(String articleNumber);
+
+    /**
+     * Наибольший идентификатор товара.
+     *
+     * @return идентификатор (0, если товаров нет)
+     */
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Product p")
+    Long findMaxId();
+
+    /**
+     * Цены, категории и производители товаров из диапазона идентификаторов без загрузки сущностей.
+     *
+     * @param fromId начало диапазона включительно
+     * @param toId конец диапазона включительно
+     * @return цены товаров для оценки запасов
+     */
+    @Query("SELECT new com.api.cargosimpleserver.Valuation.ProductPrice(p.id, p.purchasePrice, p.sellingPrice, p.category, p.manufacturer) "
+            + "FROM Product p WHERE p.id BETWEEN :fromId AND :toId")
+    List<ProductPrice> findPricesByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
 }
@@ -0,0 +1,22 @@
+package com.api.cargosimpleserver.Repositories;
+
+/**
+ * Изменение количества товара на складе на заданную величину одним SQL-запросом.
+ * <p>
+ * Проверки выполняются в условии UPDATE, без предварительного чтения записи:
+ * - Количество не становится отрицательным
+ * - Зарезервированное количество не превышает текущее
+ * - При увеличении общее количество на складе не превышает его вместимость
+ */
+public interface WarehouseInStockAdjustmentRepository {
+
+    /**
+     * Изменяет текущее количество записи на delta, если выполняются все проверки.
+     * Версия записи увеличивается, как при обновлении через сущность.
+     *
+     * @param id идентификатор записи о товаре на складе
+     * @param delta изменение количества (положительное — поступление, отрицательное — отбор)
+     * @return 1, если количество изменено; 0, если записи нет или проверка не пройдена
+     */
+    int adjustQuantity(Long id, int delta);
+}
@@ -0,0 +1,47 @@
+package com.api.cargosimpleserver.Repositories;
+
+import com.api.cargosimpleserver.Models.WarehouseInStock;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Реализация изменения количества через нативный UPDATE с проверками в условии.
+ * <p>
+ * Сумма по складу вычисляется в производной таблице: MySQL не разрешает
+ * читать изменяемую таблицу в подзапросе UPDATE напрямую, а агрегирующая
+ * производная таблица материализуется до изменения.
+ * <p>
+ * Запрос объявляет, что затрагивает только warehouse_stocks: иначе Hibernate
+ * после нативного UPDATE очистил бы весь второй уровень кэша, включая товары и склады.
+ */
+class WarehouseInStockAdjustmentRepositoryImpl implements WarehouseInStockAdjustmentRepository {
+
+    private static final String ADJUST_QUANTITY_SQL = """
+            UPDATE warehouse_stocks
+            SET current_quantity = current_quantity + :delta,
+                version = version + 1
+            WHERE id = :id
+              AND current_quantity + :delta >= 0
+              AND current_quantity + :delta >= reserved_quantity
+              AND (:delta <= 0
+                   OR (SELECT w.capacity FROM warehouses w WHERE w.id = warehouse_stocks.warehouse_id)
+                      >= (SELECT t.total + :delta
+                          FROM (SELECT COALESCE(SUM(s.current_quantity), 0) AS total
+                                FROM warehouse_stocks s
+                                WHERE s.warehouse_id = (SELECT s2.warehouse_id FROM warehouse_stocks s2 WHERE s2.id = :id)) t))
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int adjustQuantity(Long id, int delta) {
+        return entityManager.createNativeQuery(ADJUST_QUANTITY_SQL)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(WarehouseInStock.class)
+                .setParameter("id", id)
+                .setParameter("delta", delta)
+                .executeUpdate();
+    }
+}
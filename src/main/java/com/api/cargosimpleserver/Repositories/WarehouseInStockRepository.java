@@ -1,12 +1,18 @@
 package com.api.cargosimpleserver.Repositories;
 
+import com.api.cargosimpleserver.DTO.LowStockItemDTO;
 import com.api.cargosimpleserver.Models.WarehouseInStock;
+import com.api.cargosimpleserver.Putaway.StockSlot;
+import com.api.cargosimpleserver.Valuation.StockPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Репозиторий для управления записями о товарах на складе.
@@ -14,15 +20,26 @@ import java.util.List;
  * Предоставляет методы для работы с остатками товаров в различных складских помещениях.
  */
 @Repository
-public interface WarehouseInStockRepository extends JpaRepository<WarehouseInStock, Long> {
+public interface WarehouseInStockRepository extends JpaRepository<WarehouseInStock, Long>, WarehouseInStockAdjustmentRepository {
+
+    /**
+     * Находит все записи о товарах на складе вместе с товарами и складами одним запросом.
+     *
+     * @return список записей о товарах на складе
+     */
+    @Query("SELECT ws FROM WarehouseInStock ws JOIN FETCH ws.product JOIN FETCH ws.warehouse")
+    List<WarehouseInStock> findAllWithRelations();
 
     /**
      * Находит все записи о товарах на складе по идентификатору товара.
+     * <p>
+     * Товар и склады загружаются тем же запросом.
      *
      * @param productId идентификатор товара
      * @return список записей о товарах на складе
      */
-    List<WarehouseInStock> findByProductId(Long productId);
+    @Query("SELECT ws FROM WarehouseInStock ws JOIN FETCH ws.product JOIN FETCH ws.warehouse WHERE ws.product.id = :productId")
+    List<WarehouseInStock> findByProductId(@Param("productId") Long productId);
 
     /**
      * Получает общее количество определенного товара во всех складах.
@@ -66,4 +83,118 @@ public interface WarehouseInStockRepository extends JpaRepository<WarehouseInSto
      * @return true, если товар присутствует на любом складе, иначе false
      */
     boolean existsByProductId(Long productId);
+
+    /**
+     * Находит записи по идентификаторам вместе с товарами и складами одним запросом.
+     *
+     * @param ids идентификаторы записей
+     * @return найденные записи в произвольном порядке
+     */
+    @Query("SELECT ws FROM WarehouseInStock ws JOIN FETCH ws.product JOIN FETCH ws.warehouse WHERE ws.id IN :ids")
+    List<WarehouseInStock> findAllWithRelationsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Идентификатор склада записи без загрузки сущности.
+     *
+     * @param id идентификатор записи
+     * @return идентификатор склада, если запись существует
+     */
+    @Query("SELECT ws.warehouse.id FROM WarehouseInStock ws WHERE ws.id = :id")
+    Optional<Long> findWarehouseIdById(@Param("id") Long id);
+
+    /**
+     * Наибольший идентификатор записи о товаре на складе.
+     *
+     * @return идентификатор (0, если записей нет)
+     */
+    @Query("SELECT COALESCE(MAX(ws.id), 0) FROM WarehouseInStock ws")
+    Long findMaxId();
+
+    /**
+     * Товар, склад и количество записей из диапазона идентификаторов без загрузки сущностей.
+     *
+     * @param fromId начало диапазона включительно
+     * @param toId конец диапазона включительно
+     * @return позиции для оценки запасов
+     */
+    @Query("SELECT new com.api.cargosimpleserver.Valuation.StockPosition(ws.id, ws.product.id, ws.warehouse.id, ws.currentQuantity) "
+            + "FROM WarehouseInStock ws WHERE ws.id BETWEEN :fromId AND :toId")
+    List<StockPosition> findPositionsByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Страница записей склада в порядке (location, id) после заданной позиции.
+     * <p>
+     * Позиция задаётся значениями последней записи предыдущей страницы (keyset),
+     * поэтому запрос читает диапазон индекса (warehouse_id, location) без пропуска строк
+     * и выполняется одинаково быстро на любой странице.
+     *
+     * @param warehouseId идентификатор склада
+     * @param locationPattern шаблон LIKE по локации с экранированием символом '!'
+     * @param afterLocation локация последней записи предыдущей страницы
+     * @param afterId идентификатор последней записи предыдущей страницы
+     * @param limit наибольшее число записей
+     * @return записи вместе с товарами и складами
+     */
+    @Query("SELECT ws FROM WarehouseInStock ws JOIN FETCH ws.product JOIN FETCH ws.warehouse "
+            + "WHERE ws.warehouse.id = :warehouseId AND ws.location LIKE :locationPattern ESCAPE '!' "
+            + "AND (ws.location > :afterLocation OR (ws.location = :afterLocation AND ws.id > :afterId)) "
+            + "ORDER BY ws.location, ws.id")
+    List<WarehouseInStock> findPageByWarehouse(@Param("warehouseId") Long warehouseId,
+                                               @Param("locationPattern") String locationPattern,
+                                               @Param("afterLocation") String afterLocation,
+                                               @Param("afterId") Long afterId,
+                                               Limit limit);
+
+    /**
+     * Записи с идентификатором больше заданного в порядке идентификаторов.
+     * <p>
+     * Используется для постраничного чтения всех записей: следующая страница
+     * начинается после последнего идентификатора предыдущей и читается по первичному ключу.
+     *
+     * @param afterId идентификатор последней записи предыдущей страницы (0 для первой)
+     * @param limit наибольшее число записей
+     * @return записи вместе с товарами и складами
+     */
+    @Query("SELECT ws FROM WarehouseInStock ws JOIN FETCH ws.product JOIN FETCH ws.warehouse "
+            + "WHERE ws.id > :afterId ORDER BY ws.id")
+    List<WarehouseInStock> findPageAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Записи всех складов, доступное количество которых ниже минимального уровня товара.
+     * <p>
+     * Сравнение выполняется в базе; товары без минимального уровня не попадают в результат.
+     *
+     * @param limit наибольшее число записей
+     * @return записи в порядке (склад, запись)
+     */
+    @Query("SELECT new com.api.cargosimpleserver.DTO.LowStockItemDTO(ws.id, p.id, p.articleNumber, p.name, "
+            + "ws.warehouse.id, ws.currentQuantity - ws.reservedQuantity, p.minStockLevel) "
+            + "FROM WarehouseInStock ws JOIN ws.product p "
+            + "WHERE ws.currentQuantity - ws.reservedQuantity < p.minStockLevel "
+            + "ORDER BY ws.warehouse.id, ws.id")
+    List<LowStockItemDTO> findLowStock(Limit limit);
+
+    /**
+     * Записи склада, доступное количество которых ниже минимального уровня товара.
+     *
+     * @param warehouseId идентификатор склада
+     * @param limit наибольшее число записей
+     * @return записи склада в порядке идентификаторов
+     */
+    @Query("SELECT new com.api.cargosimpleserver.DTO.LowStockItemDTO(ws.id, p.id, p.articleNumber, p.name, "
+            + "ws.warehouse.id, ws.currentQuantity - ws.reservedQuantity, p.minStockLevel) "
+            + "FROM WarehouseInStock ws JOIN ws.product p "
+            + "WHERE ws.warehouse.id = :warehouseId AND ws.currentQuantity - ws.reservedQuantity < p.minStockLevel "
+            + "ORDER BY ws.id")
+    List<LowStockItemDTO> findLowStockByWarehouseId(@Param("warehouseId") Long warehouseId, Limit limit);
+
+    /**
+     * Ячейки, товары и количества всех записей склада без загрузки сущностей.
+     *
+     * @param warehouseId идентификатор склада
+     * @return записи склада для индекса ячеек
+     */
+    @Query("SELECT new com.api.cargosimpleserver.Putaway.StockSlot(ws.id, ws.product.id, ws.location, ws.currentQuantity) "
+            + "FROM WarehouseInStock ws WHERE ws.warehouse.id = :warehouseId")
+    List<StockSlot> findSlotsByWarehouseId(@Param("warehouseId") Long warehouseId);
 }
@@ -1,7 +1,10 @@
 package com.api.cargosimpleserver.Repositories;
 
 import com.api.cargosimpleserver.Models.Warehouse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -15,9 +18,16 @@ public interface WarehouseRepository extends JpaRepository<Warehouse, Long> {
 
     /**
      * Проверяет существование склада с указанным именем.
+     * <p>
+     * Результат хранится в кэше запросов (регион existence-checks) и сбрасывается
+     * при любом изменении таблицы через Hibernate.
      *
      * @param name имя склада для проверки
      * @return true, если склад с таким именем уже существует, иначе false
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "existence-checks")
+    })
     boolean existsByName(String name);
 }
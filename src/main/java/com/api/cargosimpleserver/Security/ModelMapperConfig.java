@@ -1,5 +1,11 @@
 package com.api.cargosimpleserver.Security;
 
+import com.api.cargosimpleserver.DTO.ProductDTO;
+import com.api.cargosimpleserver.DTO.WarehouseDTO;
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Models.WarehouseInStock;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,10 +31,27 @@ public class ModelMapperConfig {
      * и типами.
      * </p>
      *
+     * <p>
+     * Версия из DTO в сущность не переносится: её ведёт Hibernate ({@code @Version}),
+     * а версия клиента только сравнивается с текущей в сервисах.
+     * </p>
+     *
      * @return экземпляр ModelMapper
      */
     @Bean
     public ModelMapper modelMapper() {
-        return new ModelMapper();
+        ModelMapper modelMapper = new ModelMapper();
+        modelMapper.typeMap(ProductDTO.class, Product.class)
+                .addMappings(mapper -> mapper.skip(Product::setVersion));
+        modelMapper.typeMap(WarehouseDTO.class, Warehouse.class)
+                .addMappings(mapper -> mapper.skip(Warehouse::setVersion));
+        modelMapper.typeMap(WarehouseInStockDTO.class, WarehouseInStock.class)
+                .addMappings(mapper -> {
+                    mapper.skip(WarehouseInStock::setVersion);
+                    // Иначе version записи попадает в версии связанных товара и склада
+                    mapper.<Long>skip((stock, version) -> stock.getProduct().setVersion(version));
+                    mapper.<Long>skip((stock, version) -> stock.getWarehouse().setVersion(version));
+                });
+        return modelMapper;
     }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.api.cargosimpleserver.Security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Настройки ограничения частоты запросов.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.rate-limit}.
+ * Каждая группа эндпоинтов описывается префиксом пути и параметрами корзины, например:
+ * <pre>
+ * app.rate-limit.groups.stocks.path-prefix=/api/warehouse-stocks
+ * app.rate-limit.groups.stocks.capacity=50
+ * app.rate-limit.groups.stocks.refill-per-second=20
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Включение ограничения частоты запросов.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Время простоя, после которого корзина клиента удаляется.
+     */
+    private Duration idleEviction = Duration.ofMinutes(10);
+
+    /**
+     * Группы эндпоинтов с собственными лимитами.
+     * Запрос относится к группе с самым длинным совпавшим префиксом пути.
+     */
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    /**
+     * Лимит группы эндпоинтов.
+     */
+    @Data
+    public static class Group {
+
+        /**
+         * Префикс пути запросов группы.
+         */
+        private String pathPrefix;
+
+        /**
+         * Максимальное число запросов подряд.
+         */
+        private long capacity = 100;
+
+        /**
+         * Число запросов в секунду в установившемся режиме.
+         */
+        private double refillPerSecond = 50;
+    }
+}
@@ -0,0 +1,120 @@
+package com.api.cargosimpleserver.Security;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ограничитель частоты запросов по клиентам и группам эндпоинтов.
+ * <p>
+ * Основные функции:
+ * - Определение группы эндпоинтов по префиксу пути
+ * - Хранение маркерных корзин клиентов в неблокирующих структурах
+ * - Удаление корзин простаивающих клиентов
+ *
+ * @see TokenBucket
+ * @see RateLimitProperties
+ */
+@Component
+public class RateLimiter {
+
+    private final boolean enabled;
+
+    private final long idleEvictionNanos;
+
+    /**
+     * Группы, упорядоченные по убыванию длины префикса.
+     */
+    private final List<GroupLimiter> groups = new ArrayList<>();
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.idleEvictionNanos = properties.getIdleEviction().toNanos();
+        properties.getGroups().forEach((name, group) ->
+                groups.add(new GroupLimiter(name, group.getPathPrefix(), group.getCapacity(), group.getRefillPerSecond())));
+        groups.sort(Comparator.comparingInt((GroupLimiter group) -> group.pathPrefix.length()).reversed());
+    }
+
+    /**
+     * Попытка выполнить запрос клиента.
+     *
+     * @param clientKey идентификатор клиента (пользователь или адрес)
+     * @param path путь запроса
+     * @return 0, если запрос разрешён, иначе время ожидания в наносекундах
+     */
+    public long tryAcquire(String clientKey, String path) {
+        if (!enabled) {
+            return 0;
+        }
+        GroupLimiter group = resolveGroup(path);
+        if (group == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = group.buckets.get(clientKey);
+        if (bucket == null) {
+            bucket = group.buckets.computeIfAbsent(clientKey,
+                    key -> new TokenBucket(group.capacity, group.refillPerSecond, now));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    private GroupLimiter resolveGroup(String path) {
+        for (GroupLimiter group : groups) {
+            if (path.startsWith(group.pathPrefix)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Удаление корзин клиентов, простаивающих дольше заданного времени.
+     * <p>
+     * Простаивающая корзина полностью заполнена, поэтому её удаление
+     * не меняет поведение ограничителя.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (GroupLimiter group : groups) {
+            group.buckets.values().removeIf(bucket -> bucket.isIdle(now, idleEvictionNanos));
+        }
+    }
+
+    /**
+     * Количество корзин, хранимых в данный момент.
+     *
+     * @return число корзин по всем группам
+     */
+    public int getBucketCount() {
+        return groups.stream().mapToInt(group -> group.buckets.size()).sum();
+    }
+
+    private static final class GroupLimiter {
+
+        private final String name;
+
+        private final String pathPrefix;
+
+        private final long capacity;
+
+        private final double refillPerSecond;
+
+        private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+        private GroupLimiter(String name, String pathPrefix, long capacity, double refillPerSecond) {
+            if (pathPrefix == null) {
+                throw new IllegalArgumentException("Не задан префикс пути для группы " + name);
+            }
+            this.name = name;
+            this.pathPrefix = pathPrefix;
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
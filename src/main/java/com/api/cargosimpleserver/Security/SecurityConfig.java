@@ -1,5 +1,6 @@
 package com.api.cargosimpleserver.Security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -9,6 +10,11 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -21,7 +27,7 @@ import java.util.List;
  *
  * <p>
  * Настраивает параметры безопасности, включая CORS, управление сессиями,
- * а также правила авторизации для HTTP-запросов.
+ * ограничение частоты запросов, а также правила авторизации для HTTP-запросов.
  * </p>
  */
 @Configuration
@@ -33,22 +39,42 @@ public class SecurityConfig {
      *
      * <p>
      * Определяет правила для CORS, отключает CSRF-защиту,
-     * устанавливает политику управления сессиями и определяет
+     * устанавливает политику управления сессиями, подключает
+     * ограничение частоты запросов и определяет
      * правила авторизации для HTTP-запросов.
      * </p>
      *
+     * <p>
+     * Метрики (/actuator/metrics, /actuator/prometheus) открыты только на порту управления
+     * ({@code management.server.port}), который не публикуется наружу. На основном порту
+     * и без отдельного порта управления они требуют аутентификации.
+     * </p>
+     *
      * @param http объект HttpSecurity для настройки безопасности
+     * @param rateLimiter ограничитель частоты запросов
+     * @param managementPort порт управления; не больше 0, если он не задан или выбирается случайно
      * @return настроенная цепочка фильтров безопасности
      * @throws Exception если возникает ошибка при настройке безопасности
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, RateLimiter rateLimiter,
+                                                   @Value("${management.server.port:-1}") int managementPort)
+            throws Exception {
+        RequestMatcher metricsOnManagementPort = new AndRequestMatcher(
+                new OrRequestMatcher(
+                        new AntPathRequestMatcher("/actuator/metrics/**"),
+                        new AntPathRequestMatcher("/actuator/prometheus")),
+                request -> managementPort > 0 && request.getLocalPort() == managementPort);
+
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new RateLimitFilter(rateLimiter), AuthorizationFilter.class)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/**").permitAll()
+                        .requestMatchers("/actuator/health/**", "/actuator/info").permitAll()
+                        .requestMatchers(metricsOnManagementPort).permitAll()
                         .anyRequest().authenticated()
                 )
                 .formLogin(AbstractHttpConfigurer::disable)
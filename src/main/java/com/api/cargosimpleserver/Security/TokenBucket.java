@@ -0,0 +1,84 @@
+package com.api.cargosimpleserver.Security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Неблокирующая реализация маркерной корзины (token bucket).
+ * <p>
+ * Реализована по алгоритму GCRA: вместо счётчика маркеров хранится
+ * единственное значение — теоретическое время прибытия следующего запроса.
+ * Это позволяет обновлять состояние одной операцией compare-and-set
+ * без блокировок и без фонового пополнения.
+ * <p>
+ * Параметры:
+ * - Ёмкость: максимальное число запросов, допускаемых подряд (всплеск)
+ * - Скорость пополнения: число запросов в секунду в установившемся режиме
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * Интервал между маркерами, нс.
+     */
+    private final long emissionIntervalNanos;
+
+    /**
+     * Допустимое опережение теоретического времени, нс.
+     */
+    private final long burstToleranceNanos;
+
+    /**
+     * Теоретическое время прибытия следующего запроса, нс (шкала System.nanoTime()).
+     */
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * Создает полностью заполненную корзину.
+     *
+     * @param capacity ёмкость корзины, не меньше 1
+     * @param refillPerSecond скорость пополнения, маркеров в секунду
+     * @param nowNanos текущее время по шкале System.nanoTime()
+     */
+    public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Ёмкость и скорость пополнения должны быть положительными");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (NANOS_PER_SECOND / refillPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Попытка забрать один маркер.
+     *
+     * @param nowNanos текущее время по шкале System.nanoTime()
+     * @return 0, если запрос разрешён, иначе время в наносекундах
+     *         до появления следующего маркера
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, nowNanos) + emissionIntervalNanos;
+            long excess = next - nowNanos - burstToleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Проверка, что корзина полностью заполнена и не использовалась
+     * заданное время. Такую корзину можно удалить без потери состояния.
+     *
+     * @param nowNanos текущее время по шкале System.nanoTime()
+     * @param idleNanos минимальное время простоя
+     * @return true, если корзина простаивает
+     */
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - theoreticalArrival.get() >= idleNanos;
+    }
+}
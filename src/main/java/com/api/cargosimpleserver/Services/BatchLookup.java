@@ -0,0 +1,59 @@
+package com.api.cargosimpleserver.Services;
+
+import com.api.cargosimpleserver.DTO.BatchItemDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Пакетная загрузка сущностей по идентификаторам.
+ * <p>
+ * Повторяющиеся идентификаторы запрашиваются один раз, список делится на части
+ * по {@link #CHUNK_SIZE}, каждая часть загружается одним запросом с IN.
+ * Результат возвращается в порядке запроса с отметками об отсутствующих объектах.
+ */
+final class BatchLookup {
+
+    /**
+     * Наибольшее число идентификаторов в одном IN.
+     */
+    static final int CHUNK_SIZE = 1000;
+
+    private BatchLookup() {
+    }
+
+    /**
+     * Загрузка сущностей и преобразование в элементы ответа.
+     *
+     * @param ids идентификаторы в порядке запроса
+     * @param finder загрузка сущностей по части идентификаторов
+     * @param idOf идентификатор сущности
+     * @param mapper преобразование сущности в DTO
+     * @return элементы ответа в порядке ids
+     */
+    static <E, D> List<BatchItemDTO<D>> load(List<Long> ids,
+                                             Function<Collection<Long>, List<E>> finder,
+                                             Function<E, Long> idOf,
+                                             Function<E, D> mapper) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, D> loaded = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(distinct.size(), from + CHUNK_SIZE));
+            for (E entity : finder.apply(chunk)) {
+                loaded.put(idOf.apply(entity), mapper.apply(entity));
+            }
+        }
+
+        List<BatchItemDTO<D>> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            D data = loaded.get(id);
+            items.add(data != null ? BatchItemDTO.found(id, data) : BatchItemDTO.notFound(id));
+        }
+        return items;
+    }
+}
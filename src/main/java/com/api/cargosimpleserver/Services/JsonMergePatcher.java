@@ -0,0 +1,155 @@
+package com.api.cargosimpleserver.Services;
+
+import com.api.cargosimpleserver.Exceptions.InvalidPatchException;
+import com.api.cargosimpleserver.Exceptions.InvalidVersionException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Применение JSON Merge Patch (RFC 7396) к DTO.
+ * <p>
+ * Основные функции:
+ * - Наложение патча на текущее состояние объекта: значение null удаляет поле,
+ *   вложенные объекты объединяются рекурсивно
+ * - Определение полей, значение которых действительно изменилось
+ * - Проверка ограничений только для изменённых полей и межполевых правил
+ * - Поле version патча — версия, на основе которой клиент вносит изменение;
+ *   оно не изменяет объект, а возвращается для проверки в сервисе
+ * <p>
+ * Сервисы переносят в сущность только изменённые поля, поэтому при
+ * {@code @DynamicUpdate} UPDATE затрагивает только соответствующие столбцы.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonMergePatcher {
+
+    private static final String VERSION = "version";
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    /**
+     * Результат применения патча.
+     *
+     * @param value объект после применения патча
+     * @param changedFields поля, значение которых изменилось
+     * @param expectedVersion версия из патча или null, если она не передана
+     */
+    public record Patched<T>(T value, Set<String> changedFields, Long expectedVersion) {
+
+        public boolean changed(String field) {
+            return changedFields.contains(field);
+        }
+    }
+
+    /**
+     * Применение патча к текущему состоянию объекта.
+     *
+     * @param current текущее состояние объекта
+     * @param patch тело запроса в формате JSON Merge Patch
+     * @param crossFieldRules межполевые ограничения (например, validQuantities) и поля,
+     *                        при изменении которых они проверяются
+     * @return объект после применения патча и список изменённых полей
+     * @throws InvalidPatchException если патч не объект или содержит неизвестные поля или id
+     * @throws InvalidVersionException если поле version не число
+     * @throws ConstraintViolationException если изменённые поля не проходят проверку
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Patched<T> apply(T current, JsonNode patch, Map<String, Set<String>> crossFieldRules) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidPatchException("Тело запроса должно быть JSON-объектом");
+        }
+        ObjectNode before = objectMapper.valueToTree(current);
+        ObjectNode after = before.deepCopy();
+
+        Set<String> changedFields = new LinkedHashSet<>();
+        Long expectedVersion = null;
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            if (name.equals(VERSION)) {
+                expectedVersion = version(field.getValue());
+                continue;
+            }
+            if (!before.has(name)) {
+                throw new InvalidPatchException("Неизвестное поле: " + name);
+            }
+            if (name.equals("id")) {
+                throw new InvalidPatchException("Идентификатор не может быть изменён");
+            }
+            after.set(name, merge(after.get(name), field.getValue()));
+            if (!Objects.equals(before.get(name), after.get(name))) {
+                changedFields.add(name);
+            }
+        }
+
+        T patched;
+        try {
+            patched = (T) objectMapper.treeToValue(after, current.getClass());
+        } catch (Exception ex) {
+            throw new InvalidPatchException("Некорректное значение поля: " + ex.getMessage());
+        }
+
+        Set<ConstraintViolation<T>> violations = new HashSet<>();
+        for (String field : changedFields) {
+            violations.addAll(validator.validateProperty(patched, field));
+        }
+        if (violations.isEmpty()) {
+            crossFieldRules.forEach((property, dependsOn) -> {
+                if (!Collections.disjoint(dependsOn, changedFields)) {
+                    violations.addAll(validator.validateProperty(patched, property));
+                }
+            });
+        }
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return new Patched<>(patched, changedFields, expectedVersion);
+    }
+
+    private static Long version(JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.canConvertToExactIntegral()) {
+            throw new InvalidVersionException("Поле version должно содержать номер версии: " + value);
+        }
+        return value.longValue();
+    }
+
+    /**
+     * Слияние значения по правилам RFC 7396.
+     */
+    private JsonNode merge(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject() ? ((ObjectNode) target).deepCopy() : objectMapper.createObjectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isNull()) {
+                result.remove(field.getKey());
+            } else {
+                result.set(field.getKey(), merge(result.get(field.getKey()), field.getValue()));
+            }
+        }
+        return result;
+    }
+}
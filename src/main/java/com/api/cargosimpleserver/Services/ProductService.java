@@ -1,16 +1,28 @@
 package com.api.cargosimpleserver.Services;
 
+import com.api.cargosimpleserver.Concurrency.EntityVersions;
+import com.api.cargosimpleserver.Concurrency.OptimisticConflictException;
+import com.api.cargosimpleserver.Concurrency.RetryOnConflict;
+import com.api.cargosimpleserver.DTO.BatchItemDTO;
 import com.api.cargosimpleserver.DTO.ProductDTO;
+import com.api.cargosimpleserver.Events.InventoryChangeEvent;
 import com.api.cargosimpleserver.Exceptions.ProductAlreadyExistsException;
 import com.api.cargosimpleserver.Exceptions.ProductNotFoundException;
 import com.api.cargosimpleserver.Models.Product;
 import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -23,12 +35,20 @@ import java.util.stream.Collectors;
  */
 @Service
 @RequiredArgsConstructor
+@Timed(value = "cargo.service", histogram = true)
 public class ProductService {
 
+    private static final Map<String, Set<String>> STOCK_LEVEL_RULE =
+            Map.of("validStockLevels", Set.of("minStockLevel", "maxStockLevel"));
+
     private final ProductRepository productRepository;
 
     private final ModelMapper modelMapper;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final JsonMergePatcher mergePatcher;
+
     /**
      * Создание нового товара.
      *
@@ -50,28 +70,38 @@ public class ProductService {
         validateProduct(product);
 
         Product savedProduct = productRepository.save(product);
-        return modelMapper.map(savedProduct, ProductDTO.class);
+
+        ProductDTO savedProductDTO = modelMapper.map(savedProduct, ProductDTO.class);
+        eventPublisher.publishEvent(
+                InventoryChangeEvent.productChanged(InventoryChangeEvent.ChangeType.CREATED, savedProductDTO));
+
+        return savedProductDTO;
     }
 
     /**
      * Обновление существующего товара.
      *
      * <p>
-     * Метод находит товар по ID, проверяет уникальность нового артикула,
-     * обновляет данные и сохраняет изменения.
+     * Метод находит товар по ID, проверяет версию клиента и уникальность нового артикула,
+     * обновляет данные и сохраняет изменения. Изменение без версии при конфликте
+     * повторяется в новой транзакции. Изменение с версией не повторяется:
+     * клиент получает текущее состояние товара и сам решает, применять ли изменение.
      * </p>
      *
      * @param id идентификатор обновляемого товара
-     * @param productDTO DTO с новыми данными товара
+     * @param productDTO DTO с новыми данными товара и версией, на основе которой они получены
      * @return DTO обновленного товара
      * @throws ProductNotFoundException если товар не найден
      * @throws ProductAlreadyExistsException если новый артикул уже существует
+     * @throws OptimisticConflictException если товар изменён после чтения клиентом
      */
     @Transactional
+    @RetryOnConflict(unless = "#productDTO?.version != null")
     public ProductDTO updateProduct(Long id, ProductDTO productDTO) {
 
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Товар с ID " + id + " не найден"));
+        EntityVersions.require(productDTO.getVersion(), existingProduct.getVersion(), Product.class, id);
 
         if (!existingProduct.getArticleNumber().equals(productDTO.getArticleNumber())) {
             if (productRepository.existsByArticleNumber(productDTO.getArticleNumber())) {
@@ -82,9 +112,69 @@ public class ProductService {
 
         modelMapper.map(productDTO, existingProduct);
 
-        Product updatedProduct = productRepository.save(existingProduct);
+        // Версия в ответе — уже после UPDATE
+        Product updatedProduct = productRepository.saveAndFlush(existingProduct);
+
+        ProductDTO updatedProductDTO = modelMapper.map(updatedProduct, ProductDTO.class);
+        eventPublisher.publishEvent(
+                InventoryChangeEvent.productChanged(InventoryChangeEvent.ChangeType.UPDATED, updatedProductDTO));
 
-        return modelMapper.map(updatedProduct, ProductDTO.class);
+        return updatedProductDTO;
+    }
+
+    /**
+     * Частичное обновление товара по JSON Merge Patch.
+     *
+     * <p>
+     * Проверяются только изменённые поля (и соотношение уровней запаса, если меняется
+     * один из них); в сущность переносятся только они, поэтому благодаря
+     * {@code @DynamicUpdate} UPDATE содержит только изменённые столбцы.
+     * Патч без фактических изменений не приводит к записи.
+     * Если патч содержит version, она должна совпадать с текущей версией товара;
+     * патч без version при конфликте версий повторяется.
+     * </p>
+     *
+     * @param id идентификатор обновляемого товара
+     * @param patch изменяемые поля товара
+     * @return DTO обновленного товара
+     * @throws ProductNotFoundException если товар не найден
+     * @throws ProductAlreadyExistsException если новый артикул уже существует
+     * @throws OptimisticConflictException если товар изменён после чтения клиентом
+     */
+    @Transactional
+    @RetryOnConflict(unless = "#patch?.hasNonNull('version')")
+    public ProductDTO patchProduct(Long id, JsonNode patch) {
+
+        Product existingProduct = productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Товар с ID " + id + " не найден"));
+
+        JsonMergePatcher.Patched<ProductDTO> patched = mergePatcher.apply(
+                convertToDTO(existingProduct), patch, STOCK_LEVEL_RULE);
+        EntityVersions.require(patched.expectedVersion(), existingProduct.getVersion(), Product.class, id);
+
+        if (patched.changedFields().isEmpty()) {
+            return patched.value();
+        }
+
+        if (patched.changed("articleNumber")
+                && productRepository.existsByArticleNumber(patched.value().getArticleNumber())) {
+            throw new ProductAlreadyExistsException("Товар с артикулом " +
+                    patched.value().getArticleNumber() + " уже существует");
+        }
+
+        BeanWrapper source = new BeanWrapperImpl(patched.value());
+        BeanWrapper target = new BeanWrapperImpl(existingProduct);
+        for (String field : patched.changedFields()) {
+            target.setPropertyValue(field, source.getPropertyValue(field));
+        }
+
+        Product updatedProduct = productRepository.saveAndFlush(existingProduct);
+
+        ProductDTO updatedProductDTO = convertToDTO(updatedProduct);
+        eventPublisher.publishEvent(
+                InventoryChangeEvent.productChanged(InventoryChangeEvent.ChangeType.UPDATED, updatedProductDTO));
+
+        return updatedProductDTO;
     }
 
     /**
@@ -93,8 +183,10 @@ public class ProductService {
      * @param id идентификатор товара для удаления
      */
     @Transactional
+    @RetryOnConflict
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(InventoryChangeEvent.productDeleted(id));
     }
 
     /**
@@ -109,7 +201,7 @@ public class ProductService {
      */
     private void validateProduct(Product product) {
         if (productRepository.existsByArticleNumber(product.getArticleNumber())) {
-            throw new RuntimeException("Товар с таким артикулом уже существует");
+            throw new ProductAlreadyExistsException("Товар с таким артикулом уже существует");
         }
     }
 
@@ -118,6 +210,7 @@ public class ProductService {
      *
      * @return список всех товаров в виде DTO
      */
+    @Transactional(readOnly = true)
     public List<ProductDTO> getAllProducts() {
         return productRepository.findAll()
                 .stream()
@@ -132,10 +225,41 @@ public class ProductService {
      * @return DTO товара
      * @throws ProductNotFoundException если товар не найден
      */
+    @Transactional(readOnly = true)
     public ProductDTO getProductById(Long id) {
         return productRepository.findById(id)
                 .map(this::convertToDTO)
-                .orElseThrow(() -> new RuntimeException("Товар не найден"));
+                .orElseThrow(() -> new ProductNotFoundException("Товар с ID " + id + " не найден"));
+    }
+
+    /**
+     * Получение товаров по списку идентификаторов.
+     *
+     * @param ids идентификаторы товаров в нужном порядке
+     * @return элементы в порядке ids с отметкой об отсутствующих товарах
+     */
+    @Transactional(readOnly = true)
+    public List<BatchItemDTO<ProductDTO>> getProductsByIds(List<Long> ids) {
+        return BatchLookup.load(ids, productRepository::findAllById, Product::getId, this::convertToDTO);
+    }
+
+    /**
+     * Получение товара по артикулу.
+     *
+     * <p>
+     * Поиск идёт по естественному идентификатору и при повторных запросах
+     * обслуживается вторым уровнем кэша без обращения к базе.
+     * </p>
+     *
+     * @param articleNumber артикул товара
+     * @return DTO товара
+     * @throws ProductNotFoundException если товар не найден
+     */
+    @Transactional(readOnly = true)
+    public ProductDTO getProductByArticleNumber(String articleNumber) {
+        return productRepository.findByNaturalId(articleNumber)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new ProductNotFoundException("Товар с артикулом " + articleNumber + " не найден"));
     }
 
     /**
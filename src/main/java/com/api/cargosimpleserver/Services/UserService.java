@@ -2,10 +2,13 @@ package com.api.cargosimpleserver.Services;
 
 import com.api.cargosimpleserver.DTO.UserAuthDTO;
 import com.api.cargosimpleserver.DTO.UserRegistrationDTO;
+import com.api.cargosimpleserver.Exceptions.ConflictException;
+import com.api.cargosimpleserver.Exceptions.InvalidCredentialsException;
 import com.api.cargosimpleserver.Models.User;
 import com.api.cargosimpleserver.Repositories.UserRepository;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -19,6 +22,7 @@ import org.springframework.stereotype.Service;
  */
 @Service
 @RequiredArgsConstructor
+@Timed(value = "cargo.service", histogram = true)
 public class UserService {
 
     private final UserRepository userRepository;
@@ -34,12 +38,12 @@ public class UserService {
      * </p>
      *
      * @param registrationDTO DTO с данными для регистрации, включая логин и пароль
-     * @throws RuntimeException если пользователь с таким именем уже зарегистрирован
+     * @throws ConflictException если пользователь с таким именем уже зарегистрирован
      */
     @Transactional
     public void register(@Valid UserRegistrationDTO registrationDTO) {
         if (userRepository.findByUsername(registrationDTO.getLogin()).isPresent()) {
-            throw new RuntimeException("Пользователь с таким именем уже зарегистрирован!");
+            throw new ConflictException("Пользователь с таким именем уже зарегистрирован!");
         }
 
         User user = new User();
@@ -58,15 +62,15 @@ public class UserService {
      * </p>
      *
      * @param authDTO DTO с данными для аутентификации, включая логин и пароль
-     * @throws RuntimeException если пользователь не найден или неверный пароль
+     * @throws InvalidCredentialsException если пользователь не найден или неверный пароль
      */
     @Transactional
     public void authenticate(UserAuthDTO authDTO) {
         User user = userRepository.findByUsername(authDTO.getLogin())
-                .orElseThrow(() -> new RuntimeException("Пользователь не найден!"));
+                .orElseThrow(() -> new InvalidCredentialsException("Пользователь не найден!"));
 
         if (!passwordEncoder.matches(authDTO.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Неверный пароль!");
+            throw new InvalidCredentialsException("Неверный пароль!");
         }
     }
 }
@@ -1,22 +1,46 @@
 package com.api.cargosimpleserver.Services;
 
+import com.api.cargosimpleserver.Concurrency.EntityVersions;
+import com.api.cargosimpleserver.Concurrency.OptimisticConflictException;
+import com.api.cargosimpleserver.Concurrency.RetryOnConflict;
+import com.api.cargosimpleserver.DTO.BatchItemDTO;
+import com.api.cargosimpleserver.DTO.LowStockItemDTO;
 import com.api.cargosimpleserver.DTO.WarehouseDTO;
 import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.DTO.WarehouseStockPageDTO;
+import com.api.cargosimpleserver.Events.InventoryChangeEvent;
+import com.api.cargosimpleserver.Exceptions.ConflictException;
+import com.api.cargosimpleserver.Exceptions.NotFoundException;
+import com.api.cargosimpleserver.Exceptions.ProductNotFoundException;
+import com.api.cargosimpleserver.Exceptions.WarehouseCapacityExceededException;
 import com.api.cargosimpleserver.Repositories.ProductRepository;
 import com.api.cargosimpleserver.Repositories.WarehouseRepository;
 import com.api.cargosimpleserver.Models.Product;
 import com.api.cargosimpleserver.Models.Warehouse;
 import com.api.cargosimpleserver.Models.WarehouseInStock;
 import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
-import jakarta.persistence.EntityNotFoundException;
+import com.api.cargosimpleserver.Sharding.ShardExecutor;
+import com.api.cargosimpleserver.Sharding.ShardRoute;
+import com.api.cargosimpleserver.Sharding.ShardRouter;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -30,11 +54,20 @@ import java.util.stream.Collectors;
  * - Проверки возможности добавления товаров на склад
  * <p>
  *
+ * <p>
+ * При сегментировании ({@code app.sharding.enabled}) операции со складом или записью
+ * выполняются на сегменте склада, а выборки по товару и по всем записям — параллельно на всех сегментах.
+ * <p>
+ *
  */
 @Service
 @RequiredArgsConstructor
+@Timed(value = "cargo.service", histogram = true)
 public class WarehouseInStockService {
 
+    private static final Map<String, Set<String>> QUANTITY_RULE =
+            Map.of("validQuantities", Set.of("currentQuantity", "reservedQuantity"));
+
     private final ProductRepository productRepository;
 
     private final WarehouseRepository warehouseRepository;
@@ -43,32 +76,42 @@ public class WarehouseInStockService {
 
     private final WarehouseInStockRepository warehouseInStockRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final JsonMergePatcher mergePatcher;
+
+    private final ShardRouter shardRouter;
+
+    private final ShardExecutor shardExecutor;
+
     /**
      * Создание новой записи о складском запасе.
      *
      * @param warehouseStockDTO DTO с информацией о складском запасе
      * @return Созданная запись о складском запасе в виде DTO
-     * @throws EntityNotFoundException если товар или склад не найдены
-     * @throws IllegalArgumentException если невозможно добавить товар на склад
+     * @throws NotFoundException если товар или склад не найдены
+     * @throws WarehouseCapacityExceededException если на складе нет места
+     * @throws ConflictException если запись для товара на складе уже существует
      */
     @Transactional
+    @ShardRoute(warehouse = "#warehouseStockDTO?.warehouseId")
     public WarehouseInStockDTO createWarehouseStock(@Valid @NotNull WarehouseInStockDTO warehouseStockDTO) {
 
         Product product = productRepository.findById(warehouseStockDTO.getProductId())
-                .orElseThrow(() -> new EntityNotFoundException("Товар не найден"));
+                .orElseThrow(() -> new ProductNotFoundException("Товар не найден"));
 
         Warehouse warehouse = warehouseRepository.findById(warehouseStockDTO.getWarehouseId())
-                .orElseThrow(() -> new EntityNotFoundException("Склад не найден"));
+                .orElseThrow(() -> new NotFoundException("Склад не найден"));
 
         if (canAddProductToWarehouse(warehouse.getId(), warehouseStockDTO.getCurrentQuantity())) {
-            throw new IllegalArgumentException("Невозможно добавить товар: нет места на складе");
+            throw new WarehouseCapacityExceededException("Невозможно добавить товар: нет места на складе");
         }
 
         if (warehouseInStockRepository.existsByProductIdAndWarehouseId(
                 warehouseStockDTO.getProductId(),
                 warehouseStockDTO.getWarehouseId()
         )) {
-            throw new IllegalArgumentException("Запись для данного товара на складе уже существует!");
+            throw new ConflictException("Запись для данного товара на складе уже существует!");
         }
 
         WarehouseInStock warehouseStock = modelMapper.map(warehouseStockDTO, WarehouseInStock.class);
@@ -76,25 +119,43 @@ public class WarehouseInStockService {
         warehouseStock.setWarehouse(warehouse);
 
         WarehouseInStock savedStock = warehouseInStockRepository.save(warehouseStock);
+        if (shardRouter.shardOfStock(savedStock.getId()) != shardRouter.shardOfWarehouse(warehouse.getId())) {
+            throw new IllegalStateException("Идентификатор записи " + savedStock.getId()
+                    + " не соответствует сегменту склада");
+        }
+
+        WarehouseInStockDTO savedStockDTO = modelMapper.map(savedStock, WarehouseInStockDTO.class);
+        eventPublisher.publishEvent(
+                InventoryChangeEvent.stockChanged(InventoryChangeEvent.ChangeType.CREATED, savedStockDTO));
 
-        return modelMapper.map(savedStock, WarehouseInStockDTO.class);
+        return savedStockDTO;
     }
 
     /**
      * Обновление существующей записи о складском запасе.
+     * <p>
+     * Версия из DTO сравнивается с текущей версией записи; без версии запись
+     * перезаписывается безусловно, а конфликт при фиксации повторяется в новой транзакции.
+     * Конфликт изменения с версией возвращается клиенту, а не повторяется:
+     * повтор применил бы изменение, рассчитанное по устаревшему количеству.
      *
      * @param warehouseStockDTO DTO с обновленной информацией о складском запасе
      * @return Обновленная запись о складском запасе в виде DTO
-     * @throws EntityNotFoundException если запись, товар или склад не найдены
-     * @throws IllegalArgumentException если невозможно обновить количество
+     * @throws NotFoundException если запись, товар или склад не найдены
+     * @throws WarehouseCapacityExceededException если на складе нет места
+     * @throws OptimisticConflictException если запись изменена после чтения клиентом
      */
     @Transactional
+    @RetryOnConflict(unless = "#warehouseStockDTO?.version != null")
+    @ShardRoute(stock = "#warehouseStockDTO?.id")
     public WarehouseInStockDTO updateWarehouseStock(@Valid @NotNull WarehouseInStockDTO warehouseStockDTO) {
 
         WarehouseInStock existingWarehouseStock = warehouseInStockRepository.findById(warehouseStockDTO.getId())
-                .orElseThrow(() -> new EntityNotFoundException(
+                .orElseThrow(() -> new NotFoundException(
                         "Складской запас с ID " + warehouseStockDTO.getId() + " не найден"
                 ));
+        EntityVersions.require(warehouseStockDTO.getVersion(), existingWarehouseStock.getVersion(),
+                WarehouseInStock.class, existingWarehouseStock.getId());
 
         if (warehouseStockDTO.getCurrentQuantity() != null) {
             Long warehouseId = existingWarehouseStock.getWarehouse().getId();
@@ -102,21 +163,22 @@ public class WarehouseInStockService {
             int quantityDifference = warehouseStockDTO.getCurrentQuantity() - existingWarehouseStock.getCurrentQuantity();
 
             if (canAddProductToWarehouse(warehouseId, quantityDifference)) {
-                throw new IllegalArgumentException("Невозможно обновить количество: нет места на складе");
+                throw new WarehouseCapacityExceededException("Невозможно обновить количество: нет места на складе");
             }
         }
 
         if (warehouseStockDTO.getProductId() != null) {
             Product product = productRepository.findById(warehouseStockDTO.getProductId())
-                    .orElseThrow(() -> new EntityNotFoundException(
+                    .orElseThrow(() -> new ProductNotFoundException(
                             "Товар с ID " + warehouseStockDTO.getProductId() + " не найден"
                     ));
             existingWarehouseStock.setProduct(product);
         }
 
         if (warehouseStockDTO.getWarehouseId() != null) {
+            requireSameShard(existingWarehouseStock.getId(), warehouseStockDTO.getWarehouseId());
             Warehouse warehouse = warehouseRepository.findById(warehouseStockDTO.getWarehouseId())
-                    .orElseThrow(() -> new EntityNotFoundException(
+                    .orElseThrow(() -> new NotFoundException(
                             "Склад с ID " + warehouseStockDTO.getWarehouseId() + " не найден"
                     ));
             existingWarehouseStock.setWarehouse(warehouse);
@@ -124,23 +186,160 @@ public class WarehouseInStockService {
 
         modelMapper.map(warehouseStockDTO, existingWarehouseStock);
 
-        WarehouseInStock updatedWarehouseStock = warehouseInStockRepository.save(existingWarehouseStock);
+        WarehouseInStock updatedWarehouseStock = warehouseInStockRepository.saveAndFlush(existingWarehouseStock);
+
+        WarehouseInStockDTO updatedStockDTO = modelMapper.map(updatedWarehouseStock, WarehouseInStockDTO.class);
+        eventPublisher.publishEvent(
+                InventoryChangeEvent.stockChanged(InventoryChangeEvent.ChangeType.UPDATED, updatedStockDTO));
+
+        return updatedStockDTO;
+    }
+
+    /**
+     * Частичное обновление записи о складском запасе по JSON Merge Patch.
+     * <p>
+     * Проверяются только изменённые поля; вместимость склада проверяется, только если
+     * меняется количество или склад. В сущность переносятся только изменённые поля,
+     * поэтому благодаря {@code @DynamicUpdate} UPDATE содержит только их столбцы.
+     * Патч без version при конфликте версий повторяется в новой транзакции.
+     *
+     * @param id Идентификатор записи о складском запасе
+     * @param patch Изменяемые поля записи
+     * @return Обновленная запись о складском запасе в виде DTO
+     * @throws NotFoundException если запись, товар или склад не найдены
+     * @throws WarehouseCapacityExceededException если на складе нет места
+     * @throws ConflictException если запись для товара на целевом складе уже существует
+     * @throws OptimisticConflictException если version патча не совпадает с текущей версией записи
+     */
+    @Transactional
+    @RetryOnConflict(unless = "#patch?.hasNonNull('version')")
+    @ShardRoute(stock = "#id")
+    public WarehouseInStockDTO patchWarehouseStock(Long id, JsonNode patch) {
+
+        WarehouseInStock existingWarehouseStock = warehouseInStockRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Складской запас с ID " + id + " не найден"));
+
+        JsonMergePatcher.Patched<WarehouseInStockDTO> patched = mergePatcher.apply(
+                convertToDTO(existingWarehouseStock), patch, QUANTITY_RULE);
+        EntityVersions.require(patched.expectedVersion(), existingWarehouseStock.getVersion(),
+                WarehouseInStock.class, id);
+
+        if (patched.changedFields().isEmpty()) {
+            return patched.value();
+        }
+
+        WarehouseInStockDTO changes = patched.value();
+
+        if (patched.changed("warehouseId")) {
+            requireSameShard(id, changes.getWarehouseId());
+        }
+
+        if (patched.changed("productId") || patched.changed("warehouseId")) {
+            if (warehouseInStockRepository.existsByProductIdAndWarehouseId(
+                    changes.getProductId(), changes.getWarehouseId())) {
+                throw new ConflictException("Запись для данного товара на складе уже существует!");
+            }
+        }
+
+        if (patched.changed("productId")) {
+            Product product = productRepository.findById(changes.getProductId())
+                    .orElseThrow(() -> new ProductNotFoundException(
+                            "Товар с ID " + changes.getProductId() + " не найден"
+                    ));
+            existingWarehouseStock.setProduct(product);
+        }
+
+        if (patched.changed("warehouseId")) {
+            Warehouse warehouse = warehouseRepository.findById(changes.getWarehouseId())
+                    .orElseThrow(() -> new NotFoundException(
+                            "Склад с ID " + changes.getWarehouseId() + " не найден"
+                    ));
+            if (canAddProductToWarehouse(warehouse.getId(), changes.getCurrentQuantity())) {
+                throw new WarehouseCapacityExceededException("Невозможно переместить запас: нет места на складе");
+            }
+            existingWarehouseStock.setWarehouse(warehouse);
+        } else if (patched.changed("currentQuantity")) {
+            int quantityDifference = changes.getCurrentQuantity() - existingWarehouseStock.getCurrentQuantity();
+            if (canAddProductToWarehouse(existingWarehouseStock.getWarehouse().getId(), quantityDifference)) {
+                throw new WarehouseCapacityExceededException("Невозможно обновить количество: нет места на складе");
+            }
+        }
+
+        if (patched.changed("currentQuantity")) {
+            existingWarehouseStock.setCurrentQuantity(changes.getCurrentQuantity());
+        }
+        if (patched.changed("reservedQuantity")) {
+            existingWarehouseStock.setReservedQuantity(changes.getReservedQuantity());
+        }
+        if (patched.changed("location")) {
+            existingWarehouseStock.setLocation(changes.getLocation());
+        }
+
+        WarehouseInStock updatedWarehouseStock = warehouseInStockRepository.saveAndFlush(existingWarehouseStock);
+
+        WarehouseInStockDTO updatedStockDTO = convertToDTO(updatedWarehouseStock);
+        eventPublisher.publishEvent(
+                InventoryChangeEvent.stockChanged(InventoryChangeEvent.ChangeType.UPDATED, updatedStockDTO));
+
+        return updatedStockDTO;
+    }
+
+    /**
+     * Изменение текущего количества на заданную величину.
+     * <p>
+     * Количество меняется одним UPDATE с проверками в условии, без предварительного
+     * чтения записи и без повторов при конфликте: конкурирующие изменения складываются в базе.
+     * Новое состояние читается после изменения; причина отказа выясняется
+     * дополнительным чтением только при неуспешном UPDATE.
+     *
+     * @param id Идентификатор записи о складском запасе
+     * @param delta Изменение количества (положительное — поступление, отрицательное — отбор)
+     * @return Запись о складском запасе после изменения в виде DTO
+     * @throws NotFoundException если запись не найдена
+     * @throws ConflictException если количество стало бы отрицательным или меньше зарезервированного
+     * @throws WarehouseCapacityExceededException если на складе нет места
+     */
+    @Transactional
+    @ShardRoute(stock = "#id")
+    public WarehouseInStockDTO adjustWarehouseStockQuantity(Long id, int delta) {
+
+        if (warehouseInStockRepository.adjustQuantity(id, delta) == 0) {
+            WarehouseInStock stock = warehouseInStockRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Складской запас с ID " + id + " не найден"));
+            int newQuantity = stock.getCurrentQuantity() + delta;
+            if (newQuantity < 0 || newQuantity < stock.getReservedQuantity()) {
+                throw new ConflictException("Недостаточно товара: текущее количество " + stock.getCurrentQuantity()
+                        + ", зарезервировано " + stock.getReservedQuantity());
+            }
+            throw new WarehouseCapacityExceededException("Невозможно обновить количество: нет места на складе");
+        }
+
+        WarehouseInStock adjustedStock = warehouseInStockRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Складской запас с ID " + id + " не найден"));
+
+        WarehouseInStockDTO adjustedStockDTO = convertToDTO(adjustedStock);
+        eventPublisher.publishEvent(
+                InventoryChangeEvent.stockChanged(InventoryChangeEvent.ChangeType.UPDATED, adjustedStockDTO));
 
-        return modelMapper.map(updatedWarehouseStock, WarehouseInStockDTO.class);
+        return adjustedStockDTO;
     }
 
     /**
      * Удаление записи о складском запасе.
      *
      * @param id Идентификатор записи о складском запасе
-     * @throws EntityNotFoundException если запись не найдена
+     * @throws NotFoundException если запись не найдена
      */
     @Transactional
+    @RetryOnConflict
+    @ShardRoute(stock = "#id")
     public void deleteWarehouseStock(@Valid @NotNull Long id) {
-        warehouseInStockRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Запись о складском запасе не найдена"));
+        WarehouseInStock stock = warehouseInStockRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Запись о складском запасе не найдена"));
 
         warehouseInStockRepository.deleteById(id);
+        eventPublisher.publishEvent(InventoryChangeEvent.stockDeleted(
+                id, stock.getProduct().getId(), stock.getWarehouse().getId()));
     }
 
     /**
@@ -150,10 +349,12 @@ public class WarehouseInStockService {
      * @param quantityToAdd Количество товара для добавления
      * @return true, если товар может быть добавлен, иначе false
      */
+    @Transactional(readOnly = true)
+    @ShardRoute(warehouse = "#warehouseId")
     public boolean canAddProductToWarehouse(Long warehouseId, Integer quantityToAdd) {
 
         Warehouse warehouse = warehouseRepository.findById(warehouseId)
-                .orElseThrow(() -> new EntityNotFoundException("Склад не найден"));
+                .orElseThrow(() -> new NotFoundException("Склад не найден"));
 
 
         Integer totalWarehouseQuantity = warehouseInStockRepository.getTotalWarehouseQuantity(warehouseId);
@@ -163,13 +364,67 @@ public class WarehouseInStockService {
 
     /**
      * Получение всех записей о складских запасах.
+     * <p>
+     * При сегментировании сегменты опрашиваются параллельно.
+     * Товары и склады загружаются тем же запросом, без отдельных запросов на запись.
      *
      * @return Список всех записей о складских запасах в виде DTO
      */
+    @Transactional(readOnly = true)
     public List<WarehouseInStockDTO> getAllWarehouseStocks() {
-        return warehouseInStockRepository.findAll()
+        return gather(shard -> warehouseInStockRepository.findAllWithRelations()
                 .stream()
                 .map(this::convertToDTO)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Получение страницы всех записей о складских запасах в порядке идентификаторов.
+     * <p>
+     * Каждый сегмент отдаёт не больше limit + 1 записей после afterId, из их объединения
+     * берутся первые limit. Поэтому страница не зависит от числа сегментов, а память
+     * ограничена размером страницы, а не числом записей.
+     *
+     * @param afterId Идентификатор последней записи предыдущей страницы или null для первой страницы
+     * @param limit Размер страницы
+     * @return Страница записей; позиция следующей страницы — в поле nextAfterId
+     */
+    @Transactional(readOnly = true)
+    public WarehouseStockPageDTO getStocksPage(Long afterId, int limit) {
+        List<WarehouseInStockDTO> rows = gather(shard -> warehouseInStockRepository.findPageAfterId(
+                        afterId != null ? afterId : 0L, Limit.of(limit + 1))
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList()));
+        rows.sort(Comparator.comparing(WarehouseInStockDTO::getId));
+
+        if (rows.size() <= limit) {
+            return new WarehouseStockPageDTO(rows, false, null, null);
+        }
+        List<WarehouseInStockDTO> items = new ArrayList<>(rows.subList(0, limit));
+        return new WarehouseStockPageDTO(items, true, null, items.get(limit - 1).getId());
+    }
+
+    /**
+     * Получение записей, доступное количество которых ниже минимального уровня товара.
+     * <p>
+     * Отбор выполняется в базе. Без склада сегменты опрашиваются параллельно,
+     * со складом — только сегмент его остатков.
+     *
+     * @param warehouseId Идентификатор склада или null для всех складов
+     * @param limit Наибольшее число записей с каждого сегмента
+     * @return Записи в порядке (склад, запись)
+     */
+    @Transactional(readOnly = true)
+    public List<LowStockItemDTO> getLowStockItems(Long warehouseId, int limit) {
+        if (warehouseId != null) {
+            return shardExecutor.onShard(shardRouter.shardOfWarehouse(warehouseId),
+                    () -> warehouseInStockRepository.findLowStockByWarehouseId(warehouseId, Limit.of(limit)));
+        }
+        return shardExecutor.scatter(shard -> warehouseInStockRepository.findLowStock(Limit.of(limit)))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(LowStockItemDTO::getWarehouseId).thenComparing(LowStockItemDTO::getStockId))
                 .collect(Collectors.toList());
     }
 
@@ -178,27 +433,153 @@ public class WarehouseInStockService {
      *
      * @param id Идентификатор записи о складском запасе
      * @return Запись о складском запасе в виде DTO
-     * @throws RuntimeException если запись не найдена
+     * @throws NotFoundException если запись не найдена
      */
+    @Transactional(readOnly = true)
+    @ShardRoute(stock = "#id")
     public WarehouseInStockDTO getWarehouseStockById(Long id) {
         return warehouseInStockRepository.findById(id)
                 .map(this::convertToDTO)
-                .orElseThrow(() -> new RuntimeException("Склад не найден"));
+                .orElseThrow(() -> new NotFoundException("Складской запас с ID " + id + " не найден"));
+    }
+
+    /**
+     * Получение записей о складских запасах по списку идентификаторов.
+     * <p>
+     * Товары и склады загружаются тем же запросом, без отдельных запросов на запись.
+     * При сегментировании идентификаторы группируются по сегментам, сегменты опрашиваются параллельно.
+     *
+     * @param ids идентификаторы записей в нужном порядке
+     * @return элементы в порядке ids с отметкой об отсутствующих записях
+     */
+    @Transactional(readOnly = true)
+    public List<BatchItemDTO<WarehouseInStockDTO>> getWarehouseStocksByIds(List<Long> ids) {
+        return BatchLookup.load(ids, this::findStocksByIds, WarehouseInStockDTO::getId, Function.identity());
     }
 
     /**
      * Получение всех складских запасов для определенного товара.
+     * <p>
+     * При сегментировании сегменты опрашиваются параллельно.
      *
      * @param productId Идентификатор товара
      * @return Список записей о складских запасах для данного товара в виде DTO
      */
+    @Transactional(readOnly = true)
     public List<WarehouseInStockDTO> getStocksByProduct(Long productId) {
-        return warehouseInStockRepository.findByProductId(productId)
+        return gather(shard -> warehouseInStockRepository.findByProductId(productId)
                 .stream()
                 .map(this::convertToDTO)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Получение страницы остатков склада в порядке ячеек.
+     * <p>
+     * Записи упорядочены по (location, id); позиция следующей страницы берётся
+     * из последней записи текущей (keyset), поэтому время ответа не зависит от номера страницы.
+     * Существование склада проверяется только для пустой страницы.
+     *
+     * @param warehouseId Идентификатор склада
+     * @param locationPrefix Префикс локации (ряд, стеллаж) или null для всех ячеек
+     * @param afterLocation Локация последней записи предыдущей страницы или null для первой страницы
+     * @param afterId Идентификатор последней записи предыдущей страницы или null
+     * @param limit Размер страницы
+     * @return Страница записей и позиция следующей страницы
+     * @throws NotFoundException если склад не найден
+     */
+    @Transactional(readOnly = true)
+    @ShardRoute(warehouse = "#warehouseId")
+    public WarehouseStockPageDTO getStocksByWarehouse(Long warehouseId, String locationPrefix,
+                                                      String afterLocation, Long afterId, int limit) {
+
+        List<WarehouseInStock> rows = warehouseInStockRepository.findPageByWarehouse(
+                warehouseId,
+                likePrefix(locationPrefix),
+                afterLocation != null ? afterLocation : "",
+                afterId != null ? afterId : 0L,
+                Limit.of(limit + 1));
+
+        if (rows.isEmpty() && afterLocation == null && warehouseRepository.findById(warehouseId).isEmpty()) {
+            throw new NotFoundException("Склад с ID " + warehouseId + " не найден");
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<WarehouseInStockDTO> items = rows.stream()
+                .limit(limit)
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        if (!hasMore) {
+            return new WarehouseStockPageDTO(items, false, null, null);
+        }
+        WarehouseInStockDTO last = items.get(items.size() - 1);
+        return new WarehouseStockPageDTO(items, true, last.getLocation(), last.getId());
+    }
+
+    /**
+     * Шаблон LIKE для префикса локации с экранированием символом '!'.
+     *
+     * @param prefix префикс локации или null
+     * @return шаблон вида {@code префикс%}
+     */
+    private static String likePrefix(String prefix) {
+        if (prefix == null) {
+            return "%";
+        }
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    /**
+     * Загрузка записей по части идентификаторов с каждого сегмента, где они могут храниться.
+     *
+     * @param ids идентификаторы записей
+     * @return найденные записи в виде DTO
+     */
+    private List<WarehouseInStockDTO> findStocksByIds(Collection<Long> ids) {
+        Map<Integer, List<Long>> idsByShard = ids.stream()
+                .collect(Collectors.groupingBy(shardRouter::shardOfStock));
+        return gather(shard -> {
+            List<Long> shardIds = idsByShard.get(shard);
+            if (shardIds == null) {
+                return List.of();
+            }
+            return warehouseInStockRepository.findAllWithRelationsByIdIn(shardIds)
+                    .stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Объединение результатов запроса ко всем сегментам.
+     *
+     * @param query запрос к сегменту; сущности преобразуются в DTO внутри его транзакции
+     * @return записи всех сегментов в порядке номеров сегментов
+     */
+    private List<WarehouseInStockDTO> gather(IntFunction<List<WarehouseInStockDTO>> query) {
+        return shardExecutor.scatter(query)
+                .stream()
+                .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Проверка, что склад хранит остатки на том же сегменте, что и запись.
+     * <p>
+     * Перенос записи между сегментами менял бы её идентификатор, поэтому не выполняется.
+     *
+     * @param stockId Идентификатор записи о складском запасе
+     * @param warehouseId Идентификатор целевого склада
+     * @throws ConflictException если склад хранит остатки на другом сегменте
+     */
+    private void requireSameShard(Long stockId, Long warehouseId) {
+        if (shardRouter.shardOfStock(stockId) != shardRouter.shardOfWarehouse(warehouseId)) {
+            throw new ConflictException("Перенос записи на склад " + warehouseId
+                    + " невозможен: остатки склада хранятся в другом сегменте");
+        }
+    }
+
     /**
      * Конвертация сущности WarehouseInStock в DTO.
      *
@@ -215,7 +596,9 @@ public class WarehouseInStockService {
      * @param productId Идентификатор товара
      * @return true, если запись существует, иначе false
      */
+    @Transactional(readOnly = true)
     public boolean existsByProductId(Long productId) {
-        return warehouseInStockRepository.existsByProductId(productId);
+        return shardExecutor.scatter(shard -> warehouseInStockRepository.existsByProductId(productId))
+                .contains(Boolean.TRUE);
     }
 }
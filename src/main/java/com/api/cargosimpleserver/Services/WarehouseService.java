@@ -1,17 +1,27 @@
 package com.api.cargosimpleserver.Services;
 
+import com.api.cargosimpleserver.Concurrency.EntityVersions;
+import com.api.cargosimpleserver.Concurrency.OptimisticConflictException;
+import com.api.cargosimpleserver.Concurrency.RetryOnConflict;
+import com.api.cargosimpleserver.DTO.BatchItemDTO;
 import com.api.cargosimpleserver.DTO.WarehouseDTO;
+import com.api.cargosimpleserver.Events.InventoryChangeEvent;
+import com.api.cargosimpleserver.Exceptions.ConflictException;
+import com.api.cargosimpleserver.Exceptions.NotFoundException;
 import com.api.cargosimpleserver.Models.Warehouse;
 import com.api.cargosimpleserver.Models.WarehouseStatus;
 import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
 import com.api.cargosimpleserver.Repositories.WarehouseRepository;
-import jakarta.persistence.EntityNotFoundException;
+import com.api.cargosimpleserver.Sharding.ShardExecutor;
+import com.api.cargosimpleserver.Sharding.ShardRouter;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -45,6 +55,7 @@ import java.util.stream.Collectors;
  */
 @Service
 @RequiredArgsConstructor
+@Timed(value = "cargo.service", histogram = true)
 public class WarehouseService {
 
     private static final Logger logger = LoggerFactory.getLogger(WarehouseService.class);
@@ -55,18 +66,24 @@ public class WarehouseService {
 
     private final ModelMapper modelMapper;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ShardRouter shardRouter;
+
+    private final ShardExecutor shardExecutor;
+
     /**
      * Создание нового склад.
      *
      * @param warehouseDTO данные склада
      * @return созданный склад в виде DTO
-     * @throws IllegalArgumentException если склад с таким названием уже существует
+     * @throws ConflictException если склад с таким названием уже существует
      */
     @Transactional
     public WarehouseDTO createWarehouse(@Valid @NotNull WarehouseDTO warehouseDTO) {
 
         if (warehouseRepository.existsByName(warehouseDTO.getName())) {
-            throw new IllegalArgumentException("Склад с таким названием уже существует");
+            throw new ConflictException("Склад с таким названием уже существует");
         }
 
         Warehouse warehouse = modelMapper.map(warehouseDTO, Warehouse.class);
@@ -78,50 +95,68 @@ public class WarehouseService {
         Warehouse savedWarehouse = warehouseRepository.save(warehouse);
         logger.info("Создан новый склад: {}", savedWarehouse.getName());
 
-        return modelMapper.map(savedWarehouse, WarehouseDTO.class);
+        WarehouseDTO savedWarehouseDTO = modelMapper.map(savedWarehouse, WarehouseDTO.class);
+        eventPublisher.publishEvent(
+                InventoryChangeEvent.warehouseChanged(InventoryChangeEvent.ChangeType.CREATED, savedWarehouseDTO));
+
+        return savedWarehouseDTO;
     }
 
     /**
      * Обновление существующего склада.
+     * <p>
+     * Если передана версия склада, она должна совпадать с текущей:
+     * изменение по устаревшим данным отклоняется, а не повторяется.
+     * Изменение без версии при конфликте повторяется в новой транзакции.
      *
      * @param warehouseDTO данные склада
      * @return обновленный склад в виде DTO
-     * @throws EntityNotFoundException если склад не найден
+     * @throws NotFoundException если склад не найден
+     * @throws OptimisticConflictException если склад изменён после чтения клиентом
      */
     @Transactional
+    @RetryOnConflict(unless = "#warehouseDTO?.version != null")
     public WarehouseDTO updateWarehouse(@Valid @NotNull WarehouseDTO warehouseDTO) {
 
         Warehouse existingWarehouse = warehouseRepository.findById(warehouseDTO.getId())
-                .orElseThrow(() -> new EntityNotFoundException("Склад с ID " + warehouseDTO.getId() + " не найден"));
+                .orElseThrow(() -> new NotFoundException("Склад с ID " + warehouseDTO.getId() + " не найден"));
+        EntityVersions.require(warehouseDTO.getVersion(), existingWarehouse.getVersion(),
+                Warehouse.class, existingWarehouse.getId());
 
         modelMapper.map(warehouseDTO, existingWarehouse);
 
-        Warehouse updatedWarehouse = warehouseRepository.save(existingWarehouse);
+        Warehouse updatedWarehouse = warehouseRepository.saveAndFlush(existingWarehouse);
         logger.info("Обновлен склад: {}", updatedWarehouse.getName());
 
-        return modelMapper.map(updatedWarehouse, WarehouseDTO.class);
+        WarehouseDTO updatedWarehouseDTO = modelMapper.map(updatedWarehouse, WarehouseDTO.class);
+        eventPublisher.publishEvent(
+                InventoryChangeEvent.warehouseChanged(InventoryChangeEvent.ChangeType.UPDATED, updatedWarehouseDTO));
+
+        return updatedWarehouseDTO;
     }
 
     /**
      * Удаление склада по ID.
      *
      * @param id идентификатор склада
-     * @throws EntityNotFoundException если склад не найден
-     * @throws IllegalStateException если на складе есть товары
+     * @throws NotFoundException если склад не найден
+     * @throws ConflictException если на складе есть товары
      */
     @Transactional
+    @RetryOnConflict
     public void deleteWarehouse(Long id) {
 
         if (hasProducts(id)) {
-            throw new IllegalStateException("Невозможно удалить склад, так как на нем есть товары");
+            throw new ConflictException("Невозможно удалить склад, так как на нем есть товары");
         }
 
         if (!warehouseRepository.existsById(id)) {
-            throw new EntityNotFoundException("Склад с ID " + id + " не найден");
+            throw new NotFoundException("Склад с ID " + id + " не найден");
         }
 
         warehouseRepository.deleteById(id);
         logger.info("Склад с ID {} был удален", id);
+        eventPublisher.publishEvent(InventoryChangeEvent.warehouseDeleted(id));
     }
 
     /**
@@ -129,6 +164,7 @@ public class WarehouseService {
      *
      * @return список складов в виде DTO
      */
+    @Transactional(readOnly = true)
     public List<WarehouseDTO> getAllWarehouses() {
         return warehouseRepository.findAll()
                 .stream()
@@ -141,12 +177,24 @@ public class WarehouseService {
      *
      * @param id идентификатор склада
      * @return склад в виде DTO
-     * @throws EntityNotFoundException если склад не найден
+     * @throws NotFoundException если склад не найден
      */
+    @Transactional(readOnly = true)
     public WarehouseDTO getWarehouseById(Long id) {
         return warehouseRepository.findById(id)
                 .map(this::convertToDTO)
-                .orElseThrow(() -> new EntityNotFoundException("Склад не найден"));
+                .orElseThrow(() -> new NotFoundException("Склад не найден"));
+    }
+
+    /**
+     * Получение складов по списку идентификаторов.
+     *
+     * @param ids идентификаторы складов в нужном порядке
+     * @return элементы в порядке ids с отметкой об отсутствующих складах
+     */
+    @Transactional(readOnly = true)
+    public List<BatchItemDTO<WarehouseDTO>> getWarehousesByIds(List<Long> ids) {
+        return BatchLookup.load(ids, warehouseRepository::findAllById, Warehouse::getId, this::convertToDTO);
     }
 
     /**
@@ -161,11 +209,15 @@ public class WarehouseService {
 
     /**
      * Проверка наличия товаров на складе.
+     * <p>
+     * Остатки читаются с сегмента склада.
      *
      * @param warehouseId идентификатор склада
      * @return true, если на складе есть товары, иначе false
      */
+    @Transactional(readOnly = true)
     public boolean hasProducts(Long warehouseId) {
-        return warehouseInStockRepository.countByWarehouseId(warehouseId) > 0;
+        return shardExecutor.onShard(shardRouter.shardOfWarehouse(warehouseId),
+                () -> warehouseInStockRepository.countByWarehouseId(warehouseId) > 0);
     }
 }
@@ -0,0 +1,216 @@
+package com.api.cargosimpleserver.Sharding;
+
+import com.api.cargosimpleserver.Events.InventoryChangeEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Копирование справочников (товаров и складов) с основной базы на остальные сегменты.
+ * <p>
+ * Основные функции:
+ * - Копирование изменённой строки на все сегменты после фиксации изменения
+ * - Полная синхронизация справочников при запуске и для сегментов,
+ *   на которые не удалось скопировать изменение
+ * - Создание схемы сегментов, если схему основной базы создаёт Hibernate
+ *   ({@code spring.jpa.hibernate.ddl-auto=create} или {@code create-drop}, например со встроенной базой)
+ * <p>
+ * Копируется текущее состояние строки, прочитанное с основной базы, поэтому порядок
+ * копирований не важен. Чтение и запись выполняются под блокировкой сегмента:
+ * копия всегда не старше прочитанного в момент записи состояния.
+ * Строки копируются всеми столбцами, поэтому новые столбцы справочников
+ * не требуют изменений здесь.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ReferenceDataReplicator implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataReplicator.class);
+
+    private static final List<String> TABLES = List.of("products", "warehouses");
+
+    private final ShardCluster cluster;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final int batchSize;
+
+    private final String ddlAuto;
+
+    private final JdbcTemplate source;
+
+    private final List<JdbcTemplate> targets = new ArrayList<>();
+
+    private final List<Object> shardLocks = new ArrayList<>();
+
+    /**
+     * Сегменты, ожидающие полной синхронизации.
+     */
+    private final Set<Integer> staleShards = ConcurrentHashMap.newKeySet();
+
+    public ReferenceDataReplicator(ShardCluster cluster,
+                                   EntityManagerFactory entityManagerFactory,
+                                   ShardingProperties properties,
+                                   @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        this.cluster = cluster;
+        this.entityManagerFactory = entityManagerFactory;
+        this.batchSize = properties.getResyncBatchSize();
+        this.ddlAuto = ddlAuto;
+        this.source = new JdbcTemplate(cluster.getShard(0));
+        for (int shard = 0; shard < cluster.size(); shard++) {
+            targets.add(new JdbcTemplate(cluster.getShard(shard)));
+            shardLocks.add(new Object());
+        }
+    }
+
+    /**
+     * Подготовка схемы и полная синхронизация справочников до приёма запросов.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if ("create".equals(ddlAuto) || "create-drop".equals(ddlAuto)) {
+            var schemaManager = entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager();
+            for (int shard = 1; shard < cluster.size(); shard++) {
+                ShardContext.callOn(shard, () -> {
+                    schemaManager.dropMappedObjects(true);
+                    schemaManager.exportMappedObjects(true);
+                    return null;
+                });
+            }
+        }
+        for (int shard = 1; shard < cluster.size(); shard++) {
+            staleShards.add(shard);
+        }
+        resyncStaleShards();
+    }
+
+    /**
+     * Копирование зафиксированного изменения товара или склада на сегменты.
+     *
+     * @param event событие изменения
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInventoryChange(InventoryChangeEvent event) {
+        String table = switch (event.getEntityType()) {
+            case PRODUCT -> "products";
+            case WAREHOUSE -> "warehouses";
+            case STOCK -> null;
+        };
+        if (table == null) {
+            return;
+        }
+        for (int shard = 1; shard < cluster.size(); shard++) {
+            if (staleShards.contains(shard)) {
+                continue;
+            }
+            try {
+                synchronized (shardLocks.get(shard)) {
+                    List<Map<String, Object>> rows = source.queryForList(
+                            "SELECT * FROM " + table + " WHERE id = ?", event.getEntityId());
+                    if (rows.isEmpty()) {
+                        targets.get(shard).update("DELETE FROM " + table + " WHERE id = ?", event.getEntityId());
+                    } else {
+                        upsert(targets.get(shard), table, rows);
+                    }
+                }
+            } catch (DataAccessException ex) {
+                staleShards.add(shard);
+                logger.warn("Не удалось скопировать изменение {} {} на сегмент {}: {}",
+                        table, event.getEntityId(), shard, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Полная синхронизация сегментов, на которые не удалось скопировать изменение.
+     */
+    @Scheduled(fixedDelayString = "${app.sharding.resync-interval-ms:60000}")
+    public void resyncStaleShards() {
+        for (Integer shard : List.copyOf(staleShards)) {
+            try {
+                long started = System.nanoTime();
+                for (String table : TABLES) {
+                    resync(shard, table);
+                }
+                staleShards.remove(shard);
+                logger.info("Справочники сегмента {} синхронизированы за {} мс",
+                        shard, (System.nanoTime() - started) / 1_000_000);
+            } catch (DataAccessException ex) {
+                logger.warn("Не удалось синхронизировать справочники сегмента {}: {}", shard, ex.getMessage());
+            }
+        }
+    }
+
+    private void resync(int shard, String table) {
+        JdbcTemplate target = targets.get(shard);
+        Object lock = shardLocks.get(shard);
+
+        long afterId = 0;
+        while (true) {
+            List<Map<String, Object>> rows;
+            synchronized (lock) {
+                rows = source.queryForList(
+                        "SELECT * FROM " + table + " WHERE id > ? ORDER BY id LIMIT ?", afterId, batchSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                upsert(target, table, rows);
+            }
+            afterId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+        }
+
+        afterId = 0;
+        while (true) {
+            synchronized (lock) {
+                List<Long> ids = target.queryForList(
+                        "SELECT id FROM " + table + " WHERE id > ? ORDER BY id LIMIT ?", Long.class, afterId, batchSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+                Set<Long> present = new HashSet<>(source.queryForList(
+                        "SELECT id FROM " + table + " WHERE id IN (" + placeholders + ")", Long.class, ids.toArray()));
+                for (Long id : ids) {
+                    if (!present.contains(id)) {
+                        target.update("DELETE FROM " + table + " WHERE id = ?", id);
+                    }
+                }
+                afterId = ids.get(ids.size() - 1);
+            }
+        }
+    }
+
+    private static void upsert(JdbcTemplate target, String table, List<Map<String, Object>> rows) {
+        List<String> columns = List.copyOf(rows.get(0).keySet());
+        String sql = "INSERT INTO " + table
+                + " (" + String.join(", ", columns) + ") VALUES ("
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", "))
+                + ") ON DUPLICATE KEY UPDATE "
+                + columns.stream()
+                        .filter(column -> !column.equalsIgnoreCase("id"))
+                        .map(column -> column + " = VALUES(" + column + ")")
+                        .collect(Collectors.joining(", "));
+        List<Object[]> values = rows.stream()
+                .map(row -> columns.stream().map(row::get).toArray())
+                .collect(Collectors.toList());
+        target.batchUpdate(sql, values);
+    }
+}
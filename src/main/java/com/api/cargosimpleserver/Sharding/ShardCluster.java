@@ -0,0 +1,48 @@
+package com.api.cargosimpleserver.Sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.List;
+
+/**
+ * Пулы соединений сегментов.
+ * <p>
+ * Сегмент 0 — основная база: на ней хранятся справочники (товары, склады),
+ * пользователи и служебные таблицы. Остальные сегменты содержат копии справочников
+ * и остатки своих складов.
+ *
+ * @see ShardRoutingDataSource
+ */
+public class ShardCluster implements DisposableBean {
+
+    private final List<HikariDataSource> shards;
+
+    public ShardCluster(List<HikariDataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    /**
+     * Пул соединений сегмента.
+     *
+     * @param shard номер сегмента
+     * @return пул соединений
+     */
+    public HikariDataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    /**
+     * Число сегментов.
+     *
+     * @return число сегментов вместе с основной базой
+     */
+    public int size() {
+        return shards.size();
+    }
+
+    @Override
+    public void destroy() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,51 @@
+package com.api.cargosimpleserver.Sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Сегмент, к которому относятся запросы текущего потока.
+ * <p>
+ * Читается источником данных при получении соединения, поэтому сегмент
+ * устанавливается до начала транзакции и не меняется до её завершения.
+ * Без установленного сегмента используется сегмент 0 (основная база).
+ *
+ * @see ShardRoutingDataSource
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Сегмент текущего потока.
+     *
+     * @return номер сегмента, 0 если сегмент не установлен
+     */
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : 0;
+    }
+
+    /**
+     * Выполнение действия с установленным сегментом и восстановлением прежнего.
+     *
+     * @param shard номер сегмента
+     * @param action действие
+     * @return результат действия
+     */
+    public static <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
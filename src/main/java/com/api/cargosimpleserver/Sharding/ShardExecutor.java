@@ -0,0 +1,153 @@
+package com.api.cargosimpleserver.Sharding;
+
+import com.api.cargosimpleserver.Exceptions.OperationTimeoutException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Выполнение работы на заданном сегменте и на всех сегментах сразу.
+ * <p>
+ * Основные функции:
+ * - Работа на одном сегменте: в текущей транзакции, если она на том же сегменте,
+ *   иначе в отдельной транзакции на нужном сегменте
+ * - Запрос ко всем сегментам (scatter-gather): параллельно, результаты в порядке номеров сегментов.
+ *   Сегмент 0 опрашивается в вызывающем потоке и его транзакции, остальные — в пуле потоков,
+ *   каждый в своей транзакции только для чтения
+ * <p>
+ * При одном сегменте работа выполняется в вызывающем потоке и текущей транзакции,
+ * поэтому без сегментирования число и порядок запросов не меняются.
+ */
+@Component
+public class ShardExecutor implements DisposableBean {
+
+    private final ShardRouter router;
+
+    private final TransactionTemplate writeTemplate;
+
+    private final TransactionTemplate readTemplate;
+
+    private final long scatterTimeoutNanos;
+
+    private final ExecutorService executor;
+
+    public ShardExecutor(ShardRouter router, PlatformTransactionManager transactionManager,
+                         ShardingProperties properties) {
+        this.router = router;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate.setReadOnly(true);
+        this.scatterTimeoutNanos = properties.getScatterTimeout().toNanos();
+        if (router.shardCount() > 1) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(properties.getScatterThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "shard-scatter-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Выполнение работы на сегменте.
+     *
+     * @param shard номер сегмента
+     * @param action работа
+     * @return результат работы
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (router.shardCount() == 1) {
+            return action.get();
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return ShardContext.callOn(shard, action);
+        }
+        if (ShardContext.current() == shard) {
+            return action.get();
+        }
+        // Транзакция уже привязана к соединению другого сегмента: она приостанавливается
+        return ShardContext.callOn(shard, () -> writeTemplate.execute(status -> action.get()));
+    }
+
+    /**
+     * Запрос ко всем сегментам.
+     *
+     * @param query запрос к сегменту по его номеру
+     * @return результаты в порядке номеров сегментов
+     * @throws OperationTimeoutException если сегмент не ответил за {@code app.sharding.scatter-timeout}
+     */
+    public <T> List<T> scatter(IntFunction<T> query) {
+        int shardCount = router.shardCount();
+        if (shardCount == 1) {
+            return List.of(query.apply(0));
+        }
+
+        // Вызывающая транзакция уже держит соединение основной базы: сегмент 0 опрашивается в ней,
+        // а не в отдельной транзакции, которая ждала бы второе соединение из того же пула
+        boolean inline = ShardContext.current() == 0;
+        List<Future<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = inline ? 1 : 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(executor.submit(() -> ShardContext.callOn(target,
+                    () -> readTemplate.execute(status -> query.apply(target)))));
+        }
+
+        long deadline = System.nanoTime() + scatterTimeoutNanos;
+        List<T> results = new ArrayList<>(shardCount);
+        if (inline) {
+            try {
+                results.add(TransactionSynchronizationManager.isActualTransactionActive()
+                        ? query.apply(0)
+                        : readTemplate.execute(status -> query.apply(0)));
+            } catch (RuntimeException ex) {
+                futures.forEach(future -> future.cancel(true));
+                throw ex;
+            }
+        }
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Запрос к сегментам прерван", ex);
+        } catch (TimeoutException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw new OperationTimeoutException("Сегменты не ответили за " + TimeUnit.NANOSECONDS.toMillis(scatterTimeoutNanos) + " мс");
+        } catch (ExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Ошибка запроса к сегменту", ex.getCause());
+        }
+        return results;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.api.cargosimpleserver.Sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Выполнение метода сервиса на сегменте, выбранном по его аргументам.
+ * <p>
+ * Задаётся одно из выражений SpEL над параметрами метода: идентификатор склада
+ * или идентификатор записи об остатке. Если выражение вернуло null, метод
+ * выполняется без выбора сегмента (например, чтобы проверка аргументов сообщила об ошибке).
+ *
+ * @see ShardRouteAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ShardRoute {
+
+    /**
+     * Выражение для идентификатора склада, например {@code #warehouseId}.
+     */
+    String warehouse() default "";
+
+    /**
+     * Выражение для идентификатора записи об остатке, например {@code #id}.
+     */
+    String stock() default "";
+}
@@ -0,0 +1,90 @@
+package com.api.cargosimpleserver.Sharding;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Выбор сегмента для методов {@link ShardRoute}.
+ * <p>
+ * Аспект упорядочен после повтора при конфликте версий и раньше транзакционного
+ * перехватчика: сегмент устанавливается до начала транзакции, поэтому её соединение
+ * берётся из пула нужного сегмента, а каждая повторная попытка выполняется на том же сегменте.
+ */
+@Aspect
+@Component
+@Order(1)
+public class ShardRouteAspect {
+
+    private final ShardRouter router;
+
+    private final ShardExecutor shardExecutor;
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    public ShardRouteAspect(ShardRouter router, ShardExecutor shardExecutor) {
+        this.router = router;
+        this.shardExecutor = shardExecutor;
+    }
+
+    @Around("@annotation(route)")
+    public Object route(ProceedingJoinPoint joinPoint, ShardRoute route) throws Throwable {
+        if (router.shardCount() == 1) {
+            return joinPoint.proceed();
+        }
+
+        boolean byWarehouse = !route.warehouse().isEmpty();
+        Object key = evaluate(joinPoint, byWarehouse ? route.warehouse() : route.stock());
+        if (!(key instanceof Number id)) {
+            return joinPoint.proceed();
+        }
+        int shard = byWarehouse ? router.shardOfWarehouse(id.longValue()) : router.shardOfStock(id.longValue());
+
+        try {
+            return shardExecutor.onShard(shard, () -> {
+                try {
+                    return joinPoint.proceed();
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new CheckedFailure(ex);
+                }
+            });
+        } catch (CheckedFailure ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private Object evaluate(ProceedingJoinPoint joinPoint, String expression) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                null, signature.getMethod(), joinPoint.getArgs(), parameterNames);
+        return expressions.computeIfAbsent(expression, parser::parseExpression).getValue(context);
+    }
+
+    /**
+     * Проверяемое исключение метода, переданное через {@link java.util.function.Supplier}.
+     */
+    private static final class CheckedFailure extends RuntimeException {
+
+        CheckedFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+}
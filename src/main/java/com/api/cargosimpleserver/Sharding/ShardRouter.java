@@ -0,0 +1,63 @@
+package com.api.cargosimpleserver.Sharding;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Выбор сегмента для остатков.
+ * <p>
+ * Основные функции:
+ * - Сегмент склада: остаток на сегменте, номер которого — остаток от деления идентификатора склада
+ * - Сегмент записи об остатке по её идентификатору: на сегменте k из N идентификаторы
+ *   выдаются с шагом N начиная с k + 1 ({@link StockIdGenerator}), поэтому сегмент
+ *   определяется без обращения к базе
+ * - Передача числа сегментов генератору идентификаторов через настройки Hibernate
+ * <p>
+ * Изменение числа сегментов меняет размещение складов; записи существующих остатков
+ * при этом нужно перенести вручную. При выключенном сегментировании сегмент всегда один.
+ */
+@Component
+public class ShardRouter implements HibernatePropertiesCustomizer {
+
+    private final int shardCount;
+
+    public ShardRouter(ShardingProperties properties) {
+        this.shardCount = properties.isEnabled() ? 1 + properties.getShards().size() : 1;
+    }
+
+    /**
+     * Число сегментов.
+     *
+     * @return число сегментов, 1 при выключенном сегментировании
+     */
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Сегмент остатков склада.
+     *
+     * @param warehouseId идентификатор склада
+     * @return номер сегмента
+     */
+    public int shardOfWarehouse(long warehouseId) {
+        return Math.floorMod(warehouseId, shardCount);
+    }
+
+    /**
+     * Сегмент записи об остатке.
+     *
+     * @param stockId идентификатор записи об остатке
+     * @return номер сегмента
+     */
+    public int shardOfStock(long stockId) {
+        return Math.floorMod(stockId - 1, shardCount);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(StockIdGenerator.SHARD_COUNT, shardCount);
+    }
+}
@@ -0,0 +1,33 @@
+package com.api.cargosimpleserver.Sharding;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Источник данных, выдающий соединения сегмента текущего потока.
+ * <p>
+ * Сегмент берётся из {@link ShardContext} в момент получения соединения;
+ * без установленного сегмента соединение берётся из основной базы.
+ *
+ * @see ShardCluster
+ */
+public class ShardRoutingDataSource extends AbstractDataSource {
+
+    private final ShardCluster cluster;
+
+    public ShardRoutingDataSource(ShardCluster cluster) {
+        this.cluster = cluster;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return cluster.getShard(ShardContext.current()).getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return cluster.getShard(ShardContext.current()).getConnection(username, password);
+    }
+}
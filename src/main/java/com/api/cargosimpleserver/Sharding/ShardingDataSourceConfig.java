@@ -0,0 +1,115 @@
+package com.api.cargosimpleserver.Sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Конфигурация источника данных с сегментами остатков.
+ * <p>
+ * Включается настройкой {@code app.sharding.enabled=true} и заменяет источник данных
+ * Spring Boot. Сегмент 0 — основная база ({@code spring.datasource.*} и
+ * {@code spring.datasource.hikari.*}), каждый дополнительный сегмент получает свой пул HikariCP.
+ * При включённом Flyway миграции применяются к каждому дополнительному сегменту
+ * (основную базу мигрирует Spring Boot).
+ * <p>
+ * Не совмещается с чтением с реплик ({@code app.datasource.routing.enabled}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardingDataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingDataSourceConfig.class);
+
+    @Bean
+    public ShardCluster shardCluster(DataSourceProperties dataSourceProperties,
+                                     ShardingProperties shardingProperties,
+                                     Environment environment,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+
+        if (environment.getProperty("app.datasource.routing.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("Сегментирование не совмещается с чтением с реплик");
+        }
+
+        int shardCount = 1 + shardingProperties.getShards().size();
+        List<HikariDataSource> shards = new ArrayList<>(shardCount);
+
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("shard-0");
+        shards.add(primary);
+
+        for (int i = 0; i < shardingProperties.getShards().size(); i++) {
+            ShardingProperties.Shard settings = shardingProperties.getShards().get(i);
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + (i + 1));
+            shard.setJdbcUrl(settings.getUrl());
+            shard.setUsername(settings.getUsername() != null
+                    ? settings.getUsername() : dataSourceProperties.determineUsername());
+            shard.setPassword(settings.getPassword() != null
+                    ? settings.getPassword() : dataSourceProperties.determinePassword());
+            shard.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            shard.setMaximumPoolSize(settings.getMaximumPoolSize());
+            shard.setMinimumIdle(settings.getMinimumIdle());
+            shards.add(shard);
+        }
+
+        for (HikariDataSource dataSource : shards) {
+            meterRegistry.ifAvailable(registry ->
+                    dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        }
+
+        migrateShards(shards, environment);
+        return new ShardCluster(shards);
+    }
+
+    /**
+     * Источник данных приложения.
+     *
+     * @param shardCluster пулы соединений сегментов
+     * @return источник данных с выбором сегмента по потоку
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardCluster shardCluster) {
+        return new ShardRoutingDataSource(shardCluster);
+    }
+
+    private static void migrateShards(List<HikariDataSource> shards, Environment environment) {
+        FlywayProperties flyway = Binder.get(environment)
+                .bind("spring.flyway", FlywayProperties.class)
+                .orElseGet(FlywayProperties::new);
+        if (!flyway.isEnabled()) {
+            return;
+        }
+        for (int shard = 1; shard < shards.size(); shard++) {
+            Flyway.configure()
+                    .dataSource(shards.get(shard))
+                    .locations(flyway.getLocations().toArray(String[]::new))
+                    .baselineOnMigrate(flyway.isBaselineOnMigrate())
+                    .baselineVersion(flyway.getBaselineVersion())
+                    .load()
+                    .migrate();
+            logger.info("Схема сегмента {} обновлена", shard);
+        }
+    }
+}
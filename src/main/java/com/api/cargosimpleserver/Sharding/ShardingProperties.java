@@ -0,0 +1,88 @@
+package com.api.cargosimpleserver.Sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки разделения остатков по сегментам (отдельным базам данных).
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.sharding}.
+ * Сегмент 0 — основная база из {@code spring.datasource.*}, остальные перечисляются списком, например:
+ * <pre>
+ * app.sharding.enabled=true
+ * app.sharding.shards[0].url=jdbc:mysql://localhost:3308/kursovay
+ * app.sharding.shards[0].maximum-pool-size=20
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    /**
+     * Включение сегментирования остатков.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Дополнительные сегменты (1, 2, ...).
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Число потоков для параллельных запросов ко всем сегментам.
+     */
+    private int scatterThreads = 8;
+
+    /**
+     * Наибольшее время ожидания ответа всех сегментов.
+     */
+    private Duration scatterTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Интервал повторной полной синхронизации справочников с сегментами,
+     * на которые не удалось скопировать изменение, в миллисекундах.
+     */
+    private long resyncIntervalMs = 60000;
+
+    /**
+     * Число строк справочника, копируемых одним пакетом при полной синхронизации.
+     */
+    private int resyncBatchSize = 1000;
+
+    /**
+     * Параметры подключения к сегменту.
+     * Не заданные имя пользователя и пароль берутся из настроек основной базы.
+     */
+    @Data
+    public static class Shard {
+
+        /**
+         * JDBC URL сегмента.
+         */
+        private String url;
+
+        /**
+         * Имя пользователя.
+         */
+        private String username;
+
+        /**
+         * Пароль.
+         */
+        private String password;
+
+        /**
+         * Максимальный размер пула соединений сегмента.
+         */
+        private int maximumPoolSize = 10;
+
+        /**
+         * Минимальное число простаивающих соединений.
+         */
+        private int minimumIdle = 2;
+    }
+}
@@ -0,0 +1,17 @@
+package com.api.cargosimpleserver.Sharding;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Идентификатор записи об остатке, выдаваемый {@link StockIdGenerator}.
+ */
+@IdGeneratorType(StockIdGenerator.class)
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StockId {
+}
@@ -0,0 +1,85 @@
+package com.api.cargosimpleserver.Sharding;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.generator.GeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.EnumSet;
+
+/**
+ * Генератор идентификаторов записей об остатках.
+ * <p>
+ * Очередное значение m берётся из счётчика сегмента (таблица {@code stock_id_allocations})
+ * на соединении текущей транзакции, то есть на сегменте k из {@link ShardContext}.
+ * Идентификатор записи — {@code k + 1 + N * (m - 1)}, поэтому {@link ShardRouter#shardOfStock}
+ * находит сегмент записи без обращения к базе.
+ * <p>
+ * Шаг N применяется только к остаткам: остальные таблицы, в том числе склады на основной базе,
+ * получают идентификаторы подряд, и склады распределяются по всем сегментам.
+ * Число сегментов передаёт в настройки Hibernate {@link ShardRouter}.
+ */
+public class StockIdGenerator implements BeforeExecutionGenerator, AnnotationBasedGenerator<StockId> {
+
+    /**
+     * Настройка Hibernate с числом сегментов.
+     */
+    public static final String SHARD_COUNT = "app.sharding.shard-count";
+
+    private static final String ALLOCATE_SQL = "INSERT INTO stock_id_allocations (allocated_at) VALUES (?)";
+
+    private int shardCount = 1;
+
+    @Override
+    public void initialize(StockId annotation, Member member, GeneratorCreationContext context) {
+        Object configured = context.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(SHARD_COUNT);
+        if (configured != null) {
+            shardCount = Integer.parseInt(configured.toString());
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return ShardContext.current() + 1 + shardCount * (allocate(session) - 1);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    private static long allocate(SharedSessionContractImplementor session) {
+        JdbcCoordinator jdbc = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbc.getStatementPreparer()
+                .prepareStatement(ALLOCATE_SQL, Statement.RETURN_GENERATED_KEYS);
+        try {
+            statement.setTimestamp(1, Timestamp.from(Instant.now()));
+            jdbc.getResultSetReturn().executeUpdate(statement, ALLOCATE_SQL);
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new IllegalStateException("База не вернула значение счётчика идентификаторов остатков");
+                }
+                return keys.getLong(1);
+            }
+        } catch (SQLException ex) {
+            throw session.getJdbcServices().getSqlExceptionHelper()
+                    .convert(ex, "Не удалось выделить идентификатор записи об остатке", ALLOCATE_SQL);
+        } finally {
+            jdbc.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbc.afterStatementExecution();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.api.cargosimpleserver.Valuation;
+
+import com.api.cargosimpleserver.DTO.InventoryValuationDTO;
+import com.api.cargosimpleserver.DTO.ProductDTO;
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.Events.InventoryChangeEvent;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Sharding.ShardContext;
+import com.api.cargosimpleserver.Sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Оценка складских запасов по ценам закупки и продажи.
+ * <p>
+ * Основные функции:
+ * - Хранение итогов по складам, категориям и производителям в копейках (long)
+ * - Инкрементальное обновление итогов по зафиксированным изменениям остатков и товаров
+ * - Полный параллельный пересчёт по данным базы: диапазоны идентификаторов читаются
+ *   несколькими потоками, каждый в своей транзакции
+ * <p>
+ * Первый расчёт выполняется при первом запросе оценки, затем периодически
+ * для исправления возможного расхождения (например, при изменениях в обход сервисов).
+ * События, зафиксированные во время пересчёта, повторно применяются к его результату:
+ * события несут итоговое состояние записи, поэтому повторное применение безопасно.
+ */
+@Component
+public class InventoryValuationEngine implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryValuationEngine.class);
+
+    private final ProductRepository productRepository;
+
+    private final WarehouseInStockRepository warehouseInStockRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ValuationProperties properties;
+
+    private final ShardRouter shardRouter;
+
+    private final ExecutorService executor;
+
+    private final Object recomputeLock = new Object();
+
+    /**
+     * Текущие итоги; null до первого расчёта. Защищено монитором this.
+     */
+    private ValuationState state;
+
+    /**
+     * События, зафиксированные во время пересчёта; null вне пересчёта. Защищено монитором this.
+     */
+    private List<InventoryChangeEvent> pendingEvents;
+
+    public InventoryValuationEngine(ProductRepository productRepository,
+                                    WarehouseInStockRepository warehouseInStockRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    ValuationProperties properties,
+                                    ShardRouter shardRouter) {
+        this.productRepository = productRepository;
+        this.warehouseInStockRepository = warehouseInStockRepository;
+        // Пересчёт читает основную базу (транзакция не readOnly), чтобы снимок
+        // не отставал от событий, которые будут к нему применены
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(properties.getRecomputeThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "valuation-recompute-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Учёт зафиксированного изменения остатка или товара.
+     *
+     * @param event событие изменения
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onInventoryChange(InventoryChangeEvent event) {
+        if (pendingEvents != null) {
+            pendingEvents.add(event);
+        }
+        if (state != null) {
+            apply(state, event);
+        }
+    }
+
+    /**
+     * Оценка запасов с группировкой.
+     *
+     * @param group признак группировки
+     * @return итоги по группам, упорядоченные по ключу, и общий итог
+     */
+    public InventoryValuationDTO valuation(ValuationGroup group) {
+        synchronized (recomputeLock) {
+            if (currentState() == null) {
+                recompute();
+            }
+        }
+        synchronized (this) {
+            List<InventoryValuationDTO.Line> lines = new ArrayList<>();
+            for (Map.Entry<?, ValuationTotals> entry : state.totals(group).entrySet()) {
+                lines.add(line(String.valueOf(entry.getKey()), entry.getValue()));
+            }
+            lines.sort(group == ValuationGroup.WAREHOUSE
+                    ? Comparator.comparing(line -> Long.parseLong(line.getKey()))
+                    : Comparator.comparing(InventoryValuationDTO.Line::getKey));
+            return new InventoryValuationDTO(group.name(), lines, line("TOTAL", state.total()));
+        }
+    }
+
+    /**
+     * Периодический полный пересчёт.
+     */
+    @Scheduled(initialDelayString = "${app.valuation.recompute-interval-ms:600000}",
+            fixedDelayString = "${app.valuation.recompute-interval-ms:600000}")
+    public void scheduledRecompute() {
+        try {
+            recompute();
+        } catch (RuntimeException ex) {
+            logger.error("Ошибка пересчёта оценки запасов", ex);
+        }
+    }
+
+    /**
+     * Полный пересчёт итогов по данным базы.
+     */
+    public void recompute() {
+        synchronized (recomputeLock) {
+            long started = System.nanoTime();
+            synchronized (this) {
+                pendingEvents = new ArrayList<>();
+            }
+            try {
+                ValuationState fresh = load();
+                int replayed;
+                synchronized (this) {
+                    pendingEvents.forEach(event -> apply(fresh, event));
+                    replayed = pendingEvents.size();
+                    state = fresh;
+                }
+                logger.info("Оценка запасов пересчитана за {} мс: товаров {}, остатков {}, повторно применено событий {}",
+                        (System.nanoTime() - started) / 1_000_000, fresh.productCount(), fresh.stockCount(), replayed);
+            } finally {
+                synchronized (this) {
+                    pendingEvents = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private synchronized ValuationState currentState() {
+        return state;
+    }
+
+    private ValuationState load() {
+        ValuationState fresh = new ValuationState();
+
+        Long maxProductId = transactionTemplate.execute(status -> productRepository.findMaxId());
+        for (List<ProductPrice> prices : inParallel(0, maxProductId, productRepository::findPricesByIdBetween)) {
+            prices.forEach(fresh::putProduct);
+        }
+
+        // Цены товаров после загрузки только читаются, поэтому частичные
+        // состояния строятся параллельно и затем объединяются; остатки читаются с каждого сегмента
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Long maxStockId = ShardContext.callOn(shard,
+                    () -> transactionTemplate.execute(status -> warehouseInStockRepository.findMaxId()));
+            List<ValuationState> partials = inParallel(shard, maxStockId, (fromId, toId) -> {
+                ValuationState partial = fresh.partial();
+                warehouseInStockRepository.findPositionsByIdBetween(fromId, toId).forEach(partial::putStock);
+                return partial;
+            });
+            partials.forEach(fresh::merge);
+        }
+        return fresh;
+    }
+
+    /**
+     * Выполнение задачи над диапазонами идентификаторов 1..maxId сегмента в пуле потоков пересчёта.
+     */
+    private <T> List<T> inParallel(int shard, long maxId, BiFunction<Long, Long, T> task) {
+        List<Future<T>> futures = new ArrayList<>();
+        int chunk = properties.getRecomputeChunkSize();
+        for (long fromId = 1; fromId <= maxId; fromId += chunk) {
+            long from = fromId;
+            long to = Math.min(maxId, fromId + chunk - 1);
+            futures.add(executor.submit(() -> ShardContext.callOn(shard,
+                    () -> transactionTemplate.execute(status -> task.apply(from, to)))));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Пересчёт оценки запасов прерван", ex);
+        } catch (ExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Ошибка пересчёта оценки запасов", ex.getCause());
+        }
+        return results;
+    }
+
+    private static void apply(ValuationState target, InventoryChangeEvent event) {
+        switch (event.getEntityType()) {
+            case STOCK -> {
+                if (event.getChangeType() == InventoryChangeEvent.ChangeType.DELETED) {
+                    target.removeStock(event.getEntityId());
+                } else {
+                    WarehouseInStockDTO stock = (WarehouseInStockDTO) event.getPayload();
+                    target.putStock(stock.getId(), stock.getProductId(), stock.getWarehouseId(), stock.getCurrentQuantity());
+                }
+            }
+            case PRODUCT -> {
+                if (event.getChangeType() == InventoryChangeEvent.ChangeType.DELETED) {
+                    target.removeProduct(event.getEntityId());
+                } else {
+                    ProductDTO product = (ProductDTO) event.getPayload();
+                    target.putProduct(product.getId(), MinorUnits.of(product.getPurchasePrice()),
+                            MinorUnits.of(product.getSellingPrice()), product.getCategory(), product.getManufacturer());
+                }
+            }
+            case WAREHOUSE -> {
+                // Склад удаляется только без остатков, а его атрибуты на оценку не влияют
+            }
+        }
+    }
+
+    private static InventoryValuationDTO.Line line(String key, ValuationTotals totals) {
+        return new InventoryValuationDTO.Line(key, totals.quantity(),
+                MinorUnits.toDecimal(totals.purchaseValue()), MinorUnits.toDecimal(totals.sellingValue()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.api.cargosimpleserver.Valuation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Денежные суммы в копейках.
+ * <p>
+ * Цены хранятся в базе с двумя знаками после запятой, поэтому сумма
+ * в копейках — целое число и складывается без потери точности.
+ * Переполнение long приводит к ArithmeticException, а не к неверному результату.
+ */
+public final class MinorUnits {
+
+    /**
+     * Число знаков после запятой в ценах (DECIMAL(38, 2)).
+     */
+    public static final int SCALE = 2;
+
+    private MinorUnits() {
+    }
+
+    /**
+     * Перевод цены в копейки.
+     * <p>
+     * Лишние знаки округляются так же, как при сохранении в DECIMAL(38, 2).
+     *
+     * @param amount сумма, null считается нулём
+     * @return сумма в копейках
+     */
+    public static long of(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Перевод суммы в копейках в BigDecimal.
+     *
+     * @param minor сумма в копейках
+     * @return сумма с двумя знаками после запятой
+     */
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+}
@@ -0,0 +1,10 @@
+package com.api.cargosimpleserver.Valuation;
+
+import java.math.BigDecimal;
+
+/**
+ * Цены и группировочные признаки товара для пересчёта оценки.
+ */
+public record ProductPrice(Long id, BigDecimal purchasePrice, BigDecimal sellingPrice,
+                           String category, String manufacturer) {
+}
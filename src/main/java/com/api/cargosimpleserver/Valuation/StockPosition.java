@@ -0,0 +1,7 @@
+package com.api.cargosimpleserver.Valuation;
+
+/**
+ * Складской остаток для пересчёта оценки.
+ */
+public record StockPosition(Long id, Long productId, Long warehouseId, Integer quantity) {
+}
@@ -0,0 +1,10 @@
+package com.api.cargosimpleserver.Valuation;
+
+/**
+ * Признак группировки оценки запасов.
+ */
+public enum ValuationGroup {
+    WAREHOUSE,
+    CATEGORY,
+    MANUFACTURER
+}
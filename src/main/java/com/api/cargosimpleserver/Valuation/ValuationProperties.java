@@ -0,0 +1,30 @@
+package com.api.cargosimpleserver.Valuation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки оценки складских запасов.
+ * <p>
+ * Значения задаются в application.properties с префиксом {@code app.valuation}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.valuation")
+public class ValuationProperties {
+
+    /**
+     * Интервал полного пересчёта, исправляющего возможное расхождение
+     * инкрементальных итогов с базой.
+     */
+    private long recomputeIntervalMs = 600_000;
+
+    /**
+     * Количество потоков полного пересчёта (каждый со своим соединением).
+     */
+    private int recomputeThreads = 4;
+
+    /**
+     * Ширина диапазона идентификаторов, читаемого одной задачей пересчёта.
+     */
+    private int recomputeChunkSize = 50_000;
+}
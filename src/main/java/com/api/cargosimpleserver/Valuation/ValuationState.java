@@ -0,0 +1,216 @@
+package com.api.cargosimpleserver.Valuation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Итоги оценки запасов и состояние, необходимое для их инкрементального обновления.
+ * <p>
+ * Хранит:
+ * - Цены и группировочные признаки каждого товара, а также его количество по складам
+ * - Товар, склад и количество каждого складского остатка
+ * - Итоги по складам, категориям, производителям и общий итог в копейках
+ * <p>
+ * Изменение остатка или товара вычитает прежний вклад и добавляет новый,
+ * поэтому повторное применение одного и того же состояния ничего не меняет.
+ * Класс не потокобезопасен.
+ */
+final class ValuationState {
+
+    private static final class ProductState {
+
+        private long purchasePrice;
+
+        private long sellingPrice;
+
+        private String category = "";
+
+        private String manufacturer = "";
+
+        private long quantity;
+
+        private final Map<Long, Long> quantityByWarehouse = new HashMap<>(4);
+
+        private ProductState copyPrices() {
+            ProductState copy = new ProductState();
+            copy.purchasePrice = purchasePrice;
+            copy.sellingPrice = sellingPrice;
+            copy.category = category;
+            copy.manufacturer = manufacturer;
+            return copy;
+        }
+    }
+
+    private record StockState(long productId, long warehouseId, long quantity) {
+    }
+
+    private final Map<Long, ProductState> priceBook;
+
+    private final Map<Long, ProductState> products = new HashMap<>();
+
+    private final Map<Long, StockState> stocks = new HashMap<>();
+
+    private final Map<Long, ValuationTotals> byWarehouse = new HashMap<>();
+
+    private final Map<String, ValuationTotals> byCategory = new HashMap<>();
+
+    private final Map<String, ValuationTotals> byManufacturer = new HashMap<>();
+
+    private final ValuationTotals total = new ValuationTotals();
+
+    ValuationState() {
+        this.priceBook = Map.of();
+    }
+
+    private ValuationState(Map<Long, ProductState> priceBook) {
+        this.priceBook = priceBook;
+    }
+
+    /**
+     * Частичное состояние для параллельного пересчёта диапазона остатков.
+     * <p>
+     * Цены товаров берутся из этого состояния только для чтения;
+     * результат объединяется с ним методом {@link #merge(ValuationState)}.
+     *
+     * @return пустое состояние с общими ценами товаров
+     */
+    ValuationState partial() {
+        return new ValuationState(products);
+    }
+
+    void putProduct(ProductPrice price) {
+        putProduct(price.id(), MinorUnits.of(price.purchasePrice()), MinorUnits.of(price.sellingPrice()),
+                price.category(), price.manufacturer());
+    }
+
+    /**
+     * Установка цен и признаков товара с переоценкой его остатков.
+     */
+    void putProduct(long id, long purchasePrice, long sellingPrice, String category, String manufacturer) {
+        ProductState product = products.computeIfAbsent(id, key -> new ProductState());
+        applyProduct(product, -1);
+        product.purchasePrice = purchasePrice;
+        product.sellingPrice = sellingPrice;
+        product.category = Objects.toString(category, "");
+        product.manufacturer = Objects.toString(manufacturer, "");
+        applyProduct(product, 1);
+    }
+
+    /**
+     * Удаление товара. Товар, у которого ещё учтены остатки, сохраняется
+     * до удаления этих остатков.
+     */
+    void removeProduct(long id) {
+        ProductState product = products.get(id);
+        if (product != null && product.quantityByWarehouse.isEmpty()) {
+            products.remove(id);
+        }
+    }
+
+    void putStock(StockPosition position) {
+        putStock(position.id(), position.productId(), position.warehouseId(), position.quantity());
+    }
+
+    /**
+     * Установка товара, склада и количества остатка.
+     */
+    void putStock(long id, long productId, long warehouseId, long quantity) {
+        removeStock(id);
+        stocks.put(id, new StockState(productId, warehouseId, quantity));
+        applyPosition(product(productId), warehouseId, quantity);
+    }
+
+    void removeStock(long id) {
+        StockState previous = stocks.remove(id);
+        if (previous != null) {
+            applyPosition(product(previous.productId()), previous.warehouseId(), -previous.quantity());
+        }
+    }
+
+    /**
+     * Добавление частичного состояния с непересекающимся набором остатков.
+     */
+    void merge(ValuationState partial) {
+        stocks.putAll(partial.stocks);
+        partial.products.forEach((id, source) -> {
+            ProductState target = products.computeIfAbsent(id, key -> source.copyPrices());
+            target.quantity = Math.addExact(target.quantity, source.quantity);
+            source.quantityByWarehouse.forEach((warehouseId, quantity) ->
+                    target.quantityByWarehouse.merge(warehouseId, quantity, Math::addExact));
+        });
+        mergeTotals(byWarehouse, partial.byWarehouse);
+        mergeTotals(byCategory, partial.byCategory);
+        mergeTotals(byManufacturer, partial.byManufacturer);
+        total.add(partial.total);
+    }
+
+    Map<?, ValuationTotals> totals(ValuationGroup group) {
+        return switch (group) {
+            case WAREHOUSE -> byWarehouse;
+            case CATEGORY -> byCategory;
+            case MANUFACTURER -> byManufacturer;
+        };
+    }
+
+    ValuationTotals total() {
+        return total;
+    }
+
+    int stockCount() {
+        return stocks.size();
+    }
+
+    int productCount() {
+        return products.size();
+    }
+
+    private ProductState product(long id) {
+        ProductState product = products.get(id);
+        if (product == null) {
+            ProductState known = priceBook.get(id);
+            product = known != null ? known.copyPrices() : new ProductState();
+            products.put(id, product);
+        }
+        return product;
+    }
+
+    private void applyPosition(ProductState product, long warehouseId, long quantity) {
+        product.quantity = Math.addExact(product.quantity, quantity);
+        Long merged = product.quantityByWarehouse.merge(warehouseId, quantity, Math::addExact);
+        if (merged != null && merged == 0) {
+            product.quantityByWarehouse.remove(warehouseId);
+        }
+        add(byWarehouse, warehouseId, quantity, product);
+        add(byCategory, product.category, quantity, product);
+        add(byManufacturer, product.manufacturer, quantity, product);
+        total.add(quantity, product.purchasePrice, product.sellingPrice);
+    }
+
+    /**
+     * Добавление (sign = 1) или вычитание (sign = -1) всех остатков товара по его текущим ценам.
+     */
+    private void applyProduct(ProductState product, int sign) {
+        if (product.quantity == 0 && product.quantityByWarehouse.isEmpty()) {
+            return;
+        }
+        product.quantityByWarehouse.forEach((warehouseId, quantity) ->
+                add(byWarehouse, warehouseId, sign * quantity, product));
+        long quantity = sign * product.quantity;
+        add(byCategory, product.category, quantity, product);
+        add(byManufacturer, product.manufacturer, quantity, product);
+        total.add(quantity, product.purchasePrice, product.sellingPrice);
+    }
+
+    private static <K> void add(Map<K, ValuationTotals> totals, K key, long quantity, ProductState product) {
+        ValuationTotals group = totals.computeIfAbsent(key, k -> new ValuationTotals());
+        group.add(quantity, product.purchasePrice, product.sellingPrice);
+        if (group.isEmpty()) {
+            totals.remove(key);
+        }
+    }
+
+    private static <K> void mergeTotals(Map<K, ValuationTotals> target, Map<K, ValuationTotals> source) {
+        source.forEach((key, totals) -> target.computeIfAbsent(key, k -> new ValuationTotals()).add(totals));
+    }
+}
@@ -0,0 +1,48 @@
+package com.api.cargosimpleserver.Valuation;
+
+/**
+ * Итоги оценки одной группы: количество и стоимость по ценам закупки и продажи в копейках.
+ */
+final class ValuationTotals {
+
+    private long quantity;
+
+    private long purchaseValue;
+
+    private long sellingValue;
+
+    /**
+     * Добавление (или вычитание при отрицательном количестве) позиции.
+     *
+     * @param quantityDelta изменение количества
+     * @param purchasePrice цена закупки в копейках
+     * @param sellingPrice цена продажи в копейках
+     */
+    void add(long quantityDelta, long purchasePrice, long sellingPrice) {
+        quantity = Math.addExact(quantity, quantityDelta);
+        purchaseValue = Math.addExact(purchaseValue, Math.multiplyExact(quantityDelta, purchasePrice));
+        sellingValue = Math.addExact(sellingValue, Math.multiplyExact(quantityDelta, sellingPrice));
+    }
+
+    void add(ValuationTotals other) {
+        quantity = Math.addExact(quantity, other.quantity);
+        purchaseValue = Math.addExact(purchaseValue, other.purchaseValue);
+        sellingValue = Math.addExact(sellingValue, other.sellingValue);
+    }
+
+    boolean isEmpty() {
+        return quantity == 0 && purchaseValue == 0 && sellingValue == 0;
+    }
+
+    long quantity() {
+        return quantity;
+    }
+
+    long purchaseValue() {
+        return purchaseValue;
+    }
+
+    long sellingValue() {
+        return sellingValue;
+    }
+}
@@ -0,0 +1,59 @@
+-- Исходная схема в том виде, в котором её создавал Hibernate (ddl-auto=update).
+-- На существующих базах эта миграция не выполняется: Flyway фиксирует для них базовую версию 1.
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS products (
+    id              BIGINT         NOT NULL AUTO_INCREMENT,
+    article_number  VARCHAR(255)   NOT NULL,
+    name            VARCHAR(255)   NOT NULL,
+    description     VARCHAR(255)   NOT NULL,
+    category        VARCHAR(255)   NOT NULL,
+    manufacturer    VARCHAR(255)   NOT NULL,
+    purchase_price  DECIMAL(38, 2) NOT NULL,
+    selling_price   DECIMAL(38, 2) NOT NULL,
+    min_stock_level INT            NOT NULL,
+    max_stock_level INT            NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_products_article_number UNIQUE (article_number)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS warehouses (
+    id             BIGINT                      NOT NULL AUTO_INCREMENT,
+    name           VARCHAR(255)                NOT NULL,
+    address        VARCHAR(255)                NOT NULL,
+    contact_person VARCHAR(255)                NOT NULL,
+    phone          VARCHAR(255)                NOT NULL,
+    email          VARCHAR(255)                NOT NULL,
+    capacity       INT                         NOT NULL,
+    status         ENUM ('ACTIVE', 'INACTIVE') NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS warehouse_stocks (
+    id                BIGINT       NOT NULL AUTO_INCREMENT,
+    product_id        BIGINT,
+    warehouse_id      BIGINT,
+    current_quantity  INT          NOT NULL,
+    reserved_quantity INT          NOT NULL,
+    location          VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_warehouse_stocks_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_warehouse_stocks_warehouse FOREIGN KEY (warehouse_id) REFERENCES warehouses (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(255) NOT NULL,
+    fingerprint     VARCHAR(64)  NOT NULL,
+    status          INT          NOT NULL,
+    content_type    VARCHAR(255),
+    body            LONGBLOB,
+    created_at      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (idempotency_key)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci;
@@ -0,0 +1,20 @@
+-- Индексы под запросы WarehouseInStockRepository.
+
+-- existsByProductIdAndWarehouseId, existsByProductId, findByProductId:
+-- одна запись на пару товар–склад, поиск по товару идёт по левому префиксу.
+ALTER TABLE warehouse_stocks
+    ADD CONSTRAINT uk_warehouse_stocks_product_warehouse UNIQUE (product_id, warehouse_id);
+
+-- countByWarehouseId и getTotalWarehouseQuantity (SUM по складу) читаются только из индекса.
+CREATE INDEX idx_warehouse_stocks_warehouse_quantity
+    ON warehouse_stocks (warehouse_id, current_quantity);
+
+-- getTotalProductQuantity (SUM по товару) читается только из индекса.
+CREATE INDEX idx_warehouse_stocks_product_quantity
+    ON warehouse_stocks (product_id, current_quantity);
+
+-- Очистка устаревших ключей идемпотентности по времени создания.
+CREATE INDEX idx_idempotency_keys_created_at
+    ON idempotency_keys (created_at);
+
+ANALYZE TABLE warehouse_stocks, idempotency_keys;
@@ -0,0 +1,13 @@
+-- Столбцы версий для оптимистической блокировки (@Version):
+-- UPDATE проверяет версию, прочитанную транзакцией, и конкурирующая запись
+-- завершается конфликтом вместо молчаливой перезаписи.
+-- Существующие строки получают версию 0.
+
+ALTER TABLE products
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE warehouses
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE warehouse_stocks
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,8 @@
+-- Постраничный список остатков склада в порядке ячеек (findPageByWarehouse):
+-- фильтр по складу и префиксу локации и сортировка по (location, id) читаются
+-- диапазоном индекса. Первичный ключ InnoDB хранится в каждой записи вторичного индекса,
+-- поэтому id в индекс отдельно не добавляется.
+CREATE INDEX idx_warehouse_stocks_warehouse_location
+    ON warehouse_stocks (warehouse_id, location);
+
+ANALYZE TABLE warehouse_stocks;
@@ -0,0 +1,10 @@
+-- Журнал изменений товаров и складов для согласования кэшей между экземплярами приложения
+CREATE TABLE entity_change_log (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    entity_type VARCHAR(32) NOT NULL,
+    entity_id   BIGINT      NOT NULL,
+    node_id     VARCHAR(64) NOT NULL,
+    changed_at  DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_entity_change_log_changed_at (changed_at)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci;
@@ -0,0 +1,4 @@
+-- Склад изменённой записи в журнале изменений: изменения остатков записываются
+-- со складом, чтобы другие экземпляры обновляли только индексы этого склада
+ALTER TABLE entity_change_log
+    ADD COLUMN warehouse_id BIGINT NULL;
@@ -0,0 +1,14 @@
+-- Счётчик идентификаторов остатков: на сегменте k из N запись получает идентификатор
+-- k + 1 + N * (m - 1), где m — очередное значение этой таблицы (StockIdGenerator).
+-- Шаг задаётся только для остатков, а не настройкой сессии для всех таблиц
+CREATE TABLE stock_id_allocations (
+    id           BIGINT      NOT NULL AUTO_INCREMENT,
+    allocated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci;
+
+-- Новые идентификаторы продолжают уже выданные
+INSERT INTO stock_id_allocations (id, allocated_at)
+SELECT MAX(id), CURRENT_TIMESTAMP(6)
+FROM warehouse_stocks
+HAVING MAX(id) IS NOT NULL;
@@ -0,0 +1,179 @@
+package com.api.cargosimpleserver.Coherence;
+
+import com.api.cargosimpleserver.CargoSimpleServerApplication;
+import com.api.cargosimpleserver.DTO.ProductDTO;
+import com.api.cargosimpleserver.DTO.WarehouseDTO;
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.Exceptions.ProductNotFoundException;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Monitoring.SqlStatementCounter;
+import com.api.cargosimpleserver.Putaway.PutawayEngine;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import com.api.cargosimpleserver.Services.ProductService;
+import com.api.cargosimpleserver.Services.WarehouseInStockService;
+import com.api.cargosimpleserver.Services.WarehouseService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Согласование кэшей двух экземпляров приложения с общей базой.
+ * <p>
+ * Оба экземпляра запускаются в одной JVM со своими HTTP-портами и регионами кэша.
+ * Опрос журнала по расписанию отключён длинным интервалом и вызывается явно,
+ * чтобы проверить и устаревшее значение до опроса, и его удаление после.
+ */
+class CacheCoherenceTest {
+
+    private static final String DATABASE_URL =
+            "jdbc:h2:mem:coherence;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static ConfigurableApplicationContext writer;
+
+    private static ConfigurableApplicationContext reader;
+
+    @BeforeAll
+    static void startInstances() {
+        writer = start("spring.jpa.hibernate.ddl-auto=create-drop");
+        // Второй экземпляр работает с уже созданной схемой
+        reader = start("spring.jpa.hibernate.ddl-auto=none");
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        if (reader != null) {
+            reader.close();
+        }
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    void productChangedOnOneInstanceIsEvictedOnAnother() {
+        ProductService writerProducts = writer.getBean(ProductService.class);
+        ProductService readerProducts = reader.getBean(ProductService.class);
+
+        ProductDTO created = writerProducts.createProduct(productDTO(null, "50000001", "Стол"));
+        readerProducts.getProductById(created.getId());
+        readerProducts.getProductByArticleNumber("50000001");
+        assertEquals(0, sqlCount(() -> readerProducts.getProductById(created.getId())));
+
+        writerProducts.updateProduct(created.getId(), productDTO(created.getId(), "50000002", "Стул"));
+        assertEquals("Стол", readerProducts.getProductById(created.getId()).getName());
+
+        reader.getBean(CacheCoherenceManager.class).poll();
+
+        assertEquals("Стул", readerProducts.getProductById(created.getId()).getName());
+        assertEquals(created.getId(), readerProducts.getProductByArticleNumber("50000002").getId());
+        assertThrows(ProductNotFoundException.class, () -> readerProducts.getProductByArticleNumber("50000001"));
+    }
+
+    @Test
+    void warehouseChangedOnOneInstanceIsEvictedOnAnother() {
+        WarehouseService writerWarehouses = writer.getBean(WarehouseService.class);
+        WarehouseService readerWarehouses = reader.getBean(WarehouseService.class);
+        WarehouseRepository readerRepository = reader.getBean(WarehouseRepository.class);
+
+        WarehouseDTO created = writerWarehouses.createWarehouse(warehouseDTO(null, "Склад Узел"));
+        readerWarehouses.getWarehouseById(created.getId());
+        assertTrue(readerRepository.existsByName("Склад Узел"));
+
+        WarehouseDTO changed = warehouseDTO(created.getId(), "Склад Узел-2");
+        changed.setCapacity(500);
+        writerWarehouses.updateWarehouse(changed);
+        assertEquals(1000, readerWarehouses.getWarehouseById(created.getId()).getCapacity());
+
+        reader.getBean(CacheCoherenceManager.class).poll();
+
+        assertEquals(500, readerWarehouses.getWarehouseById(created.getId()).getCapacity());
+        assertFalse(readerRepository.existsByName("Склад Узел"));
+        assertTrue(readerRepository.existsByName("Склад Узел-2"));
+    }
+
+    @Test
+    void stockChangedOnOneInstanceUpdatesPutawayIndexOfAnother() {
+        WarehouseDTO warehouseDTO = warehouseDTO(null, "Склад Размещение Узел");
+        warehouseDTO.setCapacity(100);
+        WarehouseDTO warehouse = writer.getBean(WarehouseService.class).createWarehouse(warehouseDTO);
+        ProductDTO product = writer.getBean(ProductService.class).createProduct(productDTO(null, "50000011", "Шкаф"));
+        PutawayEngine readerPutaway = reader.getBean(PutawayEngine.class);
+        assertEquals(100, readerPutaway.suggest(warehouse.getId(), product.getId(), 1, 1).getFreeCapacity());
+
+        WarehouseInStockService writerStocks = writer.getBean(WarehouseInStockService.class);
+        writerStocks.createWarehouseStock(stockDTO(product, warehouse, 30));
+        assertEquals(100, readerPutaway.suggest(warehouse.getId(), product.getId(), 1, 1).getFreeCapacity());
+
+        reader.getBean(CacheCoherenceManager.class).poll();
+
+        assertEquals(70, readerPutaway.suggest(warehouse.getId(), product.getId(), 1, 1).getFreeCapacity());
+    }
+
+    private static ConfigurableApplicationContext start(String ddlAuto) {
+        // Аргументы командной строки, а не свойства по умолчанию: те уступают application.properties
+        return new SpringApplicationBuilder(CargoSimpleServerApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=" + DATABASE_URL,
+                        "--" + ddlAuto,
+                        "--server.port=0",
+                        "--app.cache-coherence.poll-interval-ms=3600000");
+    }
+
+    private static int sqlCount(Supplier<?> action) {
+        SqlStatementCounter.start();
+        try {
+            action.get();
+            return SqlStatementCounter.current().getTotalCount();
+        } finally {
+            SqlStatementCounter.stop();
+        }
+    }
+
+    private static ProductDTO productDTO(Long id, String articleNumber, String name) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        dto.setArticleNumber(articleNumber);
+        dto.setName(name);
+        dto.setDescription("Описание товара");
+        dto.setCategory("Мебель");
+        dto.setManufacturer("Мебельный завод");
+        dto.setPurchasePrice(new BigDecimal("100.00"));
+        dto.setSellingPrice(new BigDecimal("150.00"));
+        dto.setMinStockLevel(1);
+        dto.setMaxStockLevel(100);
+        return dto;
+    }
+
+    private static WarehouseDTO warehouseDTO(Long id, String name) {
+        WarehouseDTO dto = new WarehouseDTO();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setAddress("Складская улица, 1");
+        dto.setContactPerson("Иван Петров");
+        dto.setPhone("+79001234567");
+        dto.setEmail("sklad@example.com");
+        dto.setCapacity(1000);
+        dto.setStatus(WarehouseStatus.ACTIVE);
+        return dto;
+    }
+
+    private static WarehouseInStockDTO stockDTO(ProductDTO product, WarehouseDTO warehouse, int quantity) {
+        WarehouseInStockDTO dto = new WarehouseInStockDTO();
+        dto.setProductId(product.getId());
+        dto.setWarehouseId(warehouse.getId());
+        dto.setCurrentQuantity(quantity);
+        dto.setReservedQuantity(0);
+        dto.setLocation("A1-01");
+        return dto;
+    }
+}
@@ -0,0 +1,272 @@
+package com.api.cargosimpleserver.Concurrency;
+
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Models.WarehouseInStock;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import com.api.cargosimpleserver.Services.WarehouseInStockService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Версии объектов: отказ изменений по устаревшей версии и повтор изменений без версии при конфликте.
+ * <p>
+ * Изменения клиента с версией не повторяются: из конкурирующих изменений одной версии
+ * применяется одно, остальные получают 409 с текущим состоянием объекта.
+ * Изменения без версии повторяются и не теряются; пропускная способность
+ * при конкуренции записывается в журнал теста.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OptimisticRetryTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryTest.class);
+
+    private static final int THREADS = 8;
+
+    private static final int UPDATES_PER_THREAD = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WarehouseInStockService warehouseInStockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseInStockRepository warehouseInStockRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OptimisticRetryProperties retryProperties;
+
+    private int defaultMaxAttempts;
+
+    @BeforeEach
+    void setUp() {
+        // При восьми потоках на одну запись пяти попыток может не хватить
+        defaultMaxAttempts = retryProperties.getMaxAttempts();
+        retryProperties.setMaxAttempts(50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        retryProperties.setMaxAttempts(defaultMaxAttempts);
+        warehouseInStockRepository.deleteAll();
+        productRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentUpdatesOfOneVersionApplyOnce() throws Exception {
+        WarehouseInStock stock = stock();
+        WarehouseInStockDTO read = warehouseInStockService.getWarehouseStockById(stock.getId());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    WarehouseInStockDTO dto = warehouseInStockService.getWarehouseStockById(stock.getId());
+                    dto.setVersion(read.getVersion());
+                    dto.setLocation("T" + thread);
+                    start.await();
+                    try {
+                        warehouseInStockService.updateWarehouseStock(dto);
+                        return true;
+                    } catch (OptimisticConflictException | ObjectOptimisticLockingFailureException ex) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int applied = 0;
+            for (Future<Boolean> result : results) {
+                applied += result.get() ? 1 : 0;
+            }
+
+            assertEquals(1, applied);
+            WarehouseInStock reloaded = warehouseInStockRepository.findById(stock.getId()).orElseThrow();
+            assertEquals(read.getVersion() + 1, reloaded.getVersion());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentUpdatesWithoutVersionAreRetriedAndNotLost() throws Exception {
+        WarehouseInStock stock = stock();
+        String url = "/api/warehouse-stocks/" + stock.getId();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                        mockMvc.perform(patch(url)
+                                        .contentType("application/merge-patch+json")
+                                        .content("{\"location\":\"T" + thread + "-" + i + "\"}"))
+                                .andExpect(status().isOk());
+                    }
+                    return null;
+                }));
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+            int updates = THREADS * UPDATES_PER_THREAD;
+            double retries = meterRegistry.find("cargo.optimistic.conflicts")
+                    .tag("operation", "WarehouseInStockService.patchWarehouseStock")
+                    .tag("outcome", "retried")
+                    .counters().stream().mapToDouble(counter -> counter.count()).sum();
+            logger.info("Изменений одной записи без версии: {} за {} с ({} в секунду), повторов: {}",
+                    updates, String.format("%.2f", seconds), Math.round(updates / seconds), (long) retries);
+
+            WarehouseInStock reloaded = warehouseInStockRepository.findById(stock.getId()).orElseThrow();
+            assertEquals(stock.getVersion() + updates, reloaded.getVersion());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void staleVersionIsRejectedWithCurrentState() throws Exception {
+        WarehouseInStock stock = stock();
+        String url = "/api/warehouse-stocks/" + stock.getId();
+
+        MvcResult read = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+        String eTag = read.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"" + stock.getVersion() + "\"", eTag);
+
+        mockMvc.perform(patch(url)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"location\":\"B2-02\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (stock.getVersion() + 1) + "\""));
+
+        mockMvc.perform(patch(url)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"location\":\"C3-03\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errors.currentState.location").value("B2-02"))
+                .andExpect(jsonPath("$.errors.currentState.version").value(stock.getVersion() + 1));
+
+        WarehouseInStockDTO stale = warehouseInStockService.getWarehouseStockById(stock.getId());
+        stale.setVersion(stock.getVersion());
+        assertThrows(OptimisticConflictException.class, () -> warehouseInStockService.updateWarehouseStock(stale));
+        assertEquals("B2-02", warehouseInStockRepository.findById(stock.getId()).orElseThrow().getLocation());
+    }
+
+    @Test
+    void exhaustedRetriesReportEntityAndCountOutcomes() throws Throwable {
+        OptimisticRetryProperties properties = new OptimisticRetryProperties();
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoff(Duration.ZERO);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OptimisticRetryAspect aspect = new OptimisticRetryAspect(properties, registry);
+
+        Signature signature = mock(Signature.class);
+        when(signature.getDeclaringType()).thenReturn(WarehouseInStockService.class);
+        when(signature.getName()).thenReturn("patchWarehouseStock");
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenThrow(new ObjectOptimisticLockingFailureException(WarehouseInStock.class, 7L));
+
+        RetryOnConflict retryOnConflict = WarehouseInStockService.class
+                .getMethod("deleteWarehouseStock", Long.class).getAnnotation(RetryOnConflict.class);
+
+        OptimisticConflictException ex = assertThrows(OptimisticConflictException.class,
+                () -> aspect.retry(joinPoint, retryOnConflict));
+
+        assertEquals(WarehouseInStock.class.getName(), ex.getEntityName());
+        assertEquals(7L, ex.getEntityId());
+        assertEquals(2, registry.get("cargo.optimistic.conflicts").tag("outcome", "retried").counter().count());
+        assertEquals(1, registry.get("cargo.optimistic.conflicts").tag("outcome", "exhausted").counter().count());
+    }
+
+    private WarehouseInStock stock() {
+        Product product = new Product();
+        product.setArticleNumber("50000001");
+        product.setName("Товар");
+        product.setDescription("Описание товара");
+        product.setCategory("Мебель");
+        product.setManufacturer("Мебельный завод");
+        product.setPurchasePrice(new BigDecimal("100.00"));
+        product.setSellingPrice(new BigDecimal("150.00"));
+        product.setMinStockLevel(1);
+        product.setMaxStockLevel(100);
+
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName("Склад Конкуренция");
+        warehouse.setAddress("Складская улица, 1");
+        warehouse.setContactPerson("Иван Петров");
+        warehouse.setPhone("+79001234567");
+        warehouse.setEmail("sklad@example.com");
+        warehouse.setCapacity(1000);
+        warehouse.setStatus(WarehouseStatus.ACTIVE);
+
+        WarehouseInStock stock = new WarehouseInStock();
+        stock.setProduct(productRepository.save(product));
+        stock.setWarehouse(warehouseRepository.save(warehouse));
+        stock.setCurrentQuantity(10);
+        stock.setReservedQuantity(0);
+        stock.setLocation("A1-01");
+        return warehouseInStockRepository.save(stock);
+    }
+}
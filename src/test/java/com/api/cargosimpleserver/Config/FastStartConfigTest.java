@@ -0,0 +1,47 @@
+package com.api.cargosimpleserver.Config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Бины с периодическими задачами создаются при старте и в режиме быстрого старта.
+ */
+class FastStartConfigTest {
+
+    @Test
+    void scheduledBeansAreExcludedFromLazyInitialization() throws ClassNotFoundException {
+        LazyInitializationExcludeFilter filter = FastStartConfig.eagerInfrastructureBeans();
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Component.class));
+
+        List<String> scheduled = new ArrayList<>();
+        List<String> lazy = new ArrayList<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents("com.api.cargosimpleserver")) {
+            Class<?> type = ClassUtils.forName(candidate.getBeanClassName(), getClass().getClassLoader());
+            if (Arrays.stream(type.getDeclaredMethods()).noneMatch(method -> method.isAnnotationPresent(Scheduled.class))) {
+                continue;
+            }
+            scheduled.add(type.getSimpleName());
+            if (!filter.isExcluded(type.getSimpleName(), new RootBeanDefinition(type), type)) {
+                lazy.add(type.getSimpleName());
+            }
+        }
+
+        assertFalse(scheduled.isEmpty());
+        assertEquals(List.of(), lazy);
+    }
+}
@@ -0,0 +1,132 @@
+package com.api.cargosimpleserver.Controllers;
+
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Models.WarehouseInStock;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Пакетное получение товаров, складов и записей о запасах в порядке запрошенных идентификаторов.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseInStockRepository warehouseInStockRepository;
+
+    private Product product;
+
+    private Product otherProduct;
+
+    private Warehouse warehouse;
+
+    private WarehouseInStock stock;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(product("11000001"));
+        otherProduct = productRepository.save(product("11000002"));
+        warehouse = warehouseRepository.save(warehouse("Склад Пакет", 1000));
+        stock = warehouseInStockRepository.save(stock(product, warehouse, 10, "A1-01"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        warehouseInStockRepository.deleteAll();
+        productRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    void itemsFollowRequestedOrderAndMissingIdsAreMarked() throws Exception {
+        String ids = otherProduct.getId() + ",999999," + product.getId();
+        mockMvc.perform(get("/api/products").param("ids", ids))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(otherProduct.getId()))
+                .andExpect(jsonPath("$[0].found").value(true))
+                .andExpect(jsonPath("$[1].id").value(999999))
+                .andExpect(jsonPath("$[1].found").value(false))
+                .andExpect(jsonPath("$[2].data.articleNumber").value("11000001"));
+
+        mockMvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + ids + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[2].id").value(product.getId()));
+
+        mockMvc.perform(get("/api/warehouses").param("ids", "999999," + warehouse.getId()))
+                .andExpect(jsonPath("$[0].found").value(false))
+                .andExpect(jsonPath("$[1].data.name").value("Склад Пакет"));
+
+        mockMvc.perform(get("/api/warehouse-stocks").param("ids", stock.getId() + ",999999"))
+                .andExpect(jsonPath("$[0].data.productId").value(product.getId()))
+                .andExpect(jsonPath("$[0].data.warehouseId").value(warehouse.getId()))
+                .andExpect(jsonPath("$[1].found").value(false));
+    }
+
+    private static Product product(String articleNumber) {
+        Product product = new Product();
+        product.setArticleNumber(articleNumber);
+        product.setName("Товар " + articleNumber);
+        product.setDescription("Описание товара");
+        product.setCategory("Мебель");
+        product.setManufacturer("Мебельный завод");
+        product.setPurchasePrice(new BigDecimal("100.00"));
+        product.setSellingPrice(new BigDecimal("150.00"));
+        product.setMinStockLevel(1);
+        product.setMaxStockLevel(100);
+        return product;
+    }
+
+    private static Warehouse warehouse(String name, int capacity) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName(name);
+        warehouse.setAddress("Складская улица, 1");
+        warehouse.setContactPerson("Иван Петров");
+        warehouse.setPhone("+79001234567");
+        warehouse.setEmail("sklad@example.com");
+        warehouse.setCapacity(capacity);
+        warehouse.setStatus(WarehouseStatus.ACTIVE);
+        return warehouse;
+    }
+
+    private static WarehouseInStock stock(Product product, Warehouse warehouse, int quantity, String location) {
+        WarehouseInStock stock = new WarehouseInStock();
+        stock.setProduct(product);
+        stock.setWarehouse(warehouse);
+        stock.setCurrentQuantity(quantity);
+        stock.setReservedQuantity(0);
+        stock.setLocation(location);
+        return stock;
+    }
+}
@@ -0,0 +1,156 @@
+package com.api.cargosimpleserver.Controllers;
+
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Models.WarehouseInStock;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Monitoring.SqlStatementCounter;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Частичное обновление товаров и записей о запасах (JSON Merge Patch).
+ * <p>
+ * UPDATE содержит только изменённые столбцы; неверный патч не выполняет записи.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PatchEndpointTest {
+
+    private static final MediaType MERGE_PATCH = MediaType.parseMediaType("application/merge-patch+json");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseInStockRepository warehouseInStockRepository;
+
+    private Product product;
+
+    private WarehouseInStock stock;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(product("12000001"));
+        stock = warehouseInStockRepository.save(stock(product,
+                warehouseRepository.save(warehouse("Склад Патч", 1000)), 12, "A1-01"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        warehouseInStockRepository.deleteAll();
+        productRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    void stockPatchUpdatesOnlyChangedColumns() throws Exception {
+        SqlStatementCounter.start();
+        try {
+            mockMvc.perform(patch("/api/warehouse-stocks/" + stock.getId()).contentType(MERGE_PATCH)
+                            .content("{\"currentQuantity\":11,\"location\":null}"))
+                    .andExpect(status().isBadRequest());
+            SqlStatementCounter.assertUpdateCount(0);
+
+            mockMvc.perform(patch("/api/warehouse-stocks/" + stock.getId()).contentType(MERGE_PATCH)
+                            .content("{\"reservedQuantity\":3}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.currentQuantity").value(12))
+                    .andExpect(jsonPath("$.reservedQuantity").value(3));
+            SqlStatementCounter.assertUpdateCount(1);
+            String update = firstUpdate();
+            assertTrue(update.contains("reserved_quantity"), update);
+            assertFalse(update.contains("current_quantity") || update.contains("location")
+                    || update.contains("product_id"), update);
+        } finally {
+            SqlStatementCounter.stop();
+        }
+    }
+
+    @Test
+    void productPatchUpdatesOnlyChangedColumns() throws Exception {
+        SqlStatementCounter.start();
+        try {
+            mockMvc.perform(patch("/api/products/" + product.getId()).contentType(MERGE_PATCH)
+                            .content("{\"name\":\"Новое название\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name").value("Новое название"))
+                    .andExpect(jsonPath("$.articleNumber").value("12000001"));
+            SqlStatementCounter.assertUpdateCount(1);
+            String update = firstUpdate();
+            assertTrue(update.contains("name"), update);
+            assertFalse(update.contains("article_number") || update.contains("selling_price"), update);
+        } finally {
+            SqlStatementCounter.stop();
+        }
+    }
+
+    private static String firstUpdate() {
+        return SqlStatementCounter.current().getStatements().stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("update"))
+                .findFirst()
+                .orElseThrow()
+                .toLowerCase();
+    }
+
+    private static Product product(String articleNumber) {
+        Product product = new Product();
+        product.setArticleNumber(articleNumber);
+        product.setName("Товар " + articleNumber);
+        product.setDescription("Описание товара");
+        product.setCategory("Мебель");
+        product.setManufacturer("Мебельный завод");
+        product.setPurchasePrice(new BigDecimal("100.00"));
+        product.setSellingPrice(new BigDecimal("150.00"));
+        product.setMinStockLevel(1);
+        product.setMaxStockLevel(100);
+        return product;
+    }
+
+    private static Warehouse warehouse(String name, int capacity) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName(name);
+        warehouse.setAddress("Складская улица, 1");
+        warehouse.setContactPerson("Иван Петров");
+        warehouse.setPhone("+79001234567");
+        warehouse.setEmail("sklad@example.com");
+        warehouse.setCapacity(capacity);
+        warehouse.setStatus(WarehouseStatus.ACTIVE);
+        return warehouse;
+    }
+
+    private static WarehouseInStock stock(Product product, Warehouse warehouse, int quantity, String location) {
+        WarehouseInStock stock = new WarehouseInStock();
+        stock.setProduct(product);
+        stock.setWarehouse(warehouse);
+        stock.setCurrentQuantity(quantity);
+        stock.setReservedQuantity(0);
+        stock.setLocation(location);
+        return stock;
+    }
+}
@@ -0,0 +1,331 @@
+package com.api.cargosimpleserver.Controllers;
+
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Models.WarehouseInStock;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Monitoring.SqlStatementCounter;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.UserRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import com.api.cargosimpleserver.Reports.LowStockReport;
+import com.api.cargosimpleserver.Reports.ReportGenerator;
+import com.api.cargosimpleserver.Reports.ReportJobService;
+import com.api.cargosimpleserver.Reports.ReportStatus;
+import com.api.cargosimpleserver.Reports.StockDumpReport;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджеты SQL-запросов для эндпоинтов контроллеров.
+ * <p>
+ * Рост числа запросов (например, N+1) относительно закреплённого бюджета
+ * приводит к падению сборки. Поведение эндпоинтов проверяется тестами соответствующих функций.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseInStockRepository warehouseInStockRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private StockDumpReport stockDumpReport;
+
+    @Autowired
+    private LowStockReport lowStockReport;
+
+    private Product product;
+
+    private Product otherProduct;
+
+    private Warehouse warehouse;
+
+    private Warehouse emptyWarehouse;
+
+    private WarehouseInStock stock;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(product("10000001"));
+        otherProduct = productRepository.save(product("10000002"));
+        warehouse = warehouseRepository.save(warehouse("Склад Север", 1000));
+        emptyWarehouse = warehouseRepository.save(warehouse("Склад Юг", 1000));
+
+        for (int i = 0; i < 5; i++) {
+            warehouseInStockRepository.save(stock(productRepository.save(product("2000000" + i)),
+                    i % 2 == 0 ? warehouse : emptyWarehouse, 10, "B" + i + "-01"));
+        }
+
+        stock = stock(product, warehouse, 10, "A1-01");
+        stock.setReservedQuantity(2);
+        stock = warehouseInStockRepository.save(stock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        warehouseInStockRepository.deleteAll();
+        productRepository.deleteAll();
+        warehouseRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void productEndpoints() throws Exception {
+        assertBudget(get("/api/products"), 1);
+        assertBudget(get("/api/products/" + product.getId()), 1);
+        // Изменения товаров и складов дополнительно записываются в журнал entity_change_log
+        assertBudget(post("/api/products").contentType(MediaType.APPLICATION_JSON)
+                .content(productJson(null, "30000001")), 3);
+        assertBudget(put("/api/products/" + product.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content(productJson(product.getId(), "10000001")), 2);
+        assertBudget(delete("/api/products/" + otherProduct.getId()), 3);
+    }
+
+    @Test
+    void warehouseEndpoints() throws Exception {
+        assertBudget(get("/api/warehouses"), 1);
+        assertBudget(get("/api/warehouses/" + warehouse.getId()), 1);
+        assertBudget(post("/api/warehouses").contentType(MediaType.APPLICATION_JSON)
+                .content(warehouseJson("Склад Восток")), 3);
+        // Контроллер читает склад до вызова сервиса, а транзакция записи перечитывает его
+        assertBudget(put("/api/warehouses/" + warehouse.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content(warehouseJson("Склад Север")), 4);
+        Warehouse unused = warehouseRepository.save(warehouse("Склад Запад", 1000));
+        assertBudget(delete("/api/warehouses/" + unused.getId()), 6);
+    }
+
+    @Test
+    void stockEndpoints() throws Exception {
+        // Товары и склады загружаются тем же запросом, что и записи
+        assertBudget(get("/api/warehouse-stocks"), 1);
+        assertBudget(get("/api/warehouse-stocks/" + stock.getId()), 1);
+        assertBudget(get("/api/warehouse-stocks/product/" + product.getId()), 1);
+        // Идентификатор новой записи выдаёт счётчик сегмента (INSERT в stock_id_allocations)
+        assertBudget(post("/api/warehouse-stocks").contentType(MediaType.APPLICATION_JSON)
+                .content(stockJson(otherProduct.getId(), warehouse.getId(), 5)), 6);
+        // Изменения остатков записываются в журнал изменений для других экземпляров
+        assertBudget(put("/api/warehouse-stocks/" + stock.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content(stockJson(product.getId(), warehouse.getId(), 12)), 4);
+        assertBudget(delete("/api/warehouse-stocks/" + stock.getId()), 3);
+    }
+
+    @Test
+    void stockListDoesNotGrowWithRows() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            warehouseInStockRepository.save(stock(productRepository.save(product("4000" + (1000 + i))),
+                    i % 2 == 0 ? warehouse : emptyWarehouse, 1, "C" + i + "-01"));
+        }
+        assertBudget(get("/api/warehouse-stocks"), 1);
+    }
+
+    @Test
+    void patchEndpoints() throws Exception {
+        MediaType mergePatch = MediaType.parseMediaType("application/merge-patch+json");
+        assertBudget(patch("/api/warehouse-stocks/" + stock.getId()).contentType(mergePatch)
+                .content("{\"currentQuantity\":12}"), 4);
+        assertBudget(patch("/api/products/" + product.getId()).contentType(mergePatch)
+                .content("{\"name\":\"Новое название\"}"), 2);
+    }
+
+    @Test
+    void adjustmentEndpoints() throws Exception {
+        // Изменение количества, чтение записи для ответа и запись в журнал изменений
+        assertBudget(post("/api/warehouse-stocks/" + stock.getId() + "/increment")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":12}"), 3);
+        assertBudget(post("/api/warehouse-stocks/" + stock.getId() + "/decrement")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":2}"), 3);
+    }
+
+    @Test
+    void warehouseStockPageEndpoint() throws Exception {
+        String path = "/api/warehouse-stocks/warehouse/" + warehouse.getId();
+        assertBudget(get(path).param("limit", "2"), 1);
+        assertBudget(get(path).param("limit", "2").param("afterLocation", "B0-01")
+                .param("afterId", String.valueOf(stock.getId())), 1);
+        // Пустая страница проверяет существование склада
+        assertBudget(get(path).param("locationPrefix", "Z"), 2);
+    }
+
+    @Test
+    void putawayEndpoint() throws Exception {
+        // Первое обращение к складу строит индекс: склад и его записи
+        assertBudget(suggestion(warehouse.getId()), 2);
+        assertBudget(suggestion(warehouse.getId()), 0);
+        assertBudget(suggestion(emptyWarehouse.getId()), 2);
+    }
+
+    @Test
+    void batchEndpoints() throws Exception {
+        String ids = otherProduct.getId() + ",999999," + product.getId();
+        assertBudget(get("/api/products").param("ids", ids), 1);
+        assertBudget(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[" + ids + "]}"), 1);
+        assertBudget(get("/api/warehouses").param("ids", warehouse.getId() + "," + emptyWarehouse.getId()), 1);
+        // Товар и склад загружаются тем же запросом
+        assertBudget(get("/api/warehouse-stocks").param("ids", stock.getId() + ",999999"), 1);
+    }
+
+    @Test
+    void valuationEndpoints() throws Exception {
+        // Диапазоны записей читаются в пуле пересчёта; в потоке запроса — только границы диапазонов
+        assertBudget(post("/api/valuation/recompute"), 2);
+        assertBudget(get("/api/valuation").param("groupBy", "CATEGORY"), 0);
+    }
+
+    @Test
+    void exportEndpoints() throws Exception {
+        assertBudget(get("/api/export/products.csv.gz"), 1);
+        assertBudget(get("/api/export/warehouse-stocks.csv.gz"), 1);
+    }
+
+    @Test
+    void reportEndpoints() throws Exception {
+        assertBudget(get("/api/reports/types"), 0);
+        String id = JsonPath.read(mockMvc.perform(post("/api/reports").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"valuation\"}"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString(), "$.id");
+        assertBudget(get("/api/reports/" + id), 0);
+        for (int i = 0; i < 100 && reportJobService.getJob(id).getStatus() != ReportStatus.SUCCEEDED; i++) {
+            Thread.sleep(50);
+        }
+        assertBudget(get("/api/reports/" + id + "/result"), 0);
+        assertBudget(post("/api/reports").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"type\":\"stock-dump\"}"), 0);
+    }
+
+    @Test
+    void reportGenerators() {
+        // Отчёты строятся в потоке очереди отчётов, поэтому бюджет проверяется у самих отчётов
+        assertBudget(stockDumpReport, Map.of(), 1);
+        assertBudget(stockDumpReport, Map.of("warehouseId", String.valueOf(warehouse.getId())), 1);
+        assertBudget(lowStockReport, Map.of(), 1);
+        assertBudget(lowStockReport, Map.of("warehouseId", String.valueOf(warehouse.getId())), 1);
+    }
+
+    @Test
+    void eventStreamSubscription() throws Exception {
+        assertBudget(get("/api/events"), 0);
+    }
+
+    @Test
+    void authEndpoints() throws Exception {
+        String credentials = "{\"login\":\"operator\",\"password\":\"password123\"}";
+        assertBudget(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(credentials), 2);
+        assertBudget(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(credentials), 1);
+    }
+
+    private void assertBudget(MockHttpServletRequestBuilder request, int budget) throws Exception {
+        SqlStatementCounter.start();
+        try {
+            mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+            SqlStatementCounter.assertTotalAtMost(budget);
+        } finally {
+            SqlStatementCounter.stop();
+        }
+    }
+
+    private static void assertBudget(ReportGenerator report, Map<String, String> parameters, int budget) {
+        SqlStatementCounter.start();
+        try {
+            report.generate(parameters);
+            SqlStatementCounter.assertTotalAtMost(budget);
+        } finally {
+            SqlStatementCounter.stop();
+        }
+    }
+
+    private static MockHttpServletRequestBuilder suggestion(Long warehouseId) {
+        return get("/api/putaway/suggestions").param("warehouseId", String.valueOf(warehouseId))
+                .param("productId", "999999").param("quantity", "5");
+    }
+
+    private static String productJson(Long id, String articleNumber) {
+        return "{\"id\":" + id + ",\"articleNumber\":\"" + articleNumber + "\",\"name\":\"Стол\",\"description\":\"Обеденный стол\","
+                + "\"category\":\"Столы\",\"manufacturer\":\"Мебельный завод\",\"purchasePrice\":100.00,"
+                + "\"sellingPrice\":150.00,\"minStockLevel\":1,\"maxStockLevel\":10}";
+    }
+
+    private static String warehouseJson(String name) {
+        return "{\"name\":\"" + name + "\",\"address\":\"Складская улица, 2\",\"contactPerson\":\"Иван Петров\","
+                + "\"phone\":\"+79001234567\",\"email\":\"sklad@example.com\",\"capacity\":1000,\"status\":\"ACTIVE\"}";
+    }
+
+    private static String stockJson(Long productId, Long warehouseId, int quantity) {
+        return "{\"productId\":" + productId + ",\"warehouseId\":" + warehouseId + ",\"currentQuantity\":" + quantity
+                + ",\"reservedQuantity\":1,\"location\":\"A1-02\"}";
+    }
+
+    private static Product product(String articleNumber) {
+        Product product = new Product();
+        product.setArticleNumber(articleNumber);
+        product.setName("Товар " + articleNumber);
+        product.setDescription("Описание товара");
+        product.setCategory("Мебель");
+        product.setManufacturer("Мебельный завод");
+        product.setPurchasePrice(new BigDecimal("100.00"));
+        product.setSellingPrice(new BigDecimal("150.00"));
+        product.setMinStockLevel(1);
+        product.setMaxStockLevel(100);
+        return product;
+    }
+
+    private static Warehouse warehouse(String name, int capacity) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName(name);
+        warehouse.setAddress("Складская улица, 1");
+        warehouse.setContactPerson("Иван Петров");
+        warehouse.setPhone("+79001234567");
+        warehouse.setEmail("sklad@example.com");
+        warehouse.setCapacity(capacity);
+        warehouse.setStatus(WarehouseStatus.ACTIVE);
+        return warehouse;
+    }
+
+    private static WarehouseInStock stock(Product product, Warehouse warehouse, int quantity, String location) {
+        WarehouseInStock stock = new WarehouseInStock();
+        stock.setProduct(product);
+        stock.setWarehouse(warehouse);
+        stock.setCurrentQuantity(quantity);
+        stock.setReservedQuantity(0);
+        stock.setLocation(location);
+        return stock;
+    }
+}
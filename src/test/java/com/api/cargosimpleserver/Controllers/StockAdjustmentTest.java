@@ -0,0 +1,153 @@
+package com.api.cargosimpleserver.Controllers;
+
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Models.WarehouseInStock;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Monitoring.SqlStatementCounter;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Изменение количества на величину одним UPDATE с проверкой резерва и вместимости склада.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StockAdjustmentTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseInStockRepository warehouseInStockRepository;
+
+    private Product product;
+
+    private WarehouseInStock stock;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(product("13000001"));
+        WarehouseInStock row = stock(product, warehouseRepository.save(warehouse("Склад Движение", 1000)), 10, "A1-01");
+        row.setReservedQuantity(2);
+        stock = warehouseInStockRepository.save(row);
+        WarehouseInStock other = stock(productRepository.save(product("13000002")), row.getWarehouse(), 30, "A1-02");
+        warehouseInStockRepository.save(other);
+    }
+
+    @AfterEach
+    void tearDown() {
+        warehouseInStockRepository.deleteAll();
+        productRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    void adjustmentRunsAsSingleGuardedUpdate() throws Exception {
+        mockMvc.perform(get("/api/products/" + product.getId())).andExpect(status().isOk());
+
+        SqlStatementCounter.start();
+        try {
+            mockMvc.perform(post("/api/warehouse-stocks/" + stock.getId() + "/increment")
+                            .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":12}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.currentQuantity").value(22));
+            // UPDATE, чтение записи для ответа и запись в журнал изменений
+            SqlStatementCounter.assertTotalAtMost(3);
+            SqlStatementCounter.assertUpdateCount(1);
+            String first = SqlStatementCounter.current().getStatements().get(0).trim().toLowerCase();
+            assertTrue(first.startsWith("update"), first);
+        } finally {
+            SqlStatementCounter.stop();
+        }
+
+        // Нативный UPDATE не вытесняет товары из второго уровня кэша
+        SqlStatementCounter.start();
+        try {
+            mockMvc.perform(get("/api/products/" + product.getId())).andExpect(status().isOk());
+            SqlStatementCounter.assertTotalAtMost(0);
+        } finally {
+            SqlStatementCounter.stop();
+        }
+    }
+
+    @Test
+    void adjustmentIsRejectedByReserveAndCapacity() throws Exception {
+        // Осталось бы 1 при резерве 2
+        mockMvc.perform(post("/api/warehouse-stocks/" + stock.getId() + "/decrement")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":9}"))
+                .andExpect(status().isConflict());
+        // На складе 40 из 1000
+        mockMvc.perform(post("/api/warehouse-stocks/" + stock.getId() + "/increment")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":961}"))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(post("/api/warehouse-stocks/" + stock.getId() + "/increment")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":960}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currentQuantity").value(970));
+        mockMvc.perform(post("/api/warehouse-stocks/999999/decrement")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":1}"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static Product product(String articleNumber) {
+        Product product = new Product();
+        product.setArticleNumber(articleNumber);
+        product.setName("Товар " + articleNumber);
+        product.setDescription("Описание товара");
+        product.setCategory("Мебель");
+        product.setManufacturer("Мебельный завод");
+        product.setPurchasePrice(new BigDecimal("100.00"));
+        product.setSellingPrice(new BigDecimal("150.00"));
+        product.setMinStockLevel(1);
+        product.setMaxStockLevel(100);
+        return product;
+    }
+
+    private static Warehouse warehouse(String name, int capacity) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName(name);
+        warehouse.setAddress("Складская улица, 1");
+        warehouse.setContactPerson("Иван Петров");
+        warehouse.setPhone("+79001234567");
+        warehouse.setEmail("sklad@example.com");
+        warehouse.setCapacity(capacity);
+        warehouse.setStatus(WarehouseStatus.ACTIVE);
+        return warehouse;
+    }
+
+    private static WarehouseInStock stock(Product product, Warehouse warehouse, int quantity, String location) {
+        WarehouseInStock stock = new WarehouseInStock();
+        stock.setProduct(product);
+        stock.setWarehouse(warehouse);
+        stock.setCurrentQuantity(quantity);
+        stock.setReservedQuantity(0);
+        stock.setLocation(location);
+        return stock;
+    }
+}
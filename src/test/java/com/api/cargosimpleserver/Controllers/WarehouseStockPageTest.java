@@ -0,0 +1,132 @@
+package com.api.cargosimpleserver.Controllers;
+
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Models.WarehouseInStock;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Постраничный вывод остатков склада в порядке ячеек (keyset).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WarehouseStockPageTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseInStockRepository warehouseInStockRepository;
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        warehouse = warehouseRepository.save(warehouse("Склад Страницы", 1000));
+        Warehouse other = warehouseRepository.save(warehouse("Склад Соседний", 1000));
+        String[] locations = {"B4-01", "A1-01", "B2-01", "B0-01"};
+        for (int i = 0; i < locations.length; i++) {
+            Product product = productRepository.save(product("1400000" + i));
+            warehouseInStockRepository.save(stock(product, warehouse, 10, locations[i]));
+            warehouseInStockRepository.save(stock(product, other, 10, "B1-01"));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        warehouseInStockRepository.deleteAll();
+        productRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    void pagesFollowLocationOrder() throws Exception {
+        String path = "/api/warehouse-stocks/warehouse/" + warehouse.getId();
+        mockMvc.perform(get(path).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].location").value("A1-01"))
+                .andExpect(jsonPath("$.items[1].location").value("B0-01"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextAfterLocation").value("B0-01"));
+
+        String afterId = String.valueOf(warehouseInStockRepository.findAll().stream()
+                .filter(row -> row.getWarehouse().getId().equals(warehouse.getId()))
+                .filter(row -> row.getLocation().equals("B0-01")).findFirst().orElseThrow().getId());
+        mockMvc.perform(get(path).param("limit", "2").param("afterLocation", "B0-01").param("afterId", afterId))
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].location").value("B2-01"))
+                .andExpect(jsonPath("$.items[1].location").value("B4-01"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void pageIsFilteredByLocationPrefix() throws Exception {
+        mockMvc.perform(get("/api/warehouse-stocks/warehouse/" + warehouse.getId()).param("locationPrefix", "B"))
+                .andExpect(jsonPath("$.items.length()").value(3));
+        mockMvc.perform(get("/api/warehouse-stocks/warehouse/" + warehouse.getId()).param("locationPrefix", "C"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+        mockMvc.perform(get("/api/warehouse-stocks/warehouse/999999"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static Product product(String articleNumber) {
+        Product product = new Product();
+        product.setArticleNumber(articleNumber);
+        product.setName("Товар " + articleNumber);
+        product.setDescription("Описание товара");
+        product.setCategory("Мебель");
+        product.setManufacturer("Мебельный завод");
+        product.setPurchasePrice(new BigDecimal("100.00"));
+        product.setSellingPrice(new BigDecimal("150.00"));
+        product.setMinStockLevel(1);
+        product.setMaxStockLevel(100);
+        return product;
+    }
+
+    private static Warehouse warehouse(String name, int capacity) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName(name);
+        warehouse.setAddress("Складская улица, 1");
+        warehouse.setContactPerson("Иван Петров");
+        warehouse.setPhone("+79001234567");
+        warehouse.setEmail("sklad@example.com");
+        warehouse.setCapacity(capacity);
+        warehouse.setStatus(WarehouseStatus.ACTIVE);
+        return warehouse;
+    }
+
+    private static WarehouseInStock stock(Product product, Warehouse warehouse, int quantity, String location) {
+        WarehouseInStock stock = new WarehouseInStock();
+        stock.setProduct(product);
+        stock.setWarehouse(warehouse);
+        stock.setCurrentQuantity(quantity);
+        stock.setReservedQuantity(0);
+        stock.setLocation(location);
+        return stock;
+    }
+}
@@ -0,0 +1,188 @@
+package com.api.cargosimpleserver.Events;
+
+import com.api.cargosimpleserver.Controllers.InventoryEventController;
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Рассылка событий подписчикам SSE: схлопывание, отключение медленного подписчика
+ * и возобновление по Last-Event-ID.
+ * <p>
+ * Рассылка создаётся без контекста Spring, поэтому отправка по расписанию не запускается
+ * и вызывается явно.
+ */
+class InventoryEventBroadcasterTest {
+
+    private static final Pattern EVENT = Pattern.compile("id:\\w+-(\\d+)\nevent:(\\w+)\ndata:(.*)\n");
+
+    private InventoryEventBroadcaster broadcaster;
+
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void changesOfOneRowAreCoalescedUntilSent() throws Exception {
+        start(new InventoryEventProperties());
+        MvcResult subscriber = subscribe(null);
+
+        publish(1L, InventoryChangeEvent.ChangeType.CREATED, 10);
+        publish(1L, InventoryChangeEvent.ChangeType.UPDATED, 11);
+        publish(2L, InventoryChangeEvent.ChangeType.UPDATED, 20);
+        publish(1L, InventoryChangeEvent.ChangeType.UPDATED, 12);
+        broadcaster.flush();
+
+        List<String[]> events = awaitEvents(subscriber, 2);
+        // Запись 2 изменилась раньше последнего изменения записи 1
+        assertEquals("3", events.get(0)[0]);
+        assertTrue(events.get(0)[2].contains("\"entityId\":2"), events.get(0)[2]);
+        assertEquals("4", events.get(1)[0]);
+        assertTrue(events.get(1)[2].contains("\"changeType\":\"CREATED\""), events.get(1)[2]);
+        assertTrue(events.get(1)[2].contains("\"currentQuantity\":12"), events.get(1)[2]);
+    }
+
+    @Test
+    void subscriberWithOverflowingBufferIsDisconnected() throws Exception {
+        InventoryEventProperties properties = new InventoryEventProperties();
+        properties.setMaxPendingPerSubscriber(2);
+        start(properties);
+        MvcResult slow = subscribe(null);
+        subscribe(null);
+        assertEquals(2, broadcaster.getSubscriberCount());
+
+        publish(1L, InventoryChangeEvent.ChangeType.UPDATED, 1);
+        publish(2L, InventoryChangeEvent.ChangeType.UPDATED, 1);
+        // Повтор изменения той же записи не занимает места в буфере
+        publish(2L, InventoryChangeEvent.ChangeType.UPDATED, 2);
+        assertEquals(2, broadcaster.getSubscriberCount());
+
+        publish(3L, InventoryChangeEvent.ChangeType.UPDATED, 1);
+        assertEquals(0, broadcaster.getSubscriberCount());
+        // Соединение завершено сервером
+        slow.getAsyncResult(5000);
+    }
+
+    @Test
+    void streamResumesAfterLastEventIdOrRequestsResync() throws Exception {
+        InventoryEventProperties properties = new InventoryEventProperties();
+        properties.setHistorySize(3);
+        start(properties);
+        for (long id = 1; id <= 5; id++) {
+            publish(id, InventoryChangeEvent.ChangeType.UPDATED, 1);
+        }
+
+        String epoch = broadcaster.getEpoch();
+        MvcResult resumed = subscribe(epoch + "-3");
+        MvcResult tooOld = subscribe(epoch + "-1");
+        broadcaster.flush();
+
+        List<String[]> events = awaitEvents(resumed, 2);
+        assertEquals(List.of("4", "5"), events.stream().map(event -> event[0]).toList());
+        assertFalse(content(resumed).contains("event:resync"));
+
+        awaitContent(tooOld, "event:resync");
+        assertTrue(parse(content(tooOld)).isEmpty());
+    }
+
+    @Test
+    void eventIdOfAnotherEpochRequestsResync() throws Exception {
+        start(new InventoryEventProperties());
+        for (long id = 1; id <= 3; id++) {
+            publish(id, InventoryChangeEvent.ChangeType.UPDATED, 1);
+        }
+        MvcResult current = subscribe(null);
+        publish(4L, InventoryChangeEvent.ChangeType.UPDATED, 1);
+        broadcaster.flush();
+        awaitEvents(current, 1);
+        assertTrue(content(current).contains("id:" + broadcaster.getEpoch() + "-4\n"), content(current));
+
+        // Номер 2 есть в истории, но выдан до перезапуска сервера
+        MvcResult restarted = subscribe("0000000-2");
+        MvcResult legacy = subscribe("2");
+        broadcaster.flush();
+
+        awaitContent(restarted, "event:resync");
+        assertTrue(parse(content(restarted)).isEmpty());
+        awaitContent(legacy, "event:resync");
+        assertTrue(parse(content(legacy)).isEmpty());
+    }
+
+    private void start(InventoryEventProperties properties) {
+        broadcaster = new InventoryEventBroadcaster(properties);
+        mockMvc = MockMvcBuilders.standaloneSetup(new InventoryEventController(broadcaster)).build();
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        var builder = get("/api/events");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private void publish(Long stockId, InventoryChangeEvent.ChangeType changeType, int quantity) {
+        WarehouseInStockDTO stock = new WarehouseInStockDTO();
+        stock.setId(stockId);
+        stock.setProductId(100L);
+        stock.setWarehouseId(200L);
+        stock.setCurrentQuantity(quantity);
+        stock.setReservedQuantity(0);
+        stock.setLocation("A1-01");
+        broadcaster.onInventoryChange(InventoryChangeEvent.stockChanged(changeType, stock));
+    }
+
+    private static List<String[]> awaitEvents(MvcResult result, int count) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            List<String[]> events = parse(content(result));
+            if (events.size() >= count) {
+                return events;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Получено меньше " + count + " событий: " + content(result));
+    }
+
+    private static void awaitContent(MvcResult result, String expected) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            if (content(result).contains(expected)) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Не получено " + expected + ": " + content(result));
+    }
+
+    private static String content(MvcResult result) throws Exception {
+        return result.getResponse().getContentAsString();
+    }
+
+    /**
+     * События потока в виде [id, имя, данные].
+     */
+    private static List<String[]> parse(String content) {
+        List<String[]> events = new ArrayList<>();
+        Matcher matcher = EVENT.matcher(content);
+        while (matcher.find()) {
+            events.add(new String[]{matcher.group(1), matcher.group(2), matcher.group(3)});
+        }
+        return events;
+    }
+}
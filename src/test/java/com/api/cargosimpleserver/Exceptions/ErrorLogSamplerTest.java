@@ -0,0 +1,60 @@
+package com.api.cargosimpleserver.Exceptions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ErrorLogSamplerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Logger logger = mock(Logger.class);
+
+    private ErrorLogSampler sampler() {
+        ErrorLoggingProperties properties = new ErrorLoggingProperties();
+        properties.setMaxStackTracesPerWindow(2);
+        properties.setWindow(Duration.ofSeconds(10));
+        return new ErrorLogSampler(properties, meterRegistry, clock::get);
+    }
+
+    @Test
+    void domainExceptionsHaveNoStackTrace() {
+        DomainException ex = new ConflictException("Склад с таким названием уже существует");
+
+        assertEquals(0, ex.getStackTrace().length);
+        assertEquals(409, ex.getStatus().value());
+    }
+
+    @Test
+    void logsLimitedStackTracesPerWindowAndCountsAll() {
+        ErrorLogSampler sampler = sampler();
+        IllegalStateException ex = new IllegalStateException("сбой");
+
+        assertTrue(sampler.logUnexpected(logger, "Ошибка", ex, 400));
+        assertTrue(sampler.logUnexpected(logger, "Ошибка", ex, 400));
+        assertFalse(sampler.logUnexpected(logger, "Ошибка", ex, 400));
+        assertFalse(sampler.logUnexpected(logger, "Ошибка", ex, 400));
+        verify(logger, times(2)).error("Ошибка", ex);
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(sampler.logUnexpected(logger, "Ошибка", ex, 400));
+        verify(logger).error(anyString(), eq("Ошибка"), eq(2L), eq(IllegalStateException.class.getName()), any(Throwable.class));
+
+        assertEquals(5, meterRegistry.get("cargo.errors").tag("exception", "IllegalStateException").counter().count());
+    }
+}
@@ -0,0 +1,253 @@
+package com.api.cargosimpleserver.Export;
+
+import com.api.cargosimpleserver.DTO.ProductDTO;
+import com.api.cargosimpleserver.DTO.WarehouseDTO;
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import com.api.cargosimpleserver.Services.ProductService;
+import com.api.cargosimpleserver.Services.WarehouseInStockService;
+import com.api.cargosimpleserver.Services.WarehouseService;
+import com.api.cargosimpleserver.Sharding.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Выгрузка CSV: заголовки, экранирование полей, соединение остатков с товарами и складами
+ * и запись строк в ответ по мере чтения курсора.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CsvExporterTest {
+
+    private static final int ROWS = 500;
+
+    private static final int BUFFER_SIZE = 512;
+
+    @Autowired
+    private CsvExporter csvExporter;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private WarehouseService warehouseService;
+
+    @Autowired
+    private WarehouseInStockService warehouseInStockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseInStockRepository warehouseInStockRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @BeforeEach
+    @AfterEach
+    void clean() {
+        warehouseInStockRepository.deleteAll();
+        productRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    void productsAndStocksAreExportedAsGzippedCsv() throws IOException {
+        ProductDTO product = productService.createProduct(productDTO());
+        WarehouseDTO warehouse = warehouseService.createWarehouse(warehouseDTO());
+        WarehouseInStockDTO stock = warehouseInStockService.createWarehouseStock(stockDTO(product, warehouse));
+
+        ByteArrayOutputStream products = new ByteArrayOutputStream();
+        assertEquals(1, csvExporter.exportProducts(products));
+        assertEquals("id,article_number,name,description,category,manufacturer,purchase_price,"
+                        + "selling_price,min_stock_level,max_stock_level\r\n"
+                        + product.getId() + ",80000001,\"Стол \"\"Лофт\"\", дуб\",\"Две строки\nописания\","
+                        + "Мебель,Мебельный завод,100.50,150.00,1,100\r\n",
+                gunzip(products));
+
+        ByteArrayOutputStream stocks = new ByteArrayOutputStream();
+        assertEquals(1, csvExporter.exportStocks(stocks));
+        assertEquals("id,product_id,article_number,product_name,warehouse_id,warehouse_name,location,"
+                        + "current_quantity,reserved_quantity\r\n"
+                        + stock.getId() + "," + product.getId() + ",80000001,\"Стол \"\"Лофт\"\", дуб\","
+                        + warehouse.getId() + ",Склад Выгрузка,A1-01,12,3\r\n",
+                gunzip(stocks));
+    }
+
+    @Test
+    void rowsAreWrittenWhileForwardOnlyCursorIsRead() throws IOException {
+        // Случайные описания плохо сжимаются, поэтому сжатые блоки уходят в ответ до конца чтения
+        productRepository.saveAll(IntStream.rangeClosed(1, ROWS)
+                .mapToObj(i -> {
+                    Product product = product(String.valueOf(81_000_000 + i));
+                    product.setDescription(UUID.randomUUID() + " " + UUID.randomUUID() + " " + UUID.randomUUID());
+                    return product;
+                })
+                .toList());
+
+        List<Statement> statements = new ArrayList<>();
+        // Тип курсора, режим изменения и размер выборки каждого запроса
+        List<List<Integer>> cursors = new ArrayList<>();
+        DataSource recording = ProxyDataSourceBuilder.create(dataSource)
+                .afterQuery((execution, queries) -> {
+                    Statement statement = execution.getStatement();
+                    statements.add(statement);
+                    try {
+                        cursors.add(List.of(statement.getResultSetType(), statement.getResultSetConcurrency(),
+                                statement.getFetchSize()));
+                    } catch (SQLException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                })
+                .build();
+        ExportProperties properties = new ExportProperties();
+        properties.setBufferSize(BUFFER_SIZE);
+        CsvExporter exporter = new CsvExporter(recording, new DataSourceTransactionManager(recording),
+                shardRouter, properties, new SimpleMeterRegistry());
+
+        // Байты, записанные в ответ, пока курсор запроса ещё открыт
+        long[] writtenWhileReading = new long[1];
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] bytes, int offset, int length) {
+                assertTrue(length <= BUFFER_SIZE, "Запись блоком " + length + " байт");
+                if (!statements.isEmpty() && isOpen(statements.get(0))) {
+                    writtenWhileReading[0] += length;
+                }
+                super.write(bytes, offset, length);
+            }
+        };
+        assertEquals(ROWS, exporter.exportProducts(compressed));
+
+        assertEquals(List.of(List.of(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, properties.getFetchSize())),
+                cursors);
+        assertTrue(writtenWhileReading[0] > compressed.size() / 2,
+                writtenWhileReading[0] + " из " + compressed.size() + " байт записано во время чтения");
+        assertEquals(ROWS + 1, gunzip(compressed).split("\r\n").length);
+    }
+
+    @Test
+    void brokenOutputStopsExport() {
+        productRepository.saveAll(IntStream.rangeClosed(1, ROWS)
+                .mapToObj(i -> product(String.valueOf(82_000_000 + i)))
+                .toList());
+        ExportProperties properties = new ExportProperties();
+        properties.setBufferSize(BUFFER_SIZE);
+        CsvExporter exporter = new CsvExporter(dataSource, new DataSourceTransactionManager(dataSource),
+                shardRouter, properties, new SimpleMeterRegistry());
+
+        OutputStream disconnected = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (++written > BUFFER_SIZE) {
+                    throw new IOException("Клиент отключился");
+                }
+            }
+        };
+        assertThrows(IOException.class, () -> exporter.exportProducts(disconnected));
+    }
+
+    private static boolean isOpen(Statement statement) {
+        try {
+            return !statement.isClosed();
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private static String gunzip(ByteArrayOutputStream compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static ProductDTO productDTO() {
+        ProductDTO dto = new ProductDTO();
+        dto.setArticleNumber("80000001");
+        dto.setName("Стол \"Лофт\", дуб");
+        dto.setDescription("Две строки\nописания");
+        dto.setCategory("Мебель");
+        dto.setManufacturer("Мебельный завод");
+        dto.setPurchasePrice(new BigDecimal("100.50"));
+        dto.setSellingPrice(new BigDecimal("150.00"));
+        dto.setMinStockLevel(1);
+        dto.setMaxStockLevel(100);
+        return dto;
+    }
+
+    private static WarehouseDTO warehouseDTO() {
+        WarehouseDTO dto = new WarehouseDTO();
+        dto.setName("Склад Выгрузка");
+        dto.setAddress("Складская улица, 1");
+        dto.setContactPerson("Иван Петров");
+        dto.setPhone("+79001234567");
+        dto.setEmail("sklad@example.com");
+        dto.setCapacity(100);
+        dto.setStatus(WarehouseStatus.ACTIVE);
+        return dto;
+    }
+
+    private static WarehouseInStockDTO stockDTO(ProductDTO product, WarehouseDTO warehouse) {
+        WarehouseInStockDTO dto = new WarehouseInStockDTO();
+        dto.setProductId(product.getId());
+        dto.setWarehouseId(warehouse.getId());
+        dto.setCurrentQuantity(12);
+        dto.setReservedQuantity(3);
+        dto.setLocation("A1-01");
+        return dto;
+    }
+
+    private static Product product(String articleNumber) {
+        Product product = new Product();
+        product.setArticleNumber(articleNumber);
+        product.setName("Товар " + articleNumber);
+        product.setDescription("Описание товара");
+        product.setCategory("Мебель");
+        product.setManufacturer("Мебельный завод");
+        product.setPurchasePrice(new BigDecimal("100.00"));
+        product.setSellingPrice(new BigDecimal("150.00"));
+        product.setMinStockLevel(1);
+        product.setMaxStockLevel(100);
+        return product;
+    }
+}
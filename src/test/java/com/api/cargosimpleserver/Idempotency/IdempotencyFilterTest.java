@@ -0,0 +1,144 @@
+package com.api.cargosimpleserver.Idempotency;
+
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Повторы запросов с заголовком Idempotency-Key при хранении результатов в базе.
+ */
+@SpringBootTest(properties = {
+        "app.idempotency.store=database",
+        "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyFilterTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedRequestIsReplayedAndKeyReuseWithOtherBodyIsRejected() throws Exception {
+        MockHttpServletResponse first = create("key-1", "client-a", "90000001");
+        assertEquals(201, first.getStatus());
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+
+        MockHttpServletResponse replayed = create("key-1", "client-a", "90000001");
+        assertEquals(201, replayed.getStatus());
+        assertEquals("true", replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(first.getContentAsString(), replayed.getContentAsString());
+        assertEquals(1, productRepository.count());
+
+        assertEquals(422, create("key-1", "client-a", "90000002").getStatus());
+        assertEquals(1, productRepository.count());
+    }
+
+    @Test
+    void sameKeyOfAnotherClientIsNotReplayed() throws Exception {
+        assertEquals(201, create("key-2", "client-a", "90000011").getStatus());
+
+        MockHttpServletResponse other = create("key-2", "client-b", "90000012");
+        assertEquals(201, other.getStatus());
+        assertNull(other.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, productRepository.count());
+    }
+
+    @Test
+    void concurrentRequestsWithSameKeyAreExecutedOnce() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<MockHttpServletResponse>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return create("key-3", "client-a", "90000021");
+                }));
+            }
+            start.countDown();
+
+            String body = null;
+            for (Future<MockHttpServletResponse> result : results) {
+                MockHttpServletResponse response = result.get();
+                assertEquals(201, response.getStatus());
+                if (body == null) {
+                    body = response.getContentAsString();
+                }
+                assertEquals(body, response.getContentAsString());
+            }
+            assertEquals(1, productRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void storedResultIsNotOverwritten() {
+        store.save("store-key", new StoredResponse("first", 201, null, new byte[]{1}, Instant.now()));
+        store.save("store-key", new StoredResponse("second", 200, null, new byte[]{2}, Instant.now()));
+
+        assertEquals("first", store.find("store-key").orElseThrow().getFingerprint());
+    }
+
+    @Test
+    void expiredResultNotYetEvictedIsReplaced() {
+        Instant expired = Instant.now().minus(Duration.ofDays(2));
+        store.save("expired-key", new StoredResponse("old", 201, null, new byte[]{1}, expired));
+        assertTrue(store.find("expired-key").isEmpty());
+
+        store.save("expired-key", new StoredResponse("new", 200, null, new byte[]{2}, Instant.now()));
+
+        StoredResponse stored = store.find("expired-key").orElseThrow();
+        assertEquals("new", stored.getFingerprint());
+        assertEquals(200, stored.getStatus());
+    }
+
+    private MockHttpServletResponse create(String idempotencyKey, String clientId, String articleNumber)
+            throws Exception {
+        return mockMvc.perform(post("/api/products")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .header("X-Client-Id", clientId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"articleNumber\":\"" + articleNumber + "\",\"name\":\"Стол\","
+                                + "\"description\":\"Обеденный стол\",\"category\":\"Столы\","
+                                + "\"manufacturer\":\"Мебельный завод\",\"purchasePrice\":100.00,"
+                                + "\"sellingPrice\":150.00,\"minStockLevel\":1,\"maxStockLevel\":10}"))
+                .andReturn()
+                .getResponse();
+    }
+}
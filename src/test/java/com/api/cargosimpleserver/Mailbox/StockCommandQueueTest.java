@@ -0,0 +1,249 @@
+package com.api.cargosimpleserver.Mailbox;
+
+import com.api.cargosimpleserver.CargoSimpleServerApplication;
+import com.api.cargosimpleserver.DTO.ProductDTO;
+import com.api.cargosimpleserver.DTO.WarehouseDTO;
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.Exceptions.ConflictException;
+import com.api.cargosimpleserver.Exceptions.InvalidRequestException;
+import com.api.cargosimpleserver.Exceptions.NotFoundException;
+import com.api.cargosimpleserver.Exceptions.OperationTimeoutException;
+import com.api.cargosimpleserver.Exceptions.WarehouseBusyException;
+import com.api.cargosimpleserver.Exceptions.WarehouseCapacityExceededException;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import com.api.cargosimpleserver.Services.JsonMergePatcher;
+import com.api.cargosimpleserver.Services.ProductService;
+import com.api.cargosimpleserver.Services.WarehouseInStockService;
+import com.api.cargosimpleserver.Services.WarehouseService;
+import com.api.cargosimpleserver.Sharding.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Изменение остатков через очереди складов.
+ * <p>
+ * Команды ставятся в очередь без ожидания, поэтому выполняются группами;
+ * результат каждой команды проверяется отдельно.
+ */
+class StockCommandQueueTest {
+
+    private static final String DATABASE_URL =
+            "jdbc:h2:mem:mailbox;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static ConfigurableApplicationContext context;
+
+    @BeforeAll
+    static void start() {
+        // Аргументы командной строки, а не свойства по умолчанию: те уступают application.properties
+        context = new SpringApplicationBuilder(CargoSimpleServerApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=" + DATABASE_URL,
+                        "--server.port=0",
+                        "--app.stock-mailbox.enabled=true");
+    }
+
+    @AfterAll
+    static void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void commandsOfWarehouseAreGroupCommittedAndCheckedAgainstLocalState() throws Exception {
+        StockCommandQueue queue = context.getBean(StockCommandQueue.class);
+        WarehouseInStockService stockService = context.getBean(WarehouseInStockService.class);
+        ProductDTO table = context.getBean(ProductService.class).createProduct(productDTO("70000001", "Стол"));
+        ProductDTO chair = context.getBean(ProductService.class).createProduct(productDTO("70000002", "Стул"));
+        WarehouseDTO warehouse = context.getBean(WarehouseService.class).createWarehouse(warehouseDTO("Склад Очередь", 100));
+
+        WarehouseInStockDTO created = queue.await(queue.create(stockDTO(table, warehouse, 10)));
+
+        List<CompletableFuture<WarehouseInStockDTO>> increments = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            increments.add(queue.adjust(created.getId(), 1));
+        }
+        CompletableFuture.allOf(increments.toArray(new CompletableFuture[0])).get();
+        assertEquals(60, stockService.getWarehouseStockById(created.getId()).getCurrentQuantity());
+        DistributionSummary batches = context.getBean(MeterRegistry.class).get("cargo.stock.mailbox.batch.size").summary();
+        assertTrue(batches.count() < 51, "команды должны фиксироваться группами");
+
+        // Отказ одной команды группы не отменяет остальные
+        CompletableFuture<WarehouseInStockDTO> accepted = queue.adjust(created.getId(), 30);
+        CompletableFuture<WarehouseInStockDTO> overflow = queue.adjust(created.getId(), 20);
+        CompletableFuture<WarehouseInStockDTO> picked = queue.adjust(created.getId(), -5);
+        CompletableFuture<WarehouseInStockDTO> duplicate = queue.create(stockDTO(table, warehouse, 1));
+        CompletableFuture<WarehouseInStockDTO> second = queue.create(stockDTO(chair, warehouse, 15));
+        assertEquals(90, queue.await(accepted).getCurrentQuantity());
+        assertThrows(WarehouseCapacityExceededException.class, () -> queue.await(overflow));
+        assertEquals(85, queue.await(picked).getCurrentQuantity());
+        assertThrows(ConflictException.class, () -> queue.await(duplicate));
+        assertEquals(15, queue.await(second).getCurrentQuantity());
+        assertThrows(WarehouseCapacityExceededException.class, () -> queue.await(queue.adjust(second.get().getId(), 1)));
+
+        // Перенос на другой склад в этом режиме не выполняется
+        WarehouseDTO other = context.getBean(WarehouseService.class).createWarehouse(warehouseDTO("Склад Очередь-2", 100));
+        assertThrows(ConflictException.class, () -> queue.await(queue.patch(created.getId(),
+                new ObjectMapper().createObjectNode().put("warehouseId", other.getId()))));
+
+        queue.await(queue.delete(created.getId()));
+        assertThrows(NotFoundException.class, () -> stockService.getWarehouseStockById(created.getId()));
+        assertThrows(NotFoundException.class, () -> queue.await(queue.adjust(created.getId(), 1)));
+        assertEquals(70, queue.await(queue.adjust(second.get().getId(), 55)).getCurrentQuantity());
+    }
+
+    @Test
+    void commandNotCompletedInTimeIsCancelledWithTimeout() {
+        StockCommandQueue queue = context.getBean(StockCommandQueue.class);
+        StockMailboxProperties properties = context.getBean(StockMailboxProperties.class);
+        Duration awaitTimeout = properties.getAwaitTimeout();
+        properties.setAwaitTimeout(Duration.ofMillis(10));
+        try {
+            CompletableFuture<WarehouseInStockDTO> pending = new CompletableFuture<>();
+            assertThrows(OperationTimeoutException.class, () -> queue.await(pending));
+            // Очередь пропускает отменённые команды
+            assertTrue(pending.isCancelled());
+        } finally {
+            properties.setAwaitTimeout(awaitTimeout);
+        }
+
+        assertThrows(InvalidRequestException.class, () -> queue.create(new WarehouseInStockDTO()));
+        assertThrows(InvalidRequestException.class, () -> queue.adjust(null, 1));
+    }
+
+    @Test
+    void invalidCommandIsRejectedBeforeJoiningGroup() throws Exception {
+        StockCommandQueue queue = context.getBean(StockCommandQueue.class);
+        ProductDTO lamp = context.getBean(ProductService.class).createProduct(productDTO("70000003", "Лампа"));
+        WarehouseDTO warehouse = context.getBean(WarehouseService.class).createWarehouse(warehouseDTO("Склад Проверка", 100));
+        WarehouseInStockDTO created = queue.await(queue.create(stockDTO(lamp, warehouse, 10)));
+
+        CompletableFuture<WarehouseInStockDTO> accepted = queue.adjust(created.getId(), 5);
+        WarehouseInStockDTO withoutProduct = stockDTO(lamp, warehouse, 1);
+        withoutProduct.setProductId(null);
+        InvalidRequestException rejected = assertThrows(InvalidRequestException.class, () -> queue.create(withoutProduct));
+        assertTrue(rejected.getMessage().contains("productId"), rejected.getMessage());
+        WarehouseInStockDTO withoutQuantity = stockDTO(lamp, warehouse, 1);
+        withoutQuantity.setId(created.getId());
+        withoutQuantity.setCurrentQuantity(null);
+        assertThrows(InvalidRequestException.class, () -> queue.update(withoutQuantity));
+        // Проверка полей частичного обновления отклоняет только свою команду
+        CompletableFuture<WarehouseInStockDTO> negative = queue.patch(created.getId(),
+                new ObjectMapper().createObjectNode().put("currentQuantity", -1));
+        CompletableFuture<WarehouseInStockDTO> picked = queue.adjust(created.getId(), -3);
+
+        assertEquals(15, queue.await(accepted).getCurrentQuantity());
+        assertThrows(ConstraintViolationException.class, () -> queue.await(negative));
+        assertEquals(12, queue.await(picked).getCurrentQuantity());
+    }
+
+    @Test
+    void pendingCommandsAreRejectedOnShutdown() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StockMailboxProperties properties = new StockMailboxProperties();
+        properties.setWorkers(1);
+        // Публикация события первой команды занимает единственный поток до остановки очереди
+        StockCommandQueue queue = new StockCommandQueue(
+                context.getBean(WarehouseInStockRepository.class),
+                context.getBean(WarehouseRepository.class),
+                context.getBean(ProductRepository.class),
+                context.getBean(ModelMapper.class),
+                event -> {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        throw new IllegalStateException("Поток очереди прерван", ex);
+                    }
+                },
+                context.getBean(JsonMergePatcher.class),
+                context.getBean(Validator.class),
+                context.getBean(ShardRouter.class),
+                context.getBean(PlatformTransactionManager.class),
+                properties,
+                new SimpleMeterRegistry());
+        try {
+            ProductDTO sofa = context.getBean(ProductService.class).createProduct(productDTO("70000004", "Диван"));
+            ProductDTO shelf = context.getBean(ProductService.class).createProduct(productDTO("70000005", "Полка"));
+            WarehouseDTO first = context.getBean(WarehouseService.class).createWarehouse(warehouseDTO("Склад Остановка", 100));
+            WarehouseDTO second = context.getBean(WarehouseService.class).createWarehouse(warehouseDTO("Склад Остановка-2", 100));
+
+            CompletableFuture<WarehouseInStockDTO> running = queue.create(stockDTO(sofa, first, 1));
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            CompletableFuture<WarehouseInStockDTO> queued = queue.create(stockDTO(shelf, first, 1));
+            CompletableFuture<WarehouseInStockDTO> otherWarehouse = queue.create(stockDTO(sofa, second, 1));
+
+            queue.destroy();
+
+            assertThrows(WarehouseBusyException.class, () -> queue.await(queued));
+            assertThrows(WarehouseBusyException.class, () -> queue.await(otherWarehouse));
+            assertThrows(RuntimeException.class, () -> queue.await(running));
+            assertThrows(WarehouseBusyException.class, () -> queue.await(queue.create(stockDTO(shelf, second, 1))));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static ProductDTO productDTO(String articleNumber, String name) {
+        ProductDTO dto = new ProductDTO();
+        dto.setArticleNumber(articleNumber);
+        dto.setName(name);
+        dto.setDescription("Описание товара");
+        dto.setCategory("Мебель");
+        dto.setManufacturer("Мебельный завод");
+        dto.setPurchasePrice(new BigDecimal("100.00"));
+        dto.setSellingPrice(new BigDecimal("150.00"));
+        dto.setMinStockLevel(1);
+        dto.setMaxStockLevel(100);
+        return dto;
+    }
+
+    private static WarehouseDTO warehouseDTO(String name, int capacity) {
+        WarehouseDTO dto = new WarehouseDTO();
+        dto.setName(name);
+        dto.setAddress("Складская улица, 1");
+        dto.setContactPerson("Иван Петров");
+        dto.setPhone("+79001234567");
+        dto.setEmail("sklad@example.com");
+        dto.setCapacity(capacity);
+        dto.setStatus(WarehouseStatus.ACTIVE);
+        return dto;
+    }
+
+    private static WarehouseInStockDTO stockDTO(ProductDTO product, WarehouseDTO warehouse, int quantity) {
+        WarehouseInStockDTO dto = new WarehouseInStockDTO();
+        dto.setProductId(product.getId());
+        dto.setWarehouseId(warehouse.getId());
+        dto.setCurrentQuantity(quantity);
+        dto.setReservedQuantity(0);
+        dto.setLocation("A1-01");
+        return dto;
+    }
+}
@@ -0,0 +1,184 @@
+package com.api.cargosimpleserver.Putaway;
+
+import com.api.cargosimpleserver.Coherence.RemoteEntityChangeEvent;
+import com.api.cargosimpleserver.Events.InventoryChangeEvent;
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Models.WarehouseInStock;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Предложение ячеек по индексу склада и поддержание индекса событиями изменения остатков
+ * этого и других экземпляров приложения.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PutawayEngineTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseInStockRepository warehouseInStockRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Product product;
+
+    private Product otherProduct;
+
+    private Warehouse warehouse;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(product("15000001"));
+        otherProduct = productRepository.save(product("15000002"));
+        warehouse = warehouseRepository.save(warehouse("Склад Размещение", 100));
+        warehouseInStockRepository.save(stock(product, warehouse, 60, "A1-01"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        warehouseInStockRepository.deleteAll();
+        productRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    void freeSlotIsSuggestedUntilProductIsStored() throws Exception {
+        suggest(warehouse.getId(), otherProduct.getId(), 5)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.freeCapacity").value(40))
+                .andExpect(jsonPath("$.slots[0].location").value("A1-02"))
+                .andExpect(jsonPath("$.slots[0].stockId").doesNotExist());
+
+        // Новая запись попадает в индекс по событию изменения
+        mockMvc.perform(post("/api/warehouse-stocks").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":" + otherProduct.getId() + ",\"warehouseId\":" + warehouse.getId()
+                                + ",\"currentQuantity\":5,\"reservedQuantity\":0,\"location\":\"A1-02\"}"))
+                .andExpect(status().isCreated());
+        suggest(warehouse.getId(), otherProduct.getId(), 5)
+                .andExpect(jsonPath("$.freeCapacity").value(35))
+                .andExpect(jsonPath("$.slots.length()").value(1))
+                .andExpect(jsonPath("$.slots[0].location").value("A1-02"))
+                .andExpect(jsonPath("$.slots[0].stockId").isNumber());
+        suggest(warehouse.getId(), 999999L, 5)
+                .andExpect(jsonPath("$.slots[0].location").value("A1-03"));
+    }
+
+    @Test
+    void movedStockLeavesOldWarehouseIndex() throws Exception {
+        Warehouse target = warehouseRepository.save(warehouse("Склад Приёмки", 100));
+        WarehouseInStock stock = warehouseInStockRepository.findAll().get(0);
+        suggest(warehouse.getId(), otherProduct.getId(), 5).andExpect(jsonPath("$.freeCapacity").value(40));
+        suggest(target.getId(), otherProduct.getId(), 5).andExpect(jsonPath("$.freeCapacity").value(100));
+
+        mockMvc.perform(patch("/api/warehouse-stocks/" + stock.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"warehouseId\":" + target.getId() + "}"))
+                .andExpect(status().isOk());
+
+        suggest(warehouse.getId(), product.getId(), 5)
+                .andExpect(jsonPath("$.freeCapacity").value(100))
+                .andExpect(jsonPath("$.slots[0].stockId").doesNotExist());
+        suggest(target.getId(), product.getId(), 5)
+                .andExpect(jsonPath("$.freeCapacity").value(40))
+                .andExpect(jsonPath("$.slots[0].stockId").value(stock.getId()));
+    }
+
+    @Test
+    void stockChangedByOtherInstanceRebuildsIndex() throws Exception {
+        WarehouseInStock stock = warehouseInStockRepository.findAll().get(0);
+        suggest(warehouse.getId(), otherProduct.getId(), 5).andExpect(jsonPath("$.freeCapacity").value(40));
+
+        // Изменение в обход сервисов не публикует событий, как изменение другого экземпляра
+        stock.setCurrentQuantity(90);
+        warehouseInStockRepository.save(stock);
+        suggest(warehouse.getId(), otherProduct.getId(), 5).andExpect(jsonPath("$.freeCapacity").value(40));
+
+        eventPublisher.publishEvent(new RemoteEntityChangeEvent(
+                InventoryChangeEvent.EntityType.STOCK, stock.getId(), warehouse.getId()));
+        suggest(warehouse.getId(), otherProduct.getId(), 5).andExpect(jsonPath("$.freeCapacity").value(10));
+    }
+
+    @Test
+    void suggestionIsRejectedForMissingWarehouseOrCapacity() throws Exception {
+        suggest(warehouse.getId(), otherProduct.getId(), 41)
+                .andExpect(status().isUnprocessableEntity());
+        suggest(999999L, otherProduct.getId(), 5)
+                .andExpect(status().isNotFound());
+    }
+
+    private ResultActions suggest(Long warehouseId, Long productId, int quantity) throws Exception {
+        return mockMvc.perform(get("/api/putaway/suggestions")
+                .param("warehouseId", String.valueOf(warehouseId))
+                .param("productId", String.valueOf(productId))
+                .param("quantity", String.valueOf(quantity)));
+    }
+
+    private static Product product(String articleNumber) {
+        Product product = new Product();
+        product.setArticleNumber(articleNumber);
+        product.setName("Товар " + articleNumber);
+        product.setDescription("Описание товара");
+        product.setCategory("Мебель");
+        product.setManufacturer("Мебельный завод");
+        product.setPurchasePrice(new BigDecimal("100.00"));
+        product.setSellingPrice(new BigDecimal("150.00"));
+        product.setMinStockLevel(1);
+        product.setMaxStockLevel(100);
+        return product;
+    }
+
+    private static Warehouse warehouse(String name, int capacity) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName(name);
+        warehouse.setAddress("Складская улица, 1");
+        warehouse.setContactPerson("Иван Петров");
+        warehouse.setPhone("+79001234567");
+        warehouse.setEmail("sklad@example.com");
+        warehouse.setCapacity(capacity);
+        warehouse.setStatus(WarehouseStatus.ACTIVE);
+        return warehouse;
+    }
+
+    private static WarehouseInStock stock(Product product, Warehouse warehouse, int quantity, String location) {
+        WarehouseInStock stock = new WarehouseInStock();
+        stock.setProduct(product);
+        stock.setWarehouse(warehouse);
+        stock.setCurrentQuantity(quantity);
+        stock.setReservedQuantity(0);
+        stock.setLocation(location);
+        return stock;
+    }
+}
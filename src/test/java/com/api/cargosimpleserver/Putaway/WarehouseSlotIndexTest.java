@@ -0,0 +1,52 @@
+package com.api.cargosimpleserver.Putaway;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Индекс ячеек склада: разбор кодов, свободные ячейки и учёт изменений.
+ */
+class WarehouseSlotIndexTest {
+
+    @Test
+    void freeSlotsFollowAisleOrderAndKeepCodeFormat() {
+        WarehouseSlotIndex index = new WarehouseSlotIndex(1000);
+        index.put(new StockSlot(1L, 10L, "B1-01", 5));
+        index.put(new StockSlot(2L, 11L, "A1-01", 5));
+        index.put(new StockSlot(3L, 12L, "A1-02", 5));
+        index.put(new StockSlot(4L, 13L, "A1-04", 5));
+        index.put(new StockSlot(5L, 14L, "L2-7", 5));
+
+        assertEquals(List.of("A1-03", "A1-05"), index.freeSlots(2, 100));
+        assertEquals(List.of("A1-03", "A1-05", "A1-06", "B1-02", "B1-03", "B1-04", "B1-05", "B1-06", "L2-1"),
+                index.freeSlots(9, 6));
+        assertEquals(975, index.freeCapacity());
+    }
+
+    @Test
+    void changesUpdateOccupancyAndProductPlacement() {
+        WarehouseSlotIndex index = new WarehouseSlotIndex(100);
+        index.put(new StockSlot(1L, 10L, "A1-01", 20));
+        index.put(new StockSlot(2L, 11L, "A1-01", 10));
+
+        // Перемещение одной из двух записей не освобождает ячейку
+        index.put(new StockSlot(2L, 11L, "A1-02", 15));
+        assertEquals(List.of("A1-03"), index.freeSlots(1, 10));
+        assertEquals(65, index.freeCapacity());
+
+        index.remove(1L);
+        assertEquals(List.of("A1-01"), index.freeSlots(1, 10));
+        assertNull(index.stockOf(10L));
+        assertEquals("A1-02", index.stockOf(11L).location());
+        assertEquals(85, index.freeCapacity());
+
+        // Коды без номера ячейки учитываются только во вместимости
+        index.put(new StockSlot(3L, 12L, "Рампа", 5));
+        assertEquals("Рампа", index.stockOf(12L).location());
+        assertEquals(80, index.freeCapacity());
+    }
+}
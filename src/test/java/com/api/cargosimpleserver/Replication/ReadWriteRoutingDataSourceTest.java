@@ -0,0 +1,103 @@
+package com.api.cargosimpleserver.Replication;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection replicaConnection = mock(Connection.class);
+
+    private final HikariDataSource replicaPool = mock(HikariDataSource.class);
+
+    private ReplicaNode replica;
+
+    private ReplicaCluster cluster;
+
+    private ReadWriteRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        HikariDataSource primaryPool = mock(HikariDataSource.class);
+        when(primaryPool.getConnection()).thenReturn(primaryConnection);
+        when(replicaPool.getConnection()).thenReturn(replicaConnection);
+
+        ReplicationProperties properties = new ReplicationProperties();
+        properties.setMaxLag(Duration.ofSeconds(5));
+
+        replica = new ReplicaNode("replica-1", replicaPool);
+        cluster = new ReplicaCluster(primaryPool, List.of(replica), properties);
+        dataSource = new ReadWriteRoutingDataSource(cluster);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void routesWritesToPrimary() throws SQLException {
+        replicaReportsLag(0);
+        cluster.checkReplicas();
+
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void routesReadOnlyTransactionsToAvailableReplica() throws SQLException {
+        replicaReportsLag(1);
+        cluster.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenReplicaLags() throws SQLException {
+        replicaReportsLag(30);
+        cluster.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertFalse(replica.isAvailable());
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenReplicaConnectionFails() throws SQLException {
+        replicaReportsLag(0);
+        cluster.checkReplicas();
+        assertTrue(replica.isAvailable());
+
+        when(replicaPool.getConnection()).thenThrow(new SQLException("Connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertFalse(replica.isAvailable());
+    }
+
+    private void replicaReportsLag(long seconds) throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet status = mock(ResultSet.class);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(status);
+        when(status.next()).thenReturn(true);
+        when(status.getLong("Seconds_Behind_Source")).thenReturn(seconds);
+    }
+}
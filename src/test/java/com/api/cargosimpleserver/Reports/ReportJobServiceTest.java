@@ -0,0 +1,192 @@
+package com.api.cargosimpleserver.Reports;
+
+import com.api.cargosimpleserver.DTO.ReportRequestDTO;
+import com.api.cargosimpleserver.Exceptions.ConflictException;
+import com.api.cargosimpleserver.Exceptions.NotFoundException;
+import com.api.cargosimpleserver.Exceptions.ReportQueueFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Очередь отчётов: приоритеты, отмена, прерывание по времени, ограничение очереди
+ * и размера хранимых результатов.
+ * <p>
+ * Используется один поток отчётов, чтобы порядок выполнения был определён.
+ */
+class ReportJobServiceTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    private ReportJobService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.destroy();
+    }
+
+    @Test
+    void jobsRunInPriorityOrderAndCanBeCancelled() throws Exception {
+        service = service(Duration.ofMinutes(1), 10);
+
+        String blocking = submit("blocking", null, "first");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        String low = submit("recording", ReportPriority.LOW, "low");
+        submit("recording", ReportPriority.HIGH, "high");
+        String cancelled = submit("recording", ReportPriority.HIGH, "cancelled");
+        assertThrows(ConflictException.class, () -> service.getResult(low));
+
+        assertEquals(ReportStatus.CANCELLED, service.cancel(cancelled).getStatus());
+        release.countDown();
+
+        assertEquals("low", awaitResult(low));
+        assertEquals(List.of("high", "low"), executed);
+        assertEquals("first", service.getResult(blocking));
+        assertEquals(ReportStatus.CANCELLED, service.getJob(cancelled).getStatus());
+        assertThrows(NotFoundException.class, () -> submit("unknown", null, "x"));
+    }
+
+    @Test
+    void runningJobIsInterruptedOnCancelAndTimeout() throws Exception {
+        service = service(Duration.ofMillis(200), 1);
+
+        String cancelled = submit("blocking", null, "first");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        String queued = submit("recording", null, "queued");
+        assertThrows(ReportQueueFullException.class, () -> submit("recording", null, "rejected"));
+        assertEquals(ReportStatus.CANCELLED, service.cancel(cancelled).getStatus());
+        assertEquals("queued", awaitResult(queued));
+
+        String timedOut = submit("blocking", null, "second");
+        Thread.sleep(300);
+        service.maintain();
+        assertEquals(ReportStatus.TIMED_OUT, service.getJob(timedOut).getStatus());
+        assertThrows(ConflictException.class, () -> service.getResult(timedOut));
+    }
+
+    @Test
+    void oversizedResultFailsAndOldestResultsAreEvictedBySize() throws Exception {
+        service = service(Duration.ofMinutes(1), 10);
+
+        String tooLarge = submit("sized", null, "6");
+        assertThrows(ConflictException.class, () -> awaitResult(tooLarge));
+        assertEquals(ReportStatus.FAILED, service.getJob(tooLarge).getStatus());
+
+        String oldest = submit("sized", null, "4");
+        awaitResult(oldest);
+        String newer = submit("sized", null, "4");
+        awaitResult(newer);
+        service.maintain();
+        assertEquals(ReportStatus.SUCCEEDED, service.getJob(oldest).getStatus());
+
+        String newest = submit("sized", null, "3");
+        awaitResult(newest);
+        service.maintain();
+        // 4 + 4 + 3 записей больше 8: удаляются самые старые результаты
+        assertThrows(NotFoundException.class, () -> service.getJob(oldest));
+        assertEquals(4, ((List<?>) service.getResult(newer)).size());
+        assertEquals(3, ((List<?>) service.getResult(newest)).size());
+    }
+
+    private String submit(String type, ReportPriority priority, String value) {
+        ReportRequestDTO request = new ReportRequestDTO();
+        request.setType(type);
+        request.setPriority(priority);
+        request.setParameters(Map.of("value", value));
+        return service.submit(request).getId();
+    }
+
+    private Object awaitResult(String id) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (service.getJob(id).getStatus().isFinished()) {
+                return service.getResult(id);
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Отчёт " + id + " не построен");
+    }
+
+    private ReportJobService service(Duration timeout, int maxQueued) {
+        ReportProperties properties = new ReportProperties();
+        properties.setWorkers(1);
+        properties.setTimeout(timeout);
+        properties.setMaxQueued(maxQueued);
+        properties.setMaxResultItems(5);
+        properties.setMaxRetainedItems(8);
+        return new ReportJobService(List.of(new BlockingReport(), new RecordingReport(), new SizedReport()),
+                properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Отчёт, который ждёт разрешения завершиться; при прерывании отменяется.
+     */
+    private class BlockingReport implements ReportGenerator {
+
+        @Override
+        public String type() {
+            return "blocking";
+        }
+
+        @Override
+        public Object generate(Map<String, String> parameters) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                throw new CancellationException("Прервано");
+            }
+            return parameters.get("value");
+        }
+    }
+
+    /**
+     * Отчёт, записывающий порядок выполнения.
+     */
+    private class RecordingReport implements ReportGenerator {
+
+        @Override
+        public String type() {
+            return "recording";
+        }
+
+        @Override
+        public Object generate(Map<String, String> parameters) {
+            executed.add(parameters.get("value"));
+            return parameters.get("value");
+        }
+    }
+
+    /**
+     * Отчёт из заданного числа записей.
+     */
+    private static class SizedReport implements ReportGenerator {
+
+        @Override
+        public String type() {
+            return "sized";
+        }
+
+        @Override
+        public Object generate(Map<String, String> parameters) {
+            return Collections.nCopies(Integer.parseInt(parameters.get("value")), "запись");
+        }
+    }
+}
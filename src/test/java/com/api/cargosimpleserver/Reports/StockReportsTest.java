@@ -0,0 +1,142 @@
+package com.api.cargosimpleserver.Reports;
+
+import com.api.cargosimpleserver.DTO.LowStockItemDTO;
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.Exceptions.ReportTooLargeException;
+import com.api.cargosimpleserver.Models.Product;
+import com.api.cargosimpleserver.Models.Warehouse;
+import com.api.cargosimpleserver.Models.WarehouseInStock;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Отчёты по остаткам: отбор низких остатков в базе и отказ в слишком большом результате.
+ */
+@SpringBootTest(properties = {
+        "app.reports.max-result-items=3",
+        "spring.datasource.url=jdbc:h2:mem:stock-reports;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class StockReportsTest {
+
+    @Autowired
+    private StockDumpReport stockDumpReport;
+
+    @Autowired
+    private LowStockReport lowStockReport;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseInStockRepository warehouseInStockRepository;
+
+    @AfterEach
+    void tearDown() {
+        warehouseInStockRepository.deleteAll();
+        productRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    void lowStockIsSelectedByAvailableQuantityAndWarehouse() {
+        Product chair = product("70000001");
+        chair.setMinStockLevel(5);
+        Product table = product("70000002");
+        table.setMinStockLevel(5);
+        productRepository.saveAll(List.of(chair, table));
+        Warehouse north = warehouseRepository.save(warehouse("Склад Север", 100));
+        Warehouse south = warehouseRepository.save(warehouse("Склад Юг", 100));
+
+        WarehouseInStock reserved = stock(chair, north, 6, "A1-01");
+        reserved.setReservedQuantity(2);
+        WarehouseInStock enough = stock(table, north, 5, "A1-02");
+        WarehouseInStock low = stock(chair, south, 1, "B1-01");
+        warehouseInStockRepository.saveAll(List.of(reserved, enough, low));
+
+        List<LowStockItemDTO> all = items(lowStockReport.generate(Map.of()));
+        assertEquals(List.of(reserved.getId(), low.getId()), all.stream().map(LowStockItemDTO::getStockId).toList());
+        assertEquals(4, all.get(0).getAvailableQuantity());
+        assertEquals(5, all.get(0).getMinStockLevel());
+        assertEquals("70000001", all.get(0).getArticleNumber());
+
+        List<LowStockItemDTO> ofSouth = items(lowStockReport.generate(Map.of("warehouseId", String.valueOf(south.getId()))));
+        assertEquals(List.of(low.getId()), ofSouth.stream().map(LowStockItemDTO::getStockId).toList());
+    }
+
+    @Test
+    void stockDumpLargerThanLimitIsRejected() {
+        Warehouse warehouse = warehouseRepository.save(warehouse("Склад Выгрузка", 100));
+        for (int i = 1; i <= 3; i++) {
+            Product product = productRepository.save(product("7100000" + i));
+            warehouseInStockRepository.save(stock(product, warehouse, i, "C1-0" + i));
+        }
+
+        List<WarehouseInStockDTO> dump = items(stockDumpReport.generate(Map.of()));
+        assertEquals(List.of(1, 2, 3), dump.stream().map(WarehouseInStockDTO::getCurrentQuantity).toList());
+
+        Product extra = productRepository.save(product("71000004"));
+        warehouseInStockRepository.save(stock(extra, warehouse, 4, "C1-04"));
+        assertThrows(ReportTooLargeException.class, () -> stockDumpReport.generate(Map.of()));
+        assertThrows(ReportTooLargeException.class,
+                () -> stockDumpReport.generate(Map.of("warehouseId", String.valueOf(warehouse.getId()))));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> items(Object result) {
+        return (List<T>) result;
+    }
+
+    private static Product product(String articleNumber) {
+        Product product = new Product();
+        product.setArticleNumber(articleNumber);
+        product.setName("Товар " + articleNumber);
+        product.setDescription("Описание товара");
+        product.setCategory("Мебель");
+        product.setManufacturer("Мебельный завод");
+        product.setPurchasePrice(new BigDecimal("100.00"));
+        product.setSellingPrice(new BigDecimal("150.00"));
+        product.setMinStockLevel(1);
+        product.setMaxStockLevel(100);
+        return product;
+    }
+
+    private static Warehouse warehouse(String name, int capacity) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName(name);
+        warehouse.setAddress("Складская улица, 1");
+        warehouse.setContactPerson("Иван Петров");
+        warehouse.setPhone("+79001234567");
+        warehouse.setEmail("sklad@example.com");
+        warehouse.setCapacity(capacity);
+        warehouse.setStatus(WarehouseStatus.ACTIVE);
+        return warehouse;
+    }
+
+    private static WarehouseInStock stock(Product product, Warehouse warehouse, int quantity, String location) {
+        WarehouseInStock stock = new WarehouseInStock();
+        stock.setProduct(product);
+        stock.setWarehouse(warehouse);
+        stock.setCurrentQuantity(quantity);
+        stock.setReservedQuantity(0);
+        stock.setLocation(location);
+        return stock;
+    }
+}
@@ -0,0 +1,42 @@
+package com.api.cargosimpleserver.Security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstUpToCapacityThenRejects() {
+        TokenBucket bucket = new TokenBucket(5, 1, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+        long wait = bucket.tryAcquire(0);
+        assertTrue(wait > 0 && wait <= SECOND);
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(2, 10, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+        assertTrue(bucket.tryAcquire(0) > 0);
+
+        assertEquals(0, bucket.tryAcquire(SECOND / 10));
+        assertTrue(bucket.tryAcquire(SECOND / 10) > 0);
+    }
+
+    @Test
+    void becomesIdleOnlyWhenFullyRefilled() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+        bucket.tryAcquire(0);
+
+        assertTrue(!bucket.isIdle(0, SECOND));
+        assertTrue(bucket.isIdle(2 * SECOND, SECOND));
+    }
+}
@@ -0,0 +1,170 @@
+package com.api.cargosimpleserver.Services;
+
+import com.api.cargosimpleserver.DTO.ProductDTO;
+import com.api.cargosimpleserver.DTO.WarehouseDTO;
+import com.api.cargosimpleserver.Exceptions.NotFoundException;
+import com.api.cargosimpleserver.Exceptions.ProductNotFoundException;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Monitoring.SqlStatementCounter;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Второй уровень кэша Hibernate и кэш запросов проверки существования.
+ * <p>
+ * Повторное чтение обслуживается кэшем без SQL-запросов, а запись через сервисы
+ * делает устаревшие записи кэша недоступными.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EntityCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private WarehouseService warehouseService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // Пересоздание схемы другим тестовым контекстом возвращает идентификаторы к началу:
+        // оставшиеся в кэше блокировки удалённых строк с той же версией
+        // не дали бы закэшировать новые строки
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    void productReadsAreServedFromCacheAndRefreshedByUpdate() {
+        ProductDTO created = productService.createProduct(productDTO(null, "40000001", "Стол"));
+
+        productService.getProductById(created.getId());
+        assertEquals(0, sqlCount(() -> productService.getProductById(created.getId())));
+        assertTrue(statistics.getDomainDataRegionStatistics("products").getHitCount() > 0);
+
+        productService.updateProduct(created.getId(), productDTO(created.getId(), "40000002", "Стул"));
+
+        ProductDTO reloaded = productService.getProductById(created.getId());
+        assertEquals("Стул", reloaded.getName());
+        assertEquals("40000002", reloaded.getArticleNumber());
+    }
+
+    @Test
+    void naturalIdLookupFollowsArticleNumberChange() {
+        ProductDTO created = productService.createProduct(productDTO(null, "40000011", "Стол"));
+
+        productService.getProductByArticleNumber("40000011");
+        assertEquals(0, sqlCount(() -> productService.getProductByArticleNumber("40000011")));
+
+        productService.updateProduct(created.getId(), productDTO(created.getId(), "40000012", "Стол"));
+
+        assertEquals(created.getId(), productService.getProductByArticleNumber("40000012").getId());
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductByArticleNumber("40000011"));
+    }
+
+    @Test
+    void articleExistenceCheckIsInvalidatedByProductWrites() {
+        assertFalse(productRepository.existsByArticleNumber("40000021"));
+        assertEquals(0, sqlCount(() -> productRepository.existsByArticleNumber("40000021")));
+
+        ProductDTO created = productService.createProduct(productDTO(null, "40000021", "Стол"));
+        assertTrue(productRepository.existsByArticleNumber("40000021"));
+
+        productService.deleteProduct(created.getId());
+        assertFalse(productRepository.existsByArticleNumber("40000021"));
+    }
+
+    @Test
+    void warehouseCacheIsInvalidatedByWarehouseWrites() {
+        WarehouseDTO created = warehouseService.createWarehouse(warehouseDTO(null, "Склад Кэш"));
+
+        warehouseService.getWarehouseById(created.getId());
+        assertEquals(0, sqlCount(() -> warehouseService.getWarehouseById(created.getId())));
+        assertTrue(warehouseRepository.existsByName("Склад Кэш"));
+
+        WarehouseDTO changed = warehouseDTO(created.getId(), "Склад Кэш-2");
+        changed.setCapacity(500);
+        warehouseService.updateWarehouse(changed);
+
+        WarehouseDTO reloaded = warehouseService.getWarehouseById(created.getId());
+        assertEquals(500, reloaded.getCapacity());
+        assertFalse(warehouseRepository.existsByName("Склад Кэш"));
+        assertTrue(warehouseRepository.existsByName("Склад Кэш-2"));
+
+        warehouseService.deleteWarehouse(created.getId());
+        assertThrows(NotFoundException.class, () -> warehouseService.getWarehouseById(created.getId()));
+    }
+
+    private static int sqlCount(Supplier<?> action) {
+        SqlStatementCounter.start();
+        try {
+            action.get();
+            return SqlStatementCounter.current().getTotalCount();
+        } finally {
+            SqlStatementCounter.stop();
+        }
+    }
+
+    private static ProductDTO productDTO(Long id, String articleNumber, String name) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        dto.setArticleNumber(articleNumber);
+        dto.setName(name);
+        dto.setDescription("Описание товара");
+        dto.setCategory("Мебель");
+        dto.setManufacturer("Мебельный завод");
+        dto.setPurchasePrice(new BigDecimal("100.00"));
+        dto.setSellingPrice(new BigDecimal("150.00"));
+        dto.setMinStockLevel(1);
+        dto.setMaxStockLevel(100);
+        return dto;
+    }
+
+    private static WarehouseDTO warehouseDTO(Long id, String name) {
+        WarehouseDTO dto = new WarehouseDTO();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setAddress("Складская улица, 1");
+        dto.setContactPerson("Иван Петров");
+        dto.setPhone("+79001234567");
+        dto.setEmail("sklad@example.com");
+        dto.setCapacity(1000);
+        dto.setStatus(WarehouseStatus.ACTIVE);
+        return dto;
+    }
+}
@@ -0,0 +1,76 @@
+package com.api.cargosimpleserver.Sharding;
+
+import com.api.cargosimpleserver.Exceptions.OperationTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Запрос ко всем сегментам: порядок результатов, поток сегмента 0 и отказ по времени ожидания.
+ */
+class ShardExecutorTest {
+
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+
+    private ShardExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void resultsFollowShardOrder() {
+        executor = executor(Duration.ofSeconds(5));
+
+        assertEquals(List.of(0, 10), executor.scatter(shard -> shard * 10));
+    }
+
+    @Test
+    void primaryShardIsQueriedInCallingThread() {
+        executor = executor(Duration.ofSeconds(5));
+
+        List<String> threads = executor.scatter(shard -> Thread.currentThread().getName());
+        assertEquals(Thread.currentThread().getName(), threads.get(0));
+        assertTrue(threads.get(1).startsWith("shard-scatter-"), threads.get(1));
+    }
+
+    @Test
+    void slowShardFailsWithGatewayTimeoutAndIsCancelled() throws InterruptedException {
+        executor = executor(Duration.ofMillis(100));
+
+        OperationTimeoutException ex = assertThrows(OperationTimeoutException.class,
+                () -> executor.scatter(shard -> shard == 1 ? sleep() : shard));
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, ex.getStatus());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    private Integer sleep() {
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException ex) {
+            interrupted.countDown();
+        }
+        return null;
+    }
+
+    private static ShardExecutor executor(Duration scatterTimeout) {
+        ShardRouter router = mock(ShardRouter.class);
+        when(router.shardCount()).thenReturn(2);
+        ShardingProperties properties = new ShardingProperties();
+        properties.setScatterTimeout(scatterTimeout);
+        return new ShardExecutor(router, mock(PlatformTransactionManager.class), properties);
+    }
+}
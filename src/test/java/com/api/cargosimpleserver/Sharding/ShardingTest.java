@@ -0,0 +1,184 @@
+package com.api.cargosimpleserver.Sharding;
+
+import com.api.cargosimpleserver.CargoSimpleServerApplication;
+import com.api.cargosimpleserver.DTO.BatchItemDTO;
+import com.api.cargosimpleserver.DTO.ProductDTO;
+import com.api.cargosimpleserver.DTO.WarehouseDTO;
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Putaway.PutawayEngine;
+import com.api.cargosimpleserver.Services.ProductService;
+import com.api.cargosimpleserver.Services.WarehouseInStockService;
+import com.api.cargosimpleserver.Services.WarehouseService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Размещение остатков на двух сегментах (отдельных встроенных базах).
+ * <p>
+ * Приложение запускается с сегментированием; строки проверяются напрямую в базах сегментов.
+ * Идентификаторы складов и остатков выдаются так же, как в рабочей конфигурации.
+ */
+class ShardingTest {
+
+    private static final String SHARD_0_URL =
+            "jdbc:h2:mem:shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String SHARD_1_URL =
+            "jdbc:h2:mem:shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static ConfigurableApplicationContext context;
+
+    @BeforeAll
+    static void start() {
+        // Аргументы командной строки, а не свойства по умолчанию: те уступают application.properties
+        context = new SpringApplicationBuilder(CargoSimpleServerApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=" + SHARD_0_URL,
+                        "--server.port=0",
+                        "--app.sharding.enabled=true",
+                        "--app.sharding.shards[0].url=" + SHARD_1_URL);
+    }
+
+    @AfterAll
+    static void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void stocksLiveOnTheirWarehouseShardAndAreGatheredAcrossShards() {
+        ProductService productService = context.getBean(ProductService.class);
+        WarehouseService warehouseService = context.getBean(WarehouseService.class);
+        WarehouseInStockService stockService = context.getBean(WarehouseInStockService.class);
+        ShardRouter router = context.getBean(ShardRouter.class);
+
+        ProductDTO product = productService.createProduct(productDTO(null, "60000001", "Стол"));
+        // Склады нумеруются подряд на основной базе и распределяются по обоим сегментам
+        List<WarehouseDTO> warehouses = IntStream.rangeClosed(1, 4)
+                .mapToObj(i -> warehouseService.createWarehouse(warehouseDTO("Склад Сегмент-" + i)))
+                .toList();
+        assertEquals(Set.of(0, 1), warehouses.stream()
+                .map(warehouse -> router.shardOfWarehouse(warehouse.getId())).collect(Collectors.toSet()));
+        WarehouseDTO first = warehouses.get(0);
+        WarehouseDTO second = warehouses.get(1);
+        WarehouseDTO third = warehouses.get(2);
+        int firstShard = router.shardOfWarehouse(first.getId());
+        int secondShard = router.shardOfWarehouse(second.getId());
+        assertNotEquals(firstShard, secondShard);
+        assertEquals(firstShard, router.shardOfWarehouse(third.getId()));
+
+        // Справочники есть на обоих сегментах
+        for (int shard = 0; shard < 2; shard++) {
+            assertEquals(1, count(shard, "products", product.getId()));
+            assertEquals(1, count(shard, "warehouses", first.getId()));
+            assertEquals(1, count(shard, "warehouses", second.getId()));
+        }
+
+        WarehouseInStockDTO inFirst = stockService.createWarehouseStock(stockDTO(product, first, "A1-01"));
+        WarehouseInStockDTO inSecond = stockService.createWarehouseStock(stockDTO(product, second, "A1-01"));
+        assertEquals(1, count(firstShard, "warehouse_stocks", inFirst.getId()));
+        assertEquals(0, count(secondShard, "warehouse_stocks", inFirst.getId()));
+        assertEquals(1, count(secondShard, "warehouse_stocks", inSecond.getId()));
+        assertEquals(firstShard, router.shardOfStock(inFirst.getId()));
+        assertEquals(secondShard, router.shardOfStock(inSecond.getId()));
+
+        // Счётчик сегмента продолжает выдавать идентификаторы своего сегмента
+        WarehouseInStockDTO inThird = stockService.createWarehouseStock(stockDTO(product, third, "A1-01"));
+        assertEquals(1, count(firstShard, "warehouse_stocks", inThird.getId()));
+        assertEquals(firstShard, router.shardOfStock(inThird.getId()));
+        assertEquals(3, Set.of(inFirst.getId(), inSecond.getId(), inThird.getId()).size());
+
+        // Выборки по товару и пакетом собираются со всех сегментов
+        assertEquals(Set.of(inFirst.getId(), inSecond.getId(), inThird.getId()),
+                stockService.getStocksByProduct(product.getId())
+                        .stream().map(WarehouseInStockDTO::getId).collect(Collectors.toSet()));
+        assertEquals(3, stockService.getAllWarehouseStocks().size());
+        List<BatchItemDTO<WarehouseInStockDTO>> batch = stockService.getWarehouseStocksByIds(
+                List.of(inSecond.getId(), inFirst.getId(), 999L));
+        assertEquals(List.of(true, true, false), batch.stream().map(BatchItemDTO::isFound).toList());
+        assertTrue(stockService.existsByProductId(product.getId()));
+
+        // Операции по идентификатору записи и склада выполняются на его сегменте
+        assertEquals(15, stockService.adjustWarehouseStockQuantity(inFirst.getId(), 5).getCurrentQuantity());
+        assertEquals(15, stockService.getWarehouseStockById(inFirst.getId()).getCurrentQuantity());
+        assertEquals(List.of(inFirst.getId()), stockService.getStocksByWarehouse(first.getId(), null, null, null, 10)
+                .getItems().stream().map(WarehouseInStockDTO::getId).toList());
+        assertTrue(warehouseService.hasProducts(first.getId()));
+        assertEquals(inFirst.getId(), context.getBean(PutawayEngine.class)
+                .suggest(first.getId(), product.getId(), 1, 5).getSlots().get(0).getStockId());
+
+        // Изменение справочника копируется на сегменты
+        productService.updateProduct(product.getId(), productDTO(product.getId(), "60000001", "Стул"));
+        for (int shard = 0; shard < 2; shard++) {
+            assertEquals("Стул", shard(shard).queryForObject(
+                    "SELECT name FROM products WHERE id = ?", String.class, product.getId()));
+        }
+
+        stockService.deleteWarehouseStock(inFirst.getId());
+        stockService.deleteWarehouseStock(inSecond.getId());
+        stockService.deleteWarehouseStock(inThird.getId());
+        assertFalse(stockService.existsByProductId(product.getId()));
+    }
+
+    private static JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(context.getBean(ShardCluster.class).getShard(shard));
+    }
+
+    private static int count(int shard, String table, Long id) {
+        return shard(shard).queryForObject("SELECT COUNT(*) FROM " + table + " WHERE id = ?", Integer.class, id);
+    }
+
+    private static ProductDTO productDTO(Long id, String articleNumber, String name) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        dto.setArticleNumber(articleNumber);
+        dto.setName(name);
+        dto.setDescription("Описание товара");
+        dto.setCategory("Мебель");
+        dto.setManufacturer("Мебельный завод");
+        dto.setPurchasePrice(new BigDecimal("100.00"));
+        dto.setSellingPrice(new BigDecimal("150.00"));
+        dto.setMinStockLevel(1);
+        dto.setMaxStockLevel(100);
+        return dto;
+    }
+
+    private static WarehouseDTO warehouseDTO(String name) {
+        WarehouseDTO dto = new WarehouseDTO();
+        dto.setName(name);
+        dto.setAddress("Складская улица, 1");
+        dto.setContactPerson("Иван Петров");
+        dto.setPhone("+79001234567");
+        dto.setEmail("sklad@example.com");
+        dto.setCapacity(1000);
+        dto.setStatus(WarehouseStatus.ACTIVE);
+        return dto;
+    }
+
+    private static WarehouseInStockDTO stockDTO(ProductDTO product, WarehouseDTO warehouse, String location) {
+        WarehouseInStockDTO dto = new WarehouseInStockDTO();
+        dto.setProductId(product.getId());
+        dto.setWarehouseId(warehouse.getId());
+        dto.setCurrentQuantity(10);
+        dto.setReservedQuantity(0);
+        dto.setLocation(location);
+        return dto;
+    }
+}
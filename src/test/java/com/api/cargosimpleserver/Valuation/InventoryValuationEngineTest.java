@@ -0,0 +1,223 @@
+package com.api.cargosimpleserver.Valuation;
+
+import com.api.cargosimpleserver.DTO.InventoryValuationDTO;
+import com.api.cargosimpleserver.DTO.ProductDTO;
+import com.api.cargosimpleserver.DTO.WarehouseDTO;
+import com.api.cargosimpleserver.DTO.WarehouseInStockDTO;
+import com.api.cargosimpleserver.Models.WarehouseInStock;
+import com.api.cargosimpleserver.Models.WarehouseStatus;
+import com.api.cargosimpleserver.Repositories.ProductRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseInStockRepository;
+import com.api.cargosimpleserver.Repositories.WarehouseRepository;
+import com.api.cargosimpleserver.Services.ProductService;
+import com.api.cargosimpleserver.Services.WarehouseInStockService;
+import com.api.cargosimpleserver.Services.WarehouseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сверка оценки запасов в копейках с точным расчётом в BigDecimal
+ * после случайной серии изменений остатков и цен, а также после полного пересчёта.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryValuationEngineTest {
+
+    private static final String[] CATEGORIES = {"Столы", "Стулья", "Шкафы"};
+
+    private static final String[] MANUFACTURERS = {"Мебельный завод", "Фабрика Уют"};
+
+    @Autowired
+    private InventoryValuationEngine valuationEngine;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private WarehouseService warehouseService;
+
+    @Autowired
+    private WarehouseInStockService warehouseInStockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseInStockRepository warehouseInStockRepository;
+
+    private final Random random = new Random(7);
+
+    @BeforeEach
+    void setUp() {
+        tearDown();
+        valuationEngine.recompute();
+    }
+
+    @AfterEach
+    void tearDown() {
+        warehouseInStockRepository.deleteAll();
+        productRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    void incrementalAndRecomputedValuationMatchBigDecimalReference() {
+        List<Long> warehouseIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            warehouseIds.add(warehouseService.createWarehouse(warehouse("Склад оценки " + i)).getId());
+        }
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            productIds.add(productService.createProduct(product(String.format("5000%04d", i))).getId());
+        }
+        Set<String> pairs = new HashSet<>();
+        List<Long> stockIds = new ArrayList<>();
+        for (int i = 0; i < 14; i++) {
+            createStock(productIds, warehouseIds, pairs, stockIds);
+        }
+
+        for (int step = 0; step < 60; step++) {
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    WarehouseInStockDTO stock = warehouseInStockService.getWarehouseStockById(
+                            stockIds.get(random.nextInt(stockIds.size())));
+                    stock.setCurrentQuantity(random.nextInt(1000));
+                    stock.setReservedQuantity(0);
+                    warehouseInStockService.updateWarehouseStock(stock);
+                }
+                case 1 -> {
+                    ProductDTO product = productService.getProductById(productIds.get(random.nextInt(productIds.size())));
+                    product.setPurchasePrice(price());
+                    product.setSellingPrice(price());
+                    product.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                    product.setManufacturer(MANUFACTURERS[random.nextInt(MANUFACTURERS.length)]);
+                    productService.updateProduct(product.getId(), product);
+                }
+                case 2 -> {
+                    if (stockIds.size() > 1) {
+                        Long id = stockIds.remove(random.nextInt(stockIds.size()));
+                        WarehouseInStockDTO stock = warehouseInStockService.getWarehouseStockById(id);
+                        warehouseInStockService.deleteWarehouseStock(id);
+                        pairs.remove(stock.getProductId() + ":" + stock.getWarehouseId());
+                    }
+                }
+                default -> createStock(productIds, warehouseIds, pairs, stockIds);
+            }
+        }
+
+        assertMatchesReference();
+        valuationEngine.recompute();
+        assertMatchesReference();
+    }
+
+    private void assertMatchesReference() {
+        List<WarehouseInStock> stocks = warehouseInStockRepository.findAll();
+        assertGroup(ValuationGroup.WAREHOUSE, stocks, stock -> String.valueOf(stock.getWarehouse().getId()));
+        assertGroup(ValuationGroup.CATEGORY, stocks, stock -> stock.getProduct().getCategory());
+        assertGroup(ValuationGroup.MANUFACTURER, stocks, stock -> stock.getProduct().getManufacturer());
+    }
+
+    private void assertGroup(ValuationGroup group, List<WarehouseInStock> stocks, Function<WarehouseInStock, String> key) {
+        Map<String, String> expected = new TreeMap<>();
+        Map<String, Object[]> sums = new TreeMap<>();
+        long totalQuantity = 0;
+        BigDecimal totalPurchase = BigDecimal.ZERO;
+        BigDecimal totalSelling = BigDecimal.ZERO;
+        for (WarehouseInStock stock : stocks) {
+            BigDecimal quantity = BigDecimal.valueOf(stock.getCurrentQuantity());
+            BigDecimal purchase = stock.getProduct().getPurchasePrice().multiply(quantity);
+            BigDecimal selling = stock.getProduct().getSellingPrice().multiply(quantity);
+            Object[] sum = sums.computeIfAbsent(key.apply(stock), k -> new Object[]{0L, BigDecimal.ZERO, BigDecimal.ZERO});
+            sum[0] = (Long) sum[0] + stock.getCurrentQuantity();
+            sum[1] = ((BigDecimal) sum[1]).add(purchase);
+            sum[2] = ((BigDecimal) sum[2]).add(selling);
+            totalQuantity += stock.getCurrentQuantity();
+            totalPurchase = totalPurchase.add(purchase);
+            totalSelling = totalSelling.add(selling);
+        }
+        sums.forEach((k, sum) -> {
+            if ((Long) sum[0] != 0) {
+                expected.put(k, describe((Long) sum[0], (BigDecimal) sum[1], (BigDecimal) sum[2]));
+            }
+        });
+
+        InventoryValuationDTO valuation = valuationEngine.valuation(group);
+        Map<String, String> actual = new TreeMap<>();
+        for (InventoryValuationDTO.Line line : valuation.getLines()) {
+            actual.put(line.getKey(), describe(line.getQuantity(), line.getPurchaseValue(), line.getSellingValue()));
+        }
+        assertEquals(expected, actual, "Итоги по группе " + group);
+        InventoryValuationDTO.Line total = valuation.getTotal();
+        assertEquals(describe(totalQuantity, totalPurchase, totalSelling),
+                describe(total.getQuantity(), total.getPurchaseValue(), total.getSellingValue()));
+    }
+
+    private static String describe(long quantity, BigDecimal purchase, BigDecimal selling) {
+        return quantity + " / " + purchase.setScale(MinorUnits.SCALE).toPlainString()
+                + " / " + selling.setScale(MinorUnits.SCALE).toPlainString();
+    }
+
+    private void createStock(List<Long> productIds, List<Long> warehouseIds, Set<String> pairs, List<Long> stockIds) {
+        Long productId = productIds.get(random.nextInt(productIds.size()));
+        Long warehouseId = warehouseIds.get(random.nextInt(warehouseIds.size()));
+        if (!pairs.add(productId + ":" + warehouseId)) {
+            return;
+        }
+        WarehouseInStockDTO stock = new WarehouseInStockDTO();
+        stock.setProductId(productId);
+        stock.setWarehouseId(warehouseId);
+        stock.setCurrentQuantity(random.nextInt(1000));
+        stock.setReservedQuantity(0);
+        stock.setLocation("V1-" + stockIds.size());
+        stockIds.add(warehouseInStockService.createWarehouseStock(stock).getId());
+    }
+
+    private BigDecimal price() {
+        return BigDecimal.valueOf(1 + random.nextInt(10_000_000), 2);
+    }
+
+    private ProductDTO product(String articleNumber) {
+        ProductDTO dto = new ProductDTO();
+        dto.setArticleNumber(articleNumber);
+        dto.setName("Товар " + articleNumber);
+        dto.setDescription("Описание товара");
+        dto.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        dto.setManufacturer(MANUFACTURERS[random.nextInt(MANUFACTURERS.length)]);
+        dto.setPurchasePrice(price());
+        dto.setSellingPrice(price());
+        dto.setMinStockLevel(1);
+        dto.setMaxStockLevel(1000);
+        return dto;
+    }
+
+    private static WarehouseDTO warehouse(String name) {
+        WarehouseDTO dto = new WarehouseDTO();
+        dto.setName(name);
+        dto.setAddress("Складская улица, 1");
+        dto.setContactPerson("Иван Петров");
+        dto.setPhone("+79001234567");
+        dto.setEmail("sklad@example.com");
+        dto.setCapacity(100000);
+        dto.setStatus(WarehouseStatus.ACTIVE);
+        return dto;
+    }
+}